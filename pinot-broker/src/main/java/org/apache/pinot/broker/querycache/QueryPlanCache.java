@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.querycache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlOperator;
+import org.apache.calcite.sql.util.SqlBasicVisitor;
+import org.apache.calcite.util.Util;
+import org.apache.pinot.common.utils.request.RequestUtils;
+import org.apache.pinot.query.planner.SubPlan;
+
+
+/**
+ * The {@code QueryPlanCache} caches the logical plans (see
+ * {@link org.apache.pinot.query.QueryEnvironment#planLogicalQuery}) of the multi-stage queries, keyed on the database,
+ * the normalized query and the query options. Cached plans are bound to the current routing for each request, so only
+ * the parse, validate, optimize and fragment steps are skipped on a cache hit.
+ *
+ * <p>The cache maintains a version which should be bumped (see {@link #onConfigChange()}) on any schema or table config
+ * change. Each cached plan records the version when the planning started, and is invalidated on lookup once the version
+ * changes.
+ *
+ * <p>The cache is bounded by the number of plans, and evicts the least recently used plans first.
+ *
+ * <p>Queries referencing non-deterministic functions (e.g. {@code now()}, {@code ago()}) must not be cached (see
+ * {@link #isCacheable(SqlNode)}) because these functions are evaluated and folded into constants during planning.
+ */
+@ThreadSafe
+public class QueryPlanCache {
+  // Canonicalized names of the non-deterministic functions, which are parsed into unresolved (deterministic) operators
+  private static final Set<String> NON_DETERMINISTIC_FUNCTIONS = Set.of("now", "ago", "agomv", "rand", "randinteger");
+
+  private final Cache<Key, Entry> _cache;
+  private final AtomicLong _version = new AtomicLong();
+
+  public QueryPlanCache(long maxSize) {
+    _cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+  }
+
+  /**
+   * Returns the current version, which should be read before planning the query.
+   */
+  public long getVersion() {
+    return _version.get();
+  }
+
+  /**
+   * Invalidates all the cached plans. Should be invoked on any schema or table config change.
+   */
+  public void onConfigChange() {
+    _version.incrementAndGet();
+  }
+
+  /**
+   * Returns the cached plan for the given key if it is still valid under the current version, or {@code null}
+   * otherwise.
+   */
+  @Nullable
+  public SubPlan get(Key key) {
+    Entry entry = _cache.getIfPresent(key);
+    if (entry == null) {
+      return null;
+    }
+    if (entry._version != _version.get()) {
+      // Only remove the entry if it is not replaced concurrently
+      _cache.asMap().remove(key, entry);
+      return null;
+    }
+    return entry._subPlan;
+  }
+
+  /**
+   * Caches the plan computed under the given version.
+   */
+  public void put(Key key, long version, SubPlan subPlan) {
+    if (version == _version.get()) {
+      _cache.put(key, new Entry(subPlan, version));
+    }
+  }
+
+  /**
+   * Returns whether the plan of the given query can be cached, i.e. the query does not reference any non-deterministic
+   * function whose result would be folded into the plan.
+   */
+  public static boolean isCacheable(SqlNode sqlNode) {
+    try {
+      sqlNode.accept(NonDeterministicFunctionFinder.INSTANCE);
+      return true;
+    } catch (Util.FoundOne e) {
+      return false;
+    }
+  }
+
+  @VisibleForTesting
+  long size() {
+    return _cache.size();
+  }
+
+  /**
+   * Cache key on the database, the normalized query (unparsed from the parsed query so that formatting and comments do
+   * not matter) and the query options. The query options are copied because they can be modified after planning.
+   */
+  public static final class Key {
+    private final String _database;
+    private final String _query;
+    private final Map<String, String> _queryOptions;
+    private final int _hashCode;
+
+    public Key(String database, String query, Map<String, String> queryOptions) {
+      _database = database;
+      _query = query;
+      _queryOptions = new HashMap<>(queryOptions);
+      _hashCode = Objects.hash(_database, _query, _queryOptions);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return _database.equals(key._database) && _query.equals(key._query) && _queryOptions.equals(key._queryOptions);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+
+  private static final class NonDeterministicFunctionFinder extends SqlBasicVisitor<Void> {
+    static final NonDeterministicFunctionFinder INSTANCE = new NonDeterministicFunctionFinder();
+
+    @Override
+    public Void visit(SqlCall call) {
+      SqlOperator operator = call.getOperator();
+      if (operator.isDynamicFunction() || !operator.isDeterministic() || NON_DETERMINISTIC_FUNCTIONS.contains(
+          RequestUtils.canonicalizeFunctionName(operator.getName()))) {
+        throw new Util.FoundOne(call);
+      }
+      return super.visit(call);
+    }
+  }
+
+  private static final class Entry {
+    final SubPlan _subPlan;
+    final long _version;
+
+    Entry(SubPlan subPlan, long version) {
+      _subPlan = subPlan;
+      _version = version;
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.querycache;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * The {@code QueryResultCache} caches the broker responses of the single-stage queries, keyed on the server queries
+ * (after all the broker side rewrites) sent to the OFFLINE and REALTIME tables.
+ *
+ * <p>Each cached response records the routing versions (see
+ * {@link org.apache.pinot.broker.routing.BrokerRoutingManager#getRoutingVersion(String)}) of the queried tables when
+ * the query was routed, and is invalidated on lookup once the routing of any of the tables changes. Responses that
+ * involve a REALTIME table are also invalidated once they are older than the configured staleness, because consuming
+ * segments keep changing without routing change.
+ *
+ * <p>The cache is bounded by the total size of the serialized responses, and evicts the least recently used entries
+ * first. Responses are stored serialized so that each cache hit returns a new copy that can be modified freely.
+ */
+@ThreadSafe
+public class QueryResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueryResultCache.class);
+
+  private final Cache<Key, Entry> _cache;
+  private final long _realtimeStalenessMs;
+
+  public QueryResultCache(long maxSizeBytes, long realtimeStalenessMs) {
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeBytes)
+        .weigher((Key key, Entry entry) -> entry._responseJson.length()).build();
+    _realtimeStalenessMs = realtimeStalenessMs;
+  }
+
+  /**
+   * Returns the cached response for the given key if it is still valid under the current routing versions, or
+   * {@code null} otherwise.
+   */
+  @Nullable
+  public BrokerResponseNative get(Key key, @Nullable Long offlineRoutingVersion,
+      @Nullable Long realtimeRoutingVersion) {
+    Entry entry = _cache.getIfPresent(key);
+    if (entry == null) {
+      return null;
+    }
+    if (!Objects.equals(entry._offlineRoutingVersion, offlineRoutingVersion) || !Objects.equals(
+        entry._realtimeRoutingVersion, realtimeRoutingVersion) || (key._realtimePinotQuery != null
+        && System.currentTimeMillis() - entry._creationTimeMs > _realtimeStalenessMs)) {
+      // Only remove the entry if it is not replaced concurrently
+      _cache.asMap().remove(key, entry);
+      return null;
+    }
+    try {
+      return BrokerResponseNative.fromJsonString(entry._responseJson);
+    } catch (IOException e) {
+      LOGGER.warn("Caught exception while deserializing cached response, invalidating it", e);
+      _cache.asMap().remove(key, entry);
+      return null;
+    }
+  }
+
+  /**
+   * Caches the response computed with the given routing versions. The routing versions should be read before routing
+   * the query so that any routing change happening during the query execution invalidates the response.
+   */
+  public void put(Key key, @Nullable Long offlineRoutingVersion, @Nullable Long realtimeRoutingVersion,
+      BrokerResponseNative brokerResponse) {
+    String responseJson;
+    try {
+      responseJson = brokerResponse.toJsonString();
+    } catch (IOException e) {
+      LOGGER.warn("Caught exception while serializing response, skipping caching it", e);
+      return;
+    }
+    _cache.put(key, new Entry(responseJson, offlineRoutingVersion, realtimeRoutingVersion));
+  }
+
+  @VisibleForTesting
+  long size() {
+    return _cache.size();
+  }
+
+  /**
+   * Cache key on the server queries for the OFFLINE and REALTIME tables, where at least one of them is not
+   * {@code null}. The queries are copied because they can be modified after routing (e.g. timeout option).
+   */
+  public static final class Key {
+    private final PinotQuery _offlinePinotQuery;
+    private final PinotQuery _realtimePinotQuery;
+    private final int _hashCode;
+
+    public Key(@Nullable PinotQuery offlinePinotQuery, @Nullable PinotQuery realtimePinotQuery) {
+      _offlinePinotQuery = offlinePinotQuery != null ? offlinePinotQuery.deepCopy() : null;
+      _realtimePinotQuery = realtimePinotQuery != null ? realtimePinotQuery.deepCopy() : null;
+      _hashCode = Objects.hash(_offlinePinotQuery, _realtimePinotQuery);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return Objects.equals(_offlinePinotQuery, key._offlinePinotQuery) && Objects.equals(_realtimePinotQuery,
+          key._realtimePinotQuery);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+
+  private static final class Entry {
+    final String _responseJson;
+    final Long _offlineRoutingVersion;
+    final Long _realtimeRoutingVersion;
+    final long _creationTimeMs;
+
+    Entry(String responseJson, @Nullable Long offlineRoutingVersion, @Nullable Long realtimeRoutingVersion) {
+      _responseJson = responseJson;
+      _offlineRoutingVersion = offlineRoutingVersion;
+      _realtimeRoutingVersion = realtimeRoutingVersion;
+      _creationTimeMs = System.currentTimeMillis();
+    }
+  }
+}
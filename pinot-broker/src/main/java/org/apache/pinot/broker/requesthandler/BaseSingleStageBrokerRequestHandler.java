@@ -49,6 +49,7 @@ import org.apache.http.util.EntityUtils;
 import org.apache.pinot.broker.api.AccessControl;
 import org.apache.pinot.broker.api.RequesterIdentity;
 import org.apache.pinot.broker.broker.AccessControlFactory;
+import org.apache.pinot.broker.querycache.QueryResultCache;
 import org.apache.pinot.broker.querylog.QueryLogger;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
 import org.apache.pinot.broker.routing.BrokerRoutingManager;
@@ -137,6 +138,7 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
   protected final boolean _enableDistinctCountBitmapOverride;
   protected final int _queryResponseLimit;
   protected final Map<Long, QueryServers> _queriesById;
+  protected final QueryResultCache _queryResultCache;
 
   public BaseSingleStageBrokerRequestHandler(PinotConfiguration config, String brokerId,
       BrokerRoutingManager routingManager, AccessControlFactory accessControlFactory,
@@ -154,6 +156,13 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
     boolean enableQueryCancellation =
         Boolean.parseBoolean(config.getProperty(Broker.CONFIG_OF_BROKER_ENABLE_QUERY_CANCELLATION));
     _queriesById = enableQueryCancellation ? new ConcurrentHashMap<>() : null;
+    long resultCacheMaxSizeBytes = DataSizeUtils.toBytes(
+        config.getProperty(Broker.CONFIG_OF_BROKER_RESULT_CACHE_MAX_SIZE_BYTES,
+            Broker.DEFAULT_BROKER_RESULT_CACHE_MAX_SIZE_BYTES));
+    long resultCacheRealtimeStalenessMs = config.getProperty(Broker.CONFIG_OF_BROKER_RESULT_CACHE_REALTIME_STALENESS_MS,
+        Broker.DEFAULT_BROKER_RESULT_CACHE_REALTIME_STALENESS_MS);
+    _queryResultCache = resultCacheMaxSizeBytes > 0 ? new QueryResultCache(resultCacheMaxSizeBytes,
+        resultCacheRealtimeStalenessMs) : null;
     LOGGER.info("Initialized {} with broker id: {}, timeout: {}ms, query response limit: {}, query log max length: {}, "
             + "query log max rate: {}, query cancellation enabled: {}", getClass().getSimpleName(), _brokerId,
         _brokerTimeoutMs, _queryResponseLimit, _queryLogger.getMaxQueryLengthToLog(), _queryLogger.getLogRateLimit(),
@@ -548,6 +557,43 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
         realtimeBrokerRequest.getPinotQuery().setFilterExpression(null);
       }
 
+      // Look up the result cache
+      // NOTE: Routing versions should be read before calculating the routing table so that the cached response is
+      //       invalidated by any routing change happening during the query execution.
+      QueryResultCache.Key resultCacheKey = null;
+      Long offlineRoutingVersion = null;
+      Long realtimeRoutingVersion = null;
+      if (_queryResultCache != null && handlerContext._resultCacheEnabled && !pinotQuery.isExplain()
+          && QueryOptionsUtils.isUseResultCache(pinotQuery.getQueryOptions())) {
+        if (offlineBrokerRequest != null) {
+          offlineRoutingVersion = _routingManager.getRoutingVersion(offlineTableName);
+        }
+        if (realtimeBrokerRequest != null) {
+          realtimeRoutingVersion = _routingManager.getRoutingVersion(realtimeTableName);
+        }
+        resultCacheKey =
+            new QueryResultCache.Key(offlineBrokerRequest != null ? offlineBrokerRequest.getPinotQuery() : null,
+                realtimeBrokerRequest != null ? realtimeBrokerRequest.getPinotQuery() : null);
+        BrokerResponseNative cachedResponse =
+            _queryResultCache.get(resultCacheKey, offlineRoutingVersion, realtimeRoutingVersion);
+        if (cachedResponse != null) {
+          LOGGER.debug("Serving request {} from the result cache: {}", requestId, query);
+          _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.QUERY_RESULT_CACHE_HITS, 1);
+          long totalTimeMs = System.currentTimeMillis() - requestContext.getRequestArrivalTimeMillis();
+          cachedResponse.setTimeUsedMs(totalTimeMs);
+          augmentStatistics(requestContext, cachedResponse);
+          if (QueryOptionsUtils.shouldDropResults(pinotQuery.getQueryOptions())) {
+            cachedResponse.setResultTable(null);
+          }
+          _brokerMetrics.addTimedTableValue(rawTableName, BrokerTimer.QUERY_TOTAL_TIME_MS, totalTimeMs,
+              TimeUnit.MILLISECONDS);
+          _queryLogger.log(new QueryLogger.QueryLogParams(requestContext, tableName, cachedResponse, requesterIdentity,
+              new ServerStats()));
+          return cachedResponse;
+        }
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.QUERY_RESULT_CACHE_MISSES, 1);
+      }
+
       // Calculate routing table for the query
       // TODO: Modify RoutingManager interface to directly take PinotQuery
       long routingStartTimeNs = System.nanoTime();
@@ -729,6 +775,11 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
         brokerResponse.addException(exception);
       }
       brokerResponse.setNumSegmentsPrunedByBroker(numPrunedSegmentsTotal);
+      // Only cache complete responses
+      if (resultCacheKey != null && !brokerResponse.isPartialResult()
+          && brokerResponse.getNumServersResponded() == brokerResponse.getNumServersQueried()) {
+        _queryResultCache.put(resultCacheKey, offlineRoutingVersion, realtimeRoutingVersion, brokerResponse);
+      }
       long executionEndTimeNs = System.nanoTime();
       _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.QUERY_EXECUTION,
           executionEndTimeNs - routingEndTimeNs);
@@ -1207,16 +1258,30 @@ public abstract class BaseSingleStageBrokerRequestHandler extends BaseBrokerRequ
     boolean disableGroovy = disableGroovyOverride != null ? disableGroovyOverride : _disableGroovy;
     boolean useApproximateFunction =
         useApproximateFunctionOverride != null ? useApproximateFunctionOverride : _useApproximateFunction;
-    return new HandlerContext(disableGroovy, useApproximateFunction);
+    // Result cache has to be enabled for all the queried tables
+    boolean resultCacheEnabled =
+        isResultCacheEnabled(offlineTableConfig) && isResultCacheEnabled(realtimeTableConfig) && (
+            offlineTableConfig != null || realtimeTableConfig != null);
+    return new HandlerContext(disableGroovy, useApproximateFunction, resultCacheEnabled);
+  }
+
+  private static boolean isResultCacheEnabled(@Nullable TableConfig tableConfig) {
+    if (tableConfig == null) {
+      return true;
+    }
+    QueryConfig queryConfig = tableConfig.getQueryConfig();
+    return queryConfig != null && Boolean.TRUE.equals(queryConfig.getResultCacheEnabled());
   }
 
   private static class HandlerContext {
     final boolean _disableGroovy;
     final boolean _useApproximateFunction;
+    final boolean _resultCacheEnabled;
 
-    HandlerContext(boolean disableGroovy, boolean useApproximateFunction) {
+    HandlerContext(boolean disableGroovy, boolean useApproximateFunction, boolean resultCacheEnabled) {
       _disableGroovy = disableGroovy;
       _useApproximateFunction = useApproximateFunction;
+      _resultCacheEnabled = resultCacheEnabled;
     }
   }
 
@@ -35,6 +35,7 @@ import org.apache.http.conn.HttpClientConnectionManager;
 import org.apache.pinot.broker.api.AccessControl;
 import org.apache.pinot.broker.api.RequesterIdentity;
 import org.apache.pinot.broker.broker.AccessControlFactory;
+import org.apache.pinot.broker.querycache.QueryPlanCache;
 import org.apache.pinot.broker.querylog.QueryLogger;
 import org.apache.pinot.broker.queryquota.QueryQuotaManager;
 import org.apache.pinot.broker.routing.BrokerRoutingManager;
@@ -57,8 +58,10 @@ import org.apache.pinot.core.auth.TargetType;
 import org.apache.pinot.query.QueryEnvironment;
 import org.apache.pinot.query.catalog.PinotCatalog;
 import org.apache.pinot.query.mailbox.MailboxService;
+import org.apache.pinot.query.planner.SubPlan;
 import org.apache.pinot.query.planner.physical.DispatchablePlanFragment;
 import org.apache.pinot.query.planner.physical.DispatchableSubPlan;
+import org.apache.pinot.query.planner.physical.PinotDispatchPlanner;
 import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.routing.WorkerManager;
 import org.apache.pinot.query.runtime.MultiStageStatsTreeBuilder;
@@ -82,6 +85,7 @@ public class MultiStageBrokerRequestHandler extends BaseBrokerRequestHandler {
 
   private final WorkerManager _workerManager;
   private final QueryDispatcher _queryDispatcher;
+  private final QueryPlanCache _queryPlanCache;
 
   public MultiStageBrokerRequestHandler(PinotConfiguration config, String brokerId, BrokerRoutingManager routingManager,
       AccessControlFactory accessControlFactory, QueryQuotaManager queryQuotaManager, TableCache tableCache) {
@@ -90,9 +94,19 @@ public class MultiStageBrokerRequestHandler extends BaseBrokerRequestHandler {
     int port = Integer.parseInt(config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_QUERY_RUNNER_PORT));
     _workerManager = new WorkerManager(hostname, port, _routingManager);
     _queryDispatcher = new QueryDispatcher(new MailboxService(hostname, port, config));
+    long planCacheMaxSize = config.getProperty(CommonConstants.Broker.CONFIG_OF_BROKER_MULTI_STAGE_PLAN_CACHE_MAX_SIZE,
+        CommonConstants.Broker.DEFAULT_BROKER_MULTI_STAGE_PLAN_CACHE_MAX_SIZE);
+    if (planCacheMaxSize > 0) {
+      _queryPlanCache = new QueryPlanCache(planCacheMaxSize);
+      // Invalidate the cached plans on any schema or table config change
+      _tableCache.registerTableConfigChangeListener(tableConfigs -> _queryPlanCache.onConfigChange());
+      _tableCache.registerSchemaChangeListener(schemas -> _queryPlanCache.onConfigChange());
+    } else {
+      _queryPlanCache = null;
+    }
     LOGGER.info("Initialized MultiStageBrokerRequestHandler on host: {}, port: {} with broker id: {}, timeout: {}ms, "
-            + "query log max length: {}, query log max rate: {}", hostname, port, _brokerId, _brokerTimeoutMs,
-        _queryLogger.getMaxQueryLengthToLog(), _queryLogger.getLogRateLimit());
+            + "query log max length: {}, query log max rate: {}, plan cache max size: {}", hostname, port, _brokerId,
+        _brokerTimeoutMs, _queryLogger.getMaxQueryLengthToLog(), _queryLogger.getLogRateLimit(), planCacheMaxSize);
   }
 
   @Override
@@ -152,7 +166,7 @@ public class MultiStageBrokerRequestHandler extends BaseBrokerRequestHandler {
           return constructMultistageExplainPlan(query, plan);
         case SELECT:
         default:
-          queryPlanResult = queryEnvironment.planQuery(query, sqlNodeAndOptions, requestId);
+          queryPlanResult = planQuery(queryEnvironment, query, sqlNodeAndOptions, database, requestId);
           break;
       }
     } catch (DatabaseConflictException e) {
@@ -265,6 +279,37 @@ public class MultiStageBrokerRequestHandler extends BaseBrokerRequestHandler {
     return brokerResponse;
   }
 
+  /**
+   * Plans the query, and reuses the cached logical plan when the plan cache is enabled. The cached plan is always bound
+   * to the current routing.
+   */
+  private QueryEnvironment.QueryPlannerResult planQuery(QueryEnvironment queryEnvironment, String query,
+      SqlNodeAndOptions sqlNodeAndOptions, String database, long requestId) {
+    Map<String, String> queryOptions = sqlNodeAndOptions.getOptions();
+    // NOTE: Colocated join optimization modifies the plan nodes in place, so the plan cannot be reused. Plans of
+    //       queries with non-deterministic functions cannot be reused either because these functions are folded into
+    //       constants.
+    if (_queryPlanCache == null || !QueryOptionsUtils.isUsePlanCache(queryOptions) || Boolean.parseBoolean(
+        queryOptions.get(PinotDispatchPlanner.USE_COLOCATED_JOIN_OPTION)) || !QueryPlanCache.isCacheable(
+        sqlNodeAndOptions.getSqlNode())) {
+      return queryEnvironment.planQuery(query, sqlNodeAndOptions, requestId);
+    }
+    // NOTE: The key should be computed before planning because the validation might modify the SqlNode, and the
+    //       version should be read before planning so that any config change during the planning invalidates the plan.
+    QueryPlanCache.Key key = new QueryPlanCache.Key(database, sqlNodeAndOptions.getSqlNode().toString(), queryOptions);
+    long version = _queryPlanCache.getVersion();
+    SubPlan subPlan = _queryPlanCache.get(key);
+    if (subPlan != null) {
+      LOGGER.debug("Planning request {} with the cached plan: {}", requestId, query);
+      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.MULTI_STAGE_PLAN_CACHE_HITS, 1);
+    } else {
+      _brokerMetrics.addMeteredGlobalValue(BrokerMeter.MULTI_STAGE_PLAN_CACHE_MISSES, 1);
+      subPlan = queryEnvironment.planLogicalQuery(query, sqlNodeAndOptions);
+      _queryPlanCache.put(key, version, subPlan);
+    }
+    return queryEnvironment.dispatchQuery(query, subPlan, queryOptions, requestId);
+  }
+
   private void fillOldBrokerResponseStats(BrokerResponseNativeV2 brokerResponse,
       List<MultiStageQueryStats.StageStats.Closed> queryStats, DispatchableSubPlan dispatchableSubPlan) {
     List<DispatchablePlanFragment> stagePlans = dispatchableSubPlan.getQueryStageList();
@@ -112,62 +112,72 @@ public class SingleConnectionBrokerRequestHandler extends BaseSingleStageBrokerR
         _queryRouter.submitQuery(requestId, rawTableName, offlineBrokerRequest, offlineRoutingTable,
             realtimeBrokerRequest, realtimeRoutingTable, timeoutMs);
     _failureDetector.notifyQuerySubmitted(asyncQueryResponse);
-    Map<ServerRoutingInstance, ServerResponse> finalResponses = asyncQueryResponse.getFinalResponses();
-    if (asyncQueryResponse.getStatus() == QueryResponse.Status.TIMED_OUT) {
-      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_TIMEOUTS, 1);
-    }
-    _failureDetector.notifyQueryFinished(asyncQueryResponse);
-    _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.SCATTER_GATHER,
-        System.nanoTime() - scatterGatherStartTimeNs);
-    // TODO Use scatterGatherStats as serverStats
-    serverStats.setServerStats(asyncQueryResponse.getServerStats());
-
-    int numServersQueried = finalResponses.size();
-    long totalResponseSize = 0;
-    Map<ServerRoutingInstance, DataTable> dataTableMap = Maps.newHashMapWithExpectedSize(numServersQueried);
-    List<ServerRoutingInstance> serversNotResponded = new ArrayList<>();
-    for (Map.Entry<ServerRoutingInstance, ServerResponse> entry : finalResponses.entrySet()) {
-      ServerResponse serverResponse = entry.getValue();
-      DataTable dataTable = serverResponse.getDataTable();
-      if (dataTable != null) {
-        dataTableMap.put(entry.getKey(), dataTable);
-        totalResponseSize += serverResponse.getResponseSize();
-      } else {
-        serversNotResponded.add(entry.getKey());
+    try {
+      // Data tables merged incrementally are bounded by the remaining time of the query
+      BrokerReduceService.ReduceSession reduceSession =
+          _brokerReduceService.startReduceSession(originalBrokerRequest, serverBrokerRequest,
+              timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scatterGatherStartTimeNs), _brokerMetrics);
+      // When reducing incrementally, merge the server responses as they arrive
+      Map<ServerRoutingInstance, ServerResponse> finalResponses =
+          asyncQueryResponse.getFinalResponses(reduceSession.isIncremental() ? reduceSession::add : null);
+      if (asyncQueryResponse.getStatus() == QueryResponse.Status.TIMED_OUT) {
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_TIMEOUTS, 1);
       }
-    }
-    int numServersResponded = dataTableMap.size();
-
-    long reduceStartTimeNs = System.nanoTime();
-    long reduceTimeoutMs = timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scatterGatherStartTimeNs);
-    BrokerResponseNative brokerResponse =
-        _brokerReduceService.reduceOnDataTable(originalBrokerRequest, serverBrokerRequest, dataTableMap,
-            reduceTimeoutMs, _brokerMetrics);
-    long reduceTimeNanos = System.nanoTime() - reduceStartTimeNs;
-    _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.REDUCE, reduceTimeNanos);
-
-    brokerResponse.setNumServersQueried(numServersQueried);
-    brokerResponse.setNumServersResponded(numServersResponded);
-    brokerResponse.setBrokerReduceTimeMs(TimeUnit.NANOSECONDS.toMillis(reduceTimeNanos));
-
-    Exception brokerRequestSendException = asyncQueryResponse.getException();
-    if (brokerRequestSendException != null) {
-      String errorMsg = QueryException.getTruncatedStackTrace(brokerRequestSendException);
-      brokerResponse.addException(
-          new QueryProcessingException(QueryException.BROKER_REQUEST_SEND_ERROR_CODE, errorMsg));
-    }
-    int numServersNotResponded = serversNotResponded.size();
-    if (numServersNotResponded != 0) {
-      brokerResponse.addException(new QueryProcessingException(QueryException.SERVER_NOT_RESPONDING_ERROR_CODE,
-          String.format("%d servers %s not responded", numServersNotResponded, serversNotResponded)));
-      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_PARTIAL_SERVERS_RESPONDED, 1);
-    }
-    if (brokerResponse.getExceptionsSize() > 0) {
-      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_PROCESSING_EXCEPTIONS, 1);
-    }
-    _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.TOTAL_SERVER_RESPONSE_SIZE, totalResponseSize);
+      _failureDetector.notifyQueryFinished(asyncQueryResponse);
+      _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.SCATTER_GATHER,
+          System.nanoTime() - scatterGatherStartTimeNs);
+      // TODO Use scatterGatherStats as serverStats
+      serverStats.setServerStats(asyncQueryResponse.getServerStats());
+
+      int numServersQueried = finalResponses.size();
+      long totalResponseSize = 0;
+      Map<ServerRoutingInstance, DataTable> dataTableMap = Maps.newHashMapWithExpectedSize(numServersQueried);
+      List<ServerRoutingInstance> serversNotResponded = new ArrayList<>();
+      for (Map.Entry<ServerRoutingInstance, ServerResponse> entry : finalResponses.entrySet()) {
+        ServerResponse serverResponse = entry.getValue();
+        DataTable dataTable = serverResponse.getDataTable();
+        if (dataTable != null) {
+          dataTableMap.put(entry.getKey(), dataTable);
+          totalResponseSize += serverResponse.getResponseSize();
+        } else {
+          serversNotResponded.add(entry.getKey());
+        }
+      }
+      int numServersResponded = dataTableMap.size();
+
+      long reduceStartTimeNs = System.nanoTime();
+      long reduceTimeoutMs = timeoutMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - scatterGatherStartTimeNs);
+      BrokerResponseNative brokerResponse = reduceSession.reduce(dataTableMap, reduceTimeoutMs);
+      long reduceTimeNanos = System.nanoTime() - reduceStartTimeNs;
+      _brokerMetrics.addPhaseTiming(rawTableName, BrokerQueryPhase.REDUCE, reduceTimeNanos);
+
+      brokerResponse.setNumServersQueried(numServersQueried);
+      brokerResponse.setNumServersResponded(numServersResponded);
+      brokerResponse.setBrokerReduceTimeMs(TimeUnit.NANOSECONDS.toMillis(reduceTimeNanos));
+
+      Exception brokerRequestSendException = asyncQueryResponse.getException();
+      if (brokerRequestSendException != null) {
+        String errorMsg = QueryException.getTruncatedStackTrace(brokerRequestSendException);
+        brokerResponse.addException(
+            new QueryProcessingException(QueryException.BROKER_REQUEST_SEND_ERROR_CODE, errorMsg));
+      }
+      int numServersNotResponded = serversNotResponded.size();
+      if (numServersNotResponded != 0) {
+        brokerResponse.addException(new QueryProcessingException(QueryException.SERVER_NOT_RESPONDING_ERROR_CODE,
+            String.format("%d servers %s not responded", numServersNotResponded, serversNotResponded)));
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_PARTIAL_SERVERS_RESPONDED,
+            1);
+      }
+      if (brokerResponse.getExceptionsSize() > 0) {
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.BROKER_RESPONSES_WITH_PROCESSING_EXCEPTIONS, 1);
+      }
+      _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.TOTAL_SERVER_RESPONSE_SIZE, totalResponseSize);
 
-    return brokerResponse;
+      return brokerResponse;
+    } finally {
+      // Release the buffers backing the data tables (if deserialized without copying) after the reduce is done
+      asyncQueryResponse.releaseDataTableBuffers();
+    }
   }
 
   @Override
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.helix.AccessOption;
@@ -99,6 +100,8 @@ import org.slf4j.LoggerFactory;
  */
 public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandler {
   private static final Logger LOGGER = LoggerFactory.getLogger(BrokerRoutingManager.class);
+  // Shared across all the routing entries so that a rebuilt routing entry never reuses the version of the old one
+  private static final AtomicLong ROUTING_VERSION_GENERATOR = new AtomicLong();
 
   private final BrokerMetrics _brokerMetrics;
   private final Map<String, RoutingEntry> _routingEntryMap = new ConcurrentHashMap<>();
@@ -701,6 +704,17 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     return routingEntry._instanceSelector.getServingInstances();
   }
 
+  /**
+   * Returns the routing version for the given table, or {@code null} if the routing does not exist. The version changes
+   * whenever the routing of the table changes (e.g. segment added, removed, replaced or refreshed, server changes, time
+   * boundary changes), and can be used to invalidate the results computed with a previous routing.
+   */
+  @Nullable
+  public Long getRoutingVersion(String tableNameWithType) {
+    RoutingEntry routingEntry = _routingEntryMap.get(tableNameWithType);
+    return routingEntry != null ? routingEntry.getRoutingVersion() : null;
+  }
+
   /**
    * Returns the table-level query timeout in milliseconds for the given table, or {@code null} if the timeout is not
    * configured in the table config.
@@ -728,6 +742,8 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
     transient int _lastUpdateExternalViewVersion;
     // Time boundary manager is only available for the offline part of the hybrid table
     transient TimeBoundaryManager _timeBoundaryManager;
+    // Updated whenever the routing changes
+    volatile long _routingVersion;
 
     RoutingEntry(String tableNameWithType, String idealStatePath, String externalViewPath,
         SegmentPreSelector segmentPreSelector, SegmentSelector segmentSelector, List<SegmentPruner> segmentPruners,
@@ -747,6 +763,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       _partitionMetadataManager = partitionMetadataManager;
       _queryTimeoutMs = queryTimeoutMs;
       _segmentZkMetadataFetcher = segmentZkMetadataFetcher;
+      updateRoutingVersion();
     }
 
     String getTableNameWithType() {
@@ -761,8 +778,17 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       return _lastUpdateExternalViewVersion;
     }
 
+    long getRoutingVersion() {
+      return _routingVersion;
+    }
+
+    void updateRoutingVersion() {
+      _routingVersion = ROUTING_VERSION_GENERATOR.incrementAndGet();
+    }
+
     void setTimeBoundaryManager(@Nullable TimeBoundaryManager timeBoundaryManager) {
       _timeBoundaryManager = timeBoundaryManager;
+      updateRoutingVersion();
     }
 
     @Nullable
@@ -793,10 +819,12 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       }
       _lastUpdateIdealStateVersion = idealState.getStat().getVersion();
       _lastUpdateExternalViewVersion = externalView.getStat().getVersion();
+      updateRoutingVersion();
     }
 
     void onInstancesChange(Set<String> enabledInstances, List<String> changedInstances) {
       _instanceSelector.onInstancesChange(enabledInstances, changedInstances);
+      updateRoutingVersion();
     }
 
     void refreshSegment(String segment) {
@@ -804,6 +832,7 @@ public class BrokerRoutingManager implements RoutingManager, ClusterChangeHandle
       if (_timeBoundaryManager != null) {
         _timeBoundaryManager.refreshSegment(segment);
       }
+      updateRoutingVersion();
     }
 
     InstanceSelector.SelectionResult calculateRouting(BrokerRequest brokerRequest, long requestId) {
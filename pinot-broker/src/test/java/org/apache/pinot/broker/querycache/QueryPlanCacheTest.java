@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.querycache;
+
+import java.util.Collections;
+import java.util.Map;
+import org.apache.pinot.query.planner.PlanFragment;
+import org.apache.pinot.query.planner.SubPlan;
+import org.apache.pinot.query.planner.SubPlanMetadata;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+
+public class QueryPlanCacheTest {
+  private static final String QUERY = "SELECT a.col1, b.col2 FROM a JOIN b ON a.col1 = b.col1 WHERE a.col3 > 10";
+
+  @Test
+  public void testKey() {
+    QueryPlanCache cache = new QueryPlanCache(100);
+    QueryPlanCache.Key key = getKey("default", QUERY, Collections.emptyMap());
+    SubPlan subPlan = getSubPlan();
+    cache.put(key, cache.getVersion(), subPlan);
+
+    // Formatting should not matter
+    String query = "select a.col1,  b.col2\nFROM a JOIN b\nON a.col1 = b.col1 /* comment */ WHERE a.col3 > 10";
+    assertSame(cache.get(getKey("default", query, Collections.emptyMap())), subPlan);
+
+    // Different literal, database or query options should not hit
+    assertNull(cache.get(getKey("default", QUERY.replace("10", "20"), Collections.emptyMap())));
+    assertNull(cache.get(getKey("db1", QUERY, Collections.emptyMap())));
+    assertNull(cache.get(getKey("default", QUERY, Map.of("timeoutMs", "1000"))));
+    assertSame(cache.get(key), subPlan);
+  }
+
+  @Test
+  public void testVersionInvalidation() {
+    QueryPlanCache cache = new QueryPlanCache(100);
+    QueryPlanCache.Key key = getKey("default", QUERY, Collections.emptyMap());
+    SubPlan subPlan = getSubPlan();
+    cache.put(key, cache.getVersion(), subPlan);
+    assertSame(cache.get(key), subPlan);
+
+    // Config change should invalidate the entry
+    cache.onConfigChange();
+    assertNull(cache.get(key));
+    assertEquals(cache.size(), 0);
+
+    // Plan computed before the config change should not be cached
+    long version = cache.getVersion();
+    cache.onConfigChange();
+    cache.put(key, version, subPlan);
+    assertNull(cache.get(key));
+    cache.put(key, cache.getVersion(), subPlan);
+    assertSame(cache.get(key), subPlan);
+  }
+
+  @Test
+  public void testSizeBoundedEviction() {
+    QueryPlanCache cache = new QueryPlanCache(20);
+    for (int i = 0; i < 100; i++) {
+      cache.put(getKey("default", QUERY.replace("10", Integer.toString(i)), Collections.emptyMap()),
+          cache.getVersion(), getSubPlan());
+    }
+    assertTrue(cache.size() > 0 && cache.size() <= 20, "Cache should evict entries when exceeding the size limit");
+  }
+
+  @Test
+  public void testNonDeterministicFunctions() {
+    assertTrue(isCacheable(QUERY));
+    assertTrue(isCacheable("SELECT col1 FROM a WHERE ts > fromDateTime('2024-01-01', 'yyyy-MM-dd')"));
+
+    // Non-deterministic functions are evaluated during planning, so the plan cannot be cached
+    assertFalse(isCacheable("SELECT col1 FROM a WHERE ts > ago('PT1H')"));
+    assertFalse(isCacheable("SELECT col1 FROM a WHERE ts > AGO('PT1H') LIMIT 10"));
+    assertFalse(isCacheable("SELECT col1 FROM a WHERE ts BETWEEN ago('P1D') AND now()"));
+    assertFalse(isCacheable("SELECT col1 FROM a WHERE col2 IN (SELECT col2 FROM b WHERE ts > ago('PT1H'))"));
+    assertFalse(isCacheable("SELECT col1 FROM a WHERE ts > CURRENT_TIMESTAMP"));
+    assertFalse(isCacheable("SELECT col1, RAND() FROM a"));
+  }
+
+  private static boolean isCacheable(String query) {
+    return QueryPlanCache.isCacheable(CalciteSqlParser.compileToSqlNodeAndOptions(query).getSqlNode());
+  }
+
+  private static QueryPlanCache.Key getKey(String database, String query, Map<String, String> queryOptions) {
+    return new QueryPlanCache.Key(database, CalciteSqlParser.compileToSqlNodeAndOptions(query).getSqlNode().toString(),
+        queryOptions);
+  }
+
+  private static SubPlan getSubPlan() {
+    return new SubPlan(new PlanFragment(0, null, Collections.emptyList()),
+        new SubPlanMetadata(Collections.emptySet(), null), Collections.emptyList());
+  }
+}
@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.broker.querycache;
+
+import java.io.IOException;
+import java.util.Collections;
+import org.apache.pinot.common.request.PinotQuery;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.common.response.broker.ResultTable;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class QueryResultCacheTest {
+  private static final String QUERY = "SELECT COUNT(*) FROM myTable WHERE col = 'foo'";
+
+  @Test
+  public void testRoutingVersionInvalidation() {
+    QueryResultCache cache = new QueryResultCache(1024 * 1024, 10_000L);
+    QueryResultCache.Key key = new QueryResultCache.Key(compile("myTable_OFFLINE"), null);
+    assertNull(cache.get(key, 1L, null));
+
+    cache.put(key, 1L, null, getResponse(10L));
+    BrokerResponseNative response = cache.get(new QueryResultCache.Key(compile("myTable_OFFLINE"), null), 1L, null);
+    assertNotNull(response);
+    assertEquals(response.getResultTable().getRows().get(0)[0], 10);
+    assertEquals(response.getNumDocsScanned(), 10L);
+
+    // Each hit should return a new copy
+    assertNotSame(cache.get(key, 1L, null), response);
+
+    // Different query should not hit
+    assertNull(cache.get(new QueryResultCache.Key(compile("myTable_REALTIME"), null), 1L, null));
+    assertNull(cache.get(new QueryResultCache.Key(null, compile("myTable_OFFLINE")), 1L, null));
+
+    // Routing change should invalidate the entry
+    assertNull(cache.get(key, 2L, null));
+    assertEquals(cache.size(), 0);
+    assertNull(cache.get(key, 1L, null));
+  }
+
+  @Test
+  public void testRealtimeStaleness()
+      throws InterruptedException {
+    QueryResultCache cache = new QueryResultCache(1024 * 1024, 1_000L);
+    QueryResultCache.Key offlineKey = new QueryResultCache.Key(compile("myTable_OFFLINE"), null);
+    QueryResultCache.Key hybridKey = new QueryResultCache.Key(compile("myTable_OFFLINE"), compile("myTable_REALTIME"));
+    cache.put(offlineKey, 1L, null, getResponse(10L));
+    cache.put(hybridKey, 1L, 2L, getResponse(20L));
+    assertNotNull(cache.get(offlineKey, 1L, null));
+    assertNotNull(cache.get(hybridKey, 1L, 2L));
+    assertNull(cache.get(hybridKey, 1L, 3L));
+
+    cache.put(hybridKey, 1L, 2L, getResponse(20L));
+    Thread.sleep(1_500L);
+    // Only the entry with REALTIME table should expire
+    assertNotNull(cache.get(offlineKey, 1L, null));
+    assertNull(cache.get(hybridKey, 1L, 2L));
+  }
+
+  @Test
+  public void testSizeBoundedEviction()
+      throws IOException {
+    // Cache can only hold a fraction of the responses
+    long responseSize = getResponse(0L).toJsonString().length();
+    QueryResultCache cache = new QueryResultCache(responseSize * 20, 10_000L);
+    for (int i = 0; i < 100; i++) {
+      cache.put(new QueryResultCache.Key(compile("myTable_" + i), null), 1L, null, getResponse(i));
+    }
+    assertTrue(cache.size() > 0 && cache.size() <= 20, "Cache should evict entries when exceeding the size limit");
+    // The most recently used entry should not be evicted
+    assertNotNull(cache.get(new QueryResultCache.Key(compile("myTable_99"), null), 1L, null));
+  }
+
+  private static PinotQuery compile(String tableName) {
+    return CalciteSqlParser.compileToPinotQuery(QUERY.replace("myTable", tableName));
+  }
+
+  private static BrokerResponseNative getResponse(long count) {
+    BrokerResponseNative brokerResponse = new BrokerResponseNative();
+    brokerResponse.setResultTable(new ResultTable(
+        new DataSchema(new String[]{"count(*)"}, new ColumnDataType[]{ColumnDataType.LONG}),
+        Collections.singletonList(new Object[]{count})));
+    brokerResponse.setNumDocsScanned(count);
+    return brokerResponse;
+  }
+}
@@ -27,6 +27,9 @@ import org.apache.pinot.spi.env.PinotConfiguration;
 public class NettyConfig {
   private static final String NATIVE_TRANSPORTS_ENABLED = "native.transports.enabled";
   private boolean _nativeTransportsEnabled = false;
+  // Deserialize the data tables received from the servers without copying the data out of the network buffers
+  private static final String ZERO_COPY_DESERIALIZATION_ENABLED = "zero.copy.deserialization.enabled";
+  private boolean _zeroCopyDeserializationEnabled = false;
 
   private static String key(String namespace, String suffix) {
     return namespace + "." + suffix;
@@ -42,6 +45,9 @@ public class NettyConfig {
     NettyConfig nettyConfig = new NettyConfig();
     nettyConfig.setNativeTransportsEnabled(pinotConfig.getProperty(key(namespace, NATIVE_TRANSPORTS_ENABLED),
         defaultConfig.isNativeTransportsEnabled()));
+    nettyConfig.setZeroCopyDeserializationEnabled(
+        pinotConfig.getProperty(key(namespace, ZERO_COPY_DESERIALIZATION_ENABLED),
+            defaultConfig.isZeroCopyDeserializationEnabled()));
 
     return nettyConfig;
   }
@@ -53,4 +59,12 @@ public class NettyConfig {
   public void setNativeTransportsEnabled(boolean nativeTransportsEnabled) {
     _nativeTransportsEnabled = nativeTransportsEnabled;
   }
+
+  public boolean isZeroCopyDeserializationEnabled() {
+    return _zeroCopyDeserializationEnabled;
+  }
+
+  public void setZeroCopyDeserializationEnabled(boolean zeroCopyDeserializationEnabled) {
+    _zeroCopyDeserializationEnabled = zeroCopyDeserializationEnabled;
+  }
 }
@@ -45,6 +45,25 @@ public class DataTableFactory {
     }
   }
 
+  /**
+   * Deserializes the data table without copying the data from the given buffer when possible (only supported for
+   * {@link #VERSION_4}). The caller must keep the buffer content valid until the data table is no longer used.
+   */
+  public static DataTable getDataTableWithoutCopy(ByteBuffer byteBuffer)
+      throws IOException {
+    int version = byteBuffer.getInt();
+    switch (version) {
+      case VERSION_2:
+        return new DataTableImplV2(byteBuffer);
+      case VERSION_3:
+        return new DataTableImplV3(byteBuffer);
+      case VERSION_4:
+        return new DataTableImplV4(byteBuffer, false);
+      default:
+        throw new IllegalStateException("Unsupported data table version: " + version);
+    }
+  }
+
   public static DataTable getDataTable(byte[] bytes)
       throws IOException {
     return getDataTable(ByteBuffer.wrap(bytes));
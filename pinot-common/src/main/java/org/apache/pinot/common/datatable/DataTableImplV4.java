@@ -100,8 +100,32 @@ public class DataTableImplV4 implements DataTable {
     computeBlockObjectConstants();
   }
 
+  private DataTableImplV4(int numRows, DataSchema dataSchema, String[] stringDictionary,
+      @Nullable ByteBuffer fixedSizeData, ByteBuffer variableSizeData) {
+    _numRows = numRows;
+    _dataSchema = dataSchema;
+    _numColumns = dataSchema == null ? 0 : dataSchema.size();
+    _fixDataSize = 0;
+    _stringDictionary = stringDictionary;
+    _fixedSizeData = fixedSizeData;
+    _variableSizeData = variableSizeData;
+    _metadata = new HashMap<>();
+    _errCodeToExceptionMap = new HashMap<>();
+    computeBlockObjectConstants();
+  }
+
   public DataTableImplV4(ByteBuffer byteBuffer)
       throws IOException {
+    this(byteBuffer, true);
+  }
+
+  /**
+   * Deserializes the data table from the given buffer. When {@code copyData} is {@code false}, the fixed size and
+   * variable size data are read directly from the given buffer instead of being copied into heap arrays, and the caller
+   * must keep the buffer content valid until the data table is no longer used.
+   */
+  public DataTableImplV4(ByteBuffer byteBuffer, boolean copyData)
+      throws IOException {
     // Read header.
     _numRows = byteBuffer.getInt();
     _numColumns = byteBuffer.getInt();
@@ -142,22 +166,36 @@ public class DataTableImplV4 implements DataTable {
 
     // Read fixed size data.
     if (fixedSizeDataLength != 0) {
-      _fixedSizeDataBytes = new byte[fixedSizeDataLength];
-      byteBuffer.position(fixedSizeDataStart);
-      byteBuffer.get(_fixedSizeDataBytes);
-      _fixedSizeData = ByteBuffer.wrap(_fixedSizeDataBytes);
+      if (copyData) {
+        _fixedSizeDataBytes = new byte[fixedSizeDataLength];
+        byteBuffer.position(fixedSizeDataStart);
+        byteBuffer.get(_fixedSizeDataBytes);
+        _fixedSizeData = ByteBuffer.wrap(_fixedSizeDataBytes);
+      } else {
+        _fixedSizeDataBytes = null;
+        _fixedSizeData = sliceSection(byteBuffer, fixedSizeDataStart, fixedSizeDataLength);
+        byteBuffer.position(fixedSizeDataStart + fixedSizeDataLength);
+      }
     } else {
       _fixedSizeDataBytes = null;
       _fixedSizeData = null;
     }
 
     // Read variable size data.
-    _variableSizeDataBytes = new byte[variableSizeDataLength];
-    if (variableSizeDataLength != 0) {
-      byteBuffer.position(variableSizeDataStart);
-      byteBuffer.get(_variableSizeDataBytes);
+    if (copyData) {
+      _variableSizeDataBytes = new byte[variableSizeDataLength];
+      if (variableSizeDataLength != 0) {
+        byteBuffer.position(variableSizeDataStart);
+        byteBuffer.get(_variableSizeDataBytes);
+      }
+      _variableSizeData = ByteBuffer.wrap(_variableSizeDataBytes);
+    } else {
+      _variableSizeDataBytes = null;
+      _variableSizeData = sliceSection(byteBuffer, variableSizeDataStart, variableSizeDataLength);
+      if (variableSizeDataLength != 0) {
+        byteBuffer.position(variableSizeDataStart + variableSizeDataLength);
+      }
     }
-    _variableSizeData = ByteBuffer.wrap(_variableSizeDataBytes);
 
     // Read metadata.
     int metadataLength = byteBuffer.getInt();
@@ -381,100 +419,121 @@ public class DataTableImplV4 implements DataTable {
       throws IOException {
     ThreadResourceUsageProvider threadTimer = new ThreadResourceUsageProvider();
 
-    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-    DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
-    writeLeadingSections(dataOutputStream);
+    byte[] exceptionsBytes = serializeExceptions();
+    byte[] dictionaryBytes = _stringDictionary != null ? serializeStringDictionary() : null;
+    byte[] dataSchemaBytes = _dataSchema != null ? _dataSchema.toBytes() : null;
+    ByteBuffer fixedSizeData = _fixedSizeData != null ? rewindSection(_fixedSizeData) : null;
+    ByteBuffer variableSizeData = _variableSizeData != null ? rewindSection(_variableSizeData) : null;
+
+    // Add table serialization time metadata if thread timer is enabled. The value is serialized as a fixed size LONG,
+    // so put a placeholder value first to compute the size of the serialized metadata.
+    boolean measureSerializationCpuTime = ThreadResourceUsageProvider.isThreadCpuTimeMeasurementEnabled();
+    if (measureSerializationCpuTime) {
+      getMetadata().put(MetadataKey.RESPONSE_SER_CPU_TIME_NS.getName(), "0");
+    }
+    byte[] metadataBytes = serializeMetadata();
 
-    // Add table serialization time metadata if thread timer is enabled.
-    if (ThreadResourceUsageProvider.isThreadCpuTimeMeasurementEnabled()) {
+    // Serialize into a byte array of the exact size to avoid copying the data when growing the buffer
+    int serializedSize = HEADER_SIZE + exceptionsBytes.length + getLength(dictionaryBytes) + getLength(dataSchemaBytes)
+        + getLength(fixedSizeData) + getLength(variableSizeData) + Integer.BYTES + metadataBytes.length;
+    byte[] bytes = new byte[serializedSize];
+    ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+    writeLeadingSections(byteBuffer, exceptionsBytes, dictionaryBytes, dataSchemaBytes, fixedSizeData,
+        variableSizeData);
+
+    if (measureSerializationCpuTime) {
       long responseSerializationCpuTimeNs = threadTimer.getThreadTimeNs();
       getMetadata().put(MetadataKey.RESPONSE_SER_CPU_TIME_NS.getName(), String.valueOf(responseSerializationCpuTimeNs));
+      metadataBytes = serializeMetadata();
     }
 
     // Write metadata: length followed by actual metadata bytes.
     // NOTE: We ignore metadata serialization time in "responseSerializationCpuTimeNs" as it's negligible while
     // considering it will bring a lot code complexity.
-    byte[] metadataBytes = serializeMetadata();
-    dataOutputStream.writeInt(metadataBytes.length);
-    dataOutputStream.write(metadataBytes);
+    byteBuffer.putInt(metadataBytes.length);
+    byteBuffer.put(metadataBytes);
+    assert !byteBuffer.hasRemaining();
 
-    return byteArrayOutputStream.toByteArray();
+    return bytes;
   }
 
-  private void writeLeadingSections(DataOutputStream dataOutputStream)
-      throws IOException {
-    dataOutputStream.writeInt(getVersion());
-    dataOutputStream.writeInt(_numRows);
-    dataOutputStream.writeInt(_numColumns);
+  private void writeLeadingSections(ByteBuffer byteBuffer, byte[] exceptionsBytes, @Nullable byte[] dictionaryBytes,
+      @Nullable byte[] dataSchemaBytes, @Nullable ByteBuffer fixedSizeData, @Nullable ByteBuffer variableSizeData) {
+    byteBuffer.putInt(getVersion());
+    byteBuffer.putInt(_numRows);
+    byteBuffer.putInt(_numColumns);
     int dataOffset = HEADER_SIZE;
 
     // Write exceptions section offset(START|SIZE).
-    dataOutputStream.writeInt(dataOffset);
-    byte[] exceptionsBytes;
-    exceptionsBytes = serializeExceptions();
-    dataOutputStream.writeInt(exceptionsBytes.length);
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(exceptionsBytes.length);
     dataOffset += exceptionsBytes.length;
 
     // Write dictionary map section offset(START|SIZE).
-    dataOutputStream.writeInt(dataOffset);
-    byte[] dictionaryBytes = null;
-    if (_stringDictionary != null) {
-      dictionaryBytes = serializeStringDictionary();
-      dataOutputStream.writeInt(dictionaryBytes.length);
-      dataOffset += dictionaryBytes.length;
-    } else {
-      dataOutputStream.writeInt(0);
-    }
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(getLength(dictionaryBytes));
+    dataOffset += getLength(dictionaryBytes);
 
     // Write data schema section offset(START|SIZE).
-    dataOutputStream.writeInt(dataOffset);
-    byte[] dataSchemaBytes = null;
-    if (_dataSchema != null) {
-      dataSchemaBytes = _dataSchema.toBytes();
-      dataOutputStream.writeInt(dataSchemaBytes.length);
-      dataOffset += dataSchemaBytes.length;
-    } else {
-      dataOutputStream.writeInt(0);
-    }
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(getLength(dataSchemaBytes));
+    dataOffset += getLength(dataSchemaBytes);
 
     // Write fixed size data section offset(START|SIZE).
-    dataOutputStream.writeInt(dataOffset);
-    if (_fixedSizeDataBytes != null) {
-      dataOutputStream.writeInt(_fixedSizeDataBytes.length);
-      dataOffset += _fixedSizeDataBytes.length;
-    } else {
-      dataOutputStream.writeInt(0);
-    }
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(getLength(fixedSizeData));
+    dataOffset += getLength(fixedSizeData);
 
     // Write variable size data section offset(START|SIZE).
-    dataOutputStream.writeInt(dataOffset);
-    if (_variableSizeDataBytes != null) {
-      dataOutputStream.writeInt(_variableSizeDataBytes.length);
-    } else {
-      dataOutputStream.writeInt(0);
-    }
+    byteBuffer.putInt(dataOffset);
+    byteBuffer.putInt(getLength(variableSizeData));
 
     // Write actual data.
     // Write exceptions bytes.
-    dataOutputStream.write(exceptionsBytes);
+    byteBuffer.put(exceptionsBytes);
     // Write dictionary map bytes.
     if (dictionaryBytes != null) {
-      dataOutputStream.write(dictionaryBytes);
+      byteBuffer.put(dictionaryBytes);
     }
     // Write data schema bytes.
     if (dataSchemaBytes != null) {
-      dataOutputStream.write(dataSchemaBytes);
+      byteBuffer.put(dataSchemaBytes);
     }
     // Write fixed size data bytes.
-    if (_fixedSizeDataBytes != null) {
-      dataOutputStream.write(_fixedSizeDataBytes);
+    if (fixedSizeData != null) {
+      byteBuffer.put(fixedSizeData);
     }
     // Write variable size data bytes.
-    if (_variableSizeDataBytes != null) {
-      dataOutputStream.write(_variableSizeDataBytes);
+    if (variableSizeData != null) {
+      byteBuffer.put(variableSizeData);
     }
   }
 
+  private static int getLength(@Nullable byte[] bytes) {
+    return bytes != null ? bytes.length : 0;
+  }
+
+  private static int getLength(@Nullable ByteBuffer byteBuffer) {
+    return byteBuffer != null ? byteBuffer.remaining() : 0;
+  }
+
+  /**
+   * Returns a view of the given data section (fixed size or variable size data) from the beginning of the section
+   * without changing the position of the original buffer.
+   */
+  private static ByteBuffer rewindSection(ByteBuffer section) {
+    ByteBuffer duplicate = section.duplicate();
+    duplicate.rewind();
+    return duplicate;
+  }
+
+  private static ByteBuffer sliceSection(ByteBuffer byteBuffer, int start, int length) {
+    ByteBuffer duplicate = byteBuffer.duplicate();
+    duplicate.position(start);
+    duplicate.limit(start + length);
+    return duplicate.slice();
+  }
+
   /**
    * Serialize metadata section to bytes.
    * Format of the bytes looks like:
@@ -624,6 +683,10 @@ public class DataTableImplV4 implements DataTable {
 
   @Override
   public DataTable toDataOnlyDataTable() {
+    if (_fixedSizeDataBytes == null && _variableSizeDataBytes == null) {
+      // Data table deserialized without copying the data
+      return new DataTableImplV4(_numRows, _dataSchema, _stringDictionary, _fixedSizeData, _variableSizeData);
+    }
     return new DataTableImplV4(_numRows, _dataSchema, _stringDictionary, _fixedSizeDataBytes, _variableSizeDataBytes);
   }
 
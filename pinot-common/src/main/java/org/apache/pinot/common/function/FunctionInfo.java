@@ -18,18 +18,49 @@
  */
 package org.apache.pinot.common.function;
 
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+import javax.annotation.Nullable;
 
 
+/**
+ * Information of a registered scalar function. The direct call sites of the function are generated once when the
+ * function is registered, and shared by all the {@link FunctionInvoker}s of the function:
+ * <ul>
+ *   <li>
+ *     A {@link MethodHandle} taking the arguments as an {@code Object[]} (and the instance as the first argument for
+ *     non-static method), which avoids the overhead of {@link Method#invoke(Object, Object...)}.
+ *   </li>
+ *   <li>
+ *     For static method with primitive signature {@code double(double)}, {@code double(double, double)},
+ *     {@code long(long)} or {@code long(long, long)}, a functional interface implementation generated with
+ *     {@link LambdaMetafactory}, which can be invoked on primitive values without boxing.
+ *   </li>
+ * </ul>
+ */
 public class FunctionInfo {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
   private final Method _method;
   private final Class<?> _clazz;
   private final boolean _nullableParameters;
+  private final MethodHandle _methodHandle;
+  private final Object _primitiveFunction;
 
   public FunctionInfo(Method method, Class<?> clazz, boolean nullableParameters) {
     _method = method;
     _clazz = clazz;
     _nullableParameters = nullableParameters;
+    _methodHandle = createMethodHandle(method);
+    _primitiveFunction = _methodHandle != null ? createPrimitiveFunction(method) : null;
   }
 
   public Method getMethod() {
@@ -43,4 +74,90 @@ public class FunctionInfo {
   public boolean hasNullableParameters() {
     return _nullableParameters;
   }
+
+  /**
+   * Returns the method handle with type {@code (Object[])Object} for static method, or {@code (Object, Object[])Object}
+   * for non-static method, or {@code null} if the method cannot be accessed through method handle.
+   */
+  @Nullable
+  public MethodHandle getMethodHandle() {
+    return _methodHandle;
+  }
+
+  /**
+   * Returns the {@link DoubleUnaryOperator}, {@link DoubleBinaryOperator}, {@link LongUnaryOperator} or
+   * {@link LongBinaryOperator} calling the method directly, or {@code null} if the method does not have such primitive
+   * signature.
+   */
+  @Nullable
+  public Object getPrimitiveFunction() {
+    return _primitiveFunction;
+  }
+
+  @Nullable
+  private static MethodHandle createMethodHandle(Method method) {
+    MethodHandle methodHandle;
+    try {
+      methodHandle = LOOKUP.unreflect(method).asFixedArity();
+    } catch (IllegalAccessException e) {
+      // Fall back to reflection
+      return null;
+    }
+    int numParameters = method.getParameterCount();
+    if (Modifier.isStatic(method.getModifiers())) {
+      return methodHandle.asSpreader(Object[].class, numParameters)
+          .asType(MethodType.methodType(Object.class, Object[].class));
+    } else {
+      return methodHandle.asSpreader(Object[].class, numParameters)
+          .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+    }
+  }
+
+  @Nullable
+  private static Object createPrimitiveFunction(Method method) {
+    if (!Modifier.isStatic(method.getModifiers()) || !isVisible(method.getDeclaringClass())) {
+      return null;
+    }
+    Class<?> returnType = method.getReturnType();
+    Class<?>[] parameterTypes = method.getParameterTypes();
+    if (parameterTypes.length == 0 || parameterTypes.length > 2) {
+      return null;
+    }
+    for (Class<?> parameterType : parameterTypes) {
+      if (parameterType != returnType) {
+        return null;
+      }
+    }
+    Class<?> functionalInterface;
+    String functionalMethodName;
+    if (returnType == double.class) {
+      functionalInterface = parameterTypes.length == 1 ? DoubleUnaryOperator.class : DoubleBinaryOperator.class;
+      functionalMethodName = "applyAsDouble";
+    } else if (returnType == long.class) {
+      functionalInterface = parameterTypes.length == 1 ? LongUnaryOperator.class : LongBinaryOperator.class;
+      functionalMethodName = "applyAsLong";
+    } else {
+      return null;
+    }
+    try {
+      MethodType methodType = MethodType.methodType(returnType, parameterTypes);
+      return LambdaMetafactory.metafactory(LOOKUP, functionalMethodName, MethodType.methodType(functionalInterface),
+          methodType, LOOKUP.unreflect(method), methodType).getTarget().invoke();
+    } catch (Throwable t) {
+      // Fall back to the method handle
+      return null;
+    }
+  }
+
+  /**
+   * Returns whether the given class can be resolved from this class, which is required to link the generated lambda
+   * class (e.g. the class might be loaded by a plugin class loader).
+   */
+  private static boolean isVisible(Class<?> clazz) {
+    try {
+      return Class.forName(clazz.getName(), false, FunctionInfo.class.getClassLoader()) == clazz;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
 }
@@ -19,16 +19,24 @@
 package org.apache.pinot.common.function;
 
 import com.google.common.base.Preconditions;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
 import org.apache.pinot.common.utils.PinotDataType;
 
 
 /**
  * The {@code FunctionInvoker} is a wrapper on a java method which supports arguments type conversion and method
- * invocation via reflection.
+ * invocation. The method is invoked through the call sites generated in {@link FunctionInfo}, and falls back to
+ * reflection when the method cannot be accessed through method handle.
+ * <p>For method with primitive signature (see {@link #isDoubleFunction()} and {@link #isLongFunction()}), it also
+ * supports invoking the method on a batch of primitive values without boxing.
  */
 public class FunctionInvoker {
   private final Method _method;
@@ -39,6 +47,9 @@ public class FunctionInvoker {
   private final Class<?>[] _parameterClasses;
   private final PinotDataType[] _parameterTypes;
   private final Object _instance;
+  // Method handle with type (Object[])Object, or null when falling back to reflection
+  private final MethodHandle _methodHandle;
+  private final Object _primitiveFunction;
 
   public FunctionInvoker(FunctionInfo functionInfo) {
     _method = functionInfo.getMethod();
@@ -63,6 +74,12 @@ public class FunctionInvoker {
         throw new IllegalStateException("Caught exception while constructing class: " + clazz, e);
       }
     }
+    MethodHandle methodHandle = functionInfo.getMethodHandle();
+    if (methodHandle != null && _instance != null) {
+      methodHandle = methodHandle.bindTo(_instance);
+    }
+    _methodHandle = methodHandle;
+    _primitiveFunction = functionInfo.getPrimitiveFunction();
   }
 
   /**
@@ -136,10 +153,83 @@ public class FunctionInvoker {
       }
     }
     try {
-      return _method.invoke(_instance, arguments);
-    } catch (Exception e) {
+      if (_methodHandle != null) {
+        return (Object) _methodHandle.invokeExact(arguments);
+      } else {
+        return _method.invoke(_instance, arguments);
+      }
+    } catch (Throwable t) {
+      if (t instanceof Error) {
+        throw (Error) t;
+      }
       throw new IllegalStateException(
-          "Caught exception while invoking method: " + _method + " with arguments: " + Arrays.toString(arguments), e);
+          "Caught exception while invoking method: " + _method + " with arguments: " + Arrays.toString(arguments), t);
+    }
+  }
+
+  /**
+   * Returns {@code true} if the method takes 1 or 2 primitive double arguments and returns primitive double, which can
+   * be invoked in batch with {@link #invokeDouble(double[][], int, double[])}.
+   */
+  public boolean isDoubleFunction() {
+    return _primitiveFunction instanceof DoubleUnaryOperator || _primitiveFunction instanceof DoubleBinaryOperator;
+  }
+
+  /**
+   * Invokes the function on the first {@code length} values of the argument arrays (one array per parameter), and
+   * writes the results into the given result array. Should only be called when {@link #isDoubleFunction()} is true.
+   */
+  public void invokeDouble(double[][] arguments, int length, double[] results) {
+    try {
+      if (_primitiveFunction instanceof DoubleUnaryOperator) {
+        DoubleUnaryOperator function = (DoubleUnaryOperator) _primitiveFunction;
+        double[] values = arguments[0];
+        for (int i = 0; i < length; i++) {
+          results[i] = function.applyAsDouble(values[i]);
+        }
+      } else {
+        DoubleBinaryOperator function = (DoubleBinaryOperator) _primitiveFunction;
+        double[] values1 = arguments[0];
+        double[] values2 = arguments[1];
+        for (int i = 0; i < length; i++) {
+          results[i] = function.applyAsDouble(values1[i], values2[i]);
+        }
+      }
+    } catch (RuntimeException e) {
+      throw new IllegalStateException("Caught exception while invoking method: " + _method, e);
+    }
+  }
+
+  /**
+   * Returns {@code true} if the method takes 1 or 2 primitive long arguments and returns primitive long, which can be
+   * invoked in batch with {@link #invokeLong(long[][], int, long[])}.
+   */
+  public boolean isLongFunction() {
+    return _primitiveFunction instanceof LongUnaryOperator || _primitiveFunction instanceof LongBinaryOperator;
+  }
+
+  /**
+   * Invokes the function on the first {@code length} values of the argument arrays (one array per parameter), and
+   * writes the results into the given result array. Should only be called when {@link #isLongFunction()} is true.
+   */
+  public void invokeLong(long[][] arguments, int length, long[] results) {
+    try {
+      if (_primitiveFunction instanceof LongUnaryOperator) {
+        LongUnaryOperator function = (LongUnaryOperator) _primitiveFunction;
+        long[] values = arguments[0];
+        for (int i = 0; i < length; i++) {
+          results[i] = function.applyAsLong(values[i]);
+        }
+      } else {
+        LongBinaryOperator function = (LongBinaryOperator) _primitiveFunction;
+        long[] values1 = arguments[0];
+        long[] values2 = arguments[1];
+        for (int i = 0; i < length; i++) {
+          results[i] = function.applyAsLong(values1[i], values2[i]);
+        }
+      }
+    } catch (RuntimeException e) {
+      throw new IllegalStateException("Caught exception while invoking method: " + _method, e);
     }
   }
 }
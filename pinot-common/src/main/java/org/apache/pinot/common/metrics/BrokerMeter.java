@@ -49,6 +49,18 @@ public enum BrokerMeter implements AbstractMetrics.Meter {
    * sum of this metric across all tables should be greater or equal than {@link #MULTI_STAGE_QUERIES_GLOBAL}.
    */
   MULTI_STAGE_QUERIES("queries", false),
+  /**
+   * Number of single-stage queries served from the broker query result cache, and number of queries looked up but not
+   * found (or invalidated) in the cache.
+   */
+  QUERY_RESULT_CACHE_HITS("queries", false),
+  QUERY_RESULT_CACHE_MISSES("queries", false),
+  /**
+   * Number of multi-stage queries planned with the logical plan from the broker plan cache, and number of queries
+   * looked up but not found (or invalidated) in the cache.
+   */
+  MULTI_STAGE_PLAN_CACHE_HITS("queries", true),
+  MULTI_STAGE_PLAN_CACHE_MISSES("queries", true),
 
   // These metrics track the exceptions caught during query execution in broker side.
   // Query rejected by Jersey thread pool executor
@@ -157,7 +157,12 @@ public enum ServerMeter implements AbstractMetrics.Meter {
    * That means that if a stage has 10 workers and all of them reach the limit, this will be increased by 1.
    * But if a single query has 2 different window operators and each one reaches the limit, this will be increased by 2.
    */
-  WINDOW_TIMES_MAX_ROWS_REACHED("times", true);
+  WINDOW_TIMES_MAX_ROWS_REACHED("times", true),
+
+  // Segment preprocessing (e.g. creating the newly added indexes on reload or server startup) related metrics
+  SEGMENTS_PREPROCESSED("segments", true),
+  SEGMENT_PREPROCESS_FAILURES("segments", true),
+  SEGMENT_PREPROCESS_COLUMNS_PROCESSED("columns", true);
 
   private final String _meterName;
   private final String _unit;
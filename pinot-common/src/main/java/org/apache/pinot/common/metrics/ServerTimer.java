@@ -83,7 +83,9 @@ public enum ServerTimer implements AbstractMetrics.Timer {
    * Remember that each stage may have several workers and each one will have a receive mailbox for each worker it is
    * reading from. This is the sum of all time waiting.
    */
-  RECEIVE_UPSTREAM_WAIT_CPU_TIME_MS("millis", true);
+  RECEIVE_UPSTREAM_WAIT_CPU_TIME_MS("millis", true),
+
+  SEGMENT_PREPROCESS_TIME_MS("milliseconds", true, "Time spent on preprocessing a segment");
 
   private final String _timerName;
   private final boolean _global;
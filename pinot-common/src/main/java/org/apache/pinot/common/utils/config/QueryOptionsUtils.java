@@ -214,6 +214,12 @@ public class QueryOptionsUtils {
     return maxExecutionThreadsString != null ? Integer.parseInt(maxExecutionThreadsString) : null;
   }
 
+  @Nullable
+  public static Boolean isAdaptiveParallelism(Map<String, String> queryOptions) {
+    String adaptiveParallelism = queryOptions.get(QueryOptionKey.ADAPTIVE_PARALLELISM);
+    return adaptiveParallelism != null ? Boolean.parseBoolean(adaptiveParallelism) : null;
+  }
+
   @Nullable
   public static Integer getMinSegmentGroupTrimSize(Map<String, String> queryOptions) {
     String minSegmentGroupTrimSizeString = queryOptions.get(QueryOptionKey.MIN_SEGMENT_GROUP_TRIM_SIZE);
@@ -261,6 +267,10 @@ public class QueryOptionsUtils {
     return maxNumGroupLimit != null ? Integer.parseInt(maxNumGroupLimit) : null;
   }
 
+  public static boolean isEnableGroupBySpill(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.ENABLE_GROUP_BY_SPILL));
+  }
+
   @Nullable
   public static Integer getMaxInitialResultHolderCapacity(Map<String, String> queryOptions) {
     String maxInitResultCap = queryOptions.get(QueryOptionKey.MAX_INITIAL_RESULT_HOLDER_CAPACITY);
@@ -273,6 +283,12 @@ public class QueryOptionsUtils {
     return groupByTrimThreshold != null ? Integer.parseInt(groupByTrimThreshold) : null;
   }
 
+  @Nullable
+  public static Boolean isPartitionedGroupByCombine(Map<String, String> queryOptions) {
+    String partitionedGroupByCombine = queryOptions.get(QueryOptionKey.PARTITIONED_GROUP_BY_COMBINE);
+    return partitionedGroupByCombine != null ? Boolean.parseBoolean(partitionedGroupByCombine) : null;
+  }
+
   public static boolean shouldDropResults(Map<String, String> queryOptions) {
     return Boolean.parseBoolean(queryOptions.get(CommonConstants.Broker.Request.QueryOptionKey.DROP_RESULTS));
   }
@@ -283,6 +299,10 @@ public class QueryOptionsUtils {
     return maxStreamingPendingBlocks != null ? Integer.parseInt(maxStreamingPendingBlocks) : null;
   }
 
+  public static boolean isUseColumnarDataBlock(Map<String, String> queryOptions) {
+    return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.USE_COLUMNAR_DATA_BLOCK));
+  }
+
   @Nullable
   public static Integer getMaxRowsInJoin(Map<String, String> queryOptions) {
     String maxRowsInJoin = queryOptions.get(QueryOptionKey.MAX_ROWS_IN_JOIN);
@@ -307,7 +327,23 @@ public class QueryOptionsUtils {
     return windowOverflowModeStr != null ? WindowOverFlowMode.valueOf(windowOverflowModeStr) : null;
   }
 
+  @Nullable
+  public static Integer getMaxRowsInSort(Map<String, String> queryOptions) {
+    String maxRowsInSort = queryOptions.get(QueryOptionKey.MAX_ROWS_IN_SORT);
+    return maxRowsInSort != null ? Integer.parseInt(maxRowsInSort) : null;
+  }
+
   public static boolean isSkipUnavailableServers(Map<String, String> queryOptions) {
     return Boolean.parseBoolean(queryOptions.get(QueryOptionKey.SKIP_UNAVAILABLE_SERVERS));
   }
+
+  public static boolean isUseResultCache(Map<String, String> queryOptions) {
+    String useResultCache = queryOptions.get(QueryOptionKey.USE_RESULT_CACHE);
+    return useResultCache == null || Boolean.parseBoolean(useResultCache);
+  }
+
+  public static boolean isUsePlanCache(Map<String, String> queryOptions) {
+    String usePlanCache = queryOptions.get(QueryOptionKey.USE_PLAN_CACHE);
+    return usePlanCache == null || Boolean.parseBoolean(usePlanCache);
+  }
 }
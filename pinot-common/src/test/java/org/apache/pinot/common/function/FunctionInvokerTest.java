@@ -0,0 +1,163 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.common.function;
+
+import java.lang.reflect.Method;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+
+public class FunctionInvokerTest {
+
+  @Test
+  public void testStaticFunction()
+      throws Exception {
+    FunctionInvoker invoker = getInvoker(TestFunctions.class.getMethod("concat", String.class, int.class));
+    assertNotNull(invoker.getMethod());
+    assertFalse(invoker.isDoubleFunction());
+    assertFalse(invoker.isLongFunction());
+    assertEquals(invoker.invoke(new Object[]{"a", 1}), "a1");
+    // Null intolerant
+    assertNull(invoker.invoke(new Object[]{null, 1}));
+
+    Object[] arguments = new Object[]{"a", "2"};
+    invoker.convertTypes(arguments);
+    assertEquals(invoker.invoke(arguments), "a2");
+
+    IllegalStateException exception =
+        expectThrows(IllegalStateException.class, () -> invoker.invoke(new Object[]{"a", -1}));
+    assertTrue(exception.getCause() instanceof IllegalArgumentException);
+  }
+
+  @Test
+  public void testNonStaticFunction()
+      throws Exception {
+    Method method = TestFunctions.class.getMethod("increment", long.class);
+    FunctionInvoker invoker1 = getInvoker(method);
+    FunctionInvoker invoker2 = getInvoker(method);
+    // Non-static method should not be specialized, and each invoker should have its own instance
+    assertFalse(invoker1.isLongFunction());
+    assertEquals(invoker1.invoke(new Object[]{1L}), 1L);
+    assertEquals(invoker1.invoke(new Object[]{1L}), 2L);
+    assertEquals(invoker2.invoke(new Object[]{1L}), 1L);
+  }
+
+  @Test
+  public void testPrimitiveFunctions()
+      throws Exception {
+    int length = 10;
+    double[] doubleValues1 = new double[length];
+    double[] doubleValues2 = new double[length];
+    long[] longValues1 = new long[length];
+    long[] longValues2 = new long[length];
+    for (int i = 0; i < length; i++) {
+      doubleValues1[i] = i + 0.5;
+      doubleValues2[i] = i * 2;
+      longValues1[i] = i;
+      longValues2[i] = i * 3;
+    }
+
+    FunctionInvoker invoker = getInvoker(TestFunctions.class.getMethod("half", double.class));
+    assertTrue(invoker.isDoubleFunction());
+    assertFalse(invoker.isLongFunction());
+    double[] doubleResults = new double[length + 1];
+    invoker.invokeDouble(new double[][]{doubleValues1}, length, doubleResults);
+    for (int i = 0; i < length; i++) {
+      assertEquals(doubleResults[i], doubleValues1[i] / 2);
+      assertEquals(invoker.invoke(new Object[]{doubleValues1[i]}), doubleValues1[i] / 2);
+    }
+    assertEquals(doubleResults[length], 0.0);
+
+    invoker = getInvoker(TestFunctions.class.getMethod("sum", double.class, double.class));
+    assertTrue(invoker.isDoubleFunction());
+    invoker.invokeDouble(new double[][]{doubleValues1, doubleValues2}, length, doubleResults);
+    for (int i = 0; i < length; i++) {
+      assertEquals(doubleResults[i], doubleValues1[i] + doubleValues2[i]);
+    }
+
+    invoker = getInvoker(TestFunctions.class.getMethod("negate", long.class));
+    assertTrue(invoker.isLongFunction());
+    assertFalse(invoker.isDoubleFunction());
+    long[] longResults = new long[length];
+    invoker.invokeLong(new long[][]{longValues1}, length, longResults);
+    for (int i = 0; i < length; i++) {
+      assertEquals(longResults[i], -longValues1[i]);
+    }
+
+    invoker = getInvoker(TestFunctions.class.getMethod("sum", long.class, long.class));
+    assertTrue(invoker.isLongFunction());
+    invoker.invokeLong(new long[][]{longValues1, longValues2}, length, longResults);
+    for (int i = 0; i < length; i++) {
+      assertEquals(longResults[i], longValues1[i] + longValues2[i]);
+      assertEquals(invoker.invoke(new Object[]{longValues1[i], longValues2[i]}), longValues1[i] + longValues2[i]);
+    }
+
+    // Mixed parameter types are not specialized
+    invoker = getInvoker(TestFunctions.class.getMethod("scale", long.class, double.class));
+    assertFalse(invoker.isLongFunction());
+    assertFalse(invoker.isDoubleFunction());
+    assertEquals(invoker.invoke(new Object[]{2L, 1.5}), 3.0);
+  }
+
+  private static FunctionInvoker getInvoker(Method method) {
+    return new FunctionInvoker(new FunctionInfo(method, method.getDeclaringClass(), false));
+  }
+
+  public static class TestFunctions {
+    private long _count;
+
+    public static String concat(String value, int times) {
+      if (times < 0) {
+        throw new IllegalArgumentException("Negative times: " + times);
+      }
+      return value + times;
+    }
+
+    public static double half(double value) {
+      return value / 2;
+    }
+
+    public static double sum(double value1, double value2) {
+      return value1 + value2;
+    }
+
+    public static long negate(long value) {
+      return -value;
+    }
+
+    public static long sum(long value1, long value2) {
+      return value1 + value2;
+    }
+
+    public static double scale(long value, double factor) {
+      return value * factor;
+    }
+
+    public long increment(long value) {
+      _count += value;
+      return _count;
+    }
+  }
+}
@@ -193,7 +193,7 @@ public class TableConfigSerDeTest {
     {
       // With query config
       QueryConfig queryConfig = new QueryConfig(1000L, true, true, Collections.singletonMap("func(a)", "b"), null,
-          null);
+          null, true);
       TableConfig tableConfig = tableConfigBuilder.setQueryConfig(queryConfig).build();
 
       checkQueryConfig(tableConfig);
@@ -443,6 +443,7 @@ public class TableConfigSerDeTest {
     assertEquals(queryConfig.getTimeoutMs(), Long.valueOf(1000L));
     assertEquals(queryConfig.getDisableGroovy(), Boolean.TRUE);
     assertEquals(queryConfig.getExpressionOverrideMap(), Collections.singletonMap("func(a)", "b"));
+    assertEquals(queryConfig.getResultCacheEnabled(), Boolean.TRUE);
   }
 
   private void checkIngestionConfig(TableConfig tableConfig) {
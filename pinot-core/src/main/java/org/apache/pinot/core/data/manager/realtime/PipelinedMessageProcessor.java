@@ -0,0 +1,224 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.apache.pinot.segment.local.segment.creator.TransformPipeline;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.recordenricher.RecordEnricherPipeline;
+import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.StreamDataDecoderImpl;
+import org.apache.pinot.spi.stream.StreamDataDecoderResult;
+import org.apache.pinot.spi.stream.StreamMessage;
+
+
+/**
+ * Decodes, enriches and transforms the messages of a {@link MessageBatch} on a small pool of threads ahead of the
+ * consumer thread, so that the consumer thread only needs to index the transformed rows.
+ *
+ * <p>The messages are split into chunks of consecutive messages, and the chunks are assigned to the workers in a
+ * round-robin way. Each worker owns its decoder and pipelines (which are not thread-safe), and processes the chunks
+ * assigned to it in order. The consumer thread reads the processed messages in the message order, so the indexing
+ * order and the offset tracking are the same as processing the messages on the consumer thread.
+ *
+ * <p>This class is not thread-safe, and should only be used by the consumer thread.
+ */
+class PipelinedMessageProcessor implements AutoCloseable {
+  // Number of consecutive messages processed by the same worker
+  static final int CHUNK_SIZE = 64;
+  private static final long KEEP_ALIVE_TIME_SECONDS = 60;
+
+  private final Worker[] _workers;
+  private final ExecutorService _executorService;
+
+  PipelinedMessageProcessor(String name, List<StreamDataDecoderImpl> decoders,
+      List<RecordEnricherPipeline> recordEnricherPipelines, List<TransformPipeline> transformPipelines) {
+    int numWorkers = decoders.size();
+    _workers = new Worker[numWorkers];
+    for (int i = 0; i < numWorkers; i++) {
+      _workers[i] = new Worker(decoders.get(i), recordEnricherPipelines.get(i), transformPipelines.get(i));
+    }
+    ThreadPoolExecutor threadPoolExecutor =
+        new ThreadPoolExecutor(numWorkers, numWorkers, KEEP_ALIVE_TIME_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat(name + "-decoder-%d").build());
+    // Let the idle threads exit when the consumption is paused (e.g. when the segment is being committed)
+    threadPoolExecutor.allowCoreThreadTimeOut(true);
+    _executorService = threadPoolExecutor;
+  }
+
+  /**
+   * Starts processing the messages of the given batch. The returned batch must be closed before processing the next
+   * message batch so that the workers are not shared by multiple batches.
+   */
+  ProcessedBatch process(MessageBatch<?> messageBatch) {
+    return new ProcessedBatch(messageBatch);
+  }
+
+  @Override
+  public void close() {
+    _executorService.shutdownNow();
+  }
+
+  /**
+   * Result of processing a message, where the transform exception is set when the message is decoded but failed to be
+   * enriched or transformed.
+   */
+  static class ProcessedMessage {
+    private final StreamMessage<?> _streamMessage;
+    private final StreamDataDecoderResult _decoderResult;
+    private final TransformPipeline.Result _transformResult = new TransformPipeline.Result();
+    private Exception _transformException;
+
+    private ProcessedMessage(StreamMessage<?> streamMessage, StreamDataDecoderResult decoderResult) {
+      _streamMessage = streamMessage;
+      _decoderResult = decoderResult;
+    }
+
+    StreamMessage<?> getStreamMessage() {
+      return _streamMessage;
+    }
+
+    StreamDataDecoderResult getDecoderResult() {
+      return _decoderResult;
+    }
+
+    TransformPipeline.Result getTransformResult() {
+      return _transformResult;
+    }
+
+    @Nullable
+    Exception getTransformException() {
+      return _transformException;
+    }
+  }
+
+  class ProcessedBatch implements AutoCloseable {
+    private final MessageBatch<?> _messageBatch;
+    private final int _numMessages;
+    private final CompletableFuture<ProcessedMessage[]>[] _chunks;
+    private final Future<?>[] _workerFutures;
+    private volatile boolean _cancelled;
+
+    @SuppressWarnings("unchecked")
+    private ProcessedBatch(MessageBatch<?> messageBatch) {
+      _messageBatch = messageBatch;
+      _numMessages = messageBatch.getMessageCount();
+      int numChunks = (_numMessages + CHUNK_SIZE - 1) / CHUNK_SIZE;
+      _chunks = new CompletableFuture[numChunks];
+      for (int i = 0; i < numChunks; i++) {
+        _chunks[i] = new CompletableFuture<>();
+      }
+      int numWorkers = Math.min(_workers.length, numChunks);
+      _workerFutures = new Future[numWorkers];
+      for (int i = 0; i < numWorkers; i++) {
+        int workerId = i;
+        _workerFutures[i] = _executorService.submit(() -> processChunks(workerId));
+      }
+    }
+
+    private void processChunks(int workerId) {
+      Worker worker = _workers[workerId];
+      for (int chunkId = workerId; chunkId < _chunks.length; chunkId += _workers.length) {
+        if (_cancelled) {
+          _chunks[chunkId].cancel(false);
+          continue;
+        }
+        try {
+          int startIndex = chunkId * CHUNK_SIZE;
+          int endIndex = Math.min(startIndex + CHUNK_SIZE, _numMessages);
+          ProcessedMessage[] processedMessages = new ProcessedMessage[endIndex - startIndex];
+          for (int i = startIndex; i < endIndex; i++) {
+            processedMessages[i - startIndex] = worker.process(_messageBatch.getStreamMessage(i));
+          }
+          _chunks[chunkId].complete(processedMessages);
+        } catch (Throwable t) {
+          _chunks[chunkId].completeExceptionally(t);
+        }
+      }
+    }
+
+    /**
+     * Returns the processed message at the given index, waiting for it to be processed if needed.
+     */
+    ProcessedMessage get(int index) {
+      try {
+        return Uninterruptibles.getUninterruptibly(_chunks[index / CHUNK_SIZE])[index % CHUNK_SIZE];
+      } catch (ExecutionException e) {
+        throw new RuntimeException("Caught exception while decoding the message at index: " + index, e.getCause());
+      }
+    }
+
+    /**
+     * Skips the messages not processed yet, and waits for the workers to finish so that they can be used for the next
+     * message batch.
+     */
+    @Override
+    public void close() {
+      _cancelled = true;
+      for (Future<?> workerFuture : _workerFutures) {
+        try {
+          Uninterruptibles.getUninterruptibly(workerFuture);
+        } catch (ExecutionException e) {
+          // Exceptions are handled within the worker
+        }
+      }
+    }
+  }
+
+  private static class Worker {
+    private final StreamDataDecoderImpl _decoder;
+    private final RecordEnricherPipeline _recordEnricherPipeline;
+    private final TransformPipeline _transformPipeline;
+
+    Worker(StreamDataDecoderImpl decoder, RecordEnricherPipeline recordEnricherPipeline,
+        TransformPipeline transformPipeline) {
+      _decoder = decoder;
+      _recordEnricherPipeline = recordEnricherPipeline;
+      _transformPipeline = transformPipeline;
+    }
+
+    ProcessedMessage process(StreamMessage<?> streamMessage) {
+      // Decode into a new row because the rows are kept until they are indexed
+      StreamDataDecoderResult decoderResult = _decoder.decode(streamMessage, new GenericRow());
+      ProcessedMessage processedMessage = new ProcessedMessage(streamMessage, decoderResult);
+      if (decoderResult.getException() == null) {
+        try {
+          _recordEnricherPipeline.run(decoderResult.getResult());
+          _transformPipeline.processRow(decoderResult.getResult(), processedMessage._transformResult);
+        } catch (Exception e) {
+          // Same as processing the message on the consumer thread, abandon the whole message on exception
+          processedMessage._transformResult.getTransformedRows().clear();
+          processedMessage._transformException = e;
+        }
+      }
+      return processedMessage;
+    }
+  }
+}
@@ -250,6 +250,7 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
   private final AtomicBoolean _acquiredConsumerSemaphore;
   private final ServerMetrics _serverMetrics;
   private final PartitionUpsertMetadataManager _partitionUpsertMetadataManager;
+  private final PartitionDedupMetadataManager _partitionDedupMetadataManager;
   private final BooleanSupplier _isReadyToConsumeData;
   private final MutableSegmentImpl _realtimeSegment;
   private volatile StreamPartitionMsgOffset _currentOffset; // Next offset to be consumed
@@ -285,6 +286,9 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
   final String _clientId;
   private final RecordEnricherPipeline _recordEnricherPipeline;
   private final TransformPipeline _transformPipeline;
+  // Decodes and transforms the messages ahead of indexing when multiple decode threads are configured
+  @Nullable
+  private final PipelinedMessageProcessor _pipelinedMessageProcessor;
   private PartitionGroupConsumer _partitionGroupConsumer = null;
   private StreamMetadataProvider _partitionMetadataProvider = null;
   private final File _resourceTmpDir;
@@ -318,6 +322,7 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
   private final List<String> _filteredMessageOffsets = new ArrayList<>();
   private final boolean _allowConsumptionDuringCommit;
   private boolean _trackFilteredMessageOffsets = false;
+  private int _numDecodeThreads = 1;
 
   // TODO each time this method is called, we print reason for stop. Good to print only once.
   private boolean endCriteriaReached() {
@@ -534,6 +539,20 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
    * otherwise
    */
   private boolean processStreamEvents(MessageBatch messageBatch, long idlePipeSleepTimeMillis) {
+    if (_pipelinedMessageProcessor != null && messageBatch.getMessageCount() > 0) {
+      try (PipelinedMessageProcessor.ProcessedBatch processedBatch = _pipelinedMessageProcessor.process(messageBatch)) {
+        return processStreamEvents(messageBatch, processedBatch, idlePipeSleepTimeMillis);
+      }
+    }
+    return processStreamEvents(messageBatch, null, idlePipeSleepTimeMillis);
+  }
+
+  /**
+   * @param processedBatch messages decoded and transformed ahead of indexing, or {@code null} to decode and transform
+   *                       the messages on the consumer thread
+   */
+  private boolean processStreamEvents(MessageBatch messageBatch,
+      @Nullable PipelinedMessageProcessor.ProcessedBatch processedBatch, long idlePipeSleepTimeMillis) {
     int messageCount = messageBatch.getMessageCount();
     _partitionRateLimiter.throttle(messageCount);
     _serverRateLimiter.throttle(messageCount);
@@ -581,8 +600,17 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
       }
 
       // Decode message
-      StreamMessage streamMessage = messageBatch.getStreamMessage(index);
-      StreamDataDecoderResult decodedRow = _streamDataDecoder.decode(streamMessage);
+      StreamMessage streamMessage;
+      StreamDataDecoderResult decodedRow;
+      PipelinedMessageProcessor.ProcessedMessage processedMessage = null;
+      if (processedBatch != null) {
+        processedMessage = processedBatch.get(index);
+        streamMessage = processedMessage.getStreamMessage();
+        decodedRow = processedMessage.getDecoderResult();
+      } else {
+        streamMessage = messageBatch.getStreamMessage(index);
+        decodedRow = _streamDataDecoder.decode(streamMessage);
+      }
       StreamMessageMetadata metadata = streamMessage.getMetadata();
       StreamPartitionMsgOffset offset = null;
       StreamPartitionMsgOffset nextOffset = null;
@@ -602,37 +630,49 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
                 realtimeRowsDroppedMeter);
         _numRowsErrored++;
       } else {
-        try {
-          _recordEnricherPipeline.run(decodedRow.getResult());
-          _transformPipeline.processRow(decodedRow.getResult(), reusedResult);
-        } catch (Exception e) {
+        TransformPipeline.Result transformResult;
+        Exception transformException = null;
+        if (processedMessage != null) {
+          transformResult = processedMessage.getTransformResult();
+          transformException = processedMessage.getTransformException();
+        } else {
+          transformResult = reusedResult;
+          try {
+            _recordEnricherPipeline.run(decodedRow.getResult());
+            _transformPipeline.processRow(decodedRow.getResult(), reusedResult);
+          } catch (Exception e) {
+            transformException = e;
+          }
+        }
+        if (transformException != null) {
           _numRowsErrored++;
           // when exception happens we prefer abandoning the whole batch and not partially indexing some rows
-          reusedResult.getTransformedRows().clear();
+          transformResult.getTransformedRows().clear();
           String errorMessage =
               String.format("Caught exception while transforming the record at offset: %s , row: %s", offset,
                   decodedRow.getResult());
-          _segmentLogger.error(errorMessage, e);
-          _realtimeTableDataManager.addSegmentError(_segmentNameStr, new SegmentErrorInfo(now(), errorMessage, e));
+          _segmentLogger.error(errorMessage, transformException);
+          _realtimeTableDataManager.addSegmentError(_segmentNameStr, new SegmentErrorInfo(now(), errorMessage,
+              transformException));
         }
-        if (reusedResult.getSkippedRowCount() > 0) {
+        if (transformResult.getSkippedRowCount() > 0) {
           realtimeRowsDroppedMeter = _serverMetrics.addMeteredTableValue(_clientId, ServerMeter.REALTIME_ROWS_FILTERED,
-              reusedResult.getSkippedRowCount(), realtimeRowsDroppedMeter);
+              transformResult.getSkippedRowCount(), realtimeRowsDroppedMeter);
           if (_trackFilteredMessageOffsets) {
             _filteredMessageOffsets.add(offset.toString());
           }
         }
-        if (reusedResult.getIncompleteRowCount() > 0) {
+        if (transformResult.getIncompleteRowCount() > 0) {
           realtimeIncompleteRowsConsumedMeter =
               _serverMetrics.addMeteredTableValue(_clientId, ServerMeter.INCOMPLETE_REALTIME_ROWS_CONSUMED,
-                  reusedResult.getIncompleteRowCount(), realtimeIncompleteRowsConsumedMeter);
+                  transformResult.getIncompleteRowCount(), realtimeIncompleteRowsConsumedMeter);
         }
-        if (reusedResult.getSanitizedRowCount() > 0) {
+        if (transformResult.getSanitizedRowCount() > 0) {
           realtimeRowsSanitizedMeter =
               _serverMetrics.addMeteredTableValue(_clientId, ServerMeter.REALTIME_ROWS_SANITIZED,
-                  reusedResult.getSanitizedRowCount(), realtimeRowsSanitizedMeter);
+                  transformResult.getSanitizedRowCount(), realtimeRowsSanitizedMeter);
         }
-        List<GenericRow> transformedRows = reusedResult.getTransformedRows();
+        List<GenericRow> transformedRows = transformResult.getTransformedRows();
         for (GenericRow transformedRow : transformedRows) {
           try {
             canTakeMore = _realtimeSegment.index(transformedRow, metadata);
@@ -722,6 +762,11 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
           }
         }
 
+        // Remove expired primary keys from dedup metadata before starting consuming events
+        if (_partitionDedupMetadataManager != null) {
+          _partitionDedupMetadataManager.removeExpiredPrimaryKeys();
+        }
+
         while (!_state.isFinal()) {
           if (_state.shouldConsume()) {
             consumeLoop();  // Consume until we reached the end criteria, or we are stopped.
@@ -1391,6 +1436,9 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
 
   @Override
   protected void doDestroy() {
+    if (_pipelinedMessageProcessor != null) {
+      _pipelinedMessageProcessor.close();
+    }
     _realtimeSegment.destroy();
   }
 
@@ -1436,6 +1484,7 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
     _schema = schema;
     _serverMetrics = serverMetrics;
     _partitionUpsertMetadataManager = partitionUpsertMetadataManager;
+    _partitionDedupMetadataManager = partitionDedupMetadataManager;
     _isReadyToConsumeData = isReadyToConsumeData;
     _segmentVersion = indexLoadingConfig.getSegmentVersion();
     _instanceId = _realtimeTableDataManager.getInstanceId();
@@ -1490,6 +1539,7 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
         && tableConfig.getIngestionConfig().getStreamIngestionConfig() != null) {
       _trackFilteredMessageOffsets =
           tableConfig.getIngestionConfig().getStreamIngestionConfig().isTrackFilteredMessageOffsets();
+      _numDecodeThreads = tableConfig.getIngestionConfig().getStreamIngestionConfig().getNumDecodeThreads();
     }
 
     List<String> sortedColumns = indexLoadingConfig.getSortedColumns();
@@ -1556,6 +1606,8 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
             .setConsumerDir(consumerDir).setUpsertMode(tableConfig.getUpsertMode())
             .setPartitionUpsertMetadataManager(partitionUpsertMetadataManager)
             .setPartitionDedupMetadataManager(partitionDedupMetadataManager)
+            .setDedupTimeColumn(
+                partitionDedupMetadataManager != null ? partitionDedupMetadataManager.getDedupTimeColumn() : null)
             .setUpsertComparisonColumns(tableConfig.getUpsertComparisonColumns())
             .setUpsertDeleteRecordColumn(tableConfig.getUpsertDeleteRecordColumn())
             .setUpsertOutOfOrderRecordColumn(tableConfig.getOutOfOrderRecordColumn())
@@ -1592,6 +1644,22 @@ public class RealtimeSegmentDataManager extends SegmentDataManager {
       throw e;
     }
     _transformPipeline = new TransformPipeline(tableConfig, schema);
+    if (_numDecodeThreads > 1) {
+      // Each decode thread needs its own decoder and pipelines because they are not thread-safe
+      List<StreamDataDecoderImpl> decoders = new ArrayList<>(_numDecodeThreads);
+      List<RecordEnricherPipeline> recordEnricherPipelines = new ArrayList<>(_numDecodeThreads);
+      List<TransformPipeline> transformPipelines = new ArrayList<>(_numDecodeThreads);
+      for (int i = 0; i < _numDecodeThreads; i++) {
+        decoders.add(new StreamDataDecoderImpl(createMessageDecoder(fieldsToRead)));
+        recordEnricherPipelines.add(RecordEnricherPipeline.fromTableConfig(tableConfig));
+        transformPipelines.add(new TransformPipeline(tableConfig, schema));
+      }
+      _pipelinedMessageProcessor =
+          new PipelinedMessageProcessor(_segmentNameStr, decoders, recordEnricherPipelines, transformPipelines);
+      _segmentLogger.info("Decoding and transforming the messages with {} threads", _numDecodeThreads);
+    } else {
+      _pipelinedMessageProcessor = null;
+    }
     // Acquire semaphore to create stream consumers
     try {
       _partitionGroupConsumerSemaphore.acquire();
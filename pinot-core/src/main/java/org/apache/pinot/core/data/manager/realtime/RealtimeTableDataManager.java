@@ -257,6 +257,13 @@ public class RealtimeTableDataManager extends BaseTableDataManager {
     } else {
       releaseAndRemoveAllSegments();
     }
+    if (_tableDedupMetadataManager != null) {
+      try {
+        _tableDedupMetadataManager.close();
+      } catch (IOException e) {
+        _logger.warn("Caught exception while closing dedup metadata manager", e);
+      }
+    }
     if (_leaseExtender != null) {
       _leaseExtender.shutDown();
     }
@@ -189,6 +189,10 @@ public abstract class IndexedTable extends BaseTable {
   }
 
   public long getResizeTimeMs() {
-    return TimeUnit.NANOSECONDS.toMillis(_resizeTimeNs);
+    return TimeUnit.NANOSECONDS.toMillis(getResizeTimeNs());
+  }
+
+  long getResizeTimeNs() {
+    return _resizeTimeNs;
   }
 }
@@ -0,0 +1,295 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.table;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.HashCommon;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.util.trace.TraceRunnable;
+import org.apache.pinot.spi.accounting.ThreadExecutionContext;
+import org.apache.pinot.spi.accounting.ThreadResourceUsageProvider;
+import org.apache.pinot.spi.trace.Tracing;
+
+
+/**
+ * {@link IndexedTable} for the server combine where the records are aggregated without any lock.
+ * <ul>
+ *   <li>
+ *     Each worker thread upserts its records into its own {@link Writer}, which routes the records into hash
+ *     partitions by the key hash, and keeps a {@link SimpleIndexedTable} per partition.
+ *   </li>
+ *   <li>
+ *     After all the writers are done, {@link #mergePartitions(ExecutorService, int, long)} merges the same partition
+ *     of all the writers into one table. Different partitions never share keys, so they are merged and trimmed in
+ *     parallel without synchronization.
+ *   </li>
+ *   <li>
+ *     {@link #finish(boolean, boolean)} collects the merged partitions and computes the top records.
+ *   </li>
+ * </ul>
+ * NOTE: Trimming each merged partition to the trim size always keeps the global top records because the merged
+ *       partitions contain disjoint keys.
+ * NOTE: For GROUP BY with ORDER BY, the trim threshold is split evenly across the partitions of all the writers, so
+ *       that the total number of records kept before the merge is bounded by the trim threshold (same as
+ *       {@link ConcurrentIndexedTable}), unless it is smaller than twice the trim size per partition. Trimming a writer
+ *       partition drops the partial aggregates of the keys outside its own top records, similar to the segment level
+ *       trim, so the trimming is lossy much earlier than {@link ConcurrentIndexedTable} with the same trim threshold.
+ *       E.g. with the default trim threshold of 1M and 32 writers, each writer partition is trimmed once it has more
+ *       than {@code 2 * trimSize} keys, while {@link ConcurrentIndexedTable} is trimmed only at 1M keys in total.
+ *       Raise the trim threshold above {@code numWriters * numPartitions * 2 * trimSize} to delay the trimming.
+ * NOTE: For GROUP BY without ORDER BY, the writer partitions are not bounded by the result size. Otherwise a writer
+ *       could drop the records of a key that is kept by another writer, and the key would be returned with a partial
+ *       aggregate. The result size is applied in {@link #finish(boolean, boolean)} after all the records of the kept
+ *       keys are merged. Because the memory is not bounded, {@link ConcurrentIndexedTable} should be used for GROUP BY
+ *       without ORDER BY on the server.
+ */
+public class PartitionedIndexedTable extends IndexedTable {
+  private final QueryContext _queryContext;
+  private final int _numPartitions;
+  private final int _partitionTrimThreshold;
+  private final Queue<Writer> _writers = new ConcurrentLinkedQueue<>();
+
+  private SimpleIndexedTable[] _mergedPartitions;
+
+  /**
+   * Constructor for the PartitionedIndexedTable.
+   *
+   * @param dataSchema    Data schema of the table
+   * @param queryContext  Query context
+   * @param resultSize    Number of records to keep in the final result after calling {@link #finish(boolean, boolean)}
+   * @param trimSize      Number of records to keep when trimming a partition
+   * @param trimThreshold Trim threshold of the table, which is split evenly across the partitions of all the writers
+   *                      for GROUP BY with ORDER BY
+   * @param numWriters    Number of writers expected to be created with {@link #createWriter()}
+   * @param numPartitions Number of hash partitions, must be a power of 2
+   */
+  public PartitionedIndexedTable(DataSchema dataSchema, QueryContext queryContext, int resultSize, int trimSize,
+      int trimThreshold, int numWriters, int numPartitions) {
+    super(dataSchema, false, queryContext, resultSize, trimSize, trimThreshold, new HashMap<>());
+    Preconditions.checkArgument(numWriters > 0, "Number of writers must be positive, got: %s", numWriters);
+    Preconditions.checkArgument(numPartitions > 0 && Integer.bitCount(numPartitions) == 1,
+        "Number of partitions must be a positive power of 2, got: %s", numPartitions);
+    _queryContext = queryContext;
+    _numPartitions = numPartitions;
+    // NOTE: The partition trim threshold should be at least twice the trim size, or the partition cannot keep trimSize
+    //       records after trimming.
+    _partitionTrimThreshold =
+        _hasOrderBy ? (int) Math.max((long) _trimThreshold / ((long) numWriters * numPartitions), 2L * _trimSize)
+            : _trimThreshold;
+  }
+
+  public int getNumPartitions() {
+    return _numPartitions;
+  }
+
+  /**
+   * Creates a writer for one worker thread to upsert records into.
+   */
+  public Writer createWriter() {
+    Writer writer = new Writer();
+    _writers.add(writer);
+    return writer;
+  }
+
+  /**
+   * Records should be upserted through the writers created with {@link #createWriter()}.
+   */
+  @Override
+  public boolean upsert(Key key, Record record) {
+    throw new UnsupportedOperationException("Records should be upserted through the writers");
+  }
+
+  /**
+   * Merges the partitions of all the writers, where the partitions are merged in parallel with up to the given number
+   * of threads (including the current thread). Should be called after all the writers are done.
+   */
+  public void mergePartitions(ExecutorService executorService, int maxNumThreads, long endTimeMs)
+      throws InterruptedException, TimeoutException {
+    Writer[] writers = _writers.toArray(new Writer[0]);
+    SimpleIndexedTable[] mergedPartitions = new SimpleIndexedTable[_numPartitions];
+    AtomicInteger nextPartitionId = new AtomicInteger();
+    AtomicReference<Throwable> mergeException = new AtomicReference<>();
+    CountDownLatch mergedLatch = new CountDownLatch(_numPartitions);
+    Runnable mergeTask = () -> {
+      int partitionId;
+      while ((partitionId = nextPartitionId.getAndIncrement()) < _numPartitions) {
+        try {
+          mergedPartitions[partitionId] = mergePartition(writers, partitionId);
+        } catch (Throwable t) {
+          mergeException.compareAndSet(null, t);
+        } finally {
+          mergedLatch.countDown();
+        }
+      }
+    };
+
+    // NOTE: The current thread also merges the partitions, so that the merge can finish even if the helper tasks are
+    //       not scheduled because all the threads are busy. Helper tasks started after all the partitions are claimed
+    //       return immediately.
+    int numHelperTasks = Math.min(maxNumThreads, _numPartitions) - 1;
+    Future<?>[] futures = new Future[Math.max(numHelperTasks, 0)];
+    ThreadExecutionContext parentContext = Tracing.getThreadAccountant().getThreadExecutionContext();
+    for (int i = 0; i < futures.length; i++) {
+      int taskId = i;
+      futures[i] = executorService.submit(new TraceRunnable() {
+        @Override
+        public void runJob() {
+          Tracing.ThreadAccountantOps.setupWorker(taskId, new ThreadResourceUsageProvider(), parentContext);
+          try {
+            mergeTask.run();
+          } finally {
+            Tracing.ThreadAccountantOps.clear();
+          }
+        }
+      });
+    }
+    try {
+      mergeTask.run();
+      if (!mergedLatch.await(endTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS)) {
+        throw new TimeoutException("Timed out while merging the partitions");
+      }
+    } finally {
+      for (Future<?> future : futures) {
+        future.cancel(true);
+      }
+    }
+    Throwable t = mergeException.get();
+    if (t != null) {
+      throw new RuntimeException("Caught exception while merging the partitions", t);
+    }
+    _mergedPartitions = mergedPartitions;
+  }
+
+  /**
+   * Merges the given partition of all the writers into the largest one, and trims it if needed.
+   */
+  @Nullable
+  private SimpleIndexedTable mergePartition(Writer[] writers, int partitionId) {
+    SimpleIndexedTable mergedPartition = null;
+    for (Writer writer : writers) {
+      SimpleIndexedTable partition = writer._partitions[partitionId];
+      if (partition != null && (mergedPartition == null
+          || partition._lookupMap.size() > mergedPartition._lookupMap.size())) {
+        mergedPartition = partition;
+      }
+    }
+    if (mergedPartition == null) {
+      return null;
+    }
+    for (Writer writer : writers) {
+      SimpleIndexedTable partition = writer._partitions[partitionId];
+      if (partition != null && partition != mergedPartition) {
+        for (Map.Entry<Key, Record> entry : partition._lookupMap.entrySet()) {
+          mergedPartition.upsert(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    if (_hasOrderBy && mergedPartition._lookupMap.size() > _trimSize) {
+      mergedPartition.resize();
+    }
+    return mergedPartition;
+  }
+
+  @Override
+  public void finish(boolean sort, boolean storeFinalResult) {
+    Preconditions.checkState(_mergedPartitions != null, "Partitions must be merged before finishing the table");
+    for (SimpleIndexedTable partition : _mergedPartitions) {
+      if (partition == null) {
+        continue;
+      }
+      if (_hasOrderBy) {
+        _lookupMap.putAll(partition._lookupMap);
+      } else {
+        // Same as ConcurrentIndexedTable, keep the first resultSize groups when there is no ordering
+        for (Map.Entry<Key, Record> entry : partition._lookupMap.entrySet()) {
+          if (_lookupMap.size() >= _resultSize) {
+            break;
+          }
+          _lookupMap.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    super.finish(sort, storeFinalResult);
+  }
+
+  @Override
+  public int getNumResizes() {
+    int numResizes = super.getNumResizes();
+    for (Writer writer : _writers) {
+      for (SimpleIndexedTable partition : writer._partitions) {
+        if (partition != null) {
+          numResizes += partition.getNumResizes();
+        }
+      }
+    }
+    return numResizes;
+  }
+
+  @Override
+  long getResizeTimeNs() {
+    long resizeTimeNs = super.getResizeTimeNs();
+    for (Writer writer : _writers) {
+      for (SimpleIndexedTable partition : writer._partitions) {
+        if (partition != null) {
+          resizeTimeNs += partition.getResizeTimeNs();
+        }
+      }
+    }
+    return resizeTimeNs;
+  }
+
+  /**
+   * Per-thread writer of the {@link PartitionedIndexedTable}.
+   */
+  @NotThreadSafe
+  public class Writer {
+    private final SimpleIndexedTable[] _partitions = new SimpleIndexedTable[_numPartitions];
+
+    private Writer() {
+    }
+
+    public void upsert(Key key, Record record) {
+      // NOTE: Mix the hash so that the partition id is not correlated with the bucket in the partition hash map
+      int partitionId = HashCommon.mix(key.hashCode()) & (_numPartitions - 1);
+      SimpleIndexedTable partition = _partitions[partitionId];
+      if (partition == null) {
+        // NOTE: Without ORDER BY, do not bound the partition with the result size because the same key might be kept
+        //       by the same partition of other writers. The result size is applied after the merge.
+        partition = new SimpleIndexedTable(_dataSchema, _hasFinalInput, _queryContext,
+            _hasOrderBy ? _resultSize : Integer.MAX_VALUE, _trimSize, _partitionTrimThreshold);
+        _partitions[partitionId] = partition;
+      }
+      partition.upsert(key, record);
+    }
+  }
+}
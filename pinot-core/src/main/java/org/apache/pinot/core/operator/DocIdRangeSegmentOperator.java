@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
+
+
+/**
+ * A wrapper around the segment-level operator which only processes the documents within a docId range of the segment.
+ * It reports the number of documents within the range as the total docs, so that the execution statistics are not
+ * inflated when the segment is split into multiple docId ranges.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class DocIdRangeSegmentOperator extends BaseOperator<BaseResultsBlock> {
+  private static final String EXPLAIN_NAME = "DOC_ID_RANGE_SEGMENT";
+
+  private final Operator<BaseResultsBlock> _childOperator;
+  private final SegmentContext _segmentContext;
+  private final int _startDocId;
+  private final int _endDocId;
+
+  /**
+   * @param childOperator Segment-level operator for the docId range
+   * @param segmentContext Segment context of the whole segment, shared by all the docId ranges of the segment
+   * @param startDocId Start docId of the range (inclusive)
+   * @param endDocId End docId of the range (exclusive)
+   */
+  public DocIdRangeSegmentOperator(Operator childOperator, SegmentContext segmentContext, int startDocId,
+      int endDocId) {
+    _childOperator = childOperator;
+    _segmentContext = segmentContext;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
+  }
+
+  /**
+   * Returns the segment context of the whole segment, which identifies the segment the docId range belongs to.
+   */
+  public SegmentContext getSegmentContext() {
+    return _segmentContext;
+  }
+
+  /**
+   * Returns {@code true} if this operator processes the first docId range of the segment, which is used to count the
+   * segment only once in the execution statistics.
+   */
+  public boolean isFirstDocIdRange() {
+    return _startDocId == 0;
+  }
+
+  @Override
+  protected BaseResultsBlock getNextBlock() {
+    return _childOperator.nextBlock();
+  }
+
+  @Override
+  public String toExplainString() {
+    return EXPLAIN_NAME + "(startDocId:" + _startDocId + ", endDocId:" + _endDocId + ')';
+  }
+
+  @Override
+  public List<Operator> getChildOperators() {
+    return Collections.singletonList(_childOperator);
+  }
+
+  @Override
+  public IndexSegment getIndexSegment() {
+    return _segmentContext.getIndexSegment();
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    ExecutionStatistics executionStatistics = _childOperator.getExecutionStatistics();
+    return new ExecutionStatistics(executionStatistics.getNumDocsScanned(),
+        executionStatistics.getNumEntriesScannedInFilter(), executionStatistics.getNumEntriesScannedPostFilter(),
+        _endDocId - _startDocId);
+  }
+}
@@ -79,8 +79,15 @@ public abstract class BaseCombineOperator<T extends BaseResultsBlock> extends Ba
 
     // NOTE: We split the query execution into multiple tasks, where each task handles the query execution on multiple
     //       (>=1) segments. These tasks are assigned to multiple execution threads so that they can run in parallel.
-    //       The parallelism is bounded by the task count.
-    _numTasks = QueryMultiThreadingUtils.getNumTasksForQuery(operators.size(), queryContext.getMaxExecutionThreads());
+    //       The parallelism is bounded by the task count. With adaptive parallelism, the task count also depends on the
+    //       number of threads currently available in the executor service.
+    if (queryContext.isAdaptiveParallelism()) {
+      _numTasks = QueryMultiThreadingUtils.getAdaptiveNumTasksForQuery(operators.size(),
+          queryContext.getMaxExecutionThreads(), executorService);
+    } else {
+      _numTasks =
+          QueryMultiThreadingUtils.getNumTasksForQuery(operators.size(), queryContext.getMaxExecutionThreads());
+    }
 
     // Use a Phaser to ensure all the Futures are done (not scheduled, finished or interrupted) before the main thread
     // returns. We need to ensure this because the main thread holds the reference to the segments. If a segment is
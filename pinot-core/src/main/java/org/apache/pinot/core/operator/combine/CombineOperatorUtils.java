@@ -18,11 +18,15 @@
  */
 package org.apache.pinot.core.operator.combine;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.DocIdRangeSegmentOperator;
 import org.apache.pinot.core.operator.ExecutionStatistics;
 import org.apache.pinot.core.operator.blocks.results.BaseResultsBlock;
 import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
 
 
 @SuppressWarnings("rawtypes")
@@ -43,9 +47,20 @@ public class CombineOperatorUtils {
     long numEntriesScannedInFilter = 0;
     long numEntriesScannedPostFilter = 0;
     long numTotalDocs = 0;
+    // Segments split into multiple docId ranges should only be counted once
+    Set<SegmentContext> matchedDocIdRangeSegments = new HashSet<>();
     for (Operator operator : operators) {
       ExecutionStatistics executionStatistics = operator.getExecutionStatistics();
-      if (executionStatistics.getNumDocsScanned() > 0) {
+      if (operator instanceof DocIdRangeSegmentOperator) {
+        DocIdRangeSegmentOperator docIdRangeSegmentOperator = (DocIdRangeSegmentOperator) operator;
+        if (!docIdRangeSegmentOperator.isFirstDocIdRange()) {
+          numSegmentsProcessed--;
+        }
+        if (executionStatistics.getNumDocsScanned() > 0 && matchedDocIdRangeSegments.add(
+            docIdRangeSegmentOperator.getSegmentContext())) {
+          numSegmentsMatched++;
+        }
+      } else if (executionStatistics.getNumDocsScanned() > 0) {
         numSegmentsMatched++;
       }
 
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.operator.combine;
 
+import it.unimi.dsi.fastutil.HashCommon;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
@@ -26,12 +27,14 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import javax.annotation.Nullable;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.core.data.table.ConcurrentIndexedTable;
 import org.apache.pinot.core.data.table.IndexedTable;
 import org.apache.pinot.core.data.table.IntermediateRecord;
 import org.apache.pinot.core.data.table.Key;
+import org.apache.pinot.core.data.table.PartitionedIndexedTable;
 import org.apache.pinot.core.data.table.Record;
 import org.apache.pinot.core.data.table.UnboundedConcurrentIndexedTable;
 import org.apache.pinot.core.operator.AcquireReleaseColumnsSegmentOperator;
@@ -123,6 +126,7 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
    */
   @Override
   protected void processSegments() {
+    PartitionedIndexedTable.Writer writer = null;
     int operatorId;
     while (_processingException.get() == null && (operatorId = _nextOperatorId.getAndIncrement()) < _numOperators) {
       Operator operator = _operators.get(operatorId);
@@ -136,7 +140,15 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
             if (_indexedTable == null) {
               DataSchema dataSchema = resultsBlock.getDataSchema();
               // NOTE: Use trimSize as resultSize on server size.
-              if (_trimThreshold >= MAX_TRIM_THRESHOLD) {
+              if (_queryContext.isPartitionedGroupByCombine() && _numTasks > 1
+                  && _queryContext.getOrderByExpressions() != null) {
+                // Each task upserts into its own partitions without lock, and the partitions are merged in parallel
+                // after all the segments are processed.
+                // NOTE: Without ORDER BY, the partitions cannot be bounded by the result size without losing the
+                //       records of the kept keys, so ConcurrentIndexedTable is used to bound the memory instead.
+                _indexedTable = new PartitionedIndexedTable(dataSchema, _queryContext, _trimSize, _trimSize,
+                    _trimThreshold, _numTasks, HashCommon.nextPowerOfTwo(_numTasks));
+              } else if (_trimThreshold >= MAX_TRIM_THRESHOLD) {
                 // special case of trim threshold where it is set to max value.
                 // there won't be any trimming during upsert in this case.
                 // thus we can avoid the overhead of read-lock and write-lock
@@ -150,6 +162,10 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
           }
         }
 
+        if (writer == null && _indexedTable instanceof PartitionedIndexedTable) {
+          writer = ((PartitionedIndexedTable) _indexedTable).createWriter();
+        }
+
         // Set groups limit reached flag.
         if (resultsBlock.isNumGroupsLimitReached()) {
           _numGroupsLimitReached = true;
@@ -175,7 +191,7 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
               for (int i = 0; i < _numAggregationFunctions; i++) {
                 values[_numGroupByExpressions + i] = aggregationGroupByResult.getResultForGroupId(i, groupId);
               }
-              _indexedTable.upsert(new Key(keys), new Record(values));
+              upsert(writer, new Key(keys), new Record(values));
               Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
               mergedKeys++;
             }
@@ -183,7 +199,7 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
         } else {
           for (IntermediateRecord intermediateResult : intermediateRecords) {
             //TODO: change upsert api so that it accepts intermediateRecord directly
-            _indexedTable.upsert(intermediateResult._key, intermediateResult._record);
+            upsert(writer, intermediateResult._key, intermediateResult._record);
             Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(mergedKeys);
             mergedKeys++;
           }
@@ -196,6 +212,14 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
     }
   }
 
+  private void upsert(@Nullable PartitionedIndexedTable.Writer writer, Key key, Record record) {
+    if (writer != null) {
+      writer.upsert(key, record);
+    } else {
+      _indexedTable.upsert(key, record);
+    }
+  }
+
   @Override
   public void onProcessSegmentsException(Throwable t) {
     _processingException.compareAndSet(null, t);
@@ -239,6 +263,15 @@ public class GroupByCombineOperator extends BaseSingleBlockCombineOperator<Group
     }
 
     IndexedTable indexedTable = _indexedTable;
+    if (indexedTable instanceof PartitionedIndexedTable) {
+      try {
+        ((PartitionedIndexedTable) indexedTable).mergePartitions(_executorService, _numTasks,
+            _queryContext.getEndTimeMs());
+      } catch (TimeoutException e) {
+        LOGGER.error("Timed out while merging group-by partitions, queryContext = {}", _queryContext);
+        return new ExceptionResultsBlock(e);
+      }
+    }
     if (_queryContext.isServerReturnFinalResult()) {
       indexedTable.finish(true, true);
     } else if (_queryContext.isServerReturnFinalResultKeyUnpartitioned()) {
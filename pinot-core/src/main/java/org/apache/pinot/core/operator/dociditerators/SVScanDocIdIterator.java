@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.operator.dociditerators;
 
+import java.math.BigDecimal;
 import java.util.OptionalInt;
 import org.apache.pinot.core.common.BlockDocIdIterator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
@@ -292,25 +293,49 @@ public final class SVScanDocIdIterator implements ScanBasedDocIdIterator {
 
   private class BigDecimalMatcher implements ValueMatcher {
 
+    private final BigDecimal[] _buffer = new BigDecimal[_batch.length];
+
     @Override
     public boolean doesValueMatch(int docId) {
       return _predicateEvaluator.applySV(_reader.getBigDecimal(docId, _readerContext));
     }
+
+    @Override
+    public int matchValues(int limit, int[] docIds) {
+      _reader.readValuesSV(docIds, limit, _buffer, _readerContext);
+      return _predicateEvaluator.applySV(limit, docIds, _buffer);
+    }
   }
 
   private class StringMatcher implements ValueMatcher {
 
+    private final String[] _buffer = new String[_batch.length];
+
     @Override
     public boolean doesValueMatch(int docId) {
       return _predicateEvaluator.applySV(_reader.getString(docId, _readerContext));
     }
+
+    @Override
+    public int matchValues(int limit, int[] docIds) {
+      _reader.readValuesSV(docIds, limit, _buffer, _readerContext);
+      return _predicateEvaluator.applySV(limit, docIds, _buffer);
+    }
   }
 
   private class BytesMatcher implements ValueMatcher {
 
+    private final byte[][] _buffer = new byte[_batch.length][];
+
     @Override
     public boolean doesValueMatch(int docId) {
       return _predicateEvaluator.applySV(_reader.getBytes(docId, _readerContext));
     }
+
+    @Override
+    public int matchValues(int limit, int[] docIds) {
+      _reader.readValuesSV(docIds, limit, _buffer, _readerContext);
+      return _predicateEvaluator.applySV(limit, docIds, _buffer);
+    }
   }
 }
@@ -246,6 +246,26 @@ public interface PredicateEvaluator {
    */
   boolean applySV(BigDecimal value);
 
+  /**
+   * Apply the predicate to a batch of single-value entries.
+   * Compact matching entries into the prefix of the docIds array.
+   *
+   * @param limit How much of the input to consume.
+   * @param docIds The docIds associated with the values - may be modified by invocation.
+   * @param values Batch of raw values.
+   * @return the index of the first non-matching entry.
+   */
+  default int applySV(int limit, int[] docIds, BigDecimal[] values) {
+    int matches = 0;
+    for (int i = 0; i < limit; i++) {
+      BigDecimal value = values[i];
+      if (applySV(value)) {
+        docIds[matches++] = docIds[i];
+      }
+    }
+    return matches;
+  }
+
   /**
    * Apply a single-value entry to the predicate.
    *
@@ -254,6 +274,26 @@ public interface PredicateEvaluator {
    */
   boolean applySV(String value);
 
+  /**
+   * Apply the predicate to a batch of single-value entries.
+   * Compact matching entries into the prefix of the docIds array.
+   *
+   * @param limit How much of the input to consume.
+   * @param docIds The docIds associated with the values - may be modified by invocation.
+   * @param values Batch of raw values.
+   * @return the index of the first non-matching entry.
+   */
+  default int applySV(int limit, int[] docIds, String[] values) {
+    int matches = 0;
+    for (int i = 0; i < limit; i++) {
+      String value = values[i];
+      if (applySV(value)) {
+        docIds[matches++] = docIds[i];
+      }
+    }
+    return matches;
+  }
+
   /**
    * Apply a multi-value entry to the predicate.
    *
@@ -271,6 +311,26 @@ public interface PredicateEvaluator {
    */
   boolean applySV(byte[] value);
 
+  /**
+   * Apply the predicate to a batch of single-value entries.
+   * Compact matching entries into the prefix of the docIds array.
+   *
+   * @param limit How much of the input to consume.
+   * @param docIds The docIds associated with the values - may be modified by invocation.
+   * @param values Batch of raw values.
+   * @return the index of the first non-matching entry.
+   */
+  default int applySV(int limit, int[] docIds, byte[][] values) {
+    int matches = 0;
+    for (int i = 0; i < limit; i++) {
+      byte[] value = values[i];
+      if (applySV(value)) {
+        docIds[matches++] = docIds[i];
+      }
+    }
+    return matches;
+  }
+
   /**
    * Apply a multi-value entry to the predicate.
    *
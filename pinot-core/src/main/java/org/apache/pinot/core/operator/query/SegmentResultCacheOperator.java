@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.operator.query;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.core.common.Operator;
+import org.apache.pinot.core.operator.BaseOperator;
+import org.apache.pinot.core.operator.ExecutionStatistics;
+import org.apache.pinot.core.operator.blocks.results.AggregationResultsBlock;
+import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
+import org.apache.pinot.core.query.request.context.QueryContext;
+
+
+/**
+ * The <code>SegmentResultCacheOperator</code> class serves the aggregation only query on a single segment from the
+ * {@link SegmentResultCache}. On cache miss, it runs the wrapped segment-level plan, and caches the intermediate
+ * results before they are merged by the combine operator.
+ */
+@SuppressWarnings("unchecked")
+public class SegmentResultCacheOperator extends BaseOperator<AggregationResultsBlock> {
+  private static final String EXPLAIN_NAME = "AGGREGATE_SEGMENT_RESULT_CACHE";
+
+  private final PlanNode _planNode;
+  private final SegmentResultCache _segmentResultCache;
+  private final SegmentResultCache.Key _key;
+  private final QueryContext _queryContext;
+  private final long _numTotalDocs;
+
+  private Operator<AggregationResultsBlock> _childOperator;
+
+  public SegmentResultCacheOperator(PlanNode planNode, SegmentResultCache segmentResultCache,
+      SegmentResultCache.Key key, QueryContext queryContext, long numTotalDocs) {
+    _planNode = planNode;
+    _segmentResultCache = segmentResultCache;
+    _key = key;
+    _queryContext = queryContext;
+    _numTotalDocs = numTotalDocs;
+  }
+
+  @Override
+  protected AggregationResultsBlock getNextBlock() {
+    List<Object> cachedResults = _segmentResultCache.get(_key);
+    if (cachedResults != null) {
+      return new AggregationResultsBlock(_queryContext.getAggregationFunctions(), cachedResults, _queryContext);
+    }
+    _childOperator = (Operator<AggregationResultsBlock>) _planNode.run();
+    AggregationResultsBlock resultsBlock = _childOperator.nextBlock();
+    // NOTE: Results must be cached before returning because the combine operator might merge other results into them
+    _segmentResultCache.put(_key, resultsBlock.getResults());
+    return resultsBlock;
+  }
+
+  @Override
+  public List<Operator> getChildOperators() {
+    return _childOperator != null ? Collections.singletonList(_childOperator) : Collections.emptyList();
+  }
+
+  @Override
+  public ExecutionStatistics getExecutionStatistics() {
+    return _childOperator != null ? _childOperator.getExecutionStatistics()
+        : new ExecutionStatistics(0, 0, 0, _numTotalDocs);
+  }
+
+  @Override
+  public String toExplainString() {
+    return EXPLAIN_NAME;
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.pinot.core.operator.transform.function;
 import com.google.common.base.Preconditions;
 import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import org.apache.commons.lang3.ArrayUtils;
@@ -51,6 +52,11 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
   private int[] _nonLiteralIndices;
   private TransformFunction[] _nonLiteralFunctions;
   private Object[][] _nonLiteralValues;
+  private int _numLiteralArguments;
+  private int[] _literalIndices;
+  // Arguments for the batch invocation of the functions with primitive signature, null if not applicable
+  private double[][] _doubleArguments;
+  private long[][] _longArguments;
 
   public ScalarTransformFunctionWrapper(FunctionInfo functionInfo) {
     _name = functionInfo.getMethod().getName();
@@ -91,9 +97,12 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     _scalarArguments = new Object[numArguments];
     _nonLiteralIndices = new int[numArguments];
     _nonLiteralFunctions = new TransformFunction[numArguments];
+    _literalIndices = new int[numArguments];
+    boolean hasNullLiteral = false;
     for (int i = 0; i < numArguments; i++) {
       TransformFunction transformFunction = arguments.get(i);
       if (transformFunction instanceof LiteralTransformFunction) {
+        _literalIndices[_numLiteralArguments++] = i;
         LiteralTransformFunction literalTransformFunction = (LiteralTransformFunction) transformFunction;
         DataType dataType = literalTransformFunction.getResultMetadata().getDataType();
         switch (dataType) {
@@ -139,6 +148,7 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
             break;
           case UNKNOWN:
             _scalarArguments[i] = null;
+            hasNullLiteral = true;
             break;
           default:
             throw new RuntimeException("Unsupported data type:" + dataType);
@@ -150,6 +160,16 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
       }
     }
     _nonLiteralValues = new Object[_numNonLiteralArguments][];
+
+    // Invoke the functions with primitive signature on the whole block without boxing. Null literal argument should
+    // result in null, which is handled by the row-by-row invocation.
+    if (!hasNullLiteral) {
+      if (_functionInvoker.isDoubleFunction()) {
+        _doubleArguments = new double[numArguments][];
+      } else if (_functionInvoker.isLongFunction()) {
+        _longArguments = new long[numArguments][];
+      }
+    }
   }
 
   @Override
@@ -182,6 +202,22 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     }
     int length = valueBlock.getNumDocs();
     initLongValuesSV(length);
+    if (_longArguments != null) {
+      for (int i = 0; i < _numNonLiteralArguments; i++) {
+        _longArguments[_nonLiteralIndices[i]] = _nonLiteralFunctions[i].transformToLongValuesSV(valueBlock);
+      }
+      for (int i = 0; i < _numLiteralArguments; i++) {
+        int index = _literalIndices[i];
+        long[] values = _longArguments[index];
+        if (values == null || values.length < length) {
+          values = new long[length];
+          Arrays.fill(values, (long) _scalarArguments[index]);
+          _longArguments[index] = values;
+        }
+      }
+      _functionInvoker.invokeLong(_longArguments, length, _longValuesSV);
+      return _longValuesSV;
+    }
     getNonLiteralValues(valueBlock);
     for (int i = 0; i < length; i++) {
       for (int j = 0; j < _numNonLiteralArguments; j++) {
@@ -219,6 +255,22 @@ public class ScalarTransformFunctionWrapper extends BaseTransformFunction {
     }
     int length = valueBlock.getNumDocs();
     initDoubleValuesSV(length);
+    if (_doubleArguments != null) {
+      for (int i = 0; i < _numNonLiteralArguments; i++) {
+        _doubleArguments[_nonLiteralIndices[i]] = _nonLiteralFunctions[i].transformToDoubleValuesSV(valueBlock);
+      }
+      for (int i = 0; i < _numLiteralArguments; i++) {
+        int index = _literalIndices[i];
+        double[] values = _doubleArguments[index];
+        if (values == null || values.length < length) {
+          values = new double[length];
+          Arrays.fill(values, (double) _scalarArguments[index]);
+          _doubleArguments[index] = values;
+        }
+      }
+      _functionInvoker.invokeDouble(_doubleArguments, length, _doubleValuesSV);
+      return _doubleValuesSV;
+    }
     getNonLiteralValues(valueBlock);
     for (int i = 0; i < length; i++) {
       for (int j = 0; j < _numNonLiteralArguments; j++) {
@@ -122,7 +122,7 @@ public class AggregationPlanNode implements PlanNode {
    * Returns {@code true} if the given aggregations can be solved with dictionary or column metadata, {@code false}
    * otherwise.
    */
-  private static boolean isFitForNonScanBasedPlan(AggregationFunction[] aggregationFunctions,
+  public static boolean isFitForNonScanBasedPlan(AggregationFunction[] aggregationFunctions,
       IndexSegment indexSegment) {
     for (AggregationFunction aggregationFunction : aggregationFunctions) {
       if (aggregationFunction.getType() == COUNT) {
@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.plan;
+
+import org.apache.pinot.core.operator.DocIdRangeSegmentOperator;
+import org.apache.pinot.segment.spi.SegmentContext;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * A wrapper for the segment-level plan node which only processes the documents within a docId range of the segment.
+ * <p>Large segments can be split into multiple docId ranges, each planned with a {@link SegmentContext} whose queryable
+ * docIds are restricted to the range, so that the ranges can be processed in parallel and merged by the combine
+ * operator the same way as separate segments.
+ */
+public class DocIdRangeSegmentPlanNode implements PlanNode {
+  private final PlanNode _childPlanNode;
+  private final SegmentContext _segmentContext;
+  private final int _startDocId;
+  private final int _endDocId;
+
+  /**
+   * @param childPlanNode Segment-level plan node built with the segment context returned by
+   *                      {@link #getDocIdRangeSegmentContext(SegmentContext, int, int)}
+   * @param segmentContext Segment context of the whole segment
+   * @param startDocId Start docId of the range (inclusive)
+   * @param endDocId End docId of the range (exclusive)
+   */
+  public DocIdRangeSegmentPlanNode(PlanNode childPlanNode, SegmentContext segmentContext, int startDocId,
+      int endDocId) {
+    _childPlanNode = childPlanNode;
+    _segmentContext = segmentContext;
+    _startDocId = startDocId;
+    _endDocId = endDocId;
+  }
+
+  @Override
+  public DocIdRangeSegmentOperator run() {
+    return new DocIdRangeSegmentOperator(_childPlanNode.run(), _segmentContext, _startDocId, _endDocId);
+  }
+
+  /**
+   * Returns a segment context for the same segment with the queryable docIds restricted to the given docId range.
+   */
+  public static SegmentContext getDocIdRangeSegmentContext(SegmentContext segmentContext, int startDocId,
+      int endDocId) {
+    MutableRoaringBitmap queryableDocIds = new MutableRoaringBitmap();
+    queryableDocIds.add((long) startDocId, (long) endDocId);
+    MutableRoaringBitmap queryableDocIdsSnapshot = segmentContext.getQueryableDocIdsSnapshot();
+    if (queryableDocIdsSnapshot != null) {
+      queryableDocIds.and(queryableDocIdsSnapshot);
+    }
+    SegmentContext docIdRangeSegmentContext = new SegmentContext(segmentContext.getIndexSegment());
+    docIdRangeSegmentContext.setQueryableDocIdsSnapshot(queryableDocIds);
+    return docIdRangeSegmentContext;
+  }
+}
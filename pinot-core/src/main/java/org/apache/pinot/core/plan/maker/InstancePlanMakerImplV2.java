@@ -22,6 +22,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
@@ -37,24 +38,32 @@ import org.apache.pinot.core.plan.AcquireReleaseColumnsSegmentPlanNode;
 import org.apache.pinot.core.plan.AggregationPlanNode;
 import org.apache.pinot.core.plan.CombinePlanNode;
 import org.apache.pinot.core.plan.DistinctPlanNode;
+import org.apache.pinot.core.plan.DocIdRangeSegmentPlanNode;
 import org.apache.pinot.core.plan.GlobalPlanImplV0;
 import org.apache.pinot.core.plan.GroupByPlanNode;
 import org.apache.pinot.core.plan.InstanceResponsePlanNode;
 import org.apache.pinot.core.plan.Plan;
 import org.apache.pinot.core.plan.PlanNode;
+import org.apache.pinot.core.plan.SegmentResultCachePlanNode;
 import org.apache.pinot.core.plan.SelectionPlanNode;
 import org.apache.pinot.core.plan.StreamingInstanceResponsePlanNode;
 import org.apache.pinot.core.plan.StreamingSelectionPlanNode;
+import org.apache.pinot.core.query.aggregation.function.AggregationFunction;
 import org.apache.pinot.core.query.executor.ResultsBlockStreamer;
+import org.apache.pinot.core.query.executor.SegmentResultCache;
 import org.apache.pinot.core.query.prefetch.FetchPlanner;
 import org.apache.pinot.core.query.prefetch.FetchPlannerRegistry;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextUtils;
 import org.apache.pinot.core.util.GroupByUtils;
+import org.apache.pinot.segment.spi.AggregationFunctionType;
 import org.apache.pinot.segment.spi.FetchContext;
+import org.apache.pinot.segment.spi.ImmutableSegment;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.SegmentContext;
+import org.apache.pinot.segment.spi.index.startree.StarTreeV2;
 import org.apache.pinot.spi.env.PinotConfiguration;
+import org.apache.pinot.spi.utils.DataSizeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -67,6 +76,16 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   // Set as pinot.server.query.executor.max.execution.threads
   public static final String MAX_EXECUTION_THREADS_KEY = "max.execution.threads";
   public static final int DEFAULT_MAX_EXECUTION_THREADS = -1;
+  // Instance config key for whether to adapt the query parallelism to the segment sizes and the load of the query
+  // worker threads, can be overridden by the query option
+  // Set as pinot.server.query.executor.adaptive.parallelism
+  public static final String ADAPTIVE_PARALLELISM_KEY = "adaptive.parallelism";
+  public static final boolean DEFAULT_ADAPTIVE_PARALLELISM = false;
+  // Instance config key for the minimum number of documents in each docId range when splitting large immutable segments
+  // with adaptive parallelism, where non-positive value disables the splitting
+  // Set as pinot.server.query.executor.min.docs.per.doc.id.range
+  public static final String MIN_DOCS_PER_DOC_ID_RANGE_KEY = "min.docs.per.doc.id.range";
+  public static final int DEFAULT_MIN_DOCS_PER_DOC_ID_RANGE = 1_000_000;
 
   public static final String MAX_INITIAL_RESULT_HOLDER_CAPACITY_KEY = "max.init.group.holder.capacity";
   public static final int DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY = 10_000;
@@ -86,11 +105,22 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   // set as pinot.server.query.executor.groupby.trim.threshold
   public static final String GROUPBY_TRIM_THRESHOLD_KEY = "groupby.trim.threshold";
   public static final int DEFAULT_GROUPBY_TRIM_THRESHOLD = 1_000_000;
+  // Instance config key for whether to combine the group-by results in per-thread hash partitions which are merged in
+  // parallel, instead of upserting all the results into one concurrent table, can be overridden by the query option
+  // Set as pinot.server.query.executor.partitioned.group.by.combine
+  public static final String PARTITIONED_GROUP_BY_COMBINE_KEY = "partitioned.group.by.combine";
+  public static final boolean DEFAULT_PARTITIONED_GROUP_BY_COMBINE = false;
+  // Instance config key for the maximum size of the segment-level result cache, disabled when non-positive
+  // Set as pinot.server.query.executor.segment.result.cache.max.size.bytes
+  public static final String SEGMENT_RESULT_CACHE_MAX_SIZE_BYTES_KEY = "segment.result.cache.max.size.bytes";
+  public static final String DEFAULT_SEGMENT_RESULT_CACHE_MAX_SIZE_BYTES = "0";
 
   private static final Logger LOGGER = LoggerFactory.getLogger(InstancePlanMakerImplV2.class);
 
   private final FetchPlanner _fetchPlanner = FetchPlannerRegistry.getPlanner();
   private int _maxExecutionThreads = DEFAULT_MAX_EXECUTION_THREADS;
+  private boolean _adaptiveParallelism = DEFAULT_ADAPTIVE_PARALLELISM;
+  private int _minDocsPerDocIdRange = DEFAULT_MIN_DOCS_PER_DOC_ID_RANGE;
   private int _maxInitialResultHolderCapacity = DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY;
   // Limit on number of groups stored for each segment, beyond which no new group will be created
   private int _numGroupsLimit = DEFAULT_NUM_GROUPS_LIMIT;
@@ -98,6 +128,8 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   private int _minSegmentGroupTrimSize = DEFAULT_MIN_SEGMENT_GROUP_TRIM_SIZE;
   private int _minServerGroupTrimSize = DEFAULT_MIN_SERVER_GROUP_TRIM_SIZE;
   private int _groupByTrimThreshold = DEFAULT_GROUPBY_TRIM_THRESHOLD;
+  private boolean _partitionedGroupByCombine = DEFAULT_PARTITIONED_GROUP_BY_COMBINE;
+  private SegmentResultCache _segmentResultCache;
 
   public InstancePlanMakerImplV2() {
   }
@@ -115,6 +147,9 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   @Override
   public void init(PinotConfiguration queryExecutorConfig) {
     _maxExecutionThreads = queryExecutorConfig.getProperty(MAX_EXECUTION_THREADS_KEY, DEFAULT_MAX_EXECUTION_THREADS);
+    _adaptiveParallelism = queryExecutorConfig.getProperty(ADAPTIVE_PARALLELISM_KEY, DEFAULT_ADAPTIVE_PARALLELISM);
+    _minDocsPerDocIdRange =
+        queryExecutorConfig.getProperty(MIN_DOCS_PER_DOC_ID_RANGE_KEY, DEFAULT_MIN_DOCS_PER_DOC_ID_RANGE);
     _maxInitialResultHolderCapacity = queryExecutorConfig.getProperty(MAX_INITIAL_RESULT_HOLDER_CAPACITY_KEY,
         DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY);
     _numGroupsLimit = queryExecutorConfig.getProperty(NUM_GROUPS_LIMIT_KEY, DEFAULT_NUM_GROUPS_LIMIT);
@@ -128,15 +163,28 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     _groupByTrimThreshold = queryExecutorConfig.getProperty(GROUPBY_TRIM_THRESHOLD_KEY, DEFAULT_GROUPBY_TRIM_THRESHOLD);
     Preconditions.checkState(_groupByTrimThreshold > 0,
         "Invalid configurable: groupByTrimThreshold: %d must be positive", _groupByTrimThreshold);
-    LOGGER.info("Initialized plan maker with maxExecutionThreads: {}, maxInitialResultHolderCapacity: {}, "
-            + "numGroupsLimit: {}, minSegmentGroupTrimSize: {}, minServerGroupTrimSize: {}, groupByTrimThreshold: {}",
-        _maxExecutionThreads, _maxInitialResultHolderCapacity, _numGroupsLimit, _minSegmentGroupTrimSize,
-        _minServerGroupTrimSize, _groupByTrimThreshold);
+    _partitionedGroupByCombine =
+        queryExecutorConfig.getProperty(PARTITIONED_GROUP_BY_COMBINE_KEY, DEFAULT_PARTITIONED_GROUP_BY_COMBINE);
+    long segmentResultCacheMaxSizeBytes = DataSizeUtils.toBytes(
+        queryExecutorConfig.getProperty(SEGMENT_RESULT_CACHE_MAX_SIZE_BYTES_KEY,
+            DEFAULT_SEGMENT_RESULT_CACHE_MAX_SIZE_BYTES));
+    _segmentResultCache =
+        segmentResultCacheMaxSizeBytes > 0 ? new SegmentResultCache(segmentResultCacheMaxSizeBytes) : null;
+    LOGGER.info("Initialized plan maker with maxExecutionThreads: {}, adaptiveParallelism: {}, "
+            + "minDocsPerDocIdRange: {}, maxInitialResultHolderCapacity: {}, numGroupsLimit: {}, "
+            + "minSegmentGroupTrimSize: {}, minServerGroupTrimSize: {}, groupByTrimThreshold: {}, "
+            + "partitionedGroupByCombine: {}, segmentResultCacheMaxSizeBytes: {}", _maxExecutionThreads,
+        _adaptiveParallelism, _minDocsPerDocIdRange, _maxInitialResultHolderCapacity, _numGroupsLimit,
+        _minSegmentGroupTrimSize, _minServerGroupTrimSize, _groupByTrimThreshold, _partitionedGroupByCombine,
+        segmentResultCacheMaxSizeBytes);
   }
 
   public Plan makeInstancePlan(List<SegmentContext> segmentContexts, QueryContext queryContext,
       ExecutorService executorService, ServerMetrics serverMetrics) {
     applyQueryOptions(queryContext);
+    if (queryContext.isAdaptiveParallelism()) {
+      segmentContexts = sortSegmentsByNumDocs(segmentContexts);
+    }
 
     int numSegments = segmentContexts.size();
     List<PlanNode> planNodes = new ArrayList<>(numSegments);
@@ -148,13 +196,18 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
             _fetchPlanner.planFetchForProcessing(segmentContext.getIndexSegment(), queryContext);
         fetchContexts.add(fetchContext);
         planNodes.add(
-            new AcquireReleaseColumnsSegmentPlanNode(makeSegmentPlanNode(segmentContext, queryContext), segmentContext,
-                fetchContext));
+            new AcquireReleaseColumnsSegmentPlanNode(makeCachedSegmentPlanNode(segmentContext, queryContext),
+                segmentContext, fetchContext));
       }
     } else {
       fetchContexts = Collections.emptyList();
       for (SegmentContext segmentContext : segmentContexts) {
-        planNodes.add(makeSegmentPlanNode(segmentContext, queryContext));
+        int numDocIdRanges = getNumDocIdRanges(segmentContext, queryContext);
+        if (numDocIdRanges > 1) {
+          addDocIdRangeSegmentPlanNodes(planNodes, segmentContext, queryContext, numDocIdRanges);
+        } else {
+          planNodes.add(makeCachedSegmentPlanNode(segmentContext, queryContext));
+        }
       }
     }
 
@@ -192,6 +245,10 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
     }
     queryContext.setMaxExecutionThreads(maxExecutionThreads);
 
+    // Set adaptiveParallelism
+    Boolean adaptiveParallelism = QueryOptionsUtils.isAdaptiveParallelism(queryOptions);
+    queryContext.setAdaptiveParallelism(adaptiveParallelism != null ? adaptiveParallelism : _adaptiveParallelism);
+
     // Set group-by query options
     if (QueryContextUtils.isAggregationQuery(queryContext) && queryContext.getGroupByExpressions() != null) {
       // Set maxInitialResultHolderCapacity
@@ -227,9 +284,128 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
       } else {
         queryContext.setGroupTrimThreshold(_groupByTrimThreshold);
       }
+      // Set partitionedGroupByCombine
+      Boolean partitionedGroupByCombine = QueryOptionsUtils.isPartitionedGroupByCombine(queryOptions);
+      queryContext.setPartitionedGroupByCombine(
+          partitionedGroupByCombine != null ? partitionedGroupByCombine : _partitionedGroupByCombine);
     }
   }
 
+  /**
+   * Sorts the segments by the number of documents in descending order, so that the largest segments are picked up first
+   * by the combine operator, and the smaller ones can fill in the idle threads towards the end of the query execution.
+   */
+  private static List<SegmentContext> sortSegmentsByNumDocs(List<SegmentContext> segmentContexts) {
+    List<SegmentContext> sortedSegmentContexts = new ArrayList<>(segmentContexts);
+    sortedSegmentContexts.sort(Comparator.comparingInt(
+        (SegmentContext segmentContext) -> segmentContext.getIndexSegment().getSegmentMetadata().getTotalDocs())
+        .reversed());
+    return sortedSegmentContexts;
+  }
+
+  /**
+   * Returns the number of docId ranges to split the segment into so that the ranges can be processed in parallel, or 1
+   * if the segment should not be split.
+   */
+  @VisibleForTesting
+  public int getNumDocIdRanges(SegmentContext segmentContext, QueryContext queryContext) {
+    if (!queryContext.isAdaptiveParallelism() || _minDocsPerDocIdRange <= 0 || queryContext.isExplain()) {
+      return 1;
+    }
+    // Consuming segments keep growing during the query execution, so only split immutable segments
+    IndexSegment indexSegment = segmentContext.getIndexSegment();
+    if (!(indexSegment instanceof ImmutableSegment)) {
+      return 1;
+    }
+    int maxNumDocIdRanges = indexSegment.getSegmentMetadata().getTotalDocs() / _minDocsPerDocIdRange;
+    if (maxNumDocIdRanges <= 1 || !canSplitIntoDocIdRanges(segmentContext, queryContext)) {
+      return 1;
+    }
+    int maxExecutionThreads = queryContext.getMaxExecutionThreads();
+    if (maxExecutionThreads <= 0) {
+      maxExecutionThreads = Runtime.getRuntime().availableProcessors();
+    }
+    return Math.min(maxNumDocIdRanges, maxExecutionThreads);
+  }
+
+  /**
+   * Returns {@code true} if the query can benefit from splitting the segment into docId ranges. Queries solved without
+   * scanning the documents (e.g. with metadata or dictionary), served from the segment result cache, only counting the
+   * matching documents, or early terminated after collecting enough rows (selection only) are not split.
+   *
+   * <p>Aggregation queries on segments with star-trees are not split because the star-tree operator always works on the
+   * whole segment and ignores the docId range.
+   */
+  private boolean canSplitIntoDocIdRanges(SegmentContext segmentContext, QueryContext queryContext) {
+    if (QueryContextUtils.isAggregationQuery(queryContext)) {
+      List<StarTreeV2> starTrees = segmentContext.getIndexSegment().getStarTrees();
+      if (starTrees != null && !starTrees.isEmpty() && !queryContext.isSkipStarTree()
+          && !queryContext.isNullHandlingEnabled()) {
+        return false;
+      }
+      if (queryContext.getGroupByExpressions() != null) {
+        return true;
+      }
+      if (_segmentResultCache != null && SegmentResultCache.getKey(segmentContext, queryContext) != null) {
+        return false;
+      }
+      AggregationFunction[] aggregationFunctions = queryContext.getAggregationFunctions();
+      assert aggregationFunctions != null;
+      boolean countOnly = true;
+      for (AggregationFunction aggregationFunction : aggregationFunctions) {
+        if (aggregationFunction.getType() != AggregationFunctionType.COUNT) {
+          countOnly = false;
+          break;
+        }
+      }
+      if (countOnly) {
+        return false;
+      }
+      return queryContext.getFilter() != null || queryContext.isNullHandlingEnabled()
+          || queryContext.hasFilteredAggregations() || !AggregationPlanNode.isFitForNonScanBasedPlan(
+          aggregationFunctions, segmentContext.getIndexSegment());
+    } else if (QueryContextUtils.isSelectionQuery(queryContext)) {
+      return queryContext.getLimit() > 0 && queryContext.getOrderByExpressions() != null;
+    } else {
+      List<ExpressionContext> expressions = queryContext.getSelectExpressions();
+      return queryContext.getFilter() != null || expressions.size() > 1
+          || expressions.get(0).getType() != ExpressionContext.Type.IDENTIFIER;
+    }
+  }
+
+  /**
+   * Splits the segment into evenly sized docId ranges, and adds one plan node for each range.
+   */
+  private void addDocIdRangeSegmentPlanNodes(List<PlanNode> planNodes, SegmentContext segmentContext,
+      QueryContext queryContext, int numDocIdRanges) {
+    long numDocs = segmentContext.getIndexSegment().getSegmentMetadata().getTotalDocs();
+    for (int i = 0; i < numDocIdRanges; i++) {
+      int startDocId = (int) (numDocs * i / numDocIdRanges);
+      int endDocId = (int) (numDocs * (i + 1) / numDocIdRanges);
+      SegmentContext docIdRangeSegmentContext =
+          DocIdRangeSegmentPlanNode.getDocIdRangeSegmentContext(segmentContext, startDocId, endDocId);
+      planNodes.add(
+          new DocIdRangeSegmentPlanNode(makeSegmentPlanNode(docIdRangeSegmentContext, queryContext), segmentContext,
+              startDocId, endDocId));
+    }
+  }
+
+  /**
+   * Wraps the segment-level plan node to serve the query from the segment result cache when it is enabled and the
+   * segment-level results can be cached.
+   */
+  private PlanNode makeCachedSegmentPlanNode(SegmentContext segmentContext, QueryContext queryContext) {
+    PlanNode planNode = makeSegmentPlanNode(segmentContext, queryContext);
+    if (_segmentResultCache != null) {
+      // NOTE: Key should be computed after making the segment plan node because query context might be rewritten
+      SegmentResultCache.Key key = SegmentResultCache.getKey(segmentContext, queryContext);
+      if (key != null) {
+        return new SegmentResultCachePlanNode(planNode, segmentContext, queryContext, _segmentResultCache, key);
+      }
+    }
+    return planNode;
+  }
+
   @Override
   public PlanNode makeSegmentPlanNode(SegmentContext segmentContext, QueryContext queryContext) {
     rewriteQueryContextWithHints(queryContext, segmentContext.getIndexSegment());
@@ -253,6 +429,9 @@ public class InstancePlanMakerImplV2 implements PlanMaker {
   public Plan makeStreamingInstancePlan(List<SegmentContext> segmentContexts, QueryContext queryContext,
       ExecutorService executorService, ResultsBlockStreamer streamer, ServerMetrics serverMetrics) {
     applyQueryOptions(queryContext);
+    if (queryContext.isAdaptiveParallelism()) {
+      segmentContexts = sortSegmentsByNumDocs(segmentContexts);
+    }
     List<PlanNode> planNodes = new ArrayList<>(segmentContexts.size());
     for (SegmentContext segmentContext : segmentContexts) {
       planNodes.add(makeStreamingSegmentPlanNode(segmentContext, queryContext));
@@ -53,8 +53,14 @@ import org.apache.pinot.segment.spi.index.reader.Dictionary;
  *     raw keys and map them onto contiguous group ids. (LONG_MAP_BASED)
  *   </li>
  *   <li>
- *     If the maximum number of possible group keys cannot fit into long, use int arrays as the raw keys to store the
- *     dictionary ids of all the group-by columns and map them onto contiguous group ids. (ARRAY_MAP_BASED)
+ *     If the maximum number of possible group keys cannot fit into long, but the dictionary ids of all the group-by
+ *     columns can be bit-packed into 128 bits, generate 128-bit raw keys (2 longs) and map them onto contiguous group
+ *     ids. (LONG_PAIR_MAP_BASED)
+ *   </li>
+ *   <li>
+ *     If the dictionary ids of all the group-by columns cannot be bit-packed into 128 bits, use int arrays as the raw
+ *     keys to store the dictionary ids of all the group-by columns and map them onto contiguous group ids.
+ *     (ARRAY_MAP_BASED)
  *   </li>
  * </ul>
  * <p>All the logic is maintained internally, and to the outside world, the group ids are always int type, and are
@@ -65,6 +71,7 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
   private static final int INITIAL_MAP_SIZE = (int) ((1 << 9) * 0.75f);
   private static final int MAX_CACHING_MAP_SIZE = (int) ((1 << 20) * 0.75f);
   private static final int MAX_DICTIONARY_INTERN_TABLE_SIZE = 10000;
+  private static final int MAX_LONG_PAIR_RAW_KEY_NUM_BITS = 2 * Long.SIZE;
 
   @VisibleForTesting
   static final ThreadLocal<IntGroupIdMap> THREAD_LOCAL_INT_MAP = ThreadLocal.withInitial(IntGroupIdMap::new);
@@ -75,6 +82,9 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     return map;
   });
   @VisibleForTesting
+  static final ThreadLocal<LongPairGroupIdMap> THREAD_LOCAL_LONG_PAIR_MAP =
+      ThreadLocal.withInitial(LongPairGroupIdMap::new);
+  @VisibleForTesting
   static final ThreadLocal<Object2IntOpenHashMap<IntArray>> THREAD_LOCAL_INT_ARRAY_MAP = ThreadLocal.withInitial(() -> {
     Object2IntOpenHashMap<IntArray> map = new Object2IntOpenHashMap<>(INITIAL_MAP_SIZE);
     map.defaultReturnValue(INVALID_ID);
@@ -95,6 +105,11 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
 
   private final Object[][] _internedDictionaryValues;
 
+  // Number of bits and bit offset of the dictionary ids of each group-by column within the 128-bit raw key, only set
+  // for LONG_PAIR_MAP_BASED
+  private final int[] _numBits;
+  private final int[] _bitOffsets;
+
   private final int _globalGroupIdUpperBound;
   private final RawKeyHolder _rawKeyHolder;
 
@@ -116,6 +131,8 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
 
     long cardinalityProduct = 1L;
     boolean longOverflow = false;
+    int[] numBits = new int[_numGroupByExpressions];
+    int totalNumBits = 0;
     for (int i = 0; i < _numGroupByExpressions; i++) {
       ExpressionContext groupByExpression = groupByExpressions[i];
       ColumnContext columnContext = projectOperator.getResultColumnContext(groupByExpression);
@@ -133,20 +150,38 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
           cardinalityProduct *= cardinality;
         }
       }
+      numBits[i] = Integer.SIZE - Integer.numberOfLeadingZeros(cardinality - 1);
+      totalNumBits += numBits[i];
       _isSingleValueColumn[i] = columnContext.isSingleValue();
     }
     // TODO: Clear the holder after processing the query instead of before
     if (longOverflow) {
-      // ArrayMapBasedHolder
       _globalGroupIdUpperBound = numGroupsLimit;
-      Object2IntOpenHashMap<IntArray> groupIdMap = THREAD_LOCAL_INT_ARRAY_MAP.get();
-      int size = groupIdMap.size();
-      groupIdMap.clear();
-      if (size > MAX_CACHING_MAP_SIZE) {
-        groupIdMap.trim();
+      if (totalNumBits <= MAX_LONG_PAIR_RAW_KEY_NUM_BITS) {
+        // LongPairMapBasedHolder
+        _numBits = numBits;
+        _bitOffsets = new int[_numGroupByExpressions];
+        for (int i = 1; i < _numGroupByExpressions; i++) {
+          _bitOffsets[i] = _bitOffsets[i - 1] + numBits[i - 1];
+        }
+        LongPairGroupIdMap groupIdMap = THREAD_LOCAL_LONG_PAIR_MAP.get();
+        groupIdMap.clearAndTrim();
+        _rawKeyHolder = new LongPairMapBasedHolder(groupIdMap);
+      } else {
+        // ArrayMapBasedHolder
+        _numBits = null;
+        _bitOffsets = null;
+        Object2IntOpenHashMap<IntArray> groupIdMap = THREAD_LOCAL_INT_ARRAY_MAP.get();
+        int size = groupIdMap.size();
+        groupIdMap.clear();
+        if (size > MAX_CACHING_MAP_SIZE) {
+          groupIdMap.trim();
+        }
+        _rawKeyHolder = new ArrayMapBasedHolder(groupIdMap);
       }
-      _rawKeyHolder = new ArrayMapBasedHolder(groupIdMap);
     } else {
+      _numBits = null;
+      _bitOffsets = null;
       if (cardinalityProduct > Integer.MAX_VALUE) {
         // LongMapBasedHolder
         _globalGroupIdUpperBound = numGroupsLimit;
@@ -775,6 +810,161 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     return groupKeyBuilder.toString();
   }
 
+  private class LongPairMapBasedHolder implements RawKeyHolder {
+    private final LongPairGroupIdMap _groupIdMap;
+
+    public LongPairMapBasedHolder(LongPairGroupIdMap groupIdMap) {
+      _groupIdMap = groupIdMap;
+    }
+
+    @Override
+    public void processSingleValue(int numDocs, int[] outGroupIds) {
+      for (int i = 0; i < numDocs; i++) {
+        long highBits = 0L;
+        long lowBits = 0L;
+        for (int j = 0; j < _numGroupByExpressions; j++) {
+          int dictId = _singleValueDictIds[j][i];
+          highBits |= getHighBits(j, dictId);
+          lowBits |= getLowBits(j, dictId);
+        }
+        outGroupIds[i] = _groupIdMap.getGroupId(highBits, lowBits, _globalGroupIdUpperBound);
+      }
+    }
+
+    @Override
+    public void processMultiValue(int numDocs, int[][] outGroupIds) {
+      for (int i = 0; i < numDocs; i++) {
+        long[] rawKeys = getLongPairRawKeys(i);
+        int numKeys = rawKeys.length >> 1;
+        int[] groupIds = new int[numKeys];
+        for (int j = 0; j < numKeys; j++) {
+          groupIds[j] = _groupIdMap.getGroupId(rawKeys[j << 1], rawKeys[(j << 1) + 1], _globalGroupIdUpperBound);
+        }
+        outGroupIds[i] = groupIds;
+      }
+    }
+
+    @Override
+    public int getGroupIdUpperBound() {
+      return _groupIdMap.size();
+    }
+
+    @Override
+    public Iterator<GroupKey> getGroupKeys() {
+      return new Iterator<GroupKey>() {
+        private final Iterator<LongPairGroupIdMap.Entry> _iterator = _groupIdMap.iterator();
+        private final GroupKey _groupKey = new GroupKey();
+
+        @Override
+        public boolean hasNext() {
+          return _iterator.hasNext();
+        }
+
+        @Override
+        public GroupKey next() {
+          LongPairGroupIdMap.Entry entry = _iterator.next();
+          _groupKey._groupId = entry._groupId;
+          _groupKey._keys = getKeys(entry._highBits, entry._lowBits);
+          return _groupKey;
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    @Override
+    public int getNumKeys() {
+      return _groupIdMap.size();
+    }
+  }
+
+  /**
+   * Returns the high 64 bits of the 128-bit raw key contributed by the dictionary id of the given group-by column.
+   */
+  private long getHighBits(int index, int dictId) {
+    int bitOffset = _bitOffsets[index];
+    if (bitOffset >= Long.SIZE) {
+      return (long) dictId << (bitOffset - Long.SIZE);
+    }
+    // The dictionary id might cross the boundary of the 2 longs
+    return bitOffset + _numBits[index] > Long.SIZE ? (long) dictId >>> (Long.SIZE - bitOffset) : 0L;
+  }
+
+  /**
+   * Returns the low 64 bits of the 128-bit raw key contributed by the dictionary id of the given group-by column.
+   */
+  private long getLowBits(int index, int dictId) {
+    int bitOffset = _bitOffsets[index];
+    return bitOffset < Long.SIZE ? (long) dictId << bitOffset : 0L;
+  }
+
+  /**
+   * Helper method to calculate the 128-bit raw keys for the given index. Each raw key is stored as 2 consecutive
+   * longs (high bits followed by low bits) in the returned array.
+   *
+   * @param index Index in block
+   * @return Array of 128-bit raw keys
+   */
+  private long[] getLongPairRawKeys(int index) {
+    long[] rawKeys = new long[2];
+    for (int i = 0; i < _numGroupByExpressions; i++) {
+      if (_isSingleValueColumn[i]) {
+        addDictId(rawKeys, 0, rawKeys.length, i, _singleValueDictIds[i][index]);
+      } else {
+        int[] multiValueDictIds = _multiValueDictIds[i][index];
+        int numValues = multiValueDictIds.length;
+
+        // Specialize multi-value column with only one value inside
+        if (numValues == 1) {
+          addDictId(rawKeys, 0, rawKeys.length, i, multiValueDictIds[0]);
+        } else {
+          int currentLength = rawKeys.length;
+          long[] newRawKeys = new long[currentLength * numValues];
+          for (int j = 0; j < numValues; j++) {
+            int startOffset = j * currentLength;
+            System.arraycopy(rawKeys, 0, newRawKeys, startOffset, currentLength);
+            addDictId(newRawKeys, startOffset, startOffset + currentLength, i, multiValueDictIds[j]);
+          }
+          rawKeys = newRawKeys;
+        }
+      }
+    }
+    return rawKeys;
+  }
+
+  private void addDictId(long[] rawKeys, int startOffset, int endOffset, int index, int dictId) {
+    long highBits = getHighBits(index, dictId);
+    long lowBits = getLowBits(index, dictId);
+    for (int i = startOffset; i < endOffset; i += 2) {
+      rawKeys[i] |= highBits;
+      rawKeys[i + 1] |= lowBits;
+    }
+  }
+
+  /**
+   * Helper method to get the keys from the 128-bit raw key.
+   */
+  private Object[] getKeys(long highBits, long lowBits) {
+    Object[] groupKeys = new Object[_numGroupByExpressions];
+    for (int i = 0; i < _numGroupByExpressions; i++) {
+      int bitOffset = _bitOffsets[i];
+      long bits;
+      if (bitOffset >= Long.SIZE) {
+        bits = highBits >>> (bitOffset - Long.SIZE);
+      } else {
+        bits = lowBits >>> bitOffset;
+        if (bitOffset + _numBits[i] > Long.SIZE) {
+          bits |= highBits << (Long.SIZE - bitOffset);
+        }
+      }
+      groupKeys[i] = getRawValue(i, (int) (bits & ((1L << _numBits[i]) - 1)));
+    }
+    return groupKeys;
+  }
+
   private class ArrayMapBasedHolder implements RawKeyHolder {
     private final Object2IntOpenHashMap<IntArray> _groupIdMap;
 
@@ -1106,6 +1296,150 @@ public class DictionaryBasedGroupKeyGenerator implements GroupKeyGenerator {
     }
   }
 
+  /**
+   * Fast 128-bit-key-to-int hashmap with {@link #INVALID_ID} as the default return value.
+   * <p>Similar to {@link IntGroupIdMap}, this map uses open addressing with linear probing, and stores the keys and
+   * values in one single array to reduce the cache miss. Each entry takes 3 longs: the high bits of the key, the low
+   * bits of the key, and the group id plus 1 (0 is reserved for the empty entry).
+   */
+  @VisibleForTesting
+  public static class LongPairGroupIdMap {
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final int ENTRY_SIZE = 3;
+
+    private long[] _keyValueHolder;
+    private int _capacity;
+    private int _mask;
+    private int _maxNumEntries;
+    private int _size;
+
+    public LongPairGroupIdMap() {
+      init();
+    }
+
+    private void init() {
+      _capacity = 1 << 9;
+      _keyValueHolder = new long[_capacity * ENTRY_SIZE];
+      _mask = _capacity - 1;
+      _maxNumEntries = (int) (_capacity * LOAD_FACTOR);
+    }
+
+    public int size() {
+      return _size;
+    }
+
+    /**
+     * Returns the group id for the given 128-bit raw key. Create a new group id if the raw key does not exist and the
+     * group id upper bound is not reached.
+     */
+    public int getGroupId(long highBits, long lowBits, int groupIdUpperBound) {
+      int slot = hash(highBits, lowBits) & _mask;
+      while (true) {
+        int index = slot * ENTRY_SIZE;
+        long value = _keyValueHolder[index + 2];
+        if (value == 0) {
+          return _size < groupIdUpperBound ? addNewGroup(highBits, lowBits, index) : INVALID_ID;
+        }
+        if (_keyValueHolder[index] == highBits && _keyValueHolder[index + 1] == lowBits) {
+          return (int) value - 1;
+        }
+        slot = (slot + 1) & _mask;
+      }
+    }
+
+    private static int hash(long highBits, long lowBits) {
+      return (int) HashCommon.mix(HashCommon.mix(highBits) ^ lowBits);
+    }
+
+    private int addNewGroup(long highBits, long lowBits, int index) {
+      int groupId = _size++;
+      _keyValueHolder[index] = highBits;
+      _keyValueHolder[index + 1] = lowBits;
+      _keyValueHolder[index + 2] = groupId + 1;
+      if (_size > _maxNumEntries) {
+        expand();
+      }
+      return groupId;
+    }
+
+    private void expand() {
+      _capacity <<= 1;
+      long[] oldKeyValueHolder = _keyValueHolder;
+      _keyValueHolder = new long[_capacity * ENTRY_SIZE];
+      _mask = _capacity - 1;
+      _maxNumEntries <<= 1;
+      int oldIndex = 0;
+      for (int i = 0; i < _size; i++) {
+        while (oldKeyValueHolder[oldIndex + 2] == 0) {
+          oldIndex += ENTRY_SIZE;
+        }
+        long highBits = oldKeyValueHolder[oldIndex];
+        long lowBits = oldKeyValueHolder[oldIndex + 1];
+        int slot = hash(highBits, lowBits) & _mask;
+        while (_keyValueHolder[slot * ENTRY_SIZE + 2] != 0) {
+          slot = (slot + 1) & _mask;
+        }
+        System.arraycopy(oldKeyValueHolder, oldIndex, _keyValueHolder, slot * ENTRY_SIZE, ENTRY_SIZE);
+        oldIndex += ENTRY_SIZE;
+      }
+    }
+
+    public Iterator<Entry> iterator() {
+      return new Iterator<Entry>() {
+        private final Entry _entry = new Entry();
+        private int _index;
+        private int _numRemainingEntries = _size;
+
+        @Override
+        public boolean hasNext() {
+          return _numRemainingEntries > 0;
+        }
+
+        @Override
+        public Entry next() {
+          long value;
+          while ((value = _keyValueHolder[_index + 2]) == 0) {
+            _index += ENTRY_SIZE;
+          }
+          _entry._highBits = _keyValueHolder[_index];
+          _entry._lowBits = _keyValueHolder[_index + 1];
+          _entry._groupId = (int) value - 1;
+          _index += ENTRY_SIZE;
+          _numRemainingEntries--;
+          return _entry;
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+
+    /**
+     * Clears the map and trims the map if the size is larger than the {@link #MAX_CACHING_MAP_SIZE}.
+     */
+    public void clearAndTrim() {
+      if (_size == 0) {
+        return;
+      }
+      if (_size <= MAX_CACHING_MAP_SIZE) {
+        // Clear the map
+        Arrays.fill(_keyValueHolder, 0L);
+      } else {
+        // Init the map (clear and trim)
+        init();
+      }
+      _size = 0;
+    }
+
+    public static class Entry {
+      public long _highBits;
+      public long _lowBits;
+      public int _groupId;
+    }
+  }
+
   /**
    * Drop un-necessary checks for highest performance.
    */
@@ -0,0 +1,192 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.executor;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.pinot.common.CustomObject;
+import org.apache.pinot.common.request.context.FilterContext;
+import org.apache.pinot.common.request.context.FunctionContext;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
+import org.apache.pinot.core.common.ObjectSerDeUtils;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextUtils;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
+
+
+/**
+ * The {@code SegmentResultCache} caches the segment-level intermediate aggregation results of the immutable segments,
+ * keyed on the segment name and CRC, as well as the filter and aggregations of the query. Because the immutable
+ * segments never change (a replaced segment always comes with a new CRC), the cached results stay valid until they
+ * are evicted.
+ *
+ * <p>Intermediate results are stored serialized with {@link ObjectSerDeUtils}, so that each cache hit gets its own
+ * copy which can be merged in place by the combine operator. The cache is bounded by the total size of the serialized
+ * results, and evicts the least recently used entries first.
+ */
+@ThreadSafe
+public class SegmentResultCache {
+  // Object type value for null intermediate result (only possible with null handling enabled)
+  private static final int NULL_OBJECT_TYPE = -1;
+
+  private final Cache<Key, Entry> _cache;
+
+  public SegmentResultCache(long maxSizeBytes) {
+    _cache = CacheBuilder.newBuilder().maximumWeight(maxSizeBytes).weigher((Key key, Entry entry) -> entry._sizeInBytes)
+        .build();
+  }
+
+  /**
+   * Returns the cache key for the given segment and query, or {@code null} if the segment-level results cannot be
+   * cached. Only aggregation-only queries on immutable segments without valid doc ids (e.g. upsert) are cached.
+   */
+  @Nullable
+  public static Key getKey(SegmentContext segmentContext, QueryContext queryContext) {
+    if (queryContext.isExplain() || !QueryContextUtils.isAggregationQuery(queryContext)
+        || queryContext.getGroupByExpressions() != null || !QueryOptionsUtils.isUseResultCache(
+        queryContext.getQueryOptions())) {
+      return null;
+    }
+    IndexSegment indexSegment = segmentContext.getIndexSegment();
+    if (!(indexSegment instanceof ImmutableSegment) || indexSegment.getValidDocIds() != null
+        || indexSegment.getQueryableDocIds() != null || segmentContext.getQueryableDocIdsSnapshot() != null) {
+      return null;
+    }
+    String crc = indexSegment.getSegmentMetadata().getCrc();
+    Map<Pair<FunctionContext, FilterContext>, Integer> filteredAggregationsIndexMap =
+        queryContext.getFilteredAggregationsIndexMap();
+    if (crc == null || filteredAggregationsIndexMap == null) {
+      return null;
+    }
+    Object[] filteredAggregations = new Object[filteredAggregationsIndexMap.size()];
+    for (Map.Entry<Pair<FunctionContext, FilterContext>, Integer> entry : filteredAggregationsIndexMap.entrySet()) {
+      filteredAggregations[entry.getValue()] = entry.getKey();
+    }
+    return new Key(queryContext.getTableName(), indexSegment.getSegmentName(), crc, queryContext.getFilter(),
+        Arrays.asList(filteredAggregations), queryContext.isNullHandlingEnabled());
+  }
+
+  /**
+   * Returns a new copy of the cached intermediate results, or {@code null} if the results are not cached.
+   */
+  @Nullable
+  public List<Object> get(Key key) {
+    Entry entry = _cache.getIfPresent(key);
+    if (entry == null) {
+      return null;
+    }
+    int numResults = entry._objectTypes.length;
+    List<Object> results = new ArrayList<>(numResults);
+    for (int i = 0; i < numResults; i++) {
+      int objectType = entry._objectTypes[i];
+      results.add(objectType != NULL_OBJECT_TYPE ? ObjectSerDeUtils.deserialize(
+          new CustomObject(objectType, ByteBuffer.wrap(entry._serializedResults[i]))) : null);
+    }
+    return results;
+  }
+
+  /**
+   * Caches the intermediate results. Results containing values that cannot be serialized are not cached.
+   */
+  public void put(Key key, List<Object> results) {
+    int numResults = results.size();
+    int[] objectTypes = new int[numResults];
+    byte[][] serializedResults = new byte[numResults][];
+    int sizeInBytes = 0;
+    for (int i = 0; i < numResults; i++) {
+      Object result = results.get(i);
+      if (result == null) {
+        objectTypes[i] = NULL_OBJECT_TYPE;
+        continue;
+      }
+      try {
+        objectTypes[i] = ObjectSerDeUtils.ObjectType.getObjectType(result).getValue();
+      } catch (IllegalArgumentException e) {
+        // Unsupported intermediate result type
+        return;
+      }
+      serializedResults[i] = ObjectSerDeUtils.serialize(result, objectTypes[i]);
+      sizeInBytes += serializedResults[i].length;
+    }
+    _cache.put(key, new Entry(objectTypes, serializedResults, sizeInBytes));
+  }
+
+  public static final class Key {
+    private final String _tableName;
+    private final String _segmentName;
+    private final String _crc;
+    private final FilterContext _filter;
+    private final List<Object> _filteredAggregations;
+    private final boolean _nullHandlingEnabled;
+    private final int _hashCode;
+
+    private Key(String tableName, String segmentName, String crc, @Nullable FilterContext filter,
+        List<Object> filteredAggregations, boolean nullHandlingEnabled) {
+      _tableName = tableName;
+      _segmentName = segmentName;
+      _crc = crc;
+      _filter = filter;
+      _filteredAggregations = filteredAggregations;
+      _nullHandlingEnabled = nullHandlingEnabled;
+      _hashCode = Objects.hash(_tableName, _segmentName, _crc, _filter, _filteredAggregations, _nullHandlingEnabled);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return _nullHandlingEnabled == key._nullHandlingEnabled && Objects.equals(_tableName, key._tableName)
+          && _segmentName.equals(key._segmentName) && _crc.equals(key._crc) && Objects.equals(_filter, key._filter)
+          && _filteredAggregations.equals(key._filteredAggregations);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+
+  private static final class Entry {
+    final int[] _objectTypes;
+    final byte[][] _serializedResults;
+    final int _sizeInBytes;
+
+    Entry(int[] objectTypes, byte[][] serializedResults, int sizeInBytes) {
+      _objectTypes = objectTypes;
+      _serializedResults = serializedResults;
+      _sizeInBytes = sizeInBytes;
+    }
+  }
+}
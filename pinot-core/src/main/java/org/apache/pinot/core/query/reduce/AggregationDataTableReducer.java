@@ -42,16 +42,33 @@ import org.roaringbitmap.RoaringBitmap;
  * Helper class to reduce and set Aggregation results into the BrokerResponseNative
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
-public class AggregationDataTableReducer implements DataTableReducer {
+public class AggregationDataTableReducer implements IncrementalDataTableReducer {
   private final QueryContext _queryContext;
   private final AggregationFunction[] _aggregationFunctions;
 
+  // Set when the data tables are merged incrementally
+  private Object[] _incrementalIntermediateResults;
+
   public AggregationDataTableReducer(QueryContext queryContext) {
     _queryContext = queryContext;
     _aggregationFunctions = _queryContext.getAggregationFunctions();
     assert _aggregationFunctions != null;
   }
 
+  @Override
+  public boolean isIncrementalMergeSupported() {
+    // Final results returned by the servers are reduced after all the responses arrive
+    return !_queryContext.isServerReturnFinalResult();
+  }
+
+  @Override
+  public void merge(DataSchema dataSchema, DataTable dataTable, DataTableReducerContext reducerContext) {
+    if (_incrementalIntermediateResults == null) {
+      _incrementalIntermediateResults = new Object[_aggregationFunctions.length];
+    }
+    mergeIntermediateResults(_incrementalIntermediateResults, dataSchema, dataTable);
+  }
+
   /**
    * Reduces data tables and sets aggregations results into ResultTable.
    */
@@ -61,7 +78,7 @@ public class AggregationDataTableReducer implements DataTableReducer {
       DataTableReducerContext reducerContext, BrokerMetrics brokerMetrics) {
     dataSchema = ReducerDataSchemaUtils.canonicalizeDataSchemaForAggregation(_queryContext, dataSchema);
 
-    if (dataTableMap.isEmpty()) {
+    if (dataTableMap.isEmpty() && _incrementalIntermediateResults == null) {
       DataSchema resultTableSchema =
           new PostAggregationHandler(_queryContext, getPrePostAggregationDataSchema(dataSchema)).getResultDataSchema();
       brokerResponseNative.setResultTable(new ResultTable(resultTableSchema, Collections.emptyList()));
@@ -83,29 +100,10 @@ public class AggregationDataTableReducer implements DataTableReducer {
   private void reduceWithIntermediateResult(DataSchema dataSchema, Collection<DataTable> dataTables,
       BrokerResponseNative brokerResponseNative) {
     int numAggregationFunctions = _aggregationFunctions.length;
-    Object[] intermediateResults = new Object[numAggregationFunctions];
+    Object[] intermediateResults = _incrementalIntermediateResults != null ? _incrementalIntermediateResults
+        : new Object[numAggregationFunctions];
     for (DataTable dataTable : dataTables) {
-      Tracing.ThreadAccountantOps.sampleAndCheckInterruption();
-      for (int i = 0; i < numAggregationFunctions; i++) {
-        Object intermediateResultToMerge;
-        ColumnDataType columnDataType = dataSchema.getColumnDataType(i);
-        if (_queryContext.isNullHandlingEnabled()) {
-          RoaringBitmap nullBitmap = dataTable.getNullRowIds(i);
-          if (nullBitmap != null && nullBitmap.contains(0)) {
-            intermediateResultToMerge = null;
-          } else {
-            intermediateResultToMerge = AggregationFunctionUtils.getIntermediateResult(dataTable, columnDataType, 0, i);
-          }
-        } else {
-          intermediateResultToMerge = AggregationFunctionUtils.getIntermediateResult(dataTable, columnDataType, 0, i);
-        }
-        Object mergedIntermediateResult = intermediateResults[i];
-        if (mergedIntermediateResult == null) {
-          intermediateResults[i] = intermediateResultToMerge;
-        } else {
-          intermediateResults[i] = _aggregationFunctions[i].merge(mergedIntermediateResult, intermediateResultToMerge);
-        }
-      }
+      mergeIntermediateResults(intermediateResults, dataSchema, dataTable);
     }
     Object[] finalResults = new Object[numAggregationFunctions];
     for (int i = 0; i < numAggregationFunctions; i++) {
@@ -116,6 +114,34 @@ public class AggregationDataTableReducer implements DataTableReducer {
     brokerResponseNative.setResultTable(reduceToResultTable(getPrePostAggregationDataSchema(dataSchema), finalResults));
   }
 
+  /**
+   * Merges the intermediate results of the given data table into the given intermediate results.
+   */
+  private void mergeIntermediateResults(Object[] intermediateResults, DataSchema dataSchema, DataTable dataTable) {
+    Tracing.ThreadAccountantOps.sampleAndCheckInterruption();
+    int numAggregationFunctions = _aggregationFunctions.length;
+    for (int i = 0; i < numAggregationFunctions; i++) {
+      Object intermediateResultToMerge;
+      ColumnDataType columnDataType = dataSchema.getColumnDataType(i);
+      if (_queryContext.isNullHandlingEnabled()) {
+        RoaringBitmap nullBitmap = dataTable.getNullRowIds(i);
+        if (nullBitmap != null && nullBitmap.contains(0)) {
+          intermediateResultToMerge = null;
+        } else {
+          intermediateResultToMerge = AggregationFunctionUtils.getIntermediateResult(dataTable, columnDataType, 0, i);
+        }
+      } else {
+        intermediateResultToMerge = AggregationFunctionUtils.getIntermediateResult(dataTable, columnDataType, 0, i);
+      }
+      Object mergedIntermediateResult = intermediateResults[i];
+      if (mergedIntermediateResult == null) {
+        intermediateResults[i] = intermediateResultToMerge;
+      } else {
+        intermediateResults[i] = _aggregationFunctions[i].merge(mergedIntermediateResult, intermediateResultToMerge);
+      }
+    }
+  }
+
   private void processSingleFinalResult(DataSchema dataSchema, DataTable dataTable,
       BrokerResponseNative brokerResponseNative) {
     int numAggregationFunctions = _aggregationFunctions.length;
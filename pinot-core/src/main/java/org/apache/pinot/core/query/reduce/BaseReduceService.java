@@ -52,6 +52,7 @@ public abstract class BaseReduceService {
   protected final int _maxReduceThreadsPerQuery;
   protected final int _groupByTrimThreshold;
   protected final int _minGroupTrimSize;
+  protected final boolean _incrementalReduceEnabled;
 
   public BaseReduceService(PinotConfiguration config) {
     _maxReduceThreadsPerQuery = config.getProperty(CommonConstants.Broker.CONFIG_OF_MAX_REDUCE_THREADS_PER_QUERY,
@@ -60,6 +61,8 @@ public abstract class BaseReduceService {
         CommonConstants.Broker.DEFAULT_BROKER_GROUPBY_TRIM_THRESHOLD);
     _minGroupTrimSize = config.getProperty(CommonConstants.Broker.CONFIG_OF_BROKER_MIN_GROUP_TRIM_SIZE,
         CommonConstants.Broker.DEFAULT_BROKER_MIN_GROUP_TRIM_SIZE);
+    _incrementalReduceEnabled = config.getProperty(CommonConstants.Broker.CONFIG_OF_BROKER_ENABLE_INCREMENTAL_REDUCE,
+        CommonConstants.Broker.DEFAULT_BROKER_ENABLE_INCREMENTAL_REDUCE);
 
     int numThreadsInExecutorService = Runtime.getRuntime().availableProcessors();
     LOGGER.info("Initializing BrokerReduceService with {} threads, and {} max reduce threads.",
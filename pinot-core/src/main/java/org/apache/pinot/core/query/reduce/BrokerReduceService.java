@@ -20,9 +20,12 @@ package org.apache.pinot.core.query.reduce;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Iterator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.datatable.DataTable;
 import org.apache.pinot.common.exception.QueryException;
@@ -60,122 +63,222 @@ public class BrokerReduceService extends BaseReduceService {
 
   public BrokerResponseNative reduceOnDataTable(BrokerRequest brokerRequest, BrokerRequest serverBrokerRequest,
       Map<ServerRoutingInstance, DataTable> dataTableMap, long reduceTimeOutMs, BrokerMetrics brokerMetrics) {
-    if (dataTableMap.isEmpty()) {
-      // Empty response.
-      return BrokerResponseNative.empty();
-    }
+    return new ReduceSession(brokerRequest, serverBrokerRequest, reduceTimeOutMs, brokerMetrics, false).reduce(
+        dataTableMap, reduceTimeOutMs);
+  }
 
-    Map<String, String> queryOptions = brokerRequest.getPinotQuery().getQueryOptions();
-    boolean enableTrace =
-        queryOptions != null && Boolean.parseBoolean(queryOptions.get(CommonConstants.Broker.Request.TRACE));
+  /**
+   * Starts a reduce session for the query, where the data tables can be added as the server responses arrive. When
+   * incremental reduce is enabled and supported by the query, the data tables are merged as soon as they are added,
+   * instead of after all the server responses are received. The data tables merged after the given timeout are
+   * dropped, and the query fails with a broker timeout error.
+   */
+  public ReduceSession startReduceSession(BrokerRequest brokerRequest, BrokerRequest serverBrokerRequest,
+      long timeoutMs, BrokerMetrics brokerMetrics) {
+    return new ReduceSession(brokerRequest, serverBrokerRequest, timeoutMs, brokerMetrics, _incrementalReduceEnabled);
+  }
 
-    ExecutionStatsAggregator aggregator = new ExecutionStatsAggregator(enableTrace);
-    BrokerResponseNative brokerResponseNative = new BrokerResponseNative();
+  /**
+   * Reduces the data tables of a query, which can be added one by one as the server responses arrive. This class is
+   * not thread-safe.
+   */
+  public class ReduceSession {
+    private final BrokerRequest _brokerRequest;
+    private final BrokerRequest _serverBrokerRequest;
+    private final long _deadlineMs;
+    private final BrokerMetrics _brokerMetrics;
+    private final Map<String, String> _queryOptions;
+    private final ExecutionStatsAggregator _aggregator;
+    private final BrokerResponseNative _brokerResponseNative = new BrokerResponseNative();
+    private final Set<ServerRoutingInstance> _serversAdded = new HashSet<>();
+    // Data tables with data rows inside which are not merged yet
+    private final Map<ServerRoutingInstance, DataTable> _dataTablesToReduce = new LinkedHashMap<>();
+    private final List<ServerRoutingInstance> _serversWithConflictingDataSchema = new ArrayList<>();
 
     // Cache a data schema from data tables (try to cache one with data rows associated with it).
-    DataSchema dataSchemaFromEmptyDataTable = null;
-    DataSchema dataSchemaFromNonEmptyDataTable = null;
-    List<ServerRoutingInstance> serversWithConflictingDataSchema = new ArrayList<>();
+    private DataSchema _dataSchemaFromEmptyDataTable;
+    private DataSchema _dataSchemaFromNonEmptyDataTable;
+
+    // Set when the data tables are merged incrementally
+    private QueryContext _serverQueryContext;
+    private IncrementalDataTableReducer _incrementalReducer;
+    private boolean _terminated;
+
+    private ReduceSession(BrokerRequest brokerRequest, BrokerRequest serverBrokerRequest, long timeoutMs,
+        BrokerMetrics brokerMetrics, boolean incrementalReduceEnabled) {
+      _brokerRequest = brokerRequest;
+      _serverBrokerRequest = serverBrokerRequest;
+      _deadlineMs = System.currentTimeMillis() + timeoutMs;
+      _brokerMetrics = brokerMetrics;
+      _queryOptions = brokerRequest.getPinotQuery().getQueryOptions();
+      boolean enableTrace =
+          _queryOptions != null && Boolean.parseBoolean(_queryOptions.get(CommonConstants.Broker.Request.TRACE));
+      _aggregator = new ExecutionStatsAggregator(enableTrace);
+
+      if (incrementalReduceEnabled) {
+        QueryContext serverQueryContext =
+            QueryContextConverterUtils.getQueryContext(serverBrokerRequest.getPinotQuery());
+        DataTableReducer dataTableReducer = ResultReducerFactory.getResultReducer(serverQueryContext);
+        if (dataTableReducer instanceof IncrementalDataTableReducer
+            && ((IncrementalDataTableReducer) dataTableReducer).isIncrementalMergeSupported()) {
+          _serverQueryContext = serverQueryContext;
+          _incrementalReducer = (IncrementalDataTableReducer) dataTableReducer;
+        }
+      }
+    }
+
+    /**
+     * Returns whether the data tables are merged as soon as they are added.
+     */
+    public boolean isIncremental() {
+      return _incrementalReducer != null;
+    }
 
-    // Process server response metadata.
-    Iterator<Map.Entry<ServerRoutingInstance, DataTable>> iterator = dataTableMap.entrySet().iterator();
-    while (iterator.hasNext()) {
-      Map.Entry<ServerRoutingInstance, DataTable> entry = iterator.next();
-      DataTable dataTable = entry.getValue();
+    /**
+     * Adds the data table from a server. Data table from the same server is only added once.
+     */
+    public void add(ServerRoutingInstance serverRoutingInstance, DataTable dataTable) {
+      if (!_serversAdded.add(serverRoutingInstance)) {
+        return;
+      }
 
       // aggregate metrics
-      aggregator.aggregate(entry.getKey(), dataTable);
+      _aggregator.aggregate(serverRoutingInstance, dataTable);
 
-      // After processing the metadata, remove data tables without data rows inside.
+      // After processing the metadata, skip data tables without data rows inside.
       DataSchema dataSchema = dataTable.getDataSchema();
       if (dataSchema == null) {
-        iterator.remove();
+        return;
+      }
+      // Try to cache a data table with data rows inside, or cache one with data schema inside.
+      if (dataTable.getNumberOfRows() == 0) {
+        if (_dataSchemaFromEmptyDataTable == null) {
+          _dataSchemaFromEmptyDataTable = dataSchema;
+        }
+        return;
+      }
+      if (_dataSchemaFromNonEmptyDataTable == null) {
+        _dataSchemaFromNonEmptyDataTable = dataSchema;
       } else {
-        // Try to cache a data table with data rows inside, or cache one with data schema inside.
-        if (dataTable.getNumberOfRows() == 0) {
-          if (dataSchemaFromEmptyDataTable == null) {
-            dataSchemaFromEmptyDataTable = dataSchema;
-          }
-          iterator.remove();
-        } else {
-          if (dataSchemaFromNonEmptyDataTable == null) {
-            dataSchemaFromNonEmptyDataTable = dataSchema;
-          } else {
-            // Remove data tables with conflicting data schema.
-            // NOTE: Only compare the column data types, since the column names (string representation of expression)
-            //       can change across different versions.
-            if (!Arrays.equals(dataSchema.getColumnDataTypes(), dataSchemaFromNonEmptyDataTable.getColumnDataTypes())) {
-              serversWithConflictingDataSchema.add(entry.getKey());
-              iterator.remove();
+        // Skip data tables with conflicting data schema.
+        // NOTE: Only compare the column data types, since the column names (string representation of expression)
+        //       can change across different versions.
+        if (!Arrays.equals(dataSchema.getColumnDataTypes(), _dataSchemaFromNonEmptyDataTable.getColumnDataTypes())) {
+          _serversWithConflictingDataSchema.add(serverRoutingInstance);
+          return;
+        }
+      }
+
+      if (_incrementalReducer != null) {
+        if (!_terminated) {
+          try {
+            // Bound the merge by the remaining time of the query
+            long remainingTimeMs = _deadlineMs - System.currentTimeMillis();
+            if (remainingTimeMs <= 0) {
+              throw new TimeoutException("Timed out in broker reduce phase");
             }
+            _incrementalReducer.merge(_dataSchemaFromNonEmptyDataTable, dataTable, getReducerContext(remainingTimeMs));
+          } catch (TimeoutException e) {
+            _terminated = true;
+            _brokerResponseNative.addException(
+                new QueryProcessingException(QueryException.BROKER_TIMEOUT_ERROR_CODE, e.getMessage()));
+          } catch (EarlyTerminationException e) {
+            _terminated = true;
+            _brokerResponseNative.addException(
+                new QueryProcessingException(QueryException.QUERY_CANCELLATION_ERROR_CODE, e.toString()));
           }
         }
+      } else {
+        _dataTablesToReduce.put(serverRoutingInstance, dataTable);
       }
     }
 
-    String tableName = serverBrokerRequest.getQuerySource().getTableName();
-    String rawTableName = TableNameBuilder.extractRawTableName(tableName);
-
-    // Set execution statistics and Update broker metrics.
-    aggregator.setStats(rawTableName, brokerResponseNative, brokerMetrics);
-
-    // Report the servers with conflicting data schema.
-    if (!serversWithConflictingDataSchema.isEmpty()) {
-      String errorMessage =
-          String.format("%s: responses for table: %s from servers: %s got dropped due to data schema inconsistency.",
-              QueryException.MERGE_RESPONSE_ERROR.getMessage(), tableName, serversWithConflictingDataSchema);
-      LOGGER.warn(errorMessage);
-      brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESPONSE_MERGE_EXCEPTIONS, 1);
-      brokerResponseNative.addException(
-          new QueryProcessingException(QueryException.MERGE_RESPONSE_ERROR_CODE, errorMessage));
-    }
+    /**
+     * Adds the data tables not added yet from the given map, and reduces all the data tables added to
+     * {@link BrokerResponseNative}.
+     */
+    public BrokerResponseNative reduce(Map<ServerRoutingInstance, DataTable> dataTableMap, long reduceTimeOutMs) {
+      if (_serversAdded.isEmpty() && dataTableMap.isEmpty()) {
+        // Empty response.
+        return BrokerResponseNative.empty();
+      }
 
-    // NOTE: When there is no cached data schema, that means all servers encountered exception. In such case, return the
-    //       response with metadata only.
-    DataSchema cachedDataSchema =
-        dataSchemaFromNonEmptyDataTable != null ? dataSchemaFromNonEmptyDataTable : dataSchemaFromEmptyDataTable;
-    if (cachedDataSchema == null) {
-      return brokerResponseNative;
-    }
+      // Process server response metadata.
+      for (Map.Entry<ServerRoutingInstance, DataTable> entry : dataTableMap.entrySet()) {
+        add(entry.getKey(), entry.getValue());
+      }
 
-    QueryContext serverQueryContext = QueryContextConverterUtils.getQueryContext(serverBrokerRequest.getPinotQuery());
-    DataTableReducer dataTableReducer = ResultReducerFactory.getResultReducer(serverQueryContext);
+      String tableName = _serverBrokerRequest.getQuerySource().getTableName();
+      String rawTableName = TableNameBuilder.extractRawTableName(tableName);
 
-    Integer minGroupTrimSizeQueryOption = null;
-    Integer groupTrimThresholdQueryOption = null;
-    if (queryOptions != null) {
-      minGroupTrimSizeQueryOption = QueryOptionsUtils.getMinBrokerGroupTrimSize(queryOptions);
-      groupTrimThresholdQueryOption = QueryOptionsUtils.getGroupTrimThreshold(queryOptions);
-    }
-    int minGroupTrimSize = minGroupTrimSizeQueryOption != null ? minGroupTrimSizeQueryOption : _minGroupTrimSize;
-    int groupTrimThreshold =
-        groupTrimThresholdQueryOption != null ? groupTrimThresholdQueryOption : _groupByTrimThreshold;
-
-    try {
-      dataTableReducer.reduceAndSetResults(rawTableName, cachedDataSchema, dataTableMap, brokerResponseNative,
-          new DataTableReducerContext(_reduceExecutorService, _maxReduceThreadsPerQuery, reduceTimeOutMs,
-              groupTrimThreshold, minGroupTrimSize), brokerMetrics);
-    } catch (EarlyTerminationException e) {
-      brokerResponseNative.addException(
-          new QueryProcessingException(QueryException.QUERY_CANCELLATION_ERROR_CODE, e.toString()));
-    }
-    QueryContext queryContext;
-    if (brokerRequest == serverBrokerRequest) {
-      queryContext = serverQueryContext;
-    } else {
-      queryContext = QueryContextConverterUtils.getQueryContext(brokerRequest.getPinotQuery());
-      GapfillUtils.GapfillType gapfillType = GapfillUtils.getGapfillType(queryContext);
-      if (gapfillType == null) {
-        throw new BadQueryRequestException("Nested query is not supported without gapfill");
+      // Set execution statistics and Update broker metrics.
+      _aggregator.setStats(rawTableName, _brokerResponseNative, _brokerMetrics);
+
+      // Report the servers with conflicting data schema.
+      if (!_serversWithConflictingDataSchema.isEmpty()) {
+        String errorMessage =
+            String.format("%s: responses for table: %s from servers: %s got dropped due to data schema inconsistency.",
+                QueryException.MERGE_RESPONSE_ERROR.getMessage(), tableName, _serversWithConflictingDataSchema);
+        LOGGER.warn(errorMessage);
+        _brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.RESPONSE_MERGE_EXCEPTIONS, 1);
+        _brokerResponseNative.addException(
+            new QueryProcessingException(QueryException.MERGE_RESPONSE_ERROR_CODE, errorMessage));
       }
-      BaseGapfillProcessor gapfillProcessor = GapfillProcessorFactory.getGapfillProcessor(queryContext, gapfillType);
-      gapfillProcessor.process(brokerResponseNative);
+
+      // NOTE: When there is no cached data schema, that means all servers encountered exception. In such case, return
+      //       the response with metadata only.
+      DataSchema cachedDataSchema =
+          _dataSchemaFromNonEmptyDataTable != null ? _dataSchemaFromNonEmptyDataTable : _dataSchemaFromEmptyDataTable;
+      if (cachedDataSchema == null) {
+        return _brokerResponseNative;
+      }
+
+      QueryContext serverQueryContext = _serverQueryContext != null ? _serverQueryContext
+          : QueryContextConverterUtils.getQueryContext(_serverBrokerRequest.getPinotQuery());
+      DataTableReducer dataTableReducer =
+          _incrementalReducer != null ? _incrementalReducer : ResultReducerFactory.getResultReducer(serverQueryContext);
+
+      if (!_terminated) {
+        try {
+          dataTableReducer.reduceAndSetResults(rawTableName, cachedDataSchema, _dataTablesToReduce,
+              _brokerResponseNative, getReducerContext(reduceTimeOutMs), _brokerMetrics);
+        } catch (EarlyTerminationException e) {
+          _brokerResponseNative.addException(
+              new QueryProcessingException(QueryException.QUERY_CANCELLATION_ERROR_CODE, e.toString()));
+        }
+      }
+      QueryContext queryContext;
+      if (_brokerRequest == _serverBrokerRequest) {
+        queryContext = serverQueryContext;
+      } else {
+        queryContext = QueryContextConverterUtils.getQueryContext(_brokerRequest.getPinotQuery());
+        GapfillUtils.GapfillType gapfillType = GapfillUtils.getGapfillType(queryContext);
+        if (gapfillType == null) {
+          throw new BadQueryRequestException("Nested query is not supported without gapfill");
+        }
+        BaseGapfillProcessor gapfillProcessor = GapfillProcessorFactory.getGapfillProcessor(queryContext, gapfillType);
+        gapfillProcessor.process(_brokerResponseNative);
+      }
+
+      if (!serverQueryContext.isExplain()) {
+        updateAlias(queryContext, _brokerResponseNative);
+      }
+      return _brokerResponseNative;
     }
 
-    if (!serverQueryContext.isExplain()) {
-      updateAlias(queryContext, brokerResponseNative);
+    private DataTableReducerContext getReducerContext(long reduceTimeOutMs) {
+      Integer minGroupTrimSizeQueryOption = null;
+      Integer groupTrimThresholdQueryOption = null;
+      if (_queryOptions != null) {
+        minGroupTrimSizeQueryOption = QueryOptionsUtils.getMinBrokerGroupTrimSize(_queryOptions);
+        groupTrimThresholdQueryOption = QueryOptionsUtils.getGroupTrimThreshold(_queryOptions);
+      }
+      int minGroupTrimSize = minGroupTrimSizeQueryOption != null ? minGroupTrimSizeQueryOption : _minGroupTrimSize;
+      int groupTrimThreshold =
+          groupTrimThresholdQueryOption != null ? groupTrimThresholdQueryOption : _groupByTrimThreshold;
+      return new DataTableReducerContext(_reduceExecutorService, _maxReduceThreadsPerQuery, reduceTimeOutMs,
+          groupTrimThreshold, minGroupTrimSize);
     }
-    return brokerResponseNative;
   }
 
   public void shutDown() {
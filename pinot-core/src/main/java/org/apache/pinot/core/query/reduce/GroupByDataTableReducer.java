@@ -76,8 +76,10 @@ import org.roaringbitmap.RoaringBitmap;
  * Helper class to reduce data tables and set group by results into the BrokerResponseNative
  */
 @SuppressWarnings("rawtypes")
-public class GroupByDataTableReducer implements DataTableReducer {
+public class GroupByDataTableReducer implements IncrementalDataTableReducer {
   private static final int MIN_DATA_TABLES_FOR_CONCURRENT_REDUCE = 2; // TBD, find a better value.
+  // Check the reduce deadline every 1024 rows
+  private static final int DEADLINE_CHECK_MASK = 0x3FF;
 
   private final QueryContext _queryContext;
   private final AggregationFunction[] _aggregationFunctions;
@@ -85,6 +87,11 @@ public class GroupByDataTableReducer implements DataTableReducer {
   private final int _numGroupByExpressions;
   private final int _numColumns;
 
+  // Indexed table for the data tables merged incrementally, created when the first data table is merged
+  private IndexedTable _incrementalIndexedTable;
+  private DataSchema _incrementalDataSchema;
+  private ColumnDataType[] _incrementalStoredColumnDataTypes;
+
   public GroupByDataTableReducer(QueryContext queryContext) {
     _queryContext = queryContext;
     _aggregationFunctions = queryContext.getAggregationFunctions();
@@ -96,6 +103,26 @@ public class GroupByDataTableReducer implements DataTableReducer {
     _numColumns = _numAggregationFunctions + _numGroupByExpressions;
   }
 
+  @Override
+  public boolean isIncrementalMergeSupported() {
+    // Single final result is returned without being merged into the indexed table
+    return !_queryContext.isServerReturnFinalResult();
+  }
+
+  @Override
+  public void merge(DataSchema dataSchema, DataTable dataTable, DataTableReducerContext reducerContext)
+      throws TimeoutException {
+    long deadlineMs = System.currentTimeMillis() + reducerContext.getReduceTimeOutMs();
+    if (_incrementalIndexedTable == null) {
+      // NOTE: Data schema will be modified when finishing the indexed table, so keep the one used by the indexed table.
+      _incrementalDataSchema = ReducerDataSchemaUtils.canonicalizeDataSchemaForGroupBy(_queryContext, dataSchema);
+      _incrementalStoredColumnDataTypes = _incrementalDataSchema.getStoredColumnDataTypes();
+      // Data tables are merged by a single thread
+      _incrementalIndexedTable = createIndexedTable(_incrementalDataSchema, 1, reducerContext);
+    }
+    upsertDataTable(_incrementalIndexedTable, dataTable, _incrementalStoredColumnDataTypes, deadlineMs);
+  }
+
   /**
    * Reduces and sets group by results into ResultTable.
    */
@@ -105,7 +132,7 @@ public class GroupByDataTableReducer implements DataTableReducer {
       DataTableReducerContext reducerContext, BrokerMetrics brokerMetrics) {
     dataSchema = ReducerDataSchemaUtils.canonicalizeDataSchemaForGroupBy(_queryContext, dataSchema);
 
-    if (dataTableMap.isEmpty()) {
+    if (dataTableMap.isEmpty() && _incrementalIndexedTable == null) {
       PostAggregationHandler postAggregationHandler =
           new PostAggregationHandler(_queryContext, getPrePostAggregationDataSchema(dataSchema));
       DataSchema resultDataSchema = postAggregationHandler.getResultDataSchema();
@@ -117,7 +144,7 @@ public class GroupByDataTableReducer implements DataTableReducer {
     Collection<DataTable> dataTables = dataTableMap.values();
     // NOTE: Use regular reduce when group keys are not partitioned even if there are only one data table because the
     //       records are not sorted yet.
-    if (_queryContext.isServerReturnFinalResult() && dataTables.size() == 1) {
+    if (_incrementalIndexedTable == null && _queryContext.isServerReturnFinalResult() && dataTables.size() == 1) {
       processSingleFinalResult(dataSchema, dataTables.iterator().next(), brokerResponse);
     } else {
       try {
@@ -149,7 +176,13 @@ public class GroupByDataTableReducer implements DataTableReducer {
       BrokerMetrics brokerMetrics)
       throws TimeoutException {
     // NOTE: This step will modify the data schema and also return final aggregate results.
-    IndexedTable indexedTable = getIndexedTable(dataSchema, dataTables, reducerContext);
+    IndexedTable indexedTable;
+    if (_incrementalIndexedTable != null) {
+      dataSchema = _incrementalDataSchema;
+      indexedTable = finishIncrementalIndexedTable(dataTables, reducerContext);
+    } else {
+      indexedTable = getIndexedTable(dataSchema, dataTables, reducerContext);
+    }
     if (brokerMetrics != null) {
       brokerMetrics.addMeteredTableValue(rawTableName, BrokerMeter.NUM_RESIZES, indexedTable.getNumResizes());
       brokerMetrics.addValueToTableGauge(rawTableName, BrokerGauge.RESIZE_TIME_MS, indexedTable.getResizeTimeMs());
@@ -228,15 +261,8 @@ public class GroupByDataTableReducer implements DataTableReducer {
     return new DataSchema(columnNames, columnDataTypes);
   }
 
-  private IndexedTable getIndexedTable(DataSchema dataSchema, Collection<DataTable> dataTablesToReduce,
-      DataTableReducerContext reducerContext)
-      throws TimeoutException {
-    long start = System.currentTimeMillis();
-    int numDataTables = dataTablesToReduce.size();
-
-    // Get the number of threads to use for reducing.
-    // In case of single reduce thread, fall back to SimpleIndexedTable to avoid redundant locking/unlocking calls.
-    int numReduceThreadsToUse = getNumReduceThreadsToUse(numDataTables, reducerContext.getMaxReduceThreadsPerQuery());
+  private IndexedTable createIndexedTable(DataSchema dataSchema, int numReduceThreadsToUse,
+      DataTableReducerContext reducerContext) {
     boolean hasFinalInput =
         _queryContext.isServerReturnFinalResult() || _queryContext.isServerReturnFinalResultKeyUnpartitioned();
     int limit = _queryContext.getLimit();
@@ -245,22 +271,32 @@ public class GroupByDataTableReducer implements DataTableReducer {
     // TODO: Resolve the HAVING clause within the IndexedTable before returning the result
     int resultSize = _queryContext.getHavingFilter() != null ? trimSize : limit;
     int trimThreshold = reducerContext.getGroupByTrimThreshold();
-    IndexedTable indexedTable;
     if (numReduceThreadsToUse == 1) {
-      indexedTable =
-          new SimpleIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize, trimSize, trimThreshold);
+      return new SimpleIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize, trimSize, trimThreshold);
     } else {
       if (trimThreshold >= GroupByCombineOperator.MAX_TRIM_THRESHOLD) {
         // special case of trim threshold where it is set to max value.
         // there won't be any trimming during upsert in this case.
         // thus we can avoid the overhead of read-lock and write-lock
         // in the upsert method.
-        indexedTable = new UnboundedConcurrentIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize);
+        return new UnboundedConcurrentIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize);
       } else {
-        indexedTable =
-            new ConcurrentIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize, trimSize, trimThreshold);
+        return new ConcurrentIndexedTable(dataSchema, hasFinalInput, _queryContext, resultSize, trimSize,
+            trimThreshold);
       }
     }
+  }
+
+  private IndexedTable getIndexedTable(DataSchema dataSchema, Collection<DataTable> dataTablesToReduce,
+      DataTableReducerContext reducerContext)
+      throws TimeoutException {
+    long start = System.currentTimeMillis();
+    int numDataTables = dataTablesToReduce.size();
+
+    // Get the number of threads to use for reducing.
+    // In case of single reduce thread, fall back to SimpleIndexedTable to avoid redundant locking/unlocking calls.
+    int numReduceThreadsToUse = getNumReduceThreadsToUse(numDataTables, reducerContext.getMaxReduceThreadsPerQuery());
+    IndexedTable indexedTable = createIndexedTable(dataSchema, numReduceThreadsToUse, reducerContext);
 
     // Create groups of data tables that each thread can process concurrently.
     // Given that numReduceThreads is <= numDataTables, each group will have at least one data table.
@@ -288,82 +324,8 @@ public class GroupByDataTableReducer implements DataTableReducer {
           Tracing.ThreadAccountantOps.setupWorker(taskId, new ThreadResourceUsageProvider(), parentContext);
           try {
             for (DataTable dataTable : reduceGroup) {
-              boolean nullHandlingEnabled = _queryContext.isNullHandlingEnabled();
-              RoaringBitmap[] nullBitmaps = null;
-              if (nullHandlingEnabled) {
-                nullBitmaps = new RoaringBitmap[_numColumns];
-                for (int i = 0; i < _numColumns; i++) {
-                  nullBitmaps[i] = dataTable.getNullRowIds(i);
-                }
-              }
-
-              int numRows = dataTable.getNumberOfRows();
-              for (int rowId = 0; rowId < numRows; rowId++) {
-                // Terminate when thread is interrupted.
-                // This is expected when the query already fails in the main thread.
-                // The first check will always be performed when rowId = 0
-                Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(rowId);
-                Object[] values = new Object[_numColumns];
-                for (int colId = 0; colId < _numColumns; colId++) {
-                  // NOTE: We need to handle data types for group key, intermediate and final aggregate result.
-                  switch (storedColumnDataTypes[colId]) {
-                    case INT:
-                      values[colId] = dataTable.getInt(rowId, colId);
-                      break;
-                    case LONG:
-                      values[colId] = dataTable.getLong(rowId, colId);
-                      break;
-                    case FLOAT:
-                      values[colId] = dataTable.getFloat(rowId, colId);
-                      break;
-                    case DOUBLE:
-                      values[colId] = dataTable.getDouble(rowId, colId);
-                      break;
-                    case BIG_DECIMAL:
-                      values[colId] = dataTable.getBigDecimal(rowId, colId);
-                      break;
-                    case STRING:
-                      values[colId] = dataTable.getString(rowId, colId);
-                      break;
-                    case BYTES:
-                      values[colId] = dataTable.getBytes(rowId, colId);
-                      break;
-                    case INT_ARRAY:
-                      values[colId] = IntArrayList.wrap(dataTable.getIntArray(rowId, colId));
-                      break;
-                    case LONG_ARRAY:
-                      values[colId] = LongArrayList.wrap(dataTable.getLongArray(rowId, colId));
-                      break;
-                    case FLOAT_ARRAY:
-                      values[colId] = FloatArrayList.wrap(dataTable.getFloatArray(rowId, colId));
-                      break;
-                    case DOUBLE_ARRAY:
-                      values[colId] = DoubleArrayList.wrap(dataTable.getDoubleArray(rowId, colId));
-                      break;
-                    case STRING_ARRAY:
-                      values[colId] = ObjectArrayList.wrap(dataTable.getStringArray(rowId, colId));
-                      break;
-                    case OBJECT:
-                      // TODO: Move ser/de into AggregationFunction interface
-                      CustomObject customObject = dataTable.getCustomObject(rowId, colId);
-                      if (customObject != null) {
-                        values[colId] = ObjectSerDeUtils.deserialize(customObject);
-                      }
-                      break;
-                    // Add other aggregation intermediate result / group-by column type supports here
-                    default:
-                      throw new IllegalStateException();
-                  }
-                }
-                if (nullHandlingEnabled) {
-                  for (int colId = 0; colId < _numColumns; colId++) {
-                    if (nullBitmaps[colId] != null && nullBitmaps[colId].contains(rowId)) {
-                      values[colId] = null;
-                    }
-                  }
-                }
-                indexedTable.upsert(new Record(values));
-              }
+              // NOTE: Reduce timeout is applied when waiting for the tasks to finish
+              upsertDataTable(indexedTable, dataTable, storedColumnDataTypes, Long.MAX_VALUE);
             }
           } catch (Throwable t) {
             exception.compareAndSet(null, t);
@@ -401,6 +363,109 @@ public class GroupByDataTableReducer implements DataTableReducer {
     return indexedTable;
   }
 
+  /**
+   * Merges the remaining data tables into the incremental indexed table, and finishes it.
+   */
+  private IndexedTable finishIncrementalIndexedTable(Collection<DataTable> dataTables,
+      DataTableReducerContext reducerContext)
+      throws TimeoutException {
+    long deadlineMs = System.currentTimeMillis() + reducerContext.getReduceTimeOutMs();
+    for (DataTable dataTable : dataTables) {
+      upsertDataTable(_incrementalIndexedTable, dataTable, _incrementalStoredColumnDataTypes, deadlineMs);
+    }
+    _incrementalIndexedTable.finish(true, true);
+    return _incrementalIndexedTable;
+  }
+
+  /**
+   * Upserts the rows of the given data table into the indexed table.
+   *
+   * @throws TimeoutException If unable to complete before the given deadline.
+   */
+  private void upsertDataTable(IndexedTable indexedTable, DataTable dataTable,
+      ColumnDataType[] storedColumnDataTypes, long deadlineMs)
+      throws TimeoutException {
+    boolean nullHandlingEnabled = _queryContext.isNullHandlingEnabled();
+    RoaringBitmap[] nullBitmaps = null;
+    if (nullHandlingEnabled) {
+      nullBitmaps = new RoaringBitmap[_numColumns];
+      for (int colId = 0; colId < _numColumns; colId++) {
+        nullBitmaps[colId] = dataTable.getNullRowIds(colId);
+      }
+    }
+
+    int numRows = dataTable.getNumberOfRows();
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      // Terminate when thread is interrupted.
+      // This is expected when the query already fails in the main thread.
+      // The first check will always be performed when rowId = 0
+      Tracing.ThreadAccountantOps.sampleAndCheckInterruptionPeriodically(rowId);
+      if ((rowId & DEADLINE_CHECK_MASK) == 0 && System.currentTimeMillis() > deadlineMs) {
+        throw new TimeoutException("Timed out in broker reduce phase");
+      }
+      Object[] values = new Object[_numColumns];
+      for (int colId = 0; colId < _numColumns; colId++) {
+        // NOTE: We need to handle data types for group key, intermediate and final aggregate result.
+        switch (storedColumnDataTypes[colId]) {
+          case INT:
+            values[colId] = dataTable.getInt(rowId, colId);
+            break;
+          case LONG:
+            values[colId] = dataTable.getLong(rowId, colId);
+            break;
+          case FLOAT:
+            values[colId] = dataTable.getFloat(rowId, colId);
+            break;
+          case DOUBLE:
+            values[colId] = dataTable.getDouble(rowId, colId);
+            break;
+          case BIG_DECIMAL:
+            values[colId] = dataTable.getBigDecimal(rowId, colId);
+            break;
+          case STRING:
+            values[colId] = dataTable.getString(rowId, colId);
+            break;
+          case BYTES:
+            values[colId] = dataTable.getBytes(rowId, colId);
+            break;
+          case INT_ARRAY:
+            values[colId] = IntArrayList.wrap(dataTable.getIntArray(rowId, colId));
+            break;
+          case LONG_ARRAY:
+            values[colId] = LongArrayList.wrap(dataTable.getLongArray(rowId, colId));
+            break;
+          case FLOAT_ARRAY:
+            values[colId] = FloatArrayList.wrap(dataTable.getFloatArray(rowId, colId));
+            break;
+          case DOUBLE_ARRAY:
+            values[colId] = DoubleArrayList.wrap(dataTable.getDoubleArray(rowId, colId));
+            break;
+          case STRING_ARRAY:
+            values[colId] = ObjectArrayList.wrap(dataTable.getStringArray(rowId, colId));
+            break;
+          case OBJECT:
+            // TODO: Move ser/de into AggregationFunction interface
+            CustomObject customObject = dataTable.getCustomObject(rowId, colId);
+            if (customObject != null) {
+              values[colId] = ObjectSerDeUtils.deserialize(customObject);
+            }
+            break;
+          // Add other aggregation intermediate result / group-by column type supports here
+          default:
+            throw new IllegalStateException();
+        }
+      }
+      if (nullHandlingEnabled) {
+        for (int colId = 0; colId < _numColumns; colId++) {
+          if (nullBitmaps[colId] != null && nullBitmaps[colId].contains(rowId)) {
+            values[colId] = null;
+          }
+        }
+      }
+      indexedTable.upsert(new Record(values));
+    }
+  }
+
   /**
    * Computes the number of reduce threads to use per query.
    * <ul>
@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.query.reduce;
+
+import java.util.concurrent.TimeoutException;
+import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.utils.DataSchema;
+
+
+/**
+ * Interface for data table reducers that can merge the data tables one by one as the server responses arrive, instead
+ * of reducing all the data tables after all the server responses are received.
+ */
+public interface IncrementalDataTableReducer extends DataTableReducer {
+
+  /**
+   * Returns whether the data tables for the query can be merged incrementally.
+   */
+  boolean isIncrementalMergeSupported();
+
+  /**
+   * Merges a data table with rows into the intermediate result. The data tables merged should have the same column
+   * data types as the given data schema, which should be the same for all the data tables merged. This method is not
+   * thread-safe.
+   * <p>The data tables merged via this method should not be passed to {@link #reduceAndSetResults}, which reduces the
+   * intermediate result together with the remaining data tables.
+   *
+   * @param dataSchema schema from broker reduce service
+   * @param dataTable data table with rows
+   * @param reducerContext DataTableReducer context, where the reduce timeout is the remaining time of the query
+   * @throws TimeoutException If unable to complete within the reduce timeout
+   */
+  void merge(DataSchema dataSchema, DataTable dataTable, DataTableReducerContext reducerContext)
+      throws TimeoutException;
+}
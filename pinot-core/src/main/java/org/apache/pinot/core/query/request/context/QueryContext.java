@@ -110,6 +110,8 @@ public class QueryContext {
   private boolean _skipScanFilterReorder;
   // Maximum number of threads used to execute the query
   private int _maxExecutionThreads = InstancePlanMakerImplV2.DEFAULT_MAX_EXECUTION_THREADS;
+  // Whether to adapt the parallelism to the segment sizes and the load of the query executor
+  private boolean _adaptiveParallelism;
   // The following properties apply to group-by queries
   // Maximum initial capacity of the group-by result holder
   private int _maxInitialResultHolderCapacity = InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY;
@@ -121,6 +123,8 @@ public class QueryContext {
   private int _minServerGroupTrimSize = InstancePlanMakerImplV2.DEFAULT_MIN_SERVER_GROUP_TRIM_SIZE;
   // Trim threshold to use for server combine for SQL GROUP BY
   private int _groupTrimThreshold = InstancePlanMakerImplV2.DEFAULT_GROUPBY_TRIM_THRESHOLD;
+  // Whether to combine the group-by results in per-thread hash partitions on the server
+  private boolean _partitionedGroupByCombine = InstancePlanMakerImplV2.DEFAULT_PARTITIONED_GROUP_BY_COMBINE;
   // Whether null handling is enabled
   private boolean _nullHandlingEnabled;
   // Whether server returns the final result
@@ -352,6 +356,14 @@ public class QueryContext {
     _maxExecutionThreads = maxExecutionThreads;
   }
 
+  public boolean isAdaptiveParallelism() {
+    return _adaptiveParallelism;
+  }
+
+  public void setAdaptiveParallelism(boolean adaptiveParallelism) {
+    _adaptiveParallelism = adaptiveParallelism;
+  }
+
   public int getMaxInitialResultHolderCapacity() {
     return _maxInitialResultHolderCapacity;
   }
@@ -392,6 +404,14 @@ public class QueryContext {
     _groupTrimThreshold = groupTrimThreshold;
   }
 
+  public boolean isPartitionedGroupByCombine() {
+    return _partitionedGroupByCombine;
+  }
+
+  public void setPartitionedGroupByCombine(boolean partitionedGroupByCombine) {
+    _partitionedGroupByCombine = partitionedGroupByCombine;
+  }
+
   public boolean isNullHandlingEnabled() {
     return _nullHandlingEnabled;
   }
@@ -59,6 +59,11 @@ public class BoundedAccountingExecutor extends QueryExecutorService {
     _delegateExecutor.execute(toAccountingRunnable(command));
   }
 
+  @Override
+  public int getNumAvailableThreads() {
+    return _semaphore.availablePermits();
+  }
+
   @Override
   public void releaseWorkers() {
     _accountant.releasedReservedThreads(_bounds);
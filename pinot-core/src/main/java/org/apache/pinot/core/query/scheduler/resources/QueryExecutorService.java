@@ -50,6 +50,14 @@ public abstract class QueryExecutorService implements ExecutorService {
   public void releaseWorkers() {
   }
 
+  /**
+   * Returns the number of threads that can immediately pick up a new task submitted to this executor service, or -1
+   * if it is unknown. Used to adapt the parallelism of the query to the current load of the server.
+   */
+  public int getNumAvailableThreads() {
+    return -1;
+  }
+
   @Override
   public <T> Future<T> submit(Runnable task, T result) {
     return submit(Executors.callable(task, result));
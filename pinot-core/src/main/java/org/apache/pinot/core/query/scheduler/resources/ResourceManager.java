@@ -24,6 +24,7 @@ import com.google.common.util.concurrent.MoreExecutors;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import org.apache.pinot.core.query.request.ServerQueryRequest;
 import org.apache.pinot.core.query.scheduler.SchedulerGroupAccountant;
 import org.apache.pinot.core.util.trace.TracedThreadFactory;
@@ -70,6 +71,8 @@ public abstract class ResourceManager {
   //
   protected final ListeningExecutorService _queryRunners;
   protected final ListeningExecutorService _queryWorkers;
+  // Underlying thread pool of the query workers, used to track the load of the query workers
+  protected final ThreadPoolExecutor _queryWorkerThreadPool;
   protected final int _numQueryRunnerThreads;
   protected final int _numQueryWorkerThreads;
 
@@ -91,8 +94,9 @@ public abstract class ResourceManager {
     // pqw -> pinot query workers
     ThreadFactory queryWorkersFactory = new TracedThreadFactory(Thread.NORM_PRIORITY, false,
         CommonConstants.ExecutorService.PINOT_QUERY_WORKER_NAME_FORMAT);
-    _queryWorkers =
-        MoreExecutors.listeningDecorator(Executors.newFixedThreadPool(_numQueryWorkerThreads, queryWorkersFactory));
+    _queryWorkerThreadPool =
+        (ThreadPoolExecutor) Executors.newFixedThreadPool(_numQueryWorkerThreads, queryWorkersFactory);
+    _queryWorkers = MoreExecutors.listeningDecorator(_queryWorkerThreadPool);
   }
 
   public void stop() {
@@ -118,6 +122,15 @@ public abstract class ResourceManager {
     return _numQueryWorkerThreads;
   }
 
+  /**
+   * Number of query worker threads that are neither running a task nor having a task queued for them, i.e. the
+   * number of threads a new task can be picked up by immediately.
+   */
+  public int getNumIdleQueryWorkerThreads() {
+    return Math.max(0, _numQueryWorkerThreads - _queryWorkerThreadPool.getActiveCount()
+        - _queryWorkerThreadPool.getQueue().size());
+  }
+
   /**
    * Returns executor service for running queries.
    * @return
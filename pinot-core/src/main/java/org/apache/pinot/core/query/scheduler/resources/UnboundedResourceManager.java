@@ -41,6 +41,11 @@ public class UnboundedResourceManager extends ResourceManager {
       public void execute(Runnable command) {
         _queryWorkers.submit(command);
       }
+
+      @Override
+      public int getNumAvailableThreads() {
+        return getNumIdleQueryWorkerThreads();
+      }
     };
   }
 
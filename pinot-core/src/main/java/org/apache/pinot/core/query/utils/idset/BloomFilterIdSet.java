@@ -18,11 +18,9 @@
  */
 package org.apache.pinot.core.query.utils.idset;
 
-import com.google.common.base.Preconditions;
 import com.google.common.hash.BloomFilter;
 import com.google.common.hash.Funnel;
 import com.google.common.hash.Funnels;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -182,8 +180,6 @@ public class BloomFilterIdSet implements IdSet {
    */
   static BloomFilterIdSet fromByteBuffer(ByteBuffer byteBuffer)
       throws IOException {
-    Preconditions.checkArgument(byteBuffer.hasArray(),
-        "Cannot deserialize BloomFilter from ByteBuffer not backed by an accessible byte array");
     // Count the IdSet.Type byte
     int serializedSizeInBytes = 1 + byteBuffer.remaining();
     byte funnelTypeId = byteBuffer.get();
@@ -210,9 +206,7 @@ public class BloomFilterIdSet implements IdSet {
         throw new IllegalStateException();
     }
     // NOTE: No need to close the stream.
-    BloomFilter bloomFilter = BloomFilter.readFrom(
-        new ByteArrayInputStream(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(),
-            byteBuffer.remaining()), funnel);
+    BloomFilter bloomFilter = BloomFilter.readFrom(IdSets.toInputStream(byteBuffer), funnel);
     return new BloomFilterIdSet(funnelType, bloomFilter, serializedSizeInBytes);
   }
 
@@ -18,7 +18,9 @@
  */
 package org.apache.pinot.core.query.utils.idset;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.Base64;
 import org.apache.pinot.spi.data.FieldSpec.DataType;
@@ -225,6 +227,21 @@ public class IdSets {
     }
   }
 
+  /**
+   * Returns an InputStream over the remaining bytes of the ByteBuffer without changing its position. The bytes are
+   * copied into a byte array when the ByteBuffer is not backed by an accessible one (e.g. when the data table is
+   * deserialized without copying from a direct buffer).
+   */
+  static InputStream toInputStream(ByteBuffer byteBuffer) {
+    if (byteBuffer.hasArray()) {
+      return new ByteArrayInputStream(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(),
+          byteBuffer.remaining());
+    }
+    byte[] bytes = new byte[byteBuffer.remaining()];
+    byteBuffer.duplicate().get(bytes);
+    return new ByteArrayInputStream(bytes);
+  }
+
   /**
    * Deserializes the IdSet from a Base64 string.
    * <p>Use Base64 instead of Hex encoding for better compression.
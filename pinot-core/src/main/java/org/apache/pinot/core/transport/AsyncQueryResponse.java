@@ -18,6 +18,10 @@
  */
 package org.apache.pinot.core.transport;
 
+import io.netty.buffer.ByteBuf;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -25,6 +29,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 import org.apache.pinot.common.datatable.DataTable;
@@ -47,6 +52,12 @@ public class AsyncQueryResponse implements QueryResponse {
   private final long _timeoutMs;
   private final ServerRoutingStatsManager _serverRoutingStatsManager;
 
+  // Servers responded in order of arrival, which are not polled yet (guarded by itself)
+  private final ArrayDeque<ServerRoutingInstance> _respondedServers = new ArrayDeque<>();
+  // Buffers backing the data tables deserialized without copying, which are released after the responses are processed
+  private final List<ByteBuf> _dataTableBuffers = new ArrayList<>();
+  private boolean _dataTableBuffersReleased;
+
   private volatile ServerRoutingInstance _failedServer;
   private volatile Exception _exception;
 
@@ -87,8 +98,27 @@ public class AsyncQueryResponse implements QueryResponse {
   @Override
   public Map<ServerRoutingInstance, ServerResponse> getFinalResponses()
       throws InterruptedException {
+    return getFinalResponses(null);
+  }
+
+  /**
+   * Same as {@link #getFinalResponses()}, but processes the server responses with the given consumer in order of
+   * arrival while waiting for the other server responses.
+   */
+  public Map<ServerRoutingInstance, ServerResponse> getFinalResponses(
+      @Nullable BiConsumer<ServerRoutingInstance, DataTable> responseConsumer)
+      throws InterruptedException {
     try {
-      boolean finish = _countDownLatch.await(_maxEndTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+      boolean finish;
+      if (responseConsumer != null) {
+        ServerRoutingInstance serverRoutingInstance;
+        while ((serverRoutingInstance = pollRespondedServer()) != null) {
+          responseConsumer.accept(serverRoutingInstance, _responseMap.get(serverRoutingInstance).getDataTable());
+        }
+        finish = _countDownLatch.getCount() == 0;
+      } else {
+        finish = _countDownLatch.await(_maxEndTimeMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+      }
       _status.compareAndSet(Status.IN_PROGRESS, finish ? Status.COMPLETED : Status.TIMED_OUT);
       return _responseMap;
     } finally {
@@ -108,6 +138,38 @@ public class AsyncQueryResponse implements QueryResponse {
     }
   }
 
+  /**
+   * Waits for the next server response, and returns the server responded in order of arrival. Returns {@code null}
+   * when there is no more server response to wait for (all servers responded or the query failed), or the query timed
+   * out.
+   */
+  @Nullable
+  private ServerRoutingInstance pollRespondedServer()
+      throws InterruptedException {
+    synchronized (_respondedServers) {
+      while (true) {
+        ServerRoutingInstance serverRoutingInstance = _respondedServers.poll();
+        if (serverRoutingInstance != null) {
+          return serverRoutingInstance;
+        }
+        if (_countDownLatch.getCount() == 0) {
+          return null;
+        }
+        long remainingTimeMs = _maxEndTimeMs - System.currentTimeMillis();
+        if (remainingTimeMs <= 0) {
+          return null;
+        }
+        _respondedServers.wait(remainingTimeMs);
+      }
+    }
+  }
+
+  private void notifyResponseWaiters() {
+    synchronized (_respondedServers) {
+      _respondedServers.notifyAll();
+    }
+  }
+
   @Override
   public String getServerStats() {
     StringBuilder stringBuilder = new StringBuilder(
@@ -158,7 +220,43 @@ public class AsyncQueryResponse implements QueryResponse {
     response.receiveDataTable(dataTable, responseSize, deserializationTimeMs);
 
     _numServersResponded.getAndIncrement();
-    _countDownLatch.countDown();
+    synchronized (_respondedServers) {
+      _respondedServers.add(serverRoutingInstance);
+      _countDownLatch.countDown();
+      _respondedServers.notifyAll();
+    }
+  }
+
+  /**
+   * Receives a data table deserialized without copying from the given buffer. The buffer is retained until
+   * {@link #releaseDataTableBuffers()} is invoked.
+   */
+  void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
+      int deserializationTimeMs, ByteBuf dataTableBuffer) {
+    synchronized (_dataTableBuffers) {
+      if (_dataTableBuffersReleased) {
+        // The responses are already processed, ignore the late response
+        return;
+      }
+      _dataTableBuffers.add(dataTableBuffer.retain());
+    }
+    receiveDataTable(serverRoutingInstance, dataTable, responseSize, deserializationTimeMs);
+  }
+
+  /**
+   * Releases the buffers backing the data tables deserialized without copying. This should be invoked after the server
+   * responses are processed, and the data tables should not be accessed afterwards.
+   */
+  public void releaseDataTableBuffers() {
+    synchronized (_dataTableBuffers) {
+      if (!_dataTableBuffersReleased) {
+        _dataTableBuffersReleased = true;
+        for (ByteBuf dataTableBuffer : _dataTableBuffers) {
+          dataTableBuffer.release();
+        }
+        _dataTableBuffers.clear();
+      }
+    }
   }
 
   void markQueryFailed(ServerRoutingInstance serverRoutingInstance, Exception exception) {
@@ -169,6 +267,7 @@ public class AsyncQueryResponse implements QueryResponse {
     for (int i = 0; i < count; i++) {
       _countDownLatch.countDown();
     }
+    notifyResponseWaiters();
   }
 
   /**
@@ -188,5 +287,6 @@ public class AsyncQueryResponse implements QueryResponse {
    */
   void skipServerResponse() {
     _countDownLatch.countDown();
+    notifyResponseWaiters();
   }
 }
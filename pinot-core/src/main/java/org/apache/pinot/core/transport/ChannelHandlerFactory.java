@@ -93,6 +93,15 @@ public class ChannelHandlerFactory {
     return new DataTableHandler(queryRouter, serverRoutingInstance, brokerMetrics);
   }
 
+  /**
+   * Same as {@link #getDataTableHandler(QueryRouter, ServerRoutingInstance, BrokerMetrics)}, but can deserialize the
+   * data tables directly from the received buffers without copying the data.
+   */
+  public static ChannelHandler getDataTableHandler(QueryRouter queryRouter, ServerRoutingInstance serverRoutingInstance,
+      BrokerMetrics brokerMetrics, boolean zeroCopyDeserializationEnabled) {
+    return new DataTableHandler(queryRouter, serverRoutingInstance, brokerMetrics, zeroCopyDeserializationEnabled);
+  }
+
   /**
    * The {@code getInstanceRequestHandler} return a {@code InstanceRequestHandler} Netty inbound handler on Pinot
    * Server side to handle the serialized instance requests sent from Pinot Broker.
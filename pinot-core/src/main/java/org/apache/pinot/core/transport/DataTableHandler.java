@@ -40,12 +40,23 @@ public class DataTableHandler extends SimpleChannelInboundHandler<ByteBuf> {
   private final QueryRouter _queryRouter;
   private final ServerRoutingInstance _serverRoutingInstance;
   private final BrokerMetrics _brokerMetrics;
+  private final boolean _zeroCopyDeserializationEnabled;
 
   public DataTableHandler(QueryRouter queryRouter, ServerRoutingInstance serverRoutingInstance,
       BrokerMetrics brokerMetrics) {
+    this(queryRouter, serverRoutingInstance, brokerMetrics, false);
+  }
+
+  /**
+   * When zero-copy deserialization is enabled, the data tables are deserialized directly from the received buffers,
+   * and the buffers are retained by the query responses until the responses are processed.
+   */
+  public DataTableHandler(QueryRouter queryRouter, ServerRoutingInstance serverRoutingInstance,
+      BrokerMetrics brokerMetrics, boolean zeroCopyDeserializationEnabled) {
     _queryRouter = queryRouter;
     _serverRoutingInstance = serverRoutingInstance;
     _brokerMetrics = brokerMetrics;
+    _zeroCopyDeserializationEnabled = zeroCopyDeserializationEnabled;
   }
 
   @Override
@@ -67,9 +78,16 @@ public class DataTableHandler extends SimpleChannelInboundHandler<ByteBuf> {
     _brokerMetrics.addMeteredGlobalValue(BrokerMeter.NETTY_CONNECTION_BYTES_RECEIVED, responseSize);
     try {
       long deserializationStartTimeMs = System.currentTimeMillis();
-      DataTable dataTable = DataTableFactory.getDataTable(msg.nioBuffer());
-      _queryRouter.receiveDataTable(_serverRoutingInstance, dataTable, responseSize,
-          (int) (System.currentTimeMillis() - deserializationStartTimeMs));
+      DataTable dataTable;
+      if (_zeroCopyDeserializationEnabled) {
+        dataTable = DataTableFactory.getDataTableWithoutCopy(msg.nioBuffer());
+        _queryRouter.receiveDataTable(_serverRoutingInstance, dataTable, responseSize,
+            (int) (System.currentTimeMillis() - deserializationStartTimeMs), msg);
+      } else {
+        dataTable = DataTableFactory.getDataTable(msg.nioBuffer());
+        _queryRouter.receiveDataTable(_serverRoutingInstance, dataTable, responseSize,
+            (int) (System.currentTimeMillis() - deserializationStartTimeMs));
+      }
       long requestID = Long.parseLong(dataTable.getMetadata().get(DataTable.MetadataKey.REQUEST_ID.getName()));
       Tracing.ThreadAccountantOps.updateQueryUsageConcurrently(String.valueOf(requestID));
     } catch (Exception e) {
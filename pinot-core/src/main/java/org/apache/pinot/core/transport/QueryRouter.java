@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.core.transport;
 
+import io.netty.buffer.ByteBuf;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -202,6 +203,22 @@ public class QueryRouter {
     }
   }
 
+  /**
+   * Receives a data table deserialized without copying from the given buffer, where the buffer is retained by the query
+   * response until the responses are processed.
+   */
+  void receiveDataTable(ServerRoutingInstance serverRoutingInstance, DataTable dataTable, int responseSize,
+      int deserializationTimeMs, ByteBuf dataTableBuffer) {
+    long requestId = Long.parseLong(dataTable.getMetadata().get(MetadataKey.REQUEST_ID.getName()));
+    AsyncQueryResponse asyncQueryResponse = _asyncQueryResponseMap.get(requestId);
+
+    // Query future might be null if the query is already done (maybe due to failure)
+    if (asyncQueryResponse != null) {
+      asyncQueryResponse.receiveDataTable(serverRoutingInstance, dataTable, responseSize, deserializationTimeMs,
+          dataTableBuffer);
+    }
+  }
+
   void markServerDown(ServerRoutingInstance serverRoutingInstance, Exception exception) {
     for (AsyncQueryResponse asyncQueryResponse : _asyncQueryResponseMap.values()) {
       asyncQueryResponse.markServerDown(serverRoutingInstance, exception);
@@ -75,6 +75,7 @@ public class ServerChannels {
   private final TlsConfig _tlsConfig;
   private final EventLoopGroup _eventLoopGroup;
   private final Class<? extends SocketChannel> _channelClass;
+  private final boolean _zeroCopyDeserializationEnabled;
 
   /**
    * Create a server channel with TLS config
@@ -113,6 +114,7 @@ public class ServerChannels {
       LOGGER.info(log.toString());
     }
 
+    _zeroCopyDeserializationEnabled = nettyConfig != null && nettyConfig.isZeroCopyDeserializationEnabled();
     _queryRouter = queryRouter;
     _brokerMetrics = brokerMetrics;
     _tlsConfig = tlsConfig;
@@ -184,7 +186,8 @@ public class ServerChannels {
               // NOTE: data table de-serialization happens inside this handler
               // Revisit if this becomes a bottleneck
               ch.pipeline().addLast(ChannelHandlerFactory
-                      .getDataTableHandler(_queryRouter, _serverRoutingInstance, _brokerMetrics));
+                      .getDataTableHandler(_queryRouter, _serverRoutingInstance, _brokerMetrics,
+                          _zeroCopyDeserializationEnabled));
             }
           });
     }
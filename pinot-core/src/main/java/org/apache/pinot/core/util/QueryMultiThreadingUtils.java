@@ -26,6 +26,7 @@ import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import org.apache.pinot.core.query.scheduler.resources.QueryExecutorService;
 import org.apache.pinot.core.util.trace.TraceCallable;
 
 
@@ -54,6 +55,29 @@ public class QueryMultiThreadingUtils {
     return getNumTasks(numOperators, 1, maxExecutionThreads);
   }
 
+  /**
+   * Returns the number of tasks for the query execution based on the current load of the executor service. When the
+   * executor service can tell the number of available threads, the task count is bounded by it (at least 1 task) so
+   * that a loaded server doesn't queue up more tasks than it can run, and an idle server can use up to the number of
+   * processors (instead of {@link #MAX_NUM_THREADS_PER_QUERY}) when maxExecutionThreads is not configured. Otherwise,
+   * falls back to {@link #getNumTasksForQuery(int, int)}.
+   */
+  public static int getAdaptiveNumTasksForQuery(int numOperators, int maxExecutionThreads,
+      ExecutorService executorService) {
+    int numAvailableThreads = executorService instanceof QueryExecutorService
+        ? ((QueryExecutorService) executorService).getNumAvailableThreads() : -1;
+    if (numAvailableThreads < 0) {
+      return getNumTasksForQuery(numOperators, maxExecutionThreads);
+    }
+    if (numOperators <= 1) {
+      return 1;
+    }
+    if (maxExecutionThreads <= 0) {
+      maxExecutionThreads = Runtime.getRuntime().availableProcessors();
+    }
+    return Math.max(1, Math.min(Math.min(numOperators, maxExecutionThreads), numAvailableThreads));
+  }
+
   public static int getNumTasks(int numWorkUnits, int minUnitsPerThread, int maxExecutionThreads) {
     if (numWorkUnits <= minUnitsPerThread) {
       return 1;
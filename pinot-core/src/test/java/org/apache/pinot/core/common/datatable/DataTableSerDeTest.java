@@ -304,6 +304,41 @@ public class DataTableSerDeTest {
     DataTableBuilderFactory.setDataTableVersion(DataTableBuilderFactory.DEFAULT_VERSION);
   }
 
+  @Test
+  public void testZeroCopyDeserialization()
+      throws IOException {
+    DataTableBuilderFactory.setDataTableVersion(DataTableFactory.VERSION_4);
+    DataSchema.ColumnDataType[] columnDataTypes = DataSchema.ColumnDataType.values();
+    int numColumns = columnDataTypes.length;
+    String[] columnNames = new String[numColumns];
+    for (int i = 0; i < numColumns; i++) {
+      columnNames[i] = columnDataTypes[i].name();
+    }
+
+    DataSchema dataSchema = new DataSchema(columnNames, columnDataTypes);
+    DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(dataSchema);
+    fillDataTableWithRandomData(dataTableBuilder, columnDataTypes, numColumns);
+    DataTable dataTable = dataTableBuilder.build();
+    byte[] bytes = dataTable.toBytes();
+
+    // Put the serialized data table in the middle of a direct buffer, similar to the buffers received from the network
+    ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length + 20);
+    directBuffer.position(10);
+    directBuffer.put(bytes);
+    directBuffer.position(10);
+    directBuffer.limit(10 + bytes.length);
+    DataTable newDataTable = DataTableFactory.getDataTableWithoutCopy(directBuffer.slice());
+    Assert.assertEquals(newDataTable.getDataSchema(), dataSchema, ERROR_MESSAGE);
+    Assert.assertEquals(newDataTable.getNumberOfRows(), NUM_ROWS, ERROR_MESSAGE);
+    verifyDataIsSame(newDataTable, columnDataTypes, numColumns);
+
+    // Data table deserialized without copying can be serialized again
+    verifyDataIsSame(DataTableFactory.getDataTable(newDataTable.toBytes()), columnDataTypes, numColumns);
+    DataTable dataOnlyDataTable = DataTableFactory.getDataTable(newDataTable.toDataOnlyDataTable().toBytes());
+    verifyDataIsSame(dataOnlyDataTable, columnDataTypes, numColumns);
+    DataTableBuilderFactory.setDataTableVersion(DataTableBuilderFactory.DEFAULT_VERSION);
+  }
+
   @Test(dataProvider = "versionProvider")
   public void testExecutionThreadCpuTimeNs(int dataTableVersion)
       throws IOException {
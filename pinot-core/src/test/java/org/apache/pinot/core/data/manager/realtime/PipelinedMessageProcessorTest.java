@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.core.data.manager.realtime;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.pinot.segment.local.segment.creator.TransformPipeline;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.recordenricher.RecordEnricherPipeline;
+import org.apache.pinot.spi.stream.BytesStreamMessage;
+import org.apache.pinot.spi.stream.LongMsgOffset;
+import org.apache.pinot.spi.stream.MessageBatch;
+import org.apache.pinot.spi.stream.StreamDataDecoderImpl;
+import org.apache.pinot.spi.stream.StreamMessageDecoder;
+import org.apache.pinot.spi.stream.StreamMessageMetadata;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+
+public class PipelinedMessageProcessorTest {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String COLUMN_NAME = "value";
+  private static final int NUM_THREADS = 4;
+  private static final String INVALID_VALUE = "invalid";
+
+  @Test
+  public void testProcessInOrder() {
+    try (PipelinedMessageProcessor processor = createProcessor()) {
+      // Process multiple batches to ensure that the workers can be reused
+      for (int batchId = 0; batchId < 3; batchId++) {
+        int numMessages = PipelinedMessageProcessor.CHUNK_SIZE * 10 + batchId;
+        List<String> values = new ArrayList<>(numMessages);
+        for (int i = 0; i < numMessages; i++) {
+          // Put some invalid messages to ensure that the decode failures are kept for the right messages
+          values.add(i % 100 == 0 ? INVALID_VALUE : Integer.toString(i));
+        }
+        try (PipelinedMessageProcessor.ProcessedBatch processedBatch = processor.process(createMessageBatch(values))) {
+          for (int i = 0; i < numMessages; i++) {
+            PipelinedMessageProcessor.ProcessedMessage processedMessage = processedBatch.get(i);
+            LongMsgOffset offset = (LongMsgOffset) processedMessage.getStreamMessage().getMetadata().getOffset();
+            assertEquals(offset.getOffset(), i);
+            if (i % 100 == 0) {
+              assertNotNull(processedMessage.getDecoderResult().getException());
+            } else {
+              assertNull(processedMessage.getDecoderResult().getException());
+              assertNull(processedMessage.getTransformException());
+              List<GenericRow> transformedRows = processedMessage.getTransformResult().getTransformedRows();
+              assertEquals(transformedRows.size(), 1);
+              assertEquals(transformedRows.get(0).getValue(COLUMN_NAME), i);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCloseBeforeProcessingAllMessages() {
+    try (PipelinedMessageProcessor processor = createProcessor()) {
+      int numMessages = PipelinedMessageProcessor.CHUNK_SIZE * 100;
+      List<String> values = new ArrayList<>(numMessages);
+      for (int i = 0; i < numMessages; i++) {
+        values.add(Integer.toString(i));
+      }
+      // Stop reading the processed messages in the middle (e.g. when the end criteria is reached)
+      try (PipelinedMessageProcessor.ProcessedBatch processedBatch = processor.process(createMessageBatch(values))) {
+        for (int i = 0; i < 10; i++) {
+          assertEquals(processedBatch.get(i).getTransformResult().getTransformedRows().get(0).getValue(COLUMN_NAME),
+              i);
+        }
+      }
+      // The next batch should start from the first message
+      try (PipelinedMessageProcessor.ProcessedBatch processedBatch = processor.process(
+          createMessageBatch(values.subList(10, 20)))) {
+        for (int i = 0; i < 10; i++) {
+          assertEquals(processedBatch.get(i).getTransformResult().getTransformedRows().get(0).getValue(COLUMN_NAME),
+              i + 10);
+        }
+      }
+    }
+  }
+
+  private static PipelinedMessageProcessor createProcessor() {
+    Schema schema =
+        new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME).addSingleValueDimension(COLUMN_NAME, DataType.INT)
+            .build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.REALTIME).setTableName(RAW_TABLE_NAME).build();
+    List<StreamDataDecoderImpl> decoders = new ArrayList<>(NUM_THREADS);
+    List<RecordEnricherPipeline> recordEnricherPipelines = new ArrayList<>(NUM_THREADS);
+    List<TransformPipeline> transformPipelines = new ArrayList<>(NUM_THREADS);
+    for (int i = 0; i < NUM_THREADS; i++) {
+      decoders.add(new StreamDataDecoderImpl(new IntValueDecoder()));
+      recordEnricherPipelines.add(RecordEnricherPipeline.fromTableConfig(tableConfig));
+      transformPipelines.add(new TransformPipeline(tableConfig, schema));
+    }
+    return new PipelinedMessageProcessor("testSegment", decoders, recordEnricherPipelines, transformPipelines);
+  }
+
+  private static MessageBatch<byte[]> createMessageBatch(List<String> values) {
+    return new MessageBatch<byte[]>() {
+      @Override
+      public int getMessageCount() {
+        return values.size();
+      }
+
+      @Override
+      public BytesStreamMessage getStreamMessage(int index) {
+        return new BytesStreamMessage(values.get(index).getBytes(StandardCharsets.UTF_8),
+            new StreamMessageMetadata.Builder().setOffset(new LongMsgOffset(index), new LongMsgOffset(index + 1))
+                .build());
+      }
+    };
+  }
+
+  private static class IntValueDecoder implements StreamMessageDecoder<byte[]> {
+
+    @Override
+    public void init(Map<String, String> props, Set<String> fieldsToRead, String topicName) {
+    }
+
+    @Override
+    public GenericRow decode(byte[] payload, GenericRow destination) {
+      destination.putValue(COLUMN_NAME, Integer.parseInt(new String(payload, StandardCharsets.UTF_8)));
+      return destination;
+    }
+
+    @Override
+    public GenericRow decode(byte[] payload, int offset, int length, GenericRow destination) {
+      return decode(payload, destination);
+    }
+  }
+}
@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -41,7 +42,7 @@ import org.testng.annotations.Test;
 /**
  * Tests the {@link Table} operations
  */
-@SuppressWarnings({"rawtypes"})
+@SuppressWarnings({"rawtypes", "unchecked"})
 public class IndexedTableTest {
   private static final int TRIM_SIZE = 10;
   private static final int TRIM_THRESHOLD = 20;
@@ -141,6 +142,114 @@ public class IndexedTableTest {
     checkSurvivors(indexedTable, survivors);
   }
 
+  @Test
+  public void testPartitionedIndexedTable()
+      throws Exception {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(
+        "SELECT SUM(m1), MAX(m2) FROM testTable GROUP BY d1, d2 ORDER BY SUM(m1) DESC, d1");
+    DataSchema dataSchema = new DataSchema(new String[]{"d1", "d2", "sum(m1)", "max(m2)"}, new ColumnDataType[]{
+        ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE
+    });
+    int numThreads = 4;
+    int numKeys = 200;
+    int numRecordsPerThread = 1000;
+
+    // Expected results without trimming
+    IndexedTable expectedTable = new SimpleIndexedTable(dataSchema, queryContext, 5, Integer.MAX_VALUE,
+        Integer.MAX_VALUE);
+    // NOTE: Trim threshold is split across the partitions of all the writers, use a large enough one so that the
+    //       partitions are not trimmed before the merge.
+    PartitionedIndexedTable partitionedTable =
+        new PartitionedIndexedTable(dataSchema, queryContext, 5, TRIM_SIZE, 4000, numThreads, numThreads);
+    List<Record>[] threadRecords = new List[numThreads];
+    Random random = new Random();
+    for (int i = 0; i < numThreads; i++) {
+      threadRecords[i] = new ArrayList<>(numRecordsPerThread);
+      for (int j = 0; j < numRecordsPerThread; j++) {
+        int keyId = random.nextInt(numKeys);
+        double value = random.nextInt(100);
+        threadRecords[i].add(getRecord(new Object[]{"k" + keyId, keyId, value, value}));
+        expectedTable.upsert(getRecord(new Object[]{"k" + keyId, keyId, value, value}));
+      }
+    }
+
+    ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Callable<Void>> callables = new ArrayList<>(numThreads);
+      for (int i = 0; i < numThreads; i++) {
+        List<Record> records = threadRecords[i];
+        callables.add(() -> {
+          PartitionedIndexedTable.Writer writer = partitionedTable.createWriter();
+          for (Record record : records) {
+            writer.upsert(getKey(Arrays.copyOf(record.getValues(), 2)), record);
+          }
+          return null;
+        });
+      }
+      for (Future<Void> future : executorService.invokeAll(callables)) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+      partitionedTable.mergePartitions(executorService, numThreads, System.currentTimeMillis() + 10_000L);
+    } finally {
+      executorService.shutdown();
+    }
+
+    // Each partition is trimmed to the trim size after the merge
+    Assert.assertTrue(partitionedTable.getNumResizes() > 0);
+    expectedTable.finish(true);
+    partitionedTable.finish(true);
+    Assert.assertEquals(partitionedTable.size(), 5);
+    Iterator<Record> expectedIterator = expectedTable.iterator();
+    Iterator<Record> actualIterator = partitionedTable.iterator();
+    while (expectedIterator.hasNext()) {
+      Assert.assertEquals(actualIterator.next().getValues(), expectedIterator.next().getValues());
+    }
+  }
+
+  @Test
+  public void testPartitionedIndexedTableWithoutOrderBy()
+      throws Exception {
+    QueryContext queryContext =
+        QueryContextConverterUtils.getQueryContext("SELECT SUM(m1), MAX(m2) FROM testTable GROUP BY d1, d2");
+    DataSchema dataSchema = new DataSchema(new String[]{"d1", "d2", "sum(m1)", "max(m2)"}, new ColumnDataType[]{
+        ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.DOUBLE, ColumnDataType.DOUBLE
+    });
+    int resultSize = 5;
+    int numKeys = 2 * resultSize;
+    PartitionedIndexedTable partitionedTable =
+        new PartitionedIndexedTable(dataSchema, queryContext, resultSize, TRIM_SIZE, TRIM_THRESHOLD, 2, 1);
+
+    // Both writers get all the keys, but in different order so that each writer sees resultSize different keys first
+    PartitionedIndexedTable.Writer writer1 = partitionedTable.createWriter();
+    PartitionedIndexedTable.Writer writer2 = partitionedTable.createWriter();
+    for (int i = 0; i < numKeys; i++) {
+      int keyId1 = i;
+      int keyId2 = (i + resultSize) % numKeys;
+      writer1.upsert(getKey(new Object[]{"k" + keyId1, keyId1}),
+          getRecord(new Object[]{"k" + keyId1, keyId1, (double) keyId1, (double) keyId1}));
+      writer2.upsert(getKey(new Object[]{"k" + keyId2, keyId2}),
+          getRecord(new Object[]{"k" + keyId2, keyId2, (double) keyId2, (double) keyId2}));
+    }
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      partitionedTable.mergePartitions(executorService, 1, System.currentTimeMillis() + 10_000L);
+    } finally {
+      executorService.shutdown();
+    }
+
+    // The kept keys should have the records from both writers aggregated
+    partitionedTable.finish(false);
+    Assert.assertEquals(partitionedTable.size(), resultSize);
+    Iterator<Record> iterator = partitionedTable.iterator();
+    while (iterator.hasNext()) {
+      Object[] values = iterator.next().getValues();
+      int keyId = (int) values[1];
+      Assert.assertEquals(values[0], "k" + keyId);
+      Assert.assertEquals(values[2], 2.0 * keyId);
+      Assert.assertEquals(values[3], (double) keyId);
+    }
+  }
+
   @DataProvider(name = "initDataProvider")
   public Object[][] initDataProvider() {
     List<Object[]> data = new ArrayList<>();
@@ -243,7 +352,8 @@ public class IndexedTableTest {
   }
 
   @Test
-  public void testNoMoreNewRecords() {
+  public void testNoMoreNewRecords()
+      throws Exception {
     QueryContext queryContext =
         QueryContextConverterUtils.getQueryContext("SELECT SUM(m1), MAX(m2) FROM testTable GROUP BY d1, d2, d3");
     DataSchema dataSchema = new DataSchema(new String[]{"d1", "d2", "d3", "sum(m1)", "max(m2)"}, new ColumnDataType[]{
@@ -255,6 +365,23 @@ public class IndexedTableTest {
 
     indexedTable = new ConcurrentIndexedTable(dataSchema, queryContext, 5, TRIM_SIZE, TRIM_THRESHOLD);
     testNoMoreNewRecordsInTable(indexedTable);
+
+    // PartitionedIndexedTable keeps all the records in the writer partitions, and the first resultSize records after
+    // the merge
+    PartitionedIndexedTable partitionedTable =
+        new PartitionedIndexedTable(dataSchema, queryContext, 5, TRIM_SIZE, TRIM_THRESHOLD, 1, 2);
+    PartitionedIndexedTable.Writer writer = partitionedTable.createWriter();
+    for (int i = 0; i < 20; i++) {
+      writer.upsert(getKey(new Object[]{"k" + i, i, 10d}), getRecord(new Object[]{"k" + i, i, 10d, 10d, 100d}));
+    }
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try {
+      partitionedTable.mergePartitions(executorService, 2, System.currentTimeMillis() + 10_000L);
+    } finally {
+      executorService.shutdown();
+    }
+    partitionedTable.finish(false);
+    Assert.assertEquals(partitionedTable.size(), 5);
   }
 
   private void testNoMoreNewRecordsInTable(IndexedTable indexedTable) {
@@ -58,6 +58,29 @@ public class ScalarTransformFunctionWrapperTest extends BaseTransformFunctionTes
     testTransformFunction(transformFunction, expectedValues);
   }
 
+  @Test
+  public void testPrimitiveLongTransformFunction() {
+    // Invoked in batch on primitive values
+    ExpressionContext expression =
+        RequestContextUtils.getExpression(String.format("toEpochSecondsRounded(%s, 10)", LONG_SV_COLUMN));
+    TransformFunction transformFunction = TransformFunctionFactory.get(expression, _dataSourceMap);
+    assertTrue(transformFunction instanceof ScalarTransformFunctionWrapper);
+    assertEquals(transformFunction.getName(), "toEpochSecondsRounded");
+    long[] expectedValues = new long[NUM_ROWS];
+    for (int i = 0; i < NUM_ROWS; i++) {
+      expectedValues[i] = _longSVValues[i] / 1000 / 10 * 10;
+    }
+    testTransformFunction(transformFunction, expectedValues);
+
+    expression = RequestContextUtils.getExpression(String.format("toEpochDays(%s)", LONG_SV_COLUMN));
+    transformFunction = TransformFunctionFactory.get(expression, _dataSourceMap);
+    assertTrue(transformFunction instanceof ScalarTransformFunctionWrapper);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      expectedValues[i] = _longSVValues[i] / 86400000;
+    }
+    testTransformFunction(transformFunction, expectedValues);
+  }
+
   @Test
   public void testStringUpperTransformFunction() {
     ExpressionContext expression =
@@ -221,8 +221,8 @@ public class DictionaryBasedGroupKeyGeneratorTest {
   }
 
   @Test
-  public void testArrayMapBasedSingleValue() {
-    // Cardinality product larger than Long.MAX_VALUE
+  public void testLongPairMapBasedSingleValue() {
+    // Cardinality product larger than Long.MAX_VALUE, but dictionary ids can be bit-packed into 128 bits
     String[] groupByColumns = {"s1", "s2", "s3", "s4", "s5", "s6", "s7", "s8", "s9", "s10"};
 
     // Test initial status
@@ -239,6 +239,49 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 2, _errorMessage);
     compareSingleValueBuffer();
     testGetGroupKeys(dictionaryBasedGroupKeyGenerator.getGroupKeys(), 2);
+
+    // The dictionary ids of some columns cross the boundary of the 2 longs, verify that the keys are decoded correctly
+    for (int i = 0; i < groupByColumns.length; i++) {
+      DictionaryBasedGroupKeyGenerator singleColumnGroupKeyGenerator =
+          new DictionaryBasedGroupKeyGenerator(_projectOperator, getExpressions(new String[]{groupByColumns[i]}),
+              InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT,
+              InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY);
+      singleColumnGroupKeyGenerator.generateKeysForBlock(_valueBlock, SV_GROUP_KEY_BUFFER);
+      assertEquals(getGroupKeyValues(dictionaryBasedGroupKeyGenerator.getGroupKeys(), i),
+          getGroupKeyValues(singleColumnGroupKeyGenerator.getGroupKeys(), 0), _errorMessage);
+    }
+  }
+
+  @Test
+  public void testArrayMapBasedSingleValue() {
+    // Dictionary ids cannot be bit-packed into 128 bits (20 columns with cardinality 100, 7 bits each)
+    String[] groupByColumns = {
+        "s1", "s2", "s3", "s4", "s5", "s6", "s7", "s8", "s9", "s10", "s1", "s2", "s3", "s4", "s5", "s6", "s7", "s8",
+        "s9", "s10"
+    };
+
+    // Test initial status
+    DictionaryBasedGroupKeyGenerator dictionaryBasedGroupKeyGenerator =
+        new DictionaryBasedGroupKeyGenerator(_projectOperator, getExpressions(groupByColumns),
+            InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT,
+            InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY);
+    assertEquals(dictionaryBasedGroupKeyGenerator.getGlobalGroupKeyUpperBound(),
+        InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT, _errorMessage);
+    assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 0, _errorMessage);
+
+    // Test group key generation
+    dictionaryBasedGroupKeyGenerator.generateKeysForBlock(_valueBlock, SV_GROUP_KEY_BUFFER);
+    assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 2, _errorMessage);
+    compareSingleValueBuffer();
+    testGetGroupKeys(dictionaryBasedGroupKeyGenerator.getGroupKeys(), 2);
+  }
+
+  private static Set<Object> getGroupKeyValues(Iterator<GroupKeyGenerator.GroupKey> groupKeyIterator, int index) {
+    Set<Object> values = new HashSet<>();
+    while (groupKeyIterator.hasNext()) {
+      values.add(groupKeyIterator.next()._keys[index]);
+    }
+    return values;
   }
 
   /**
@@ -322,8 +365,8 @@ public class DictionaryBasedGroupKeyGeneratorTest {
   }
 
   @Test
-  public void testArrayMapBasedMultiValue() {
-    // Cardinality product larger than Long.MAX_VALUE
+  public void testLongPairMapBasedMultiValue() {
+    // Cardinality product larger than Long.MAX_VALUE, but dictionary ids can be bit-packed into 128 bits
     String[] groupByColumns = {"m1", "m2", "s1", "s2", "s3", "s4", "s5", "s6", "s7", "s8", "s9", "s10"};
 
     // Test initial status
@@ -343,6 +386,31 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     testGetGroupKeys(dictionaryBasedGroupKeyGenerator.getGroupKeys(), numUniqueKeys);
   }
 
+  @Test
+  public void testArrayMapBasedMultiValue() {
+    // Dictionary ids cannot be bit-packed into 128 bits (20 single-value columns with cardinality 100, 7 bits each)
+    String[] groupByColumns = {
+        "m1", "m2", "s1", "s2", "s3", "s4", "s5", "s6", "s7", "s8", "s9", "s10", "s1", "s2", "s3", "s4", "s5", "s6",
+        "s7", "s8", "s9", "s10"
+    };
+
+    // Test initial status
+    DictionaryBasedGroupKeyGenerator dictionaryBasedGroupKeyGenerator =
+        new DictionaryBasedGroupKeyGenerator(_projectOperator, getExpressions(groupByColumns),
+            InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT,
+            InstancePlanMakerImplV2.DEFAULT_MAX_INITIAL_RESULT_HOLDER_CAPACITY);
+    assertEquals(dictionaryBasedGroupKeyGenerator.getGlobalGroupKeyUpperBound(),
+        InstancePlanMakerImplV2.DEFAULT_NUM_GROUPS_LIMIT, _errorMessage);
+    assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), 0, _errorMessage);
+
+    // Test group key generation
+    dictionaryBasedGroupKeyGenerator.generateKeysForBlock(_valueBlock, MV_GROUP_KEY_BUFFER);
+    int numUniqueKeys = MV_GROUP_KEY_BUFFER[0].length + MV_GROUP_KEY_BUFFER[1].length;
+    assertEquals(dictionaryBasedGroupKeyGenerator.getCurrentGroupKeyUpperBound(), numUniqueKeys, _errorMessage);
+    compareMultiValueBuffer();
+    testGetGroupKeys(dictionaryBasedGroupKeyGenerator.getGroupKeys(), numUniqueKeys);
+  }
+
   @Test
   public void testNumGroupsLimit() {
     String[] groupByColumns = {"m1", "m2"};
@@ -423,6 +491,44 @@ public class DictionaryBasedGroupKeyGeneratorTest {
     assertEquals(groupKeySet.size(), numUniqueKeys, _errorMessage);
   }
 
+  @Test
+  public void testLongPairGroupIdMap() {
+    DictionaryBasedGroupKeyGenerator.LongPairGroupIdMap groupIdMap =
+        new DictionaryBasedGroupKeyGenerator.LongPairGroupIdMap();
+    int numKeys = 10_000;
+    int groupIdUpperBound = numKeys / 2;
+    long[] highBits = new long[numKeys];
+    long[] lowBits = new long[numKeys];
+    for (int i = 0; i < numKeys; i++) {
+      // Keys with the same low bits or the same high bits should be different
+      highBits[i] = i % 2 == 0 ? i : _random.nextLong();
+      lowBits[i] = i % 2 == 0 ? 0 : i;
+    }
+    for (int i = 0; i < numKeys; i++) {
+      int groupId = groupIdMap.getGroupId(highBits[i], lowBits[i], groupIdUpperBound);
+      assertEquals(groupId, i < groupIdUpperBound ? i : GroupKeyGenerator.INVALID_ID, _errorMessage);
+    }
+    assertEquals(groupIdMap.size(), groupIdUpperBound, _errorMessage);
+    for (int i = 0; i < groupIdUpperBound; i++) {
+      assertEquals(groupIdMap.getGroupId(highBits[i], lowBits[i], groupIdUpperBound), i, _errorMessage);
+    }
+
+    Iterator<DictionaryBasedGroupKeyGenerator.LongPairGroupIdMap.Entry> iterator = groupIdMap.iterator();
+    Set<Integer> groupIds = new HashSet<>();
+    while (iterator.hasNext()) {
+      DictionaryBasedGroupKeyGenerator.LongPairGroupIdMap.Entry entry = iterator.next();
+      assertEquals(entry._highBits, highBits[entry._groupId], _errorMessage);
+      assertEquals(entry._lowBits, lowBits[entry._groupId], _errorMessage);
+      groupIds.add(entry._groupId);
+    }
+    assertEquals(groupIds.size(), groupIdUpperBound, _errorMessage);
+
+    groupIdMap.clearAndTrim();
+    assertEquals(groupIdMap.size(), 0);
+    assertFalse(groupIdMap.iterator().hasNext());
+    assertEquals(groupIdMap.getGroupId(highBits[1], lowBits[1], groupIdUpperBound), 0, _errorMessage);
+  }
+
   @Test
   public void testMapDefaultValue() {
     assertEquals(DictionaryBasedGroupKeyGenerator.THREAD_LOCAL_LONG_MAP.get().defaultReturnValue(),
@@ -19,10 +19,12 @@
 package org.apache.pinot.core.query.reduce;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.pinot.common.datatable.DataTable;
+import org.apache.pinot.common.datatable.DataTableFactory;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.request.BrokerRequest;
@@ -32,8 +34,11 @@ import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.common.utils.DataSchema.ColumnDataType;
 import org.apache.pinot.core.common.datatable.DataTableBuilder;
 import org.apache.pinot.core.common.datatable.DataTableBuilderFactory;
+import org.apache.pinot.core.query.utils.idset.IdSet;
+import org.apache.pinot.core.query.utils.idset.IdSets;
 import org.apache.pinot.core.transport.ServerRoutingInstance;
 import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.apache.pinot.spi.utils.CommonConstants.Broker;
 import org.apache.pinot.sql.parsers.CalciteSqlCompiler;
@@ -41,6 +46,7 @@ import org.testng.annotations.Test;
 
 import static org.mockito.Mockito.mock;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 
 public class BrokerReduceServiceTest {
@@ -79,4 +85,176 @@ public class BrokerReduceServiceTest {
     assertEquals(exceptions.size(), 1);
     assertEquals(exceptions.get(0).getErrorCode(), QueryException.BROKER_TIMEOUT_ERROR_CODE);
   }
+
+  @Test
+  public void testIncrementalReduce()
+      throws IOException {
+    BrokerReduceService brokerReduceService = new BrokerReduceService(
+        new PinotConfiguration(Map.of(Broker.CONFIG_OF_BROKER_ENABLE_INCREMENTAL_REDUCE, true)));
+    BrokerRequest brokerRequest = CalciteSqlCompiler.compileToBrokerRequest(
+        "SELECT col1, SUM(col2) FROM testTable GROUP BY col1 ORDER BY SUM(col2) DESC LIMIT 10");
+    DataSchema dataSchema = new DataSchema(new String[]{"col1", "sum(col2)"},
+        new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.DOUBLE});
+    Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>();
+    int numInstances = 10;
+    for (int i = 0; i < numInstances; i++) {
+      DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(dataSchema);
+      for (int j = 0; j < 100; j++) {
+        dataTableBuilder.startRow();
+        dataTableBuilder.setColumn(0, j);
+        dataTableBuilder.setColumn(1, (double) i * j);
+        dataTableBuilder.finishRow();
+      }
+      dataTableMap.put(new ServerRoutingInstance("localhost", i, TableType.OFFLINE), dataTableBuilder.build());
+    }
+    BrokerMetrics brokerMetrics = mock(BrokerMetrics.class);
+    BrokerResponseNative expectedResponse =
+        brokerReduceService.reduceOnDataTable(brokerRequest, brokerRequest, new HashMap<>(dataTableMap), 10_000L,
+            brokerMetrics);
+
+    // Add half of the data tables before reducing, and the others when reducing
+    BrokerReduceService.ReduceSession reduceSession =
+        brokerReduceService.startReduceSession(brokerRequest, brokerRequest, 10_000L, brokerMetrics);
+    assertTrue(reduceSession.isIncremental());
+    for (Map.Entry<ServerRoutingInstance, DataTable> entry : dataTableMap.entrySet()) {
+      if (entry.getKey().getPort() % 2 == 0) {
+        reduceSession.add(entry.getKey(), entry.getValue());
+      }
+    }
+    BrokerResponseNative brokerResponse = reduceSession.reduce(dataTableMap, 10_000L);
+    brokerReduceService.shutDown();
+
+    assertTrue(brokerResponse.getExceptions().isEmpty());
+    List<Object[]> expectedRows = expectedResponse.getResultTable().getRows();
+    List<Object[]> rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), 10);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(rows.get(i), expectedRows.get(i));
+    }
+    assertEquals(rows.get(0), new Object[]{99, 4455.0});
+  }
+
+  @Test
+  public void testIncrementalReduceAggregation()
+      throws IOException {
+    BrokerReduceService brokerReduceService = new BrokerReduceService(
+        new PinotConfiguration(Map.of(Broker.CONFIG_OF_BROKER_ENABLE_INCREMENTAL_REDUCE, true)));
+    BrokerRequest brokerRequest =
+        CalciteSqlCompiler.compileToBrokerRequest("SELECT SUM(col1), COUNT(*), MAX(col1) FROM testTable");
+    DataSchema dataSchema = new DataSchema(new String[]{"sum(col1)", "count(*)", "max(col1)"},
+        new ColumnDataType[]{ColumnDataType.DOUBLE, ColumnDataType.LONG, ColumnDataType.DOUBLE});
+    Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>();
+    int numInstances = 10;
+    for (int i = 0; i < numInstances; i++) {
+      DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(dataSchema);
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, (double) i);
+      dataTableBuilder.setColumn(1, 10L);
+      dataTableBuilder.setColumn(2, (double) i);
+      dataTableBuilder.finishRow();
+      dataTableMap.put(new ServerRoutingInstance("localhost", i, TableType.OFFLINE), dataTableBuilder.build());
+    }
+    BrokerMetrics brokerMetrics = mock(BrokerMetrics.class);
+
+    // Add half of the data tables before reducing, and the others when reducing
+    BrokerReduceService.ReduceSession reduceSession =
+        brokerReduceService.startReduceSession(brokerRequest, brokerRequest, 10_000L, brokerMetrics);
+    assertTrue(reduceSession.isIncremental());
+    for (Map.Entry<ServerRoutingInstance, DataTable> entry : dataTableMap.entrySet()) {
+      if (entry.getKey().getPort() % 2 == 0) {
+        reduceSession.add(entry.getKey(), entry.getValue());
+      }
+    }
+    BrokerResponseNative brokerResponse = reduceSession.reduce(dataTableMap, 10_000L);
+    brokerReduceService.shutDown();
+
+    assertTrue(brokerResponse.getExceptions().isEmpty());
+    List<Object[]> rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), 1);
+    assertEquals(rows.get(0), new Object[]{45.0, 100L, 9.0});
+  }
+
+  @Test
+  public void testIncrementalReduceTimeout()
+      throws IOException {
+    BrokerReduceService brokerReduceService = new BrokerReduceService(
+        new PinotConfiguration(Map.of(Broker.CONFIG_OF_BROKER_ENABLE_INCREMENTAL_REDUCE, true)));
+    BrokerRequest brokerRequest =
+        CalciteSqlCompiler.compileToBrokerRequest("SELECT col1, COUNT(*) FROM testTable GROUP BY col1");
+    DataSchema dataSchema =
+        new DataSchema(new String[]{"col1", "count(*)"}, new ColumnDataType[]{ColumnDataType.INT, ColumnDataType.LONG});
+    DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(dataSchema);
+    dataTableBuilder.startRow();
+    dataTableBuilder.setColumn(0, 1);
+    dataTableBuilder.setColumn(1, 1L);
+    dataTableBuilder.finishRow();
+    DataTable dataTable = dataTableBuilder.build();
+
+    // Query already timed out when the data table is added
+    BrokerReduceService.ReduceSession reduceSession =
+        brokerReduceService.startReduceSession(brokerRequest, brokerRequest, 0L, mock(BrokerMetrics.class));
+    assertTrue(reduceSession.isIncremental());
+    ServerRoutingInstance instance = new ServerRoutingInstance("localhost", 0, TableType.OFFLINE);
+    reduceSession.add(instance, dataTable);
+    BrokerResponseNative brokerResponse = reduceSession.reduce(Map.of(instance, dataTable), 10_000L);
+    brokerReduceService.shutDown();
+
+    List<QueryProcessingException> exceptions = brokerResponse.getExceptions();
+    assertEquals(exceptions.size(), 1);
+    assertEquals(exceptions.get(0).getErrorCode(), QueryException.BROKER_TIMEOUT_ERROR_CODE);
+  }
+
+  @Test
+  public void testReduceIdSetWithZeroCopyDeserialization()
+      throws IOException {
+    BrokerReduceService brokerReduceService = new BrokerReduceService(new PinotConfiguration(Map.of()));
+    BrokerRequest brokerRequest = CalciteSqlCompiler.compileToBrokerRequest(
+        "SELECT IDSET(intCol), IDSET(longCol), IDSET(stringCol) FROM testTable");
+    DataSchema dataSchema = new DataSchema(new String[]{"idset(intCol)", "idset(longCol)", "idset(stringCol)"},
+        new ColumnDataType[]{ColumnDataType.OBJECT, ColumnDataType.OBJECT, ColumnDataType.OBJECT});
+    Map<ServerRoutingInstance, DataTable> dataTableMap = new HashMap<>();
+    int numInstances = 4;
+    for (int i = 0; i < numInstances; i++) {
+      // Covers RoaringBitmapIdSet, Roaring64NavigableMapIdSet and BloomFilterIdSet
+      IdSet intIdSet = IdSets.create(DataType.INT);
+      IdSet longIdSet = IdSets.create(DataType.LONG);
+      IdSet stringIdSet = IdSets.create(DataType.STRING, 0, 1000, 0.01);
+      for (int j = 0; j < 100; j++) {
+        intIdSet.add(i * 100 + j);
+        longIdSet.add((long) Integer.MAX_VALUE + i * 100 + j);
+        stringIdSet.add(Integer.toString(i * 100 + j));
+      }
+      DataTableBuilder dataTableBuilder = DataTableBuilderFactory.getDataTableBuilder(dataSchema);
+      dataTableBuilder.startRow();
+      dataTableBuilder.setColumn(0, intIdSet);
+      dataTableBuilder.setColumn(1, longIdSet);
+      dataTableBuilder.setColumn(2, stringIdSet);
+      dataTableBuilder.finishRow();
+      byte[] bytes = dataTableBuilder.build().toBytes();
+
+      // Deserialize from a direct buffer, similar to the buffers received from the network
+      ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length);
+      directBuffer.put(bytes);
+      directBuffer.flip();
+      dataTableMap.put(new ServerRoutingInstance("localhost", i, TableType.OFFLINE),
+          DataTableFactory.getDataTableWithoutCopy(directBuffer));
+    }
+    BrokerResponseNative brokerResponse =
+        brokerReduceService.reduceOnDataTable(brokerRequest, brokerRequest, dataTableMap, 10_000L,
+            mock(BrokerMetrics.class));
+    brokerReduceService.shutDown();
+
+    assertTrue(brokerResponse.getExceptions().isEmpty());
+    List<Object[]> rows = brokerResponse.getResultTable().getRows();
+    assertEquals(rows.size(), 1);
+    Object[] row = rows.get(0);
+    IdSet intIdSet = IdSets.fromBase64String((String) row[0]);
+    IdSet longIdSet = IdSets.fromBase64String((String) row[1]);
+    IdSet stringIdSet = IdSets.fromBase64String((String) row[2]);
+    for (int i = 0; i < numInstances * 100; i++) {
+      assertTrue(intIdSet.contains(i));
+      assertTrue(longIdSet.contains((long) Integer.MAX_VALUE + i));
+      assertTrue(stringIdSet.contains(Integer.toString(i)));
+    }
+  }
 }
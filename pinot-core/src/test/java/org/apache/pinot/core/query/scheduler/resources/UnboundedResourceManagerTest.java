@@ -56,6 +56,8 @@ public class UnboundedResourceManagerTest {
     assertEquals(rm.getNumQueryRunnerThreads(), runners);
     assertEquals(rm.getTableThreadsHardLimit(), runners + workers);
     assertEquals(rm.getTableThreadsSoftLimit(), runners + workers);
+    assertEquals(rm.getNumIdleQueryWorkerThreads(), workers);
+    assertEquals(rm.getExecutorService(null, null).getNumAvailableThreads(), workers);
 
     SchedulerGroupAccountant accountant = mock(SchedulerGroupAccountant.class);
     when(accountant.totalReservedThreads()).thenReturn(3);
@@ -22,6 +22,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.pinot.core.query.scheduler.resources.QueryExecutorService;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -40,6 +41,43 @@ public class QueryMultiThreadingUtilsTest {
     Assert.assertEquals(QueryMultiThreadingUtils.getNumTasksForQuery(numOps - 1, -1), Math.max(1, numOps - 1));
   }
 
+  @Test
+  public void testGetAdaptiveNumTasksForQuery() {
+    // Fall back to the non-adaptive task count when the number of available threads is unknown
+    ExecutorService exec = Executors.newCachedThreadPool();
+    Assert.assertEquals(QueryMultiThreadingUtils.getAdaptiveNumTasksForQuery(3, 2, exec), 2);
+    Assert.assertEquals(QueryMultiThreadingUtils.getAdaptiveNumTasksForQuery(100, -1, exec),
+        QueryMultiThreadingUtils.MAX_NUM_THREADS_PER_QUERY);
+    exec.shutdown();
+
+    // Bounded by the number of available threads, but at least 1
+    Assert.assertEquals(QueryMultiThreadingUtils.getAdaptiveNumTasksForQuery(10, 8, getExecutorService(3)), 3);
+    Assert.assertEquals(QueryMultiThreadingUtils.getAdaptiveNumTasksForQuery(10, 8, getExecutorService(0)), 1);
+    Assert.assertEquals(QueryMultiThreadingUtils.getAdaptiveNumTasksForQuery(1, 8, getExecutorService(3)), 1);
+    // Bounded by the number of operators and the max execution threads
+    Assert.assertEquals(QueryMultiThreadingUtils.getAdaptiveNumTasksForQuery(2, 8, getExecutorService(5)), 2);
+    Assert.assertEquals(QueryMultiThreadingUtils.getAdaptiveNumTasksForQuery(10, 4, getExecutorService(5)), 4);
+    // Bounded by the number of processors when max execution threads is not configured
+    int numProcessors = Runtime.getRuntime().availableProcessors();
+    Assert.assertEquals(
+        QueryMultiThreadingUtils.getAdaptiveNumTasksForQuery(1000, -1, getExecutorService(Integer.MAX_VALUE)),
+        numProcessors);
+  }
+
+  private static QueryExecutorService getExecutorService(int numAvailableThreads) {
+    return new QueryExecutorService() {
+      @Override
+      public void execute(Runnable command) {
+        command.run();
+      }
+
+      @Override
+      public int getNumAvailableThreads() {
+        return numAvailableThreads;
+      }
+    };
+  }
+
   @Test
   public void testGetNumTasks() {
     Assert.assertEquals(QueryMultiThreadingUtils.getNumTasks(2, 3, 4), 1);
@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.core.query.request.context.QueryContext;
+import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.SegmentContext;
+import org.apache.pinot.segment.spi.SegmentMetadata;
+import org.apache.pinot.segment.spi.index.startree.StarTreeV2;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+
+/**
+ * Tests the adaptive parallelism on the server, where large segments are split into docId ranges processed in
+ * parallel.
+ */
+public class AdaptiveParallelismQueriesTest extends BaseSingleValueQueriesTest {
+  private static final String QUERY_OPTIONS = "SET adaptiveParallelism = true; SET maxExecutionThreads = 4; ";
+  // The segment has 30000 docs, which is split into 4 docId ranges
+  private static final int MIN_DOCS_PER_DOC_ID_RANGE = 5000;
+
+  @Test
+  public void testNumDocIdRanges() {
+    InstancePlanMakerImplV2 planMaker = getPlanMaker();
+    SegmentContext segmentContext = new SegmentContext(getIndexSegment());
+    assertEquals(planMaker.getNumDocIdRanges(segmentContext,
+        getQueryContext("SELECT column9, SUM(column1) FROM testTable GROUP BY column9", true)), 4);
+    assertEquals(planMaker.getNumDocIdRanges(segmentContext,
+        getQueryContext("SELECT SUM(column1) FROM testTable" + FILTER, true)), 4);
+    assertEquals(planMaker.getNumDocIdRanges(segmentContext,
+        getQueryContext("SELECT column1 FROM testTable ORDER BY column3 LIMIT 10", true)), 4);
+
+    // Adaptive parallelism not enabled
+    assertEquals(planMaker.getNumDocIdRanges(segmentContext,
+        getQueryContext("SELECT column9, SUM(column1) FROM testTable GROUP BY column9", false)), 1);
+    // Solved with metadata
+    assertEquals(planMaker.getNumDocIdRanges(segmentContext,
+        getQueryContext("SELECT MAX(column1) FROM testTable", true)), 1);
+    // Count only
+    assertEquals(planMaker.getNumDocIdRanges(segmentContext,
+        getQueryContext("SELECT COUNT(*) FROM testTable" + FILTER, true)), 1);
+    // Selection only
+    assertEquals(planMaker.getNumDocIdRanges(segmentContext,
+        getQueryContext("SELECT column1 FROM testTable LIMIT 10", true)), 1);
+    // Solved with dictionary
+    assertEquals(planMaker.getNumDocIdRanges(segmentContext,
+        getQueryContext("SELECT DISTINCT column9 FROM testTable", true)), 1);
+  }
+
+  @Test
+  public void testNumDocIdRangesWithStarTree() {
+    InstancePlanMakerImplV2 planMaker = getPlanMaker();
+    SegmentMetadata segmentMetadata = mock(SegmentMetadata.class);
+    when(segmentMetadata.getTotalDocs()).thenReturn(30000);
+    ImmutableSegment indexSegment = mock(ImmutableSegment.class);
+    when(indexSegment.getSegmentMetadata()).thenReturn(segmentMetadata);
+    when(indexSegment.getStarTrees()).thenReturn(List.of(mock(StarTreeV2.class)));
+    SegmentContext segmentContext = new SegmentContext(indexSegment);
+
+    // Star-tree operator always works on the whole segment
+    assertEquals(planMaker.getNumDocIdRanges(segmentContext,
+        getQueryContext("SELECT column9, SUM(column1) FROM testTable GROUP BY column9", true)), 1);
+    assertEquals(planMaker.getNumDocIdRanges(segmentContext,
+        getQueryContext("SELECT SUM(column1) FROM testTable" + FILTER, true)), 1);
+    // Star-tree skipped
+    QueryContext queryContext =
+        getQueryContext("SELECT column9, SUM(column1) FROM testTable GROUP BY column9", true);
+    queryContext.setSkipStarTree(true);
+    assertEquals(planMaker.getNumDocIdRanges(segmentContext, queryContext), 4);
+    // Selection is not solved with star-tree
+    assertEquals(planMaker.getNumDocIdRanges(segmentContext,
+        getQueryContext("SELECT column1 FROM testTable ORDER BY column3 LIMIT 10", true)), 4);
+  }
+
+  @Test
+  public void testQueries() {
+    InstancePlanMakerImplV2 planMaker = getPlanMaker();
+    String[] queries = new String[]{
+        "SELECT column9, SUM(column1), MAX(column3), COUNT(*) FROM testTable GROUP BY column9 ORDER BY column9 "
+            + "LIMIT 100",
+        "SELECT column11, DISTINCTCOUNT(column6) FROM testTable" + FILTER + " GROUP BY column11 ORDER BY column11",
+        "SELECT SUM(column1), AVG(column7), COUNT(*) FROM testTable",
+        "SELECT SUM(column1), MIN(column3) FROM testTable" + FILTER,
+        "SELECT column3, column1 FROM testTable ORDER BY column3 DESC, column1 LIMIT 20",
+        "SELECT DISTINCT column11, column12 FROM testTable ORDER BY column11, column12 LIMIT 50"
+    };
+    for (String query : queries) {
+      BrokerResponseNative expectedResponse = getBrokerResponse(query);
+      BrokerResponseNative brokerResponse = getBrokerResponse(QUERY_OPTIONS + query, planMaker);
+      assertEquals(brokerResponse.getExceptionsSize(), 0);
+      assertSameRows(brokerResponse.getResultTable().getRows(), expectedResponse.getResultTable().getRows());
+      assertEquals(brokerResponse.getNumDocsScanned(), expectedResponse.getNumDocsScanned());
+      assertEquals(brokerResponse.getNumSegmentsProcessed(), expectedResponse.getNumSegmentsProcessed());
+      assertEquals(brokerResponse.getNumSegmentsMatched(), expectedResponse.getNumSegmentsMatched());
+      assertEquals(brokerResponse.getTotalDocs(), expectedResponse.getTotalDocs());
+    }
+  }
+
+  private static InstancePlanMakerImplV2 getPlanMaker() {
+    InstancePlanMakerImplV2 planMaker = new InstancePlanMakerImplV2();
+    planMaker.init(new PinotConfiguration(
+        Collections.singletonMap(InstancePlanMakerImplV2.MIN_DOCS_PER_DOC_ID_RANGE_KEY, MIN_DOCS_PER_DOC_ID_RANGE)));
+    return planMaker;
+  }
+
+  private static QueryContext getQueryContext(String query, boolean adaptiveParallelism) {
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext(query);
+    queryContext.setAdaptiveParallelism(adaptiveParallelism);
+    queryContext.setMaxExecutionThreads(4);
+    return queryContext;
+  }
+
+  private static void assertSameRows(List<Object[]> actual, List<Object[]> expected) {
+    assertEquals(actual.size(), expected.size());
+    for (int i = 0; i < actual.size(); i++) {
+      assertEquals(actual.get(i), expected.get(i));
+    }
+  }
+}
@@ -54,6 +54,13 @@ public class InterSegmentGroupBySingleValueQueriesTest extends BaseSingleValueQu
         expectedNumEntriesScannedPostFilter, 120000L, expectedResultTable);
   }
 
+  @Test(dataProvider = "groupByOrderByDataProvider")
+  public void testGroupByOrderByWithPartitionedCombine(String query, long expectedNumEntriesScannedPostFilter,
+      ResultTable expectedResultTable) {
+    QueriesTestUtils.testInterSegmentsResult(getBrokerResponse("SET partitionedGroupByCombine = true; " + query),
+        120000L, 0L, expectedNumEntriesScannedPostFilter, 120000L, expectedResultTable);
+  }
+
   /**
    * Provides various combinations of order by in ResultTable.
    * In order to calculate the expected results, the results from a group by were taken, and then ordered accordingly.
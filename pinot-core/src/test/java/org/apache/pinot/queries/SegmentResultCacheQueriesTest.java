@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.queries;
+
+import java.util.Collections;
+import java.util.List;
+import org.apache.pinot.common.response.broker.BrokerResponseNative;
+import org.apache.pinot.core.plan.maker.InstancePlanMakerImplV2;
+import org.apache.pinot.core.plan.maker.PlanMaker;
+import org.apache.pinot.spi.env.PinotConfiguration;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests the segment-level result cache on the server.
+ */
+public class SegmentResultCacheQueriesTest extends BaseSingleValueQueriesTest {
+  private static final String AGGREGATION_QUERY =
+      "SELECT COUNT(*), SUM(column1), MAX(column3), DISTINCTCOUNTHLL(column6), AVG(column7) FROM testTable";
+  private static final String FILTERED_AGGREGATION_QUERY =
+      "SELECT SUM(column6) FILTER(WHERE column6 > 5), COUNT(*) FILTER(WHERE column1 IS NOT NULL), SUM(column3) "
+          + "FROM testTable WHERE column3 > 0";
+
+  @Test
+  public void testAggregationOnly() {
+    PlanMaker planMaker = getPlanMakerWithSegmentResultCache();
+    for (String query : new String[]{AGGREGATION_QUERY, AGGREGATION_QUERY + FILTER, FILTERED_AGGREGATION_QUERY}) {
+      BrokerResponseNative expectedResponse = getBrokerResponse(query);
+      assertTrue(expectedResponse.getNumDocsScanned() > 0);
+
+      // First query might be served partially from the cache because all the segments are identical
+      BrokerResponseNative brokerResponse = getBrokerResponse(query, planMaker);
+      assertEquals(brokerResponse.getExceptionsSize(), 0);
+      assertSameRows(brokerResponse.getResultTable().getRows(), expectedResponse.getResultTable().getRows());
+
+      // Second query should be fully served from the cache
+      brokerResponse = getBrokerResponse(query, planMaker);
+      assertEquals(brokerResponse.getExceptionsSize(), 0);
+      assertSameRows(brokerResponse.getResultTable().getRows(), expectedResponse.getResultTable().getRows());
+      assertEquals(brokerResponse.getNumDocsScanned(), 0L);
+      assertEquals(brokerResponse.getNumEntriesScannedPostFilter(), 0L);
+      assertEquals(brokerResponse.getNumSegmentsProcessed(), expectedResponse.getNumSegmentsProcessed());
+      assertEquals(brokerResponse.getTotalDocs(), expectedResponse.getTotalDocs());
+    }
+
+    // Different filter should not be served from the cache
+    BrokerResponseNative brokerResponse = getBrokerResponse(AGGREGATION_QUERY + " WHERE column1 > 100", planMaker);
+    assertTrue(brokerResponse.getNumDocsScanned() > 0);
+  }
+
+  @Test
+  public void testNotCached() {
+    PlanMaker planMaker = getPlanMakerWithSegmentResultCache();
+
+    // Group-by query
+    String query = AGGREGATION_QUERY + " GROUP BY column9";
+    getBrokerResponse(query, planMaker);
+    assertTrue(getBrokerResponse(query, planMaker).getNumDocsScanned() > 0);
+
+    // Cache disabled via query option
+    query = "SET useResultCache = false; " + AGGREGATION_QUERY;
+    getBrokerResponse(query, planMaker);
+    assertTrue(getBrokerResponse(query, planMaker).getNumDocsScanned() > 0);
+  }
+
+  private static PlanMaker getPlanMakerWithSegmentResultCache() {
+    InstancePlanMakerImplV2 planMaker = new InstancePlanMakerImplV2();
+    planMaker.init(new PinotConfiguration(
+        Collections.singletonMap(InstancePlanMakerImplV2.SEGMENT_RESULT_CACHE_MAX_SIZE_BYTES_KEY, "1M")));
+    return planMaker;
+  }
+
+  private static void assertSameRows(List<Object[]> actual, List<Object[]> expected) {
+    assertEquals(actual.size(), expected.size());
+    for (int i = 0; i < actual.size(); i++) {
+      assertEquals(actual.get(i), expected.get(i));
+    }
+  }
+}
@@ -347,7 +347,7 @@ public class OfflineClusterIntegrationTest extends BaseClusterIntegrationTestSet
       throws Exception {
     // Set timeout as 5ms so that query will timeout
     TableConfig tableConfig = getOfflineTableConfig();
-    tableConfig.setQueryConfig(new QueryConfig(5L, null, null, null, null, null));
+    tableConfig.setQueryConfig(new QueryConfig(5L, null, null, null, null, null, null));
     updateTableConfig(tableConfig);
 
     // Wait for at most 1 minute for broker to receive and process the table config refresh message
@@ -667,7 +667,7 @@ public class OfflineClusterIntegrationTest extends BaseClusterIntegrationTestSet
   public void testMaxQueryResponseSizeTableConfig()
       throws Exception {
     TableConfig tableConfig = getOfflineTableConfig();
-    tableConfig.setQueryConfig(new QueryConfig(null, false, null, null, 1000L, null));
+    tableConfig.setQueryConfig(new QueryConfig(null, false, null, null, 1000L, null, null));
     updateTableConfig(tableConfig);
 
     TestUtils.waitForCondition(aVoid -> {
@@ -700,7 +700,7 @@ public class OfflineClusterIntegrationTest extends BaseClusterIntegrationTestSet
   public void testMaxServerResponseSizeTableConfig()
       throws Exception {
     TableConfig tableConfig = getOfflineTableConfig();
-    tableConfig.setQueryConfig(new QueryConfig(null, false, null, null, null, 1000L));
+    tableConfig.setQueryConfig(new QueryConfig(null, false, null, null, null, 1000L, null));
     updateTableConfig(tableConfig);
 
     TestUtils.waitForCondition(aVoid -> {
@@ -733,7 +733,7 @@ public class OfflineClusterIntegrationTest extends BaseClusterIntegrationTestSet
   public void testMaxResponseSizeTableConfigOrdering()
       throws Exception {
     TableConfig tableConfig = getOfflineTableConfig();
-    tableConfig.setQueryConfig(new QueryConfig(null, false, null, null, 1000000L, 1000L));
+    tableConfig.setQueryConfig(new QueryConfig(null, false, null, null, 1000000L, 1000L, null));
     updateTableConfig(tableConfig);
 
     TestUtils.waitForCondition(aVoid -> {
@@ -1519,7 +1519,7 @@ public class OfflineClusterIntegrationTest extends BaseClusterIntegrationTestSet
     String groovyQuery = "SELECT GROOVY('{\"returnType\":\"STRING\",\"isSingleValue\":true}', "
         + "'arg0 + arg1', FlightNum, Origin) FROM mytable";
     TableConfig tableConfig = getOfflineTableConfig();
-    tableConfig.setQueryConfig(new QueryConfig(null, false, null, null, null, null));
+    tableConfig.setQueryConfig(new QueryConfig(null, false, null, null, null, null, null));
     updateTableConfig(tableConfig);
 
     TestUtils.waitForCondition(aVoid -> {
@@ -1837,7 +1837,7 @@ public class OfflineClusterIntegrationTest extends BaseClusterIntegrationTestSet
     // Add expression override
     TableConfig tableConfig = getOfflineTableConfig();
     tableConfig.setQueryConfig(new QueryConfig(null, null, null,
-        Collections.singletonMap("DaysSinceEpoch * 24", "NewAddedDerivedHoursSinceEpoch"), null, null));
+        Collections.singletonMap("DaysSinceEpoch * 24", "NewAddedDerivedHoursSinceEpoch"), null, null, null));
     updateTableConfig(tableConfig);
 
     TestUtils.waitForCondition(aVoid -> {
@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.segment.local.dedup.PartitionDedupMetadataManager;
+import org.apache.pinot.segment.local.dedup.TableDedupMetadataManager;
+import org.apache.pinot.segment.local.dedup.TableDedupMetadataManagerFactory;
+import org.apache.pinot.segment.local.indexsegment.immutable.EmptyIndexSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.spi.config.table.DedupConfig;
+import org.apache.pinot.spi.config.table.HashFunction;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.metrics.PinotMetricUtils;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares the default concurrent map based dedup metadata manager with the off-heap one on the ingestion path, i.e.
+ * checking and adding primary keys of the consuming segment. Run with -prof gc to compare the heap allocation.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@State(Scope.Benchmark)
+public class BenchmarkDedupMetadataManager {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String PRIMARY_KEY_COLUMN = "pk";
+  private static final int NUM_RECORDS = 1_000_000;
+
+  @Param({"", "org.apache.pinot.segment.local.dedup.OffHeapTableDedupMetadataManager"})
+  public String _metadataManagerClass;
+
+  @Param({"NONE", "MURMUR3"})
+  public String _hashFunction;
+
+  @Param({"100000", "1000000"})
+  public int _cardinality;
+
+  private final IndexSegment _segment = new EmptyIndexSegment(null);
+  private PrimaryKey[] _primaryKeys;
+  private TableDedupMetadataManager _tableDedupMetadataManager;
+  private PartitionDedupMetadataManager _partitionDedupMetadataManager;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(0);
+    _primaryKeys = new PrimaryKey[NUM_RECORDS];
+    for (int i = 0; i < NUM_RECORDS; i++) {
+      _primaryKeys[i] = new PrimaryKey(new Object[]{"key_" + random.nextInt(_cardinality)});
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void setUpMetadataManager() {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+        .addSingleValueDimension(PRIMARY_KEY_COLUMN, DataType.STRING)
+        .setPrimaryKeyColumns(Collections.singletonList(PRIMARY_KEY_COLUMN)).build();
+    TableConfig tableConfig = new TableConfigBuilder(TableType.REALTIME).setTableName(RAW_TABLE_NAME)
+        .setDedupConfig(new DedupConfig(true, HashFunction.valueOf(_hashFunction), _metadataManagerClass)).build();
+    _tableDedupMetadataManager = TableDedupMetadataManagerFactory.create(tableConfig, schema, null,
+        new ServerMetrics(PinotMetricUtils.getPinotMetricsRegistry()));
+    _partitionDedupMetadataManager = _tableDedupMetadataManager.getOrCreatePartitionManager(0);
+  }
+
+  @TearDown(Level.Invocation)
+  public void tearDownMetadataManager()
+      throws Exception {
+    _tableDedupMetadataManager.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public int checkRecordPresentOrUpdate() {
+    int numDuplicates = 0;
+    for (PrimaryKey primaryKey : _primaryKeys) {
+      if (_partitionDedupMetadataManager.checkRecordPresentOrUpdate(primaryKey, _segment)) {
+        numDuplicates++;
+      }
+    }
+    return numDuplicates;
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkDedupMetadataManager.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.perf;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import org.apache.pinot.core.query.aggregation.groupby.DictionaryBasedGroupKeyGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Compares the group id map for the 128-bit bit-packed raw keys against the int array keyed map, which are used by the
+ * {@link DictionaryBasedGroupKeyGenerator} when the cardinality product of the group-by columns cannot fit into long.
+ * <p>Each raw key is made of the dictionary ids of 4 group-by columns, each with 20 bits (80 bits in total).
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgs = {"-server", "-Xmx16G"})
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@State(Scope.Benchmark)
+public class BenchmarkLongPairGroupIdMap {
+  private static final int NUM_GROUP_BY_COLUMNS = 4;
+  private static final int NUM_BITS_PER_COLUMN = 20;
+  private static final int DICT_ID_MASK = (1 << NUM_BITS_PER_COLUMN) - 1;
+  // Each group is looked up twice on average
+  private static final int NUM_LOOKUPS_PER_GROUP = 2;
+
+  @Param({"10000", "100000", "1000000", "10000000", "50000000"})
+  public int _numGroups;
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public long intArrayMap() {
+    Object2IntOpenHashMap<IntArrayList> map = new Object2IntOpenHashMap<>((int) ((1 << 9) * 0.75f));
+    map.defaultReturnValue(-1);
+    long numLookups = (long) _numGroups * NUM_LOOKUPS_PER_GROUP;
+    long sum = 0;
+    for (long i = 0; i < numLookups; i++) {
+      int group = getGroup(i);
+      int[] dictIds = new int[NUM_GROUP_BY_COLUMNS];
+      for (int j = 0; j < NUM_GROUP_BY_COLUMNS; j++) {
+        dictIds[j] = getDictId(group, j);
+      }
+      int numGroups = map.size();
+      sum += map.computeIntIfAbsent(IntArrayList.wrap(dictIds), k -> numGroups);
+    }
+    ObjectIterator<Object2IntMap.Entry<IntArrayList>> iterator = map.object2IntEntrySet().fastIterator();
+    while (iterator.hasNext()) {
+      Object2IntMap.Entry<IntArrayList> entry = iterator.next();
+      sum += entry.getKey().getInt(0);
+      sum += entry.getIntValue();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public long longPairGroupIdMap() {
+    DictionaryBasedGroupKeyGenerator.LongPairGroupIdMap map = new DictionaryBasedGroupKeyGenerator.LongPairGroupIdMap();
+    long numLookups = (long) _numGroups * NUM_LOOKUPS_PER_GROUP;
+    long sum = 0;
+    for (long i = 0; i < numLookups; i++) {
+      int group = getGroup(i);
+      long highBits = 0L;
+      long lowBits = 0L;
+      for (int j = 0; j < NUM_GROUP_BY_COLUMNS; j++) {
+        long dictId = getDictId(group, j);
+        int bitOffset = j * NUM_BITS_PER_COLUMN;
+        if (bitOffset >= Long.SIZE) {
+          highBits |= dictId << (bitOffset - Long.SIZE);
+        } else {
+          lowBits |= dictId << bitOffset;
+          if (bitOffset + NUM_BITS_PER_COLUMN > Long.SIZE) {
+            highBits |= dictId >>> (Long.SIZE - bitOffset);
+          }
+        }
+      }
+      sum += map.getGroupId(highBits, lowBits, Integer.MAX_VALUE);
+    }
+    Iterator<DictionaryBasedGroupKeyGenerator.LongPairGroupIdMap.Entry> iterator = map.iterator();
+    while (iterator.hasNext()) {
+      DictionaryBasedGroupKeyGenerator.LongPairGroupIdMap.Entry entry = iterator.next();
+      sum += entry._lowBits;
+      sum += entry._groupId;
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the group for the i-th lookup, where the groups are visited in a scrambled order.
+   */
+  private int getGroup(long i) {
+    return (int) ((i * 0x9E3779B1L) % _numGroups);
+  }
+
+  /**
+   * Returns the dictionary id of the given column for the given group. The first 2 columns identify the group, and the
+   * other columns are derived from the group.
+   */
+  private static int getDictId(int group, int column) {
+    switch (column) {
+      case 0:
+        return group & DICT_ID_MASK;
+      case 1:
+        return group >>> NUM_BITS_PER_COLUMN;
+      default:
+        return (group * (2 * column + 1)) & DICT_ID_MASK;
+    }
+  }
+
+  public static void main(String[] args)
+      throws Exception {
+    new Runner(new OptionsBuilder().include(BenchmarkLongPairGroupIdMap.class.getSimpleName()).build()).run();
+  }
+}
@@ -28,7 +28,11 @@ import org.apache.pinot.common.request.context.predicate.Predicate;
 import org.apache.pinot.core.operator.dociditerators.SVScanDocIdIterator;
 import org.apache.pinot.core.operator.filter.predicate.PredicateEvaluator;
 import org.apache.pinot.segment.local.io.writer.impl.FixedBitSVForwardIndexWriter;
+import org.apache.pinot.segment.local.io.writer.impl.FixedByteChunkForwardIndexWriter;
 import org.apache.pinot.segment.local.segment.index.readers.forward.FixedBitSVForwardIndexReaderV2;
+import org.apache.pinot.segment.local.segment.index.readers.forward.FixedByteChunkSVForwardIndexReader;
+import org.apache.pinot.segment.spi.Constants;
+import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.apache.pinot.spi.data.FieldSpec;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -78,8 +82,10 @@ public class BenchmarkScanDocIdIterators {
 
   private DummyPredicateEvaluator _predicateEvaluator;
   private FixedBitSVForwardIndexReaderV2 _readerV2;
+  private FixedByteChunkSVForwardIndexReader _rawReader;
   private ImmutableRoaringBitmap _bitmap;
   private PinotDataBuffer _dataBuffer;
+  private PinotDataBuffer _rawDataBuffer;
 
   @Setup(Level.Trial)
   public void setUp()
@@ -112,12 +118,24 @@ public class BenchmarkScanDocIdIterators {
     _bitmap = writer.get();
     _predicateEvaluator = new DummyPredicateEvaluator(sorted[_thresholdQuantile * sorted.length / 10]);
     _readerV2 = new FixedBitSVForwardIndexReaderV2(_dataBuffer, values.length, numBits);
+
+    File rawIndexFile = new File(INDEX_DIR, "raw-index-file");
+    try (FixedByteChunkForwardIndexWriter indexWriter = new FixedByteChunkForwardIndexWriter(rawIndexFile,
+        ChunkCompressionType.LZ4, _numDocs, 1000, Integer.BYTES, 3)) {
+      for (int value : values) {
+        indexWriter.putInt(value);
+      }
+    }
+    _rawDataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(rawIndexFile);
+    _rawReader = new FixedByteChunkSVForwardIndexReader(_rawDataBuffer, FieldSpec.DataType.INT);
   }
 
   @TearDown(Level.Trial)
   public void tearDown()
       throws Exception {
     _dataBuffer.close();
+    _rawReader.close();
+    _rawDataBuffer.close();
     FileUtils.deleteDirectory(INDEX_DIR);
   }
 
@@ -126,6 +144,16 @@ public class BenchmarkScanDocIdIterators {
     return new SVScanDocIdIterator(_predicateEvaluator, _readerV2, _numDocs).applyAnd(_bitmap);
   }
 
+  @Benchmark
+  public int benchmarkSVRawIntScan() {
+    SVScanDocIdIterator docIdIterator = new SVScanDocIdIterator(_predicateEvaluator, _rawReader, _numDocs);
+    int numMatchingDocs = 0;
+    while (docIdIterator.next() != Constants.EOF) {
+      numMatchingDocs++;
+    }
+    return numMatchingDocs;
+  }
+
   public static class DummyPredicateEvaluator implements PredicateEvaluator {
 
     private final int _threshold;
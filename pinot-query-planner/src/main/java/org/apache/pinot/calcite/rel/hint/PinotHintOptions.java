@@ -44,6 +44,15 @@ public class PinotHintOptions {
 
     public static final String NUM_GROUPS_LIMIT = "num_groups_limit";
     public static final String MAX_INITIAL_RESULT_HOLDER_CAPACITY = "max_initial_result_holder_capacity";
+    /**
+     * Whether to spill the partial aggregation states to local disk by hash partition once the num groups limit is
+     * reached, instead of dropping the new groups.
+     */
+    public static final String ENABLE_GROUP_BY_SPILL = "enable_group_by_spill";
+    /**
+     * Number of partitions to split the groups into when spilling.
+     */
+    public static final String NUM_SPILL_PARTITIONS = "num_spill_partitions";
   }
 
   public static class WindowHintOptions {
@@ -68,15 +77,26 @@ public class PinotHintOptions {
      */
     public static final String MAX_ROWS_IN_JOIN = "max_rows_in_join";
     /**
-     * Mode when join overflow happens, supported values: THROW or BREAK.
+     * Mode when join overflow happens, supported values: THROW, BREAK or SPILL.
      *   THROW(default): Break right table build process, and throw exception, no JOIN with left table performed.
      *   BREAK: Break right table build process, continue to perform JOIN operation, results might be partial.
+     *   SPILL: Partition both tables and spill the partitions to local disk, then JOIN them partition by partition.
      */
     public static final String JOIN_OVERFLOW_MODE = "join_overflow_mode";
+    /**
+     * Number of partitions to split the tables into when the join overflows in SPILL mode.
+     */
+    public static final String NUM_SPILL_PARTITIONS = "num_spill_partitions";
     /**
      * Indicat that the join operator(s) within a certain selection scope are colocated
      */
     public static final String IS_COLOCATED_BY_JOIN_KEYS = "is_colocated_by_join_keys";
+    /**
+     * Number of workers to spread each heavy-hitter join key across, which reduces the hotspot when the join keys are
+     * skewed. The heavy-hitter keys are detected by the senders of the left table, and the rows of the right table are
+     * replicated to all the workers that can receive their keys. Only applies to INNER, LEFT, SEMI and ANTI hash joins.
+     */
+    public static final String SKEW_SPREAD_FACTOR = "skew_spread_factor";
   }
 
   public static class TableHintOptions {
@@ -35,11 +35,15 @@ import org.apache.calcite.rel.core.Exchange;
  */
 public class PinotLogicalExchange extends Exchange {
   private final PinotRelExchangeType _exchangeType;
+  private final PinotRelSkewHandlingType _skewHandlingType;
+  private final int _skewSpreadFactor;
 
   private PinotLogicalExchange(RelOptCluster cluster, RelTraitSet traitSet, RelNode input, RelDistribution distribution,
-      PinotRelExchangeType exchangeType) {
+      PinotRelExchangeType exchangeType, PinotRelSkewHandlingType skewHandlingType, int skewSpreadFactor) {
     super(cluster, traitSet, input, distribution);
     _exchangeType = exchangeType;
+    _skewHandlingType = skewHandlingType;
+    _skewSpreadFactor = skewSpreadFactor;
     assert traitSet.containsIfApplicable(Convention.NONE);
   }
 
@@ -56,17 +60,33 @@ public class PinotLogicalExchange extends Exchange {
    */
   public static PinotLogicalExchange create(RelNode input, RelDistribution distribution,
       PinotRelExchangeType exchangeType) {
+    return create(input, distribution, exchangeType, PinotRelSkewHandlingType.NONE, 1);
+  }
+
+  /**
+   * Creates a LogicalExchange with skew handling.
+   *
+   * @param input     Input relational expression
+   * @param distribution Distribution specification
+   * @param exchangeType RelExchangeType specification
+   * @param skewHandlingType How to handle the skewed keys, only applies to hash distribution
+   * @param skewSpreadFactor Number of workers to spread each skewed key across
+   */
+  public static PinotLogicalExchange create(RelNode input, RelDistribution distribution,
+      PinotRelExchangeType exchangeType, PinotRelSkewHandlingType skewHandlingType, int skewSpreadFactor) {
     RelOptCluster cluster = input.getCluster();
     distribution = RelDistributionTraitDef.INSTANCE.canonize(distribution);
     RelTraitSet traitSet = input.getTraitSet().replace(Convention.NONE).replace(distribution);
-    return new PinotLogicalExchange(cluster, traitSet, input, distribution, exchangeType);
+    return new PinotLogicalExchange(cluster, traitSet, input, distribution, exchangeType, skewHandlingType,
+        skewSpreadFactor);
   }
 
   //~ Methods ----------------------------------------------------------------
 
   @Override
   public Exchange copy(RelTraitSet traitSet, RelNode newInput, RelDistribution newDistribution) {
-    return new PinotLogicalExchange(getCluster(), traitSet, newInput, newDistribution, _exchangeType);
+    return new PinotLogicalExchange(getCluster(), traitSet, newInput, newDistribution, _exchangeType,
+        _skewHandlingType, _skewSpreadFactor);
   }
 
   @Override
@@ -80,10 +100,22 @@ public class PinotLogicalExchange extends Exchange {
     if (_exchangeType != PinotRelExchangeType.getDefaultExchangeType()) {
       relWriter.item("relExchangeType", _exchangeType);
     }
+    if (_skewHandlingType != PinotRelSkewHandlingType.NONE) {
+      relWriter.item("skewHandlingType", _skewHandlingType);
+      relWriter.item("skewSpreadFactor", _skewSpreadFactor);
+    }
     return relWriter;
   }
 
   public PinotRelExchangeType getExchangeType() {
     return _exchangeType;
   }
+
+  public PinotRelSkewHandlingType getSkewHandlingType() {
+    return _skewHandlingType;
+  }
+
+  public int getSkewSpreadFactor() {
+    return _skewSpreadFactor;
+  }
 }
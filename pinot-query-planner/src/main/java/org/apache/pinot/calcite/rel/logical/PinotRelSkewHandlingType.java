@@ -0,0 +1,47 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.calcite.rel.logical;
+
+/**
+ * Type of skew handling for a hash distributed exchange. With a skew spread factor of S, each key can be processed by
+ * the S consecutive workers starting from the one picked by the hash of the key.
+ */
+public enum PinotRelSkewHandlingType {
+
+  /**
+   * Each row is sent to the worker picked by the hash of the key.
+   */
+  NONE,
+
+  /**
+   * The sender samples the key frequencies in the first rows, then spreads the rows of the heavy-hitter keys across
+   * the S workers in a round-robin fashion. The other rows are sent to the worker picked by the hash of the key.
+   *
+   * <p>This is used on the probe (left) side of the join.</p>
+   */
+  SPREAD_HEAVY_KEYS,
+
+  /**
+   * Each row is replicated to all the S workers of its key, so that the rows spread on the other side can always find
+   * their matching rows.
+   *
+   * <p>This is used on the build (right) side of the join.</p>
+   */
+  REPLICATE
+}
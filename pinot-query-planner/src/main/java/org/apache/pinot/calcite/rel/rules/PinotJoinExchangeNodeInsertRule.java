@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.calcite.rel.rules;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import org.apache.calcite.plan.RelOptRule;
 import org.apache.calcite.plan.RelOptRuleCall;
@@ -25,9 +26,14 @@ import org.apache.calcite.rel.RelDistributions;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.core.Join;
 import org.apache.calcite.rel.core.JoinInfo;
+import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.logical.LogicalJoin;
 import org.apache.calcite.tools.RelBuilderFactory;
+import org.apache.pinot.calcite.rel.hint.PinotHintOptions;
+import org.apache.pinot.calcite.rel.hint.PinotHintStrategyTable;
 import org.apache.pinot.calcite.rel.logical.PinotLogicalExchange;
+import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
+import org.apache.pinot.calcite.rel.logical.PinotRelSkewHandlingType;
 
 
 /**
@@ -68,9 +74,20 @@ public class PinotJoinExchangeNodeInsertRule extends RelOptRule {
       leftExchange = PinotLogicalExchange.create(leftInput, RelDistributions.RANDOM_DISTRIBUTED);
       rightExchange = PinotLogicalExchange.create(rightInput, RelDistributions.BROADCAST_DISTRIBUTED);
     } else {
-      // when join key exists, use hash distribution.
-      leftExchange = PinotLogicalExchange.create(leftInput, RelDistributions.hash(joinInfo.leftKeys));
-      rightExchange = PinotLogicalExchange.create(rightInput, RelDistributions.hash(joinInfo.rightKeys));
+      int skewSpreadFactor = getSkewSpreadFactor(join);
+      if (skewSpreadFactor > 1) {
+        // when join key is skewed, spread the heavy-hitter keys on the left side, and replicate the right side to all
+        // the workers that can receive the same key.
+        leftExchange = PinotLogicalExchange.create(leftInput, RelDistributions.hash(joinInfo.leftKeys),
+            PinotRelExchangeType.getDefaultExchangeType(), PinotRelSkewHandlingType.SPREAD_HEAVY_KEYS,
+            skewSpreadFactor);
+        rightExchange = PinotLogicalExchange.create(rightInput, RelDistributions.hash(joinInfo.rightKeys),
+            PinotRelExchangeType.getDefaultExchangeType(), PinotRelSkewHandlingType.REPLICATE, skewSpreadFactor);
+      } else {
+        // when join key exists, use hash distribution.
+        leftExchange = PinotLogicalExchange.create(leftInput, RelDistributions.hash(joinInfo.leftKeys));
+        rightExchange = PinotLogicalExchange.create(rightInput, RelDistributions.hash(joinInfo.rightKeys));
+      }
     }
 
     RelNode newJoinNode =
@@ -79,4 +96,35 @@ public class PinotJoinExchangeNodeInsertRule extends RelOptRule {
             ImmutableList.copyOf(join.getSystemFieldList()));
     call.transformTo(newJoinNode);
   }
+
+  /**
+   * Returns the skew spread factor from the join hint, or 1 if skew handling does not apply to the join. Skew handling
+   * replicates the right side rows, so it cannot be applied when the unmatched right side rows need to be emitted
+   * (RIGHT and FULL join), or when the tables are already colocated by the join keys.
+   */
+  private static int getSkewSpreadFactor(Join join) {
+    String skewSpreadFactorString = PinotHintStrategyTable.getHintOption(join.getHints(),
+        PinotHintOptions.JOIN_HINT_OPTIONS, PinotHintOptions.JoinHintOptions.SKEW_SPREAD_FACTOR);
+    if (skewSpreadFactorString == null) {
+      return 1;
+    }
+    int skewSpreadFactor;
+    try {
+      skewSpreadFactor = Integer.parseInt(skewSpreadFactorString);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(String.format("Invalid %s: '%s', must be a positive integer",
+          PinotHintOptions.JoinHintOptions.SKEW_SPREAD_FACTOR, skewSpreadFactorString));
+    }
+    Preconditions.checkArgument(skewSpreadFactor > 0, "Invalid %s: '%s', must be a positive integer",
+        PinotHintOptions.JoinHintOptions.SKEW_SPREAD_FACTOR, skewSpreadFactorString);
+    JoinRelType joinType = join.getJoinType();
+    if (joinType == JoinRelType.RIGHT || joinType == JoinRelType.FULL) {
+      return 1;
+    }
+    if (PinotHintStrategyTable.isHintOptionTrue(join.getHints(), PinotHintOptions.JOIN_HINT_OPTIONS,
+        PinotHintOptions.JoinHintOptions.IS_COLOCATED_BY_JOIN_KEYS)) {
+      return 1;
+    }
+    return skewSpreadFactor;
+  }
 }
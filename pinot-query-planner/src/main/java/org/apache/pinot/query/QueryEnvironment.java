@@ -22,6 +22,7 @@ import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import javax.annotation.Nullable;
@@ -124,14 +125,30 @@ public class QueryEnvironment {
    * @return QueryPlannerResult containing the dispatchable query plan and the relRoot.
    */
   public QueryPlannerResult planQuery(String sqlQuery, SqlNodeAndOptions sqlNodeAndOptions, long requestId) {
+    // TODO: current code only assume one SubPlan per query, but we should support multiple SubPlans per query.
+    // Each SubPlan should be able to run independently from Broker then set the results into the dependent
+    // SubPlan for further processing.
+    SubPlan subPlan = planLogicalQuery(sqlQuery, sqlNodeAndOptions);
+    return dispatchQuery(sqlQuery, subPlan, sqlNodeAndOptions.getOptions(), requestId);
+  }
+
+  /**
+   * Runs the query compilation (validate, convert to relational expression and optimize) and the logical planning
+   * (fragment into stages) of a SQL query.
+   *
+   * <p>The returned {@link SubPlan} does not depend on the routing and can be reused across requests of the same query
+   * (with the same query options) as long as the schemas and table configs do not change, except when
+   * {@code useColocatedJoin} is enabled because the physical optimization modifies the plan nodes in place.
+   *
+   * @param sqlQuery SQL query string.
+   * @param sqlNodeAndOptions parsed SQL query.
+   * @return the logical sub plan of the query.
+   */
+  public SubPlan planLogicalQuery(String sqlQuery, SqlNodeAndOptions sqlNodeAndOptions) {
     try (PlannerContext plannerContext = getPlannerContext()) {
       plannerContext.setOptions(sqlNodeAndOptions.getOptions());
       RelRoot relRoot = compileQuery(sqlNodeAndOptions.getSqlNode(), plannerContext);
-      // TODO: current code only assume one SubPlan per query, but we should support multiple SubPlans per query.
-      // Each SubPlan should be able to run independently from Broker then set the results into the dependent
-      // SubPlan for further processing.
-      DispatchableSubPlan dispatchableSubPlan = toDispatchableSubPlan(relRoot, plannerContext, requestId);
-      return new QueryPlannerResult(dispatchableSubPlan, null, dispatchableSubPlan.getTableNames());
+      return PinotLogicalQueryPlanner.makePlan(relRoot);
     } catch (CalciteContextException e) {
       throw new RuntimeException("Error composing query plan for '" + sqlQuery + "': " + e.getMessage() + "'", e);
     } catch (Throwable t) {
@@ -139,6 +156,26 @@ public class QueryEnvironment {
     }
   }
 
+  /**
+   * Attaches the dispatch metadata (worker and mailbox assignment based on the current routing) to the logical
+   * {@link SubPlan} returned by {@link #planLogicalQuery(String, SqlNodeAndOptions)}.
+   *
+   * @param sqlQuery SQL query string.
+   * @param subPlan logical sub plan of the query.
+   * @param options query options.
+   * @return QueryPlannerResult containing the dispatchable query plan.
+   */
+  public QueryPlannerResult dispatchQuery(String sqlQuery, SubPlan subPlan, Map<String, String> options,
+      long requestId) {
+    try (PlannerContext plannerContext = getPlannerContext()) {
+      plannerContext.setOptions(options);
+      DispatchableSubPlan dispatchableSubPlan = toDispatchableSubPlan(subPlan, plannerContext, requestId);
+      return new QueryPlannerResult(dispatchableSubPlan, null, dispatchableSubPlan.getTableNames());
+    } catch (Throwable t) {
+      throw new RuntimeException("Error composing query plan for: " + sqlQuery, t);
+    }
+  }
+
   /**
    * Explain a SQL query.
    *
@@ -158,7 +195,8 @@ public class QueryEnvironment {
       RelRoot relRoot = compileQuery(explain.getExplicandum(), plannerContext);
       if (explain instanceof SqlPhysicalExplain) {
         // get the physical plan for query.
-        DispatchableSubPlan dispatchableSubPlan = toDispatchableSubPlan(relRoot, plannerContext, requestId);
+        DispatchableSubPlan dispatchableSubPlan =
+            toDispatchableSubPlan(PinotLogicalQueryPlanner.makePlan(relRoot), plannerContext, requestId);
         return new QueryPlannerResult(null, PhysicalExplainPlanVisitor.explain(dispatchableSubPlan),
             dispatchableSubPlan.getTableNames());
       } else {
@@ -290,8 +328,7 @@ public class QueryEnvironment {
     }
   }
 
-  private DispatchableSubPlan toDispatchableSubPlan(RelRoot relRoot, PlannerContext plannerContext, long requestId) {
-    SubPlan plan = PinotLogicalQueryPlanner.makePlan(relRoot);
+  private DispatchableSubPlan toDispatchableSubPlan(SubPlan plan, PlannerContext plannerContext, long requestId) {
     PinotDispatchPlanner pinotDispatchPlanner =
         new PinotDispatchPlanner(plannerContext, _workerManager, requestId, _tableCache);
     return pinotDispatchPlanner.createDispatchableSubPlan(plan);
@@ -49,6 +49,7 @@ import org.apache.pinot.calcite.rel.logical.PinotLogicalAggregate;
 import org.apache.pinot.calcite.rel.logical.PinotLogicalExchange;
 import org.apache.pinot.calcite.rel.logical.PinotLogicalSortExchange;
 import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
+import org.apache.pinot.calcite.rel.logical.PinotRelSkewHandlingType;
 import org.apache.pinot.common.metrics.BrokerMeter;
 import org.apache.pinot.common.metrics.BrokerMetrics;
 import org.apache.pinot.common.utils.DataSchema;
@@ -127,6 +128,8 @@ public final class RelToPlanNodeConverter {
     List<RelFieldCollation> collations;
     boolean sortOnSender;
     boolean sortOnReceiver;
+    PinotRelSkewHandlingType skewHandlingType = PinotRelSkewHandlingType.NONE;
+    int skewSpreadFactor = 1;
     if (node instanceof PinotLogicalSortExchange) {
       PinotLogicalSortExchange sortExchange = (PinotLogicalSortExchange) node;
       exchangeType = sortExchange.getExchangeType();
@@ -135,7 +138,12 @@ public final class RelToPlanNodeConverter {
       sortOnReceiver = sortExchange.isSortOnReceiver();
     } else {
       assert node instanceof PinotLogicalExchange;
-      exchangeType = ((PinotLogicalExchange) node).getExchangeType();
+      PinotLogicalExchange exchange = (PinotLogicalExchange) node;
+      exchangeType = exchange.getExchangeType();
+      if (node.getDistribution().getType() == RelDistribution.Type.HASH_DISTRIBUTED) {
+        skewHandlingType = exchange.getSkewHandlingType();
+        skewSpreadFactor = exchange.getSkewSpreadFactor();
+      }
       collations = null;
       sortOnSender = false;
       sortOnReceiver = false;
@@ -147,13 +155,16 @@ public final class RelToPlanNodeConverter {
     if (distributionType == RelDistribution.Type.HASH_DISTRIBUTED) {
       keys = distribution.getKeys();
       RelDistribution inputDistributionTrait = node.getInputs().get(0).getTraitSet().getDistribution();
-      prePartitioned = distribution.equals(inputDistributionTrait);
+      // Rows of the same key can be sent to multiple workers with skew handling
+      prePartitioned =
+          distribution.equals(inputDistributionTrait) && skewHandlingType == PinotRelSkewHandlingType.NONE;
     } else {
       keys = null;
       prePartitioned = false;
     }
     return new ExchangeNode(DEFAULT_STAGE_ID, toDataSchema(node.getRowType()), convertInputs(node.getInputs()),
-        exchangeType, distributionType, keys, prePartitioned, collations, sortOnSender, sortOnReceiver, null);
+        exchangeType, distributionType, keys, prePartitioned, collations, sortOnSender, sortOnReceiver, null,
+        skewHandlingType, skewSpreadFactor);
   }
 
   private SetOpNode convertLogicalSetOp(SetOp node) {
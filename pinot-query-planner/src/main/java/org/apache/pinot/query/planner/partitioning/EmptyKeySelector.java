@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.query.planner.partitioning;
 
+import java.util.Arrays;
+import java.util.List;
 import javax.annotation.Nullable;
 
 
@@ -37,4 +39,9 @@ public class EmptyKeySelector implements KeySelector<Integer> {
   public int computeHash(Object[] input) {
     return 0;
   }
+
+  @Override
+  public void computeHashes(List<Object[]> columns, int numRows, int[] hashes) {
+    Arrays.fill(hashes, 0, numRows, 0);
+  }
 }
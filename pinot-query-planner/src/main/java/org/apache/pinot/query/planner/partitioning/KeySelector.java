@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.query.planner.partitioning;
 
+import java.util.List;
 import javax.annotation.Nullable;
 
 
@@ -42,6 +43,22 @@ public interface KeySelector<T> {
    */
   int computeHash(Object[] input);
 
+  /**
+   * Computes the hashes of the first {@code numRows} rows of the given column vectors into {@code hashes}. The hash of
+   * each row must be identical to {@link #computeHash(Object[])} on the same row. Implementations should override this
+   * to read the key columns directly without constructing the rows.
+   */
+  default void computeHashes(List<Object[]> columns, int numRows, int[] hashes) {
+    int numColumns = columns.size();
+    Object[] row = new Object[numColumns];
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      for (int colId = 0; colId < numColumns; colId++) {
+        row[colId] = columns.get(colId)[rowId];
+      }
+      hashes[rowId] = computeHash(row);
+    }
+  }
+
   /**
    * Returns the hash algorithm used to compute the hash.
    */
@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.query.planner.partitioning;
 
+import java.util.Arrays;
+import java.util.List;
 import org.apache.pinot.core.data.table.Key;
 
 
@@ -67,4 +69,22 @@ public class MultiColumnKeySelector implements KeySelector<Key> {
     // return a positive number because this is used directly to modulo-index
     return hashCode & Integer.MAX_VALUE;
   }
+
+  @Override
+  public void computeHashes(List<Object[]> columns, int numRows, int[] hashes) {
+    // Same hashing as computeHash(), but accumulated column by column to scan each key column sequentially
+    Arrays.fill(hashes, 0, numRows, 0);
+    for (int keyId : _keyIds) {
+      Object[] values = columns.get(keyId);
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        Object value = values[rowId];
+        if (value != null) {
+          hashes[rowId] += value.hashCode();
+        }
+      }
+    }
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      hashes[rowId] &= Integer.MAX_VALUE;
+    }
+  }
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.query.planner.partitioning;
 
+import java.util.List;
 import javax.annotation.Nullable;
 
 
@@ -39,4 +40,13 @@ public class SingleColumnKeySelector implements KeySelector<Object> {
     Object key = input[_keyId];
     return key != null ? key.hashCode() & Integer.MAX_VALUE : 0;
   }
+
+  @Override
+  public void computeHashes(List<Object[]> columns, int numRows, int[] hashes) {
+    Object[] keys = columns.get(_keyId);
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      Object key = keys[rowId];
+      hashes[rowId] = key != null ? key.hashCode() & Integer.MAX_VALUE : 0;
+    }
+  }
 }
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.apache.calcite.rel.RelDistribution;
+import org.apache.pinot.calcite.rel.logical.PinotRelSkewHandlingType;
 import org.apache.pinot.query.planner.plannode.DefaultPostOrderTraversalVisitor;
 import org.apache.pinot.query.planner.plannode.MailboxSendNode;
 import org.apache.pinot.query.planner.plannode.PlanNode;
@@ -54,6 +55,11 @@ public class MailboxAssignmentVisitor extends DefaultPostOrderTraversalVisitor<V
 
       int numSenders = senderServerMap.size();
       int numReceivers = receiverServerMap.size();
+      if (sendNode.getSkewHandlingType() != PinotRelSkewHandlingType.NONE) {
+        Preconditions.checkArgument(sendNode.getSkewSpreadFactor() <= numReceivers,
+            "skew_spread_factor: %s must not exceed the number of workers: %s for stage: %s",
+            sendNode.getSkewSpreadFactor(), numReceivers, receiverStageId);
+      }
       if (sendNode.getDistributionType() == RelDistribution.Type.SINGLETON) {
         // For SINGLETON exchange type, send the data to the same instance (same worker id)
         Preconditions.checkState(numSenders == numReceivers,
@@ -33,6 +33,8 @@ import org.apache.pinot.query.routing.WorkerManager;
 
 
 public class PinotDispatchPlanner {
+  // Query option to enable the colocated join optimization, which modifies the plan nodes in place
+  public static final String USE_COLOCATED_JOIN_OPTION = "useColocatedJoin";
 
   private final WorkerManager _workerManager;
   private final long _requestId;
@@ -90,7 +92,7 @@ public class PinotDispatchPlanner {
   // TODO: Switch to Worker SPI to avoid multiple-places where workers are assigned.
   private void runPhysicalOptimizers(PlanNode subPlanRoot, DispatchablePlanContext dispatchablePlanContext,
       TableCache tableCache) {
-    if (dispatchablePlanContext.getPlannerContext().getOptions().getOrDefault("useColocatedJoin", "false")
+    if (dispatchablePlanContext.getPlannerContext().getOptions().getOrDefault(USE_COLOCATED_JOIN_OPTION, "false")
         .equals("true")) {
       GreedyShuffleRewriteVisitor.optimizeShuffles(subPlanRoot,
           dispatchablePlanContext.getDispatchablePlanMetadataMap(), tableCache);
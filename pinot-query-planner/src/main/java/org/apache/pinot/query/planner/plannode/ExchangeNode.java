@@ -25,6 +25,7 @@ import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelDistribution;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
+import org.apache.pinot.calcite.rel.logical.PinotRelSkewHandlingType;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.logical.PlanFragmenter;
 
@@ -45,11 +46,21 @@ public class ExchangeNode extends BasePlanNode {
   private final boolean _sortOnReceiver;
   // Table names should be set for SUB_PLAN exchange type.
   private final Set<String> _tableNames;
+  private final PinotRelSkewHandlingType _skewHandlingType;
+  private final int _skewSpreadFactor;
 
   public ExchangeNode(int stageId, DataSchema dataSchema, List<PlanNode> inputs, PinotRelExchangeType exchangeType,
       RelDistribution.Type distributionType, @Nullable List<Integer> keys, boolean prePartitioned,
       @Nullable List<RelFieldCollation> collations, boolean sortOnSender, boolean sortOnReceiver,
       @Nullable Set<String> tableNames) {
+    this(stageId, dataSchema, inputs, exchangeType, distributionType, keys, prePartitioned, collations, sortOnSender,
+        sortOnReceiver, tableNames, PinotRelSkewHandlingType.NONE, 1);
+  }
+
+  public ExchangeNode(int stageId, DataSchema dataSchema, List<PlanNode> inputs, PinotRelExchangeType exchangeType,
+      RelDistribution.Type distributionType, @Nullable List<Integer> keys, boolean prePartitioned,
+      @Nullable List<RelFieldCollation> collations, boolean sortOnSender, boolean sortOnReceiver,
+      @Nullable Set<String> tableNames, PinotRelSkewHandlingType skewHandlingType, int skewSpreadFactor) {
     super(stageId, dataSchema, null, inputs);
     _exchangeType = exchangeType;
     _distributionType = distributionType;
@@ -59,6 +70,8 @@ public class ExchangeNode extends BasePlanNode {
     _sortOnSender = sortOnSender;
     _sortOnReceiver = sortOnReceiver;
     _tableNames = tableNames;
+    _skewHandlingType = skewHandlingType;
+    _skewSpreadFactor = skewSpreadFactor;
   }
 
   public PinotRelExchangeType getExchangeType() {
@@ -96,6 +109,14 @@ public class ExchangeNode extends BasePlanNode {
     return _tableNames;
   }
 
+  public PinotRelSkewHandlingType getSkewHandlingType() {
+    return _skewHandlingType;
+  }
+
+  public int getSkewSpreadFactor() {
+    return _skewSpreadFactor;
+  }
+
   @Override
   public String explain() {
     return "EXCHANGE";
@@ -121,12 +142,13 @@ public class ExchangeNode extends BasePlanNode {
     return _sortOnSender == that._sortOnSender && _sortOnReceiver == that._sortOnReceiver
         && _prePartitioned == that._prePartitioned && _exchangeType == that._exchangeType
         && _distributionType == that._distributionType && Objects.equals(_keys, that._keys) && Objects.equals(
-        _collations, that._collations) && Objects.equals(_tableNames, that._tableNames);
+        _collations, that._collations) && Objects.equals(_tableNames, that._tableNames)
+        && _skewHandlingType == that._skewHandlingType && _skewSpreadFactor == that._skewSpreadFactor;
   }
 
   @Override
   public int hashCode() {
     return Objects.hash(super.hashCode(), _exchangeType, _distributionType, _keys, _sortOnSender, _sortOnReceiver,
-        _prePartitioned, _collations, _tableNames);
+        _prePartitioned, _collations, _tableNames, _skewHandlingType, _skewSpreadFactor);
   }
 }
@@ -24,6 +24,7 @@ import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelDistribution;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
+import org.apache.pinot.calcite.rel.logical.PinotRelSkewHandlingType;
 import org.apache.pinot.common.utils.DataSchema;
 
 
@@ -35,11 +36,21 @@ public class MailboxSendNode extends BasePlanNode {
   private final boolean _prePartitioned;
   private final List<RelFieldCollation> _collations;
   private final boolean _sort;
+  private final PinotRelSkewHandlingType _skewHandlingType;
+  private final int _skewSpreadFactor;
 
   // NOTE: null List is converted to empty List because there is no way to differentiate them in proto during ser/de.
   public MailboxSendNode(int stageId, DataSchema dataSchema, List<PlanNode> inputs, int receiverStageId,
       PinotRelExchangeType exchangeType, RelDistribution.Type distributionType, @Nullable List<Integer> keys,
       boolean prePartitioned, @Nullable List<RelFieldCollation> collations, boolean sort) {
+    this(stageId, dataSchema, inputs, receiverStageId, exchangeType, distributionType, keys, prePartitioned, collations,
+        sort, PinotRelSkewHandlingType.NONE, 1);
+  }
+
+  public MailboxSendNode(int stageId, DataSchema dataSchema, List<PlanNode> inputs, int receiverStageId,
+      PinotRelExchangeType exchangeType, RelDistribution.Type distributionType, @Nullable List<Integer> keys,
+      boolean prePartitioned, @Nullable List<RelFieldCollation> collations, boolean sort,
+      PinotRelSkewHandlingType skewHandlingType, int skewSpreadFactor) {
     super(stageId, dataSchema, null, inputs);
     _receiverStageId = receiverStageId;
     _exchangeType = exchangeType;
@@ -48,6 +59,8 @@ public class MailboxSendNode extends BasePlanNode {
     _prePartitioned = prePartitioned;
     _collations = collations != null ? collations : List.of();
     _sort = sort;
+    _skewHandlingType = skewHandlingType;
+    _skewSpreadFactor = skewSpreadFactor;
   }
 
   public int getReceiverStageId() {
@@ -82,6 +95,14 @@ public class MailboxSendNode extends BasePlanNode {
     return _sort;
   }
 
+  public PinotRelSkewHandlingType getSkewHandlingType() {
+    return _skewHandlingType;
+  }
+
+  public int getSkewSpreadFactor() {
+    return _skewSpreadFactor;
+  }
+
   @Override
   public String explain() {
     StringBuilder sb = new StringBuilder();
@@ -94,6 +115,9 @@ public class MailboxSendNode extends BasePlanNode {
     if (isSort()) {
       sb.append("[SORTED]");
     }
+    if (_skewHandlingType != PinotRelSkewHandlingType.NONE) {
+      sb.append('[').append(_skewHandlingType).append(':').append(_skewSpreadFactor).append(']');
+    }
     return sb.toString();
   }
 
@@ -116,12 +140,13 @@ public class MailboxSendNode extends BasePlanNode {
     MailboxSendNode that = (MailboxSendNode) o;
     return _receiverStageId == that._receiverStageId && _prePartitioned == that._prePartitioned && _sort == that._sort
         && _exchangeType == that._exchangeType && _distributionType == that._distributionType && Objects.equals(_keys,
-        that._keys) && Objects.equals(_collations, that._collations);
+        that._keys) && Objects.equals(_collations, that._collations) && _skewHandlingType == that._skewHandlingType
+        && _skewSpreadFactor == that._skewSpreadFactor;
   }
 
   @Override
   public int hashCode() {
     return Objects.hash(super.hashCode(), _receiverStageId, _exchangeType, _distributionType, _keys, _prePartitioned,
-        _collations, _sort);
+        _collations, _sort, _skewHandlingType, _skewSpreadFactor);
   }
 }
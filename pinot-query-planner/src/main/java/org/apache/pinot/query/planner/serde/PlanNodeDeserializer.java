@@ -26,6 +26,7 @@ import org.apache.calcite.rel.RelDistribution;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
+import org.apache.pinot.calcite.rel.logical.PinotRelSkewHandlingType;
 import org.apache.pinot.common.proto.Expressions;
 import org.apache.pinot.common.proto.Plan;
 import org.apache.pinot.common.utils.DataSchema;
@@ -114,7 +115,8 @@ public class PlanNodeDeserializer {
         protoMailboxSendNode.getReceiverStageId(), convertExchangeType(protoMailboxSendNode.getExchangeType()),
         convertDistributionType(protoMailboxSendNode.getDistributionType()), protoMailboxSendNode.getKeysList(),
         protoMailboxSendNode.getPrePartitioned(), convertCollations(protoMailboxSendNode.getCollationsList()),
-        protoMailboxSendNode.getSort());
+        protoMailboxSendNode.getSort(), convertSkewHandlingType(protoMailboxSendNode.getSkewHandlingType()),
+        Math.max(protoMailboxSendNode.getSkewSpreadFactor(), 1));
   }
 
   private static ProjectNode deserializeProjectNode(Plan.PlanNode protoNode) {
@@ -278,6 +280,19 @@ public class PlanNodeDeserializer {
     }
   }
 
+  private static PinotRelSkewHandlingType convertSkewHandlingType(Plan.SkewHandlingType skewHandlingType) {
+    switch (skewHandlingType) {
+      case NONE:
+        return PinotRelSkewHandlingType.NONE;
+      case SPREAD_HEAVY_KEYS:
+        return PinotRelSkewHandlingType.SPREAD_HEAVY_KEYS;
+      case REPLICATE:
+        return PinotRelSkewHandlingType.REPLICATE;
+      default:
+        throw new IllegalStateException("Unsupported SkewHandlingType: " + skewHandlingType);
+    }
+  }
+
   private static RelDistribution.Type convertDistributionType(Plan.DistributionType distributionType) {
     switch (distributionType) {
       case SINGLETON:
@@ -25,6 +25,7 @@ import org.apache.calcite.rel.RelDistribution;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.pinot.calcite.rel.logical.PinotRelExchangeType;
+import org.apache.pinot.calcite.rel.logical.PinotRelSkewHandlingType;
 import org.apache.pinot.common.proto.Expressions;
 import org.apache.pinot.common.proto.Plan;
 import org.apache.pinot.common.utils.DataSchema;
@@ -135,7 +136,8 @@ public class PlanNodeSerializer {
               .setExchangeType(convertExchangeType(node.getExchangeType()))
               .setDistributionType(convertDistributionType(node.getDistributionType())).addAllKeys(node.getKeys())
               .setPrePartitioned(node.isPrePartitioned()).addAllCollations(convertCollations(node.getCollations()))
-              .setSort(node.isSort()).build();
+              .setSort(node.isSort()).setSkewHandlingType(convertSkewHandlingType(node.getSkewHandlingType()))
+              .setSkewSpreadFactor(node.getSkewSpreadFactor()).build();
       builder.setMailboxSendNode(mailboxSendNode);
       return null;
     }
@@ -267,6 +269,19 @@ public class PlanNodeSerializer {
       }
     }
 
+    private static Plan.SkewHandlingType convertSkewHandlingType(PinotRelSkewHandlingType skewHandlingType) {
+      switch (skewHandlingType) {
+        case NONE:
+          return Plan.SkewHandlingType.NONE;
+        case SPREAD_HEAVY_KEYS:
+          return Plan.SkewHandlingType.SPREAD_HEAVY_KEYS;
+        case REPLICATE:
+          return Plan.SkewHandlingType.REPLICATE;
+        default:
+          throw new IllegalStateException("Unsupported PinotRelSkewHandlingType: " + skewHandlingType);
+      }
+    }
+
     private static Plan.DistributionType convertDistributionType(RelDistribution.Type distributionType) {
       switch (distributionType) {
         case SINGLETON:
@@ -29,6 +29,7 @@ import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import org.apache.calcite.rel.RelDistribution;
 import org.apache.pinot.query.planner.PlannerUtils;
+import org.apache.pinot.query.planner.SubPlan;
 import org.apache.pinot.query.planner.physical.DispatchablePlanFragment;
 import org.apache.pinot.query.planner.physical.DispatchableSubPlan;
 import org.apache.pinot.query.planner.plannode.AggregateNode;
@@ -39,6 +40,8 @@ import org.apache.pinot.query.planner.plannode.MailboxReceiveNode;
 import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.planner.plannode.ProjectNode;
 import org.apache.pinot.query.routing.QueryServerInstance;
+import org.apache.pinot.sql.parsers.CalciteSqlParser;
+import org.apache.pinot.sql.parsers.SqlNodeAndOptions;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -201,6 +204,32 @@ public class QueryCompilationTest extends QueryEnvironmentTestBase {
     assertEquals(tableScanMetadataList.get(0).getServerInstanceToWorkerIdMap().size(), 2);
   }
 
+  @Test
+  public void testDispatchReusedLogicalPlan() {
+    String query = "SELECT a.col1, a.ts, b.col2, b.col3 FROM a JOIN b ON a.col1 = b.col2 WHERE a.col3 > 0";
+    SqlNodeAndOptions sqlNodeAndOptions = CalciteSqlParser.compileToSqlNodeAndOptions(query);
+    SubPlan subPlan = _queryEnvironment.planLogicalQuery(query, sqlNodeAndOptions);
+    DispatchableSubPlan expectedPlan = _queryEnvironment.planQuery(query);
+    // The same logical plan can be dispatched multiple times
+    for (int i = 0; i < 2; i++) {
+      DispatchableSubPlan dispatchableSubPlan =
+          _queryEnvironment.dispatchQuery(query, subPlan, sqlNodeAndOptions.getOptions(), i).getQueryPlan();
+      assertEquals(dispatchableSubPlan.getTableNames(), expectedPlan.getTableNames());
+      List<DispatchablePlanFragment> stagePlans = dispatchableSubPlan.getQueryStageList();
+      List<DispatchablePlanFragment> expectedStagePlans = expectedPlan.getQueryStageList();
+      assertEquals(stagePlans.size(), expectedStagePlans.size());
+      for (int stageId = 0; stageId < stagePlans.size(); stageId++) {
+        DispatchablePlanFragment stagePlan = stagePlans.get(stageId);
+        DispatchablePlanFragment expectedStagePlan = expectedStagePlans.get(stageId);
+        assertEquals(stagePlan.getTableName(), expectedStagePlan.getTableName());
+        assertEquals(stagePlan.getServerInstanceToWorkerIdMap().keySet(),
+            expectedStagePlan.getServerInstanceToWorkerIdMap().keySet());
+        assertEquals(stagePlan.getPlanFragment().getFragmentRoot().getStageId(),
+            expectedStagePlan.getPlanFragment().getFragmentRoot().getStageId());
+      }
+    }
+  }
+
   // Test that plan query can be run as multi-thread.
   @Test
   public void testPlanQueryMultiThread()
@@ -24,6 +24,7 @@ import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
@@ -142,7 +143,7 @@ public class ReceivingMailbox {
     }
     try {
       long now = System.currentTimeMillis();
-      boolean accepted = _blocks.offer(block, timeoutMs, TimeUnit.MILLISECONDS);
+      boolean accepted = offerBlocking(block, timeoutMs);
       _stats.merge(StatKey.OFFER_CPU_TIME_MS, System.currentTimeMillis() - now);
       if (accepted) {
         errorBlock = _errorBlock.get();
@@ -171,6 +172,52 @@ public class ReceivingMailbox {
     }
   }
 
+  /**
+   * Offers the block into the queue, waiting up to the given timeout when it is full. The wait goes through
+   * {@link ForkJoinPool#managedBlock} so that a sender running on a fixed size {@link ForkJoinPool} (cooperative
+   * OpChain scheduling) gets compensated by an extra thread while waiting, and the receiving OpChain can still be run.
+   */
+  private boolean offerBlocking(TransferableBlock block, long timeoutMs)
+      throws InterruptedException {
+    if (_blocks.offer(block)) {
+      return true;
+    }
+    OfferBlocker offerBlocker = new OfferBlocker(block, timeoutMs);
+    ForkJoinPool.managedBlock(offerBlocker);
+    return offerBlocker._accepted;
+  }
+
+  private class OfferBlocker implements ForkJoinPool.ManagedBlocker {
+    final TransferableBlock _block;
+    final long _timeoutMs;
+    boolean _done;
+    boolean _accepted;
+
+    OfferBlocker(TransferableBlock block, long timeoutMs) {
+      _block = block;
+      _timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public boolean block()
+        throws InterruptedException {
+      if (!_done) {
+        _accepted = _blocks.offer(_block, _timeoutMs, TimeUnit.MILLISECONDS);
+        _done = true;
+      }
+      return true;
+    }
+
+    @Override
+    public boolean isReleasable() {
+      if (!_done && _blocks.offer(_block)) {
+        _accepted = true;
+        _done = true;
+      }
+      return _done;
+    }
+  }
+
   /**
    * Sets an error block into the mailbox. No more blocks are accepted after calling this method.
    */
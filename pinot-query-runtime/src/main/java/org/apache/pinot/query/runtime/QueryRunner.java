@@ -70,6 +70,7 @@ public class QueryRunner {
   private ServerMetrics _serverMetrics;
 
   private ExecutorService _executorService;
+  private ExecutorService _opChainExecutorService;
   private OpChainSchedulerService _opChainScheduler;
   private MailboxService _mailboxService;
   private QueryExecutor _leafQueryExecutor;
@@ -86,6 +87,14 @@ public class QueryRunner {
   @Nullable
   private JoinOverFlowMode _joinOverflowMode;
 
+  // Sort settings
+  @Nullable
+  private Integer _maxRowsInSort;
+
+  // Local directory for the operators to spill intermediate data
+  @Nullable
+  private String _spillDir;
+
   /**
    * Initializes the query executor.
    * <p>Should be called only once and before calling any other method.
@@ -114,10 +123,27 @@ public class QueryRunner {
     _maxRowsInJoin = maxRowsInJoinStr != null ? Integer.parseInt(maxRowsInJoinStr) : null;
     String joinOverflowModeStr = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_JOIN_OVERFLOW_MODE);
     _joinOverflowMode = joinOverflowModeStr != null ? JoinOverFlowMode.valueOf(joinOverflowModeStr) : null;
+    String maxRowsInSortStr = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_MAX_ROWS_IN_SORT);
+    _maxRowsInSort = maxRowsInSortStr != null ? Integer.parseInt(maxRowsInSortStr) : null;
+    _spillDir = config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_SPILL_DIR);
 
     //TODO: make this configurable
     _executorService = ExecutorServiceUtils.createDefault("query-runner-on-" + port);
-    _opChainScheduler = new OpChainSchedulerService(_executorService);
+    boolean cooperativeScheduling =
+        config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_COOPERATIVE_SCHEDULING,
+            CommonConstants.MultiStageQueryRunner.DEFAULT_COOPERATIVE_SCHEDULING);
+    if (cooperativeScheduling) {
+      // The leaf stage queries are still executed on the default executor service
+      int numCooperativeThreads =
+          config.getProperty(CommonConstants.MultiStageQueryRunner.KEY_OF_NUM_COOPERATIVE_THREADS,
+              Runtime.getRuntime().availableProcessors());
+      _opChainExecutorService =
+          ExecutorServiceUtils.createCooperative("query-runner-opchain-on-" + port, numCooperativeThreads);
+      LOGGER.info("Using cooperative OpChain scheduling with {} threads", numCooperativeThreads);
+    } else {
+      _opChainExecutorService = _executorService;
+    }
+    _opChainScheduler = new OpChainSchedulerService(_opChainExecutorService, cooperativeScheduling);
     _mailboxService = new MailboxService(hostname, port, config);
     try {
       _leafQueryExecutor = new ServerQueryExecutorV1Impl();
@@ -143,6 +169,10 @@ public class QueryRunner {
   public void shutDown() {
     _leafQueryExecutor.shutDown();
     _mailboxService.shutdown();
+    _opChainScheduler.shutDown();
+    if (_opChainExecutorService != _executorService) {
+      ExecutorServiceUtils.close(_opChainExecutorService);
+    }
     ExecutorServiceUtils.close(_executorService);
   }
 
@@ -247,6 +277,20 @@ public class QueryRunner {
     if (joinOverflowMode != null) {
       opChainMetadata.put(QueryOptionKey.JOIN_OVERFLOW_MODE, joinOverflowMode.name());
     }
+
+    Integer maxRowsInSort = QueryOptionsUtils.getMaxRowsInSort(opChainMetadata);
+    if (maxRowsInSort == null) {
+      maxRowsInSort = _maxRowsInSort;
+    }
+    if (maxRowsInSort != null) {
+      opChainMetadata.put(QueryOptionKey.MAX_ROWS_IN_SORT, Integer.toString(maxRowsInSort));
+    }
+
+    // Spill directory can only be configured on the server, never through the request.
+    opChainMetadata.remove(CommonConstants.MultiStageQueryRunner.KEY_OF_SPILL_DIR);
+    if (_spillDir != null) {
+      opChainMetadata.put(CommonConstants.MultiStageQueryRunner.KEY_OF_SPILL_DIR, _spillDir);
+    }
     return opChainMetadata;
   }
 
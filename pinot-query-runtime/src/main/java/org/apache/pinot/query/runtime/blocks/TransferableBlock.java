@@ -29,7 +29,6 @@ import java.util.Map;
 import javax.annotation.Nullable;
 import org.apache.pinot.common.datablock.ColumnarDataBlock;
 import org.apache.pinot.common.datablock.DataBlock;
-import org.apache.pinot.common.datablock.DataBlockUtils;
 import org.apache.pinot.common.datablock.MetadataBlock;
 import org.apache.pinot.common.datablock.RowDataBlock;
 import org.apache.pinot.common.utils.DataSchema;
@@ -41,6 +40,10 @@ import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 /**
  * A {@code TransferableBlock} is a wrapper around {@link DataBlock} for transferring data using
  * {@link org.apache.pinot.common.proto.Mailbox}.
+ *
+ * <p>A data block can be accessed as rows (see {@link #getContainer()}), as column vectors (see {@link #getColumns()})
+ * or as the binary-packed {@link DataBlock} (see {@link #getDataBlock()}). Each representation is lazily constructed
+ * from the other ones when first accessed. The type of the block (ROW or COLUMNAR) decides the binary-packed format.
  */
 public class TransferableBlock implements Block {
   private final DataBlock.Type _type;
@@ -49,11 +52,15 @@ public class TransferableBlock implements Block {
   private final int _numRows;
 
   private List<Object[]> _container;
+  private List<Object[]> _columns;
   private DataBlock _dataBlock;
   private Map<Integer, String> _errCodeToExceptionMap;
   @Nullable
   private final MultiStageQueryStats _queryStats;
 
+  /**
+   * Constructs a data block from the rows. The type (ROW or COLUMNAR) decides the binary-packed format of the block.
+   */
   public TransferableBlock(List<Object[]> container, DataSchema dataSchema, DataBlock.Type type) {
     _container = container;
     _dataSchema = dataSchema;
@@ -65,6 +72,21 @@ public class TransferableBlock implements Block {
     _queryStats = null;
   }
 
+  /**
+   * Constructs a COLUMNAR data block from the column vectors, where each column vector has exactly {@code numRows}
+   * values.
+   */
+  public TransferableBlock(List<Object[]> columns, int numRows, DataSchema dataSchema) {
+    Preconditions.checkArgument(columns.size() == dataSchema.size(), "Expected %s columns, got: %s",
+        dataSchema.size(), columns.size());
+    _columns = columns;
+    _dataSchema = dataSchema;
+    _type = DataBlock.Type.COLUMNAR;
+    _numRows = numRows;
+    _errCodeToExceptionMap = new HashMap<>();
+    _queryStats = null;
+  }
+
   public TransferableBlock(DataBlock dataBlock) {
     _dataBlock = dataBlock;
     _dataSchema = dataBlock.getDataSchema();
@@ -128,8 +150,8 @@ public class TransferableBlock implements Block {
 
   /**
    * Retrieve the extracted {@link TransferableBlock#_container} of the transferable block.
-   * If not already constructed. It will use {@link DataBlockUtils} to extract the row/columnar data from the
-   * binary-packed format.
+   * If not already constructed. It will be transposed from the column vectors if available, or use
+   * {@link DataBlockExtractUtils} to extract the rows from the binary-packed format.
    *
    * @return data container.
    */
@@ -137,9 +159,9 @@ public class TransferableBlock implements Block {
     if (_container == null) {
       switch (_type) {
         case ROW:
-          _container = DataBlockExtractUtils.extractRows(_dataBlock);
-          break;
         case COLUMNAR:
+          _container = _columns != null ? toRows(_columns, _numRows) : DataBlockExtractUtils.extractRows(_dataBlock);
+          break;
         case METADATA:
         default:
           throw new UnsupportedOperationException("Unable to extract from container with type: " + _type);
@@ -148,10 +170,70 @@ public class TransferableBlock implements Block {
     return _container;
   }
 
+  /**
+   * Retrieve the column vectors of the transferable block, where each column vector has exactly {@link #getNumRows()}
+   * values. If not already constructed. It will be transposed from the rows if available, or use
+   * {@link DataBlockExtractUtils} to extract the columns from the binary-packed format, which is cheap for COLUMNAR
+   * blocks as the values of each column are stored contiguously.
+   *
+   * @return column vectors.
+   */
+  public List<Object[]> getColumns() {
+    if (_columns == null) {
+      switch (_type) {
+        case ROW:
+        case COLUMNAR:
+          _columns = _container != null ? toColumns(_container, _dataSchema.size()) : extractColumns(_dataBlock);
+          break;
+        case METADATA:
+        default:
+          throw new UnsupportedOperationException("Unable to extract columns with type: " + _type);
+      }
+    }
+    return _columns;
+  }
+
+  private static List<Object[]> toRows(List<Object[]> columns, int numRows) {
+    int numColumns = columns.size();
+    List<Object[]> rows = new ArrayList<>(numRows);
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      Object[] row = new Object[numColumns];
+      for (int colId = 0; colId < numColumns; colId++) {
+        row[colId] = columns.get(colId)[rowId];
+      }
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  private static List<Object[]> toColumns(List<Object[]> rows, int numColumns) {
+    int numRows = rows.size();
+    List<Object[]> columns = new ArrayList<>(numColumns);
+    for (int colId = 0; colId < numColumns; colId++) {
+      columns.add(new Object[numRows]);
+    }
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      Object[] row = rows.get(rowId);
+      for (int colId = 0; colId < numColumns; colId++) {
+        columns.get(colId)[rowId] = row[colId];
+      }
+    }
+    return columns;
+  }
+
+  private static List<Object[]> extractColumns(DataBlock dataBlock) {
+    int numColumns = dataBlock.getDataSchema().size();
+    List<Object[]> columns = new ArrayList<>(numColumns);
+    for (int colId = 0; colId < numColumns; colId++) {
+      columns.add(DataBlockExtractUtils.extractColumn(dataBlock, colId));
+    }
+    return columns;
+  }
+
   /**
    * Retrieve the binary-packed version of the data block.
    * If not already constructed. It will use {@link DataBlockBuilder} to construct the binary-packed format from
-   * the {@link TransferableBlock#_container}.
+   * the rows for ROW blocks, or from the column vectors for COLUMNAR blocks.
    *
    * @return data block.
    */
@@ -160,10 +242,10 @@ public class TransferableBlock implements Block {
       try {
         switch (_type) {
           case ROW:
-            _dataBlock = DataBlockBuilder.buildFromRows(_container, _dataSchema);
+            _dataBlock = DataBlockBuilder.buildFromRows(getContainer(), _dataSchema);
             break;
           case COLUMNAR:
-            _dataBlock = DataBlockBuilder.buildFromColumns(_container, _dataSchema);
+            _dataBlock = DataBlockBuilder.buildFromColumns(getColumns(), _dataSchema);
             break;
           case METADATA:
             _dataBlock = new MetadataBlock(getSerializedStatsByStage());
@@ -21,6 +21,7 @@ package org.apache.pinot.query.runtime.blocks;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterators;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -67,7 +68,7 @@ public final class TransferableBlockUtils {
    *  Split a block into multiple block so that each block size is within maxBlockSize. Currently,
    *  <ul>
    *    <li>For row data block, we split for row type dataBlock.</li>
-   *    <li>For columnar data block, exceptions are thrown.</li>
+   *    <li>For columnar data block, we split the column vectors without constructing the rows.</li>
    *    <li>For metadata block, split is not supported.</li>
    *  </ul>
    *
@@ -79,11 +80,7 @@ public final class TransferableBlockUtils {
   public static Iterator<TransferableBlock> splitBlock(TransferableBlock block, DataBlock.Type type, int maxBlockSize) {
     List<TransferableBlock> blockChunks = new ArrayList<>();
     if (type == DataBlock.Type.ROW) {
-      // Use estimated row size, this estimate is not accurate and is used to estimate numRowsPerChunk only.
-      int estimatedRowSizeInBytes = block.getDataSchema().getColumnNames().length * MEDIAN_COLUMN_SIZE_BYTES;
-      int numRowsPerChunk = maxBlockSize / estimatedRowSizeInBytes;
-      Preconditions.checkState(numRowsPerChunk > 0, "row size too large for query engine to handle, abort!");
-
+      int numRowsPerChunk = getNumRowsPerChunk(block, maxBlockSize);
       int totalNumRows = block.getNumRows();
       List<Object[]> allRows = block.getContainer();
       int currentRow = 0;
@@ -93,10 +90,37 @@ public final class TransferableBlockUtils {
         blockChunks.add(new TransferableBlock(chunk, block.getDataSchema(), block.getType()));
       }
       return blockChunks.iterator();
+    } else if (type == DataBlock.Type.COLUMNAR) {
+      int numRowsPerChunk = getNumRowsPerChunk(block, maxBlockSize);
+      int totalNumRows = block.getNumRows();
+      if (totalNumRows <= numRowsPerChunk) {
+        return Iterators.singletonIterator(block);
+      }
+      List<Object[]> allColumns = block.getColumns();
+      int numColumns = allColumns.size();
+      int currentRow = 0;
+      while (currentRow < totalNumRows) {
+        int endRow = Math.min(currentRow + numRowsPerChunk, totalNumRows);
+        List<Object[]> chunk = new ArrayList<>(numColumns);
+        for (Object[] column : allColumns) {
+          chunk.add(Arrays.copyOfRange(column, currentRow, endRow));
+        }
+        blockChunks.add(new TransferableBlock(chunk, endRow - currentRow, block.getDataSchema()));
+        currentRow = endRow;
+      }
+      return blockChunks.iterator();
     } else if (type == DataBlock.Type.METADATA) {
       return Iterators.singletonIterator(block);
     } else {
       throw new IllegalArgumentException("Unsupported data block type: " + type);
     }
   }
+
+  private static int getNumRowsPerChunk(TransferableBlock block, int maxBlockSize) {
+    // Use estimated row size, this estimate is not accurate and is used to estimate numRowsPerChunk only.
+    int estimatedRowSizeInBytes = block.getDataSchema().getColumnNames().length * MEDIAN_COLUMN_SIZE_BYTES;
+    int numRowsPerChunk = maxBlockSize / estimatedRowSizeInBytes;
+    Preconditions.checkState(numRowsPerChunk > 0, "row size too large for query engine to handle, abort!");
+    return numRowsPerChunk;
+  }
 }
@@ -21,7 +21,10 @@ package org.apache.pinot.query.runtime.executor;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.spi.env.PinotConfiguration;
 import org.slf4j.Logger;
@@ -39,6 +42,20 @@ public class ExecutorServiceUtils {
     return Executors.newCachedThreadPool(new NamedThreadFactory(baseName));
   }
 
+  /**
+   * Creates the fixed size executor used by the cooperative {@link OpChainSchedulerService}. A {@link ForkJoinPool} is
+   * used so that the remaining blocking calls (e.g. offering into a full in-memory mailbox) can be compensated with
+   * extra threads through {@link ForkJoinPool#managedBlock}.
+   */
+  public static ExecutorService createCooperative(String baseName, int numThreads) {
+    AtomicInteger threadNumber = new AtomicInteger(1);
+    return new ForkJoinPool(numThreads, pool -> {
+      ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName(baseName + "-" + threadNumber.getAndIncrement());
+      return thread;
+    }, null, true);
+  }
+
   public static ExecutorService create(PinotConfiguration conf, String confPrefix, String baseName) {
     //TODO: make this configurable
     return Executors.newCachedThreadPool(new NamedThreadFactory(baseName));
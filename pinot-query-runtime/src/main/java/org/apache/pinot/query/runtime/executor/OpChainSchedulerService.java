@@ -23,26 +23,66 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
 import org.apache.pinot.core.util.trace.TraceRunnable;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.operator.OpChain;
 import org.apache.pinot.query.runtime.operator.OpChainId;
+import org.apache.pinot.spi.exception.QueryCancelledException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
+/**
+ * Runs the registered OpChains on the given executor.
+ *
+ * <p>By default, each OpChain occupies a thread of the executor until it finishes, blocking the thread while waiting
+ * for its input. In cooperative mode, the OpChain yields the thread (see {@link OpChainYieldException}) when there is
+ * no input available, and is re-submitted to the executor once new data arrives, the deadline is reached or it is
+ * cancelled. This allows running a large number of concurrent OpChains on a small fixed size executor (see
+ * {@link ExecutorServiceUtils#createCooperative(String, int)}).
+ */
 public class OpChainSchedulerService {
   private static final Logger LOGGER = LoggerFactory.getLogger(OpChainSchedulerService.class);
 
   private final ExecutorService _executorService;
   private final ConcurrentHashMap<OpChainId, Future<?>> _submittedOpChainMap;
+  private final ConcurrentHashMap<OpChainId, CooperativeOpChain> _cooperativeOpChainMap;
+  // Wakes up the parked OpChains on deadline, only set in cooperative mode
+  @Nullable
+  private final ScheduledThreadPoolExecutor _deadlineTimer;
 
   public OpChainSchedulerService(ExecutorService executorService) {
+    this(executorService, false);
+  }
+
+  public OpChainSchedulerService(ExecutorService executorService, boolean cooperative) {
     _executorService = executorService;
     _submittedOpChainMap = new ConcurrentHashMap<>();
+    _cooperativeOpChainMap = new ConcurrentHashMap<>();
+    if (cooperative) {
+      _deadlineTimer = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "opchain-deadline-timer");
+        thread.setDaemon(true);
+        return thread;
+      });
+      _deadlineTimer.setRemoveOnCancelPolicy(true);
+    } else {
+      _deadlineTimer = null;
+    }
   }
 
   public void register(OpChain operatorChain) {
+    if (_deadlineTimer != null) {
+      CooperativeOpChain cooperativeOpChain = new CooperativeOpChain(operatorChain);
+      _cooperativeOpChainMap.put(operatorChain.getId(), cooperativeOpChain);
+      cooperativeOpChain.start();
+      return;
+    }
     Future<?> scheduledFuture = _executorService.submit(new TraceRunnable() {
       @Override
       public void runJob() {
@@ -68,14 +108,7 @@ public class OpChainSchedulerService {
           thrown = e;
         } finally {
           _submittedOpChainMap.remove(operatorChain.getId());
-          if (returnedErrorBlock != null || thrown != null) {
-            if (thrown == null) {
-              thrown = new RuntimeException("Error block " + returnedErrorBlock.getExceptions());
-            }
-            operatorChain.cancel(thrown);
-          } else if (isFinished) {
-            operatorChain.close();
-          }
+          finishOpChain(operatorChain, isFinished, returnedErrorBlock, thrown);
         }
       }
     });
@@ -93,5 +126,146 @@ public class OpChainSchedulerService {
         iterator.remove();
       }
     }
+    Iterator<Map.Entry<OpChainId, CooperativeOpChain>> cooperativeIterator =
+        _cooperativeOpChainMap.entrySet().iterator();
+    while (cooperativeIterator.hasNext()) {
+      Map.Entry<OpChainId, CooperativeOpChain> entry = cooperativeIterator.next();
+      if (entry.getKey().getRequestId() == requestId) {
+        entry.getValue().cancel();
+        cooperativeIterator.remove();
+      }
+    }
+  }
+
+  public void shutDown() {
+    if (_deadlineTimer != null) {
+      _deadlineTimer.shutdownNow();
+    }
+  }
+
+  private static void finishOpChain(OpChain operatorChain, boolean isFinished,
+      @Nullable TransferableBlock returnedErrorBlock, @Nullable Throwable thrown) {
+    if (returnedErrorBlock != null || thrown != null) {
+      if (thrown == null) {
+        thrown = new RuntimeException("Error block " + returnedErrorBlock.getExceptions());
+      }
+      operatorChain.cancel(thrown);
+    } else if (isFinished) {
+      operatorChain.close();
+    }
+  }
+
+  /**
+   * An OpChain run in cooperative mode. It is executed until it finishes or yields, in which case it is parked until
+   * {@link #wakeUp()} is called on new data arrival, deadline or cancellation. The state guarantees that the OpChain is
+   * run by at most one thread at a time, and that a wake up racing with the yield is not lost.
+   */
+  private class CooperativeOpChain extends TraceRunnable {
+    static final int RUNNING = 0;
+    static final int PARKED = 1;
+    // Woken up while running, the next yield should not park the OpChain
+    static final int WAKE_UP_PENDING = 2;
+    static final int FINISHED = 3;
+
+    final OpChain _opChain;
+    final AtomicInteger _state = new AtomicInteger(RUNNING);
+    volatile boolean _cancelled;
+    volatile ScheduledFuture<?> _deadlineFuture;
+
+    CooperativeOpChain(OpChain opChain) {
+      _opChain = opChain;
+    }
+
+    void start() {
+      _opChain.getContext().setOnDataAvailable(this::wakeUp);
+      scheduleDeadlineWakeUp();
+      _executorService.execute(this);
+    }
+
+    void wakeUp() {
+      while (true) {
+        int state = _state.get();
+        if (state == PARKED) {
+          if (_state.compareAndSet(PARKED, RUNNING)) {
+            LOGGER.trace("({}): Resumed", _opChain);
+            _executorService.execute(this);
+            return;
+          }
+        } else if (state == RUNNING) {
+          if (_state.compareAndSet(RUNNING, WAKE_UP_PENDING)) {
+            return;
+          }
+        } else {
+          return;
+        }
+      }
+    }
+
+    void cancel() {
+      _cancelled = true;
+      wakeUp();
+    }
+
+    void scheduleDeadlineWakeUp() {
+      if (_state.get() == FINISHED) {
+        return;
+      }
+      long remainingMs = _opChain.getContext().getDeadlineMs() - System.currentTimeMillis();
+      if (remainingMs >= 0) {
+        // Make sure the deadline has passed when the OpChain is resumed, so that it times out instead of yielding again
+        _deadlineFuture = _deadlineTimer.schedule(this::scheduleDeadlineWakeUp, remainingMs + 1, TimeUnit.MILLISECONDS);
+      } else {
+        wakeUp();
+      }
+    }
+
+    @Override
+    public void runJob() {
+      boolean isFinished = false;
+      TransferableBlock returnedErrorBlock = null;
+      Throwable thrown = null;
+      try {
+        LOGGER.trace("({}): Executing", _opChain);
+        while (true) {
+          if (_cancelled) {
+            thrown = new QueryCancelledException("Cancelled while executing operator chain: " + _opChain.getId());
+            break;
+          }
+          TransferableBlock result;
+          try {
+            result = _opChain.getRoot().nextBlock();
+          } catch (OpChainYieldException e) {
+            if (_state.compareAndSet(RUNNING, PARKED)) {
+              LOGGER.trace("({}): Parked", _opChain);
+              return;
+            }
+            // Woken up after yielding, continue running
+            _state.set(RUNNING);
+            continue;
+          }
+          if (result.isEndOfStreamBlock()) {
+            isFinished = true;
+            if (result.isErrorBlock()) {
+              returnedErrorBlock = result;
+              LOGGER.error("({}): Completed erroneously {} {}", _opChain, result.getQueryStats(),
+                  result.getExceptions());
+            } else {
+              LOGGER.debug("({}): Completed {}", _opChain, result.getQueryStats());
+            }
+            break;
+          }
+        }
+      } catch (Exception e) {
+        LOGGER.error("({}): Failed to execute operator chain!", _opChain, e);
+        thrown = e;
+      }
+      _state.set(FINISHED);
+      ScheduledFuture<?> deadlineFuture = _deadlineFuture;
+      if (deadlineFuture != null) {
+        deadlineFuture.cancel(false);
+      }
+      _cooperativeOpChainMap.remove(_opChain.getId(), this);
+      finishOpChain(_opChain, isFinished, returnedErrorBlock, thrown);
+    }
   }
 }
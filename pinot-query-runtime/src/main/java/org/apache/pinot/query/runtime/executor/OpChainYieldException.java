@@ -0,0 +1,36 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.executor;
+
+/**
+ * Thrown by the operators reading the input of an OpChain that is run cooperatively (see
+ * {@link OpChainSchedulerService}) when there is no data available yet. Instead of blocking the thread, the OpChain is
+ * parked by the scheduler and resumed once new data arrives, at which point the same operator is called again.
+ *
+ * <p>Operators must therefore keep the state accumulated so far in fields rather than in local variables when they
+ * consume their input in a loop. This exception is a control flow signal, so it is preallocated and carries no stack
+ * trace.
+ */
+public class OpChainYieldException extends RuntimeException {
+  public static final OpChainYieldException INSTANCE = new OpChainYieldException();
+
+  private OpChainYieldException() {
+    super("No data available, yielding the OpChain", null, false, false);
+  }
+}
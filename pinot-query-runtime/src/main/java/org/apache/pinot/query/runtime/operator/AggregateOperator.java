@@ -64,6 +64,9 @@ public class AggregateOperator extends MultiStageOperator {
   private final DataSchema _resultSchema;
   private final MultistageAggregationExecutor _aggregationExecutor;
   private final MultistageGroupByExecutor _groupByExecutor;
+  // Upstream EOS block, which is updated with the stats of this operator after all the results are produced
+  @Nullable
+  private TransferableBlock _upstreamEosBlock;
   @Nullable
   private TransferableBlock _eosBlock;
   private final StatMap<StatKey> _statMap = new StatMap<>(StatKey.class);
@@ -129,11 +132,39 @@ public class AggregateOperator extends MultiStageOperator {
     return EXPLAIN_NAME;
   }
 
+  @Override
+  public void close() {
+    try {
+      if (_groupByExecutor != null) {
+        _groupByExecutor.close();
+      }
+    } finally {
+      super.close();
+    }
+  }
+
+  @Override
+  public void cancel(Throwable e) {
+    try {
+      if (_groupByExecutor != null) {
+        _groupByExecutor.close();
+      }
+    } finally {
+      super.cancel(e);
+    }
+  }
+
   @Override
   protected TransferableBlock getNextBlock() {
     if (_hasConstructedAggregateBlock) {
-      assert _eosBlock != null;
-      return _eosBlock;
+      // Emit the results of the remaining spill partitions one block at a time
+      while (_groupByExecutor != null && _groupByExecutor.hasMoreResults()) {
+        List<Object[]> rows = _groupByExecutor.getResult();
+        if (!rows.isEmpty()) {
+          return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+        }
+      }
+      return getEosBlock();
     }
     TransferableBlock finalBlock = _aggregationExecutor != null ? consumeAggregation() : consumeGroupBy();
     // returning upstream error block if finalBlock contains error.
@@ -141,10 +172,22 @@ public class AggregateOperator extends MultiStageOperator {
       return finalBlock;
     }
     assert finalBlock.isSuccessfulEndOfStreamBlock() : "Final block must be EOS block";
-    _eosBlock = updateEosBlock(finalBlock, _statMap);
+    _upstreamEosBlock = finalBlock;
     return produceAggregatedBlock();
   }
 
+  private TransferableBlock getEosBlock() {
+    if (_eosBlock == null) {
+      assert _upstreamEosBlock != null;
+      // Record the spilled groups after all the spill partitions are drained
+      if (_groupByExecutor != null) {
+        _statMap.merge(StatKey.SPILLED_GROUPS, _groupByExecutor.getNumSpilledGroups());
+      }
+      _eosBlock = updateEosBlock(_upstreamEosBlock, _statMap);
+    }
+    return _eosBlock;
+  }
+
   private TransferableBlock produceAggregatedBlock() {
     _hasConstructedAggregateBlock = true;
     if (_aggregationExecutor != null) {
@@ -152,7 +195,7 @@ public class AggregateOperator extends MultiStageOperator {
     } else {
       List<Object[]> rows = _groupByExecutor.getResult();
       if (rows.isEmpty()) {
-        return _eosBlock;
+        return getNextBlock();
       } else {
         TransferableBlock dataBlock = new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
         if (_groupByExecutor.isNumGroupsLimitReached()) {
@@ -366,7 +409,11 @@ public class AggregateOperator extends MultiStageOperator {
         return true;
       }
     },
-    NUM_GROUPS_LIMIT_REACHED(StatMap.Type.BOOLEAN);
+    NUM_GROUPS_LIMIT_REACHED(StatMap.Type.BOOLEAN),
+    /**
+     * How many groups have been spilled to disk as partial aggregation states when group-by spilling is enabled.
+     */
+    SPILLED_GROUPS(StatMap.Type.LONG);
     //@formatter:on
 
     private final StatMap.Type _type;
@@ -19,6 +19,8 @@
 package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashMap;
@@ -43,6 +45,7 @@ import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperand;
 import org.apache.pinot.query.runtime.operator.operands.TransformOperandFactory;
+import org.apache.pinot.query.runtime.operator.utils.SpillFile;
 import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.spi.utils.BooleanUtils;
@@ -53,7 +56,7 @@ import org.slf4j.LoggerFactory;
 
 /**
  * This basic {@code BroadcastJoinOperator} implement a basic broadcast join algorithm.
- * This algorithm assumes that the broadcast table has to fit in memory since we are not supporting any spilling.
+ * This algorithm assumes that the broadcast table has to fit in memory unless the join overflow mode is SPILL.
  *
  * For left join, inner join, right join and full join,
  * <p>It takes the right table as the broadcast side and materialize a hash table. Then for each of the left table row,
@@ -62,6 +65,11 @@ import org.slf4j.LoggerFactory;
  * <p>For each of the data block received from the left table, it will generate a joint data block.
  * We currently support left join, inner join, right join and full join.
  * The output is in the format of [left_row, right_row]
+ *
+ * <p>When the hash table reaches the row limit under the SPILL overflow mode, the operator switches to a hybrid hash
+ * join: rows of both tables are split into partitions by the join key hash. Partition 0 stays in memory and is joined
+ * while the left table is consumed, the other partitions are spilled to local disk and joined one by one after the
+ * left table is exhausted. Each partition has to fit within the row limit.
  */
 // TODO: Move inequi out of hashjoin. (https://github.com/apache/pinot/issues/9728)
 // TODO: Support memory size based resource limit.
@@ -71,6 +79,7 @@ public class HashJoinOperator extends MultiStageOperator {
   private static final int INITIAL_HEURISTIC_SIZE = 16;
   private static final int DEFAULT_MAX_ROWS_IN_JOIN = 1024 * 1024; // 2^20, around 1MM rows
   private static final JoinOverFlowMode DEFAULT_JOIN_OVERFLOW_MODE = JoinOverFlowMode.THROW;
+  private static final int DEFAULT_NUM_SPILL_PARTITIONS = 16;
 
   private static final Set<JoinRelType> SUPPORTED_JOIN_TYPES =
       Set.of(JoinRelType.INNER, JoinRelType.LEFT, JoinRelType.RIGHT, JoinRelType.FULL, JoinRelType.SEMI,
@@ -85,6 +94,7 @@ public class HashJoinOperator extends MultiStageOperator {
   private final MultiStageOperator _leftInput;
   private final MultiStageOperator _rightInput;
   private final JoinRelType _joinType;
+  private final DataSchema _leftSchema;
   private final DataSchema _resultSchema;
   private final int _leftColumnSize;
   private final int _resultColumnSize;
@@ -113,10 +123,19 @@ public class HashJoinOperator extends MultiStageOperator {
    */
   private final JoinOverFlowMode _joinOverflowMode;
 
+  private final int _numSpillPartitions;
+
   private int _currentRowsInHashTable;
   private MultiStageQueryStats _leftSideStats;
   private MultiStageQueryStats _rightSideStats;
 
+  // Below are used when the hash table overflows in SPILL mode, where partition 0 is kept in memory and the other
+  // partitions are spilled to disk. Index 0 of the spill file arrays is always null.
+  private SpillFile[] _rightSpillFiles;
+  private SpillFile[] _leftSpillFiles;
+  private int _currentSpillPartition;
+  private SpillFile.Reader _spilledLeftReader;
+
   public HashJoinOperator(OpChainExecutionContext context, MultiStageOperator leftInput, DataSchema leftSchema,
       MultiStageOperator rightInput, JoinNode node) {
     super(context);
@@ -125,6 +144,7 @@ public class HashJoinOperator extends MultiStageOperator {
     _joinType = node.getJoinType();
     _leftKeySelector = KeySelectorFactory.getKeySelector(node.getLeftKeys());
     _rightKeySelector = KeySelectorFactory.getKeySelector(node.getRightKeys());
+    _leftSchema = leftSchema;
     _leftColumnSize = leftSchema.size();
     _resultSchema = node.getDataSchema();
     _resultColumnSize = _resultSchema.size();
@@ -149,6 +169,7 @@ public class HashJoinOperator extends MultiStageOperator {
     PlanNode.NodeHint nodeHint = node.getNodeHint();
     _maxRowsInHashTable = getMaxRowInJoin(metadata, nodeHint);
     _joinOverflowMode = getJoinOverflowMode(metadata, nodeHint);
+    _numSpillPartitions = getNumSpillPartitions(nodeHint);
   }
 
   @Override
@@ -196,6 +217,22 @@ public class HashJoinOperator extends MultiStageOperator {
     return joinOverflowMode != null ? joinOverflowMode : DEFAULT_JOIN_OVERFLOW_MODE;
   }
 
+  private int getNumSpillPartitions(@Nullable PlanNode.NodeHint nodeHint) {
+    if (nodeHint != null) {
+      Map<String, String> joinOptions = nodeHint.getHintOptions().get(PinotHintOptions.JOIN_HINT_OPTIONS);
+      if (joinOptions != null) {
+        String numSpillPartitionsStr = joinOptions.get(PinotHintOptions.JoinHintOptions.NUM_SPILL_PARTITIONS);
+        if (numSpillPartitionsStr != null) {
+          int numSpillPartitions = Integer.parseInt(numSpillPartitionsStr);
+          Preconditions.checkState(numSpillPartitions > 1, "Number of spill partitions must be greater than 1, got: %s",
+              numSpillPartitions);
+          return numSpillPartitions;
+        }
+      }
+    }
+    return DEFAULT_NUM_SPILL_PARTITIONS;
+  }
+
   @Override
   public List<MultiStageOperator> getChildOperators() {
     return List.of(_leftInput, _rightInput);
@@ -208,7 +245,7 @@ public class HashJoinOperator extends MultiStageOperator {
 
   @Override
   protected TransferableBlock getNextBlock()
-      throws ProcessingException {
+      throws ProcessingException, IOException {
     if (_isTerminated) {
       assert _leftSideStats != null;
       return TransferableBlockUtils.getEndOfStreamTransferableBlock(_leftSideStats);
@@ -220,19 +257,33 @@ public class HashJoinOperator extends MultiStageOperator {
     if (_upstreamErrorBlock != null) {
       return _upstreamErrorBlock;
     }
+    if (isSpilling() && _leftSideStats != null) {
+      // Left table is exhausted, JOIN the spilled partitions.
+      return buildJoinedDataBlockForSpilledPartitions();
+    }
     TransferableBlock leftBlock = _leftInput.nextBlock();
     // JOIN each left block with the constructed right hash table.
     return buildJoinedDataBlock(leftBlock);
   }
 
   private void buildBroadcastHashTable()
-      throws ProcessingException {
+      throws ProcessingException, IOException {
     long startTime = System.currentTimeMillis();
     TransferableBlock rightBlock = _rightInput.nextBlock();
     while (!TransferableBlockUtils.isEndOfStream(rightBlock)) {
       List<Object[]> container = rightBlock.getContainer();
+      if (!isSpilling() && _joinOverflowMode == JoinOverFlowMode.SPILL
+          && container.size() + _currentRowsInHashTable > _maxRowsInHashTable) {
+        startSpilling(rightBlock.getDataSchema());
+      }
+      if (isSpilling()) {
+        container = spillRightRows(container);
+      }
       // Row based overflow check.
       if (container.size() + _currentRowsInHashTable > _maxRowsInHashTable) {
+        if (isSpilling()) {
+          throw getSpilledPartitionOverflowException(0);
+        }
         if (_joinOverflowMode == JoinOverFlowMode.THROW) {
           ProcessingException resourceLimitExceededException =
               new ProcessingException(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE);
@@ -257,22 +308,17 @@ public class HashJoinOperator extends MultiStageOperator {
           _rightInput.earlyTerminate();
         }
       }
-      // put all the rows into corresponding hash collections keyed by the key selector function.
-      for (Object[] row : container) {
-        ArrayList<Object[]> hashCollection = _broadcastRightTable.computeIfAbsent(_rightKeySelector.getKey(row),
-            k -> new ArrayList<>(INITIAL_HEURISTIC_SIZE));
-        int size = hashCollection.size();
-        if ((size & size - 1) == 0 && size < _maxRowsInHashTable && size < Integer.MAX_VALUE / 2) { // is power of 2
-          hashCollection.ensureCapacity(Math.min(size << 1, _maxRowsInHashTable));
-        }
-        hashCollection.add(row);
-      }
-      _currentRowsInHashTable += container.size();
+      addToHashTable(container);
       rightBlock = _rightInput.nextBlock();
     }
     if (rightBlock.isErrorBlock()) {
       _upstreamErrorBlock = rightBlock;
     } else {
+      if (isSpilling()) {
+        for (int i = 1; i < _numSpillPartitions; i++) {
+          _rightSpillFiles[i].finishWrite();
+        }
+      }
       _isHashTableBuilt = true;
       _rightSideStats = rightBlock.getQueryStats();
       assert _rightSideStats != null;
@@ -280,7 +326,110 @@ public class HashJoinOperator extends MultiStageOperator {
     _statMap.merge(StatKey.TIME_BUILDING_HASH_TABLE_MS, System.currentTimeMillis() - startTime);
   }
 
-  private TransferableBlock buildJoinedDataBlock(TransferableBlock leftBlock) {
+  private void addToHashTable(List<Object[]> rows) {
+    // put all the rows into corresponding hash collections keyed by the key selector function.
+    for (Object[] row : rows) {
+      ArrayList<Object[]> hashCollection = _broadcastRightTable.computeIfAbsent(_rightKeySelector.getKey(row),
+          k -> new ArrayList<>(INITIAL_HEURISTIC_SIZE));
+      int size = hashCollection.size();
+      if ((size & size - 1) == 0 && size < _maxRowsInHashTable && size < Integer.MAX_VALUE / 2) { // is power of 2
+        hashCollection.ensureCapacity(Math.min(size << 1, _maxRowsInHashTable));
+      }
+      hashCollection.add(row);
+    }
+    _currentRowsInHashTable += rows.size();
+  }
+
+  private boolean isSpilling() {
+    return _rightSpillFiles != null;
+  }
+
+  /**
+   * Creates the spill files, and moves the rows of the hash table that do not belong to partition 0 to the disk.
+   */
+  private void startSpilling(DataSchema rightSchema)
+      throws IOException {
+    File spillDir = SpillFile.getSpillDir(_context.getOpChainMetadata());
+    String prefix = "join_" + _context.getId() + "_";
+    _rightSpillFiles = new SpillFile[_numSpillPartitions];
+    _leftSpillFiles = new SpillFile[_numSpillPartitions];
+    for (int i = 1; i < _numSpillPartitions; i++) {
+      _rightSpillFiles[i] = new SpillFile(spillDir, prefix, rightSchema);
+      _leftSpillFiles[i] = new SpillFile(spillDir, prefix, _leftSchema);
+    }
+    List<Object[]> rows = new ArrayList<>(_currentRowsInHashTable);
+    for (ArrayList<Object[]> hashCollection : _broadcastRightTable.values()) {
+      rows.addAll(hashCollection);
+    }
+    _broadcastRightTable.clear();
+    _currentRowsInHashTable = 0;
+    addToHashTable(spillRightRows(rows));
+  }
+
+  /**
+   * Spills the right rows that do not belong to partition 0, and returns the rows of partition 0.
+   */
+  private List<Object[]> spillRightRows(List<Object[]> rows)
+      throws IOException {
+    List<Object[]> inMemoryRows = new ArrayList<>();
+    long numSpilledRows = 0;
+    for (Object[] row : rows) {
+      int partition = getSpillPartition(_rightKeySelector.computeHash(row));
+      if (partition == 0) {
+        inMemoryRows.add(row);
+      } else {
+        _rightSpillFiles[partition].add(row);
+        numSpilledRows++;
+      }
+    }
+    _statMap.merge(StatKey.SPILLED_ROWS, numSpilledRows);
+    return inMemoryRows;
+  }
+
+  /**
+   * Spills the left rows that do not belong to partition 0, and returns the rows of partition 0.
+   */
+  private List<Object[]> spillLeftRows(List<Object[]> rows)
+      throws IOException {
+    List<Object[]> inMemoryRows = new ArrayList<>();
+    long numSpilledRows = 0;
+    for (Object[] row : rows) {
+      int partition = getSpillPartition(_leftKeySelector.computeHash(row));
+      if (partition == 0) {
+        inMemoryRows.add(row);
+      } else {
+        _leftSpillFiles[partition].add(row);
+        numSpilledRows++;
+      }
+    }
+    _statMap.merge(StatKey.SPILLED_ROWS, numSpilledRows);
+    return inMemoryRows;
+  }
+
+  /**
+   * NOTE: Input might already be hash partitioned on the join keys by the exchange (using the same hash code modulo the
+   *       number of workers), so the hash code is scrambled to still spread the rows evenly across the partitions.
+   */
+  private int getSpillPartition(int hash) {
+    return Math.floorMod(Integer.rotateLeft(hash * 0x9E3779B9, 16), _numSpillPartitions);
+  }
+
+  private ProcessingException getSpilledPartitionOverflowException(int partition) {
+    ProcessingException resourceLimitExceededException =
+        new ProcessingException(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE);
+    resourceLimitExceededException.setMessage(
+        "Cannot build in memory hash table for join operator, spill partition: " + partition + " reach number of rows "
+            + "limit: " + _maxRowsInHashTable + ". Consider increasing the number of spill partitions via the '"
+            + PinotHintOptions.JoinHintOptions.NUM_SPILL_PARTITIONS + "' hint in the '"
+            + PinotHintOptions.JOIN_HINT_OPTIONS + "', or increasing the limit for the maximum number of rows in a "
+            + "join either via the query option '" + CommonConstants.Broker.Request.QueryOptionKey.MAX_ROWS_IN_JOIN
+            + "' or the '" + PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN + "' hint in the '"
+            + PinotHintOptions.JOIN_HINT_OPTIONS + "'.");
+    return resourceLimitExceededException;
+  }
+
+  private TransferableBlock buildJoinedDataBlock(TransferableBlock leftBlock)
+      throws ProcessingException, IOException {
     if (leftBlock.isErrorBlock()) {
       _upstreamErrorBlock = leftBlock;
       return _upstreamErrorBlock;
@@ -289,53 +438,126 @@ public class HashJoinOperator extends MultiStageOperator {
       assert _rightSideStats != null;
       _leftSideStats = leftBlock.getQueryStats();
       assert _leftSideStats != null;
+      if (isSpilling()) {
+        for (int i = 1; i < _numSpillPartitions; i++) {
+          _leftSpillFiles[i].finishWrite();
+        }
+        // Partition 0 is fully joined, return its non-matched rows before moving on to the spilled partitions.
+        if (needUnmatchedRightRows()) {
+          List<Object[]> returnRows = buildNonMatchRightRows();
+          if (!returnRows.isEmpty()) {
+            return new TransferableBlock(returnRows, _resultSchema, DataBlock.Type.ROW);
+          }
+        }
+        return buildJoinedDataBlockForSpilledPartitions();
+      }
       _leftSideStats.mergeInOrder(_rightSideStats, getOperatorType(), _statMap);
 
       if (!needUnmatchedRightRows()) {
         return TransferableBlockUtils.getEndOfStreamTransferableBlock(_leftSideStats);
       }
-      // TODO: Moved to a different function.
       // Return remaining non-matched rows for non-inner join.
-      List<Object[]> returnRows = new ArrayList<>();
-      for (Map.Entry<Object, ArrayList<Object[]>> entry : _broadcastRightTable.entrySet()) {
-        List<Object[]> rightRows = entry.getValue();
-        BitSet matchedIndices = _matchedRightRows.get(entry.getKey());
-        if (matchedIndices == null) {
-          for (Object[] rightRow : rightRows) {
-            returnRows.add(joinRow(null, rightRow));
-          }
-        } else {
-          int numRightRows = rightRows.size();
-          int unmatchedIndex = 0;
-          while ((unmatchedIndex = matchedIndices.nextClearBit(unmatchedIndex)) < numRightRows) {
-            returnRows.add(joinRow(null, rightRows.get(unmatchedIndex++)));
-          }
-        }
-      }
+      List<Object[]> returnRows = buildNonMatchRightRows();
       _isTerminated = true;
       return new TransferableBlock(returnRows, _resultSchema, DataBlock.Type.ROW);
     }
-    List<Object[]> rows;
-    switch (_joinType) {
-      case SEMI: {
-        rows = buildJoinedDataBlockSemi(leftBlock);
-        break;
+    List<Object[]> container = leftBlock.getContainer();
+    if (isSpilling()) {
+      container = spillLeftRows(container);
+    }
+    // TODO: Rows can be empty here. Consider fetching another left block instead of returning empty block.
+    return new TransferableBlock(buildJoinedRows(container), _resultSchema, DataBlock.Type.ROW);
+  }
+
+  /**
+   * JOINs the spilled partitions one by one after the left table is exhausted. For each partition, the right rows are
+   * loaded into the hash table, then the left rows are streamed through it.
+   */
+  private TransferableBlock buildJoinedDataBlockForSpilledPartitions()
+      throws ProcessingException, IOException {
+    while (true) {
+      if (_spilledLeftReader == null) {
+        if (_currentSpillPartition > 0) {
+          _leftSpillFiles[_currentSpillPartition].close();
+          _rightSpillFiles[_currentSpillPartition].close();
+        }
+        if (++_currentSpillPartition == _numSpillPartitions) {
+          _leftSideStats.mergeInOrder(_rightSideStats, getOperatorType(), _statMap);
+          _isTerminated = true;
+          return TransferableBlockUtils.getEndOfStreamTransferableBlock(_leftSideStats);
+        }
+        loadSpilledPartition(_currentSpillPartition);
+        _spilledLeftReader = _leftSpillFiles[_currentSpillPartition].read();
       }
-      case ANTI: {
-        rows = buildJoinedDataBlockAnti(leftBlock);
-        break;
+      List<Object[]> leftRows = _spilledLeftReader.nextBlock();
+      if (leftRows != null) {
+        List<Object[]> rows = buildJoinedRows(leftRows);
+        if (!rows.isEmpty()) {
+          return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+        }
+      } else {
+        _spilledLeftReader = null;
+        if (needUnmatchedRightRows()) {
+          List<Object[]> rows = buildNonMatchRightRows();
+          if (!rows.isEmpty()) {
+            return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+          }
+        }
       }
-      default: { // INNER, LEFT, RIGHT, FULL
-        rows = buildJoinedDataBlockDefault(leftBlock);
-        break;
+    }
+  }
+
+  private void loadSpilledPartition(int partition)
+      throws ProcessingException, IOException {
+    long startTime = System.currentTimeMillis();
+    _broadcastRightTable.clear();
+    if (_matchedRightRows != null) {
+      _matchedRightRows.clear();
+    }
+    _currentRowsInHashTable = 0;
+    SpillFile.Reader reader = _rightSpillFiles[partition].read();
+    List<Object[]> rightRows;
+    while ((rightRows = reader.nextBlock()) != null) {
+      if (rightRows.size() + _currentRowsInHashTable > _maxRowsInHashTable) {
+        throw getSpilledPartitionOverflowException(partition);
       }
+      addToHashTable(rightRows);
     }
-    // TODO: Rows can be empty here. Consider fetching another left block instead of returning empty block.
-    return new TransferableBlock(rows, _resultSchema, DataBlock.Type.ROW);
+    _statMap.merge(StatKey.TIME_BUILDING_HASH_TABLE_MS, System.currentTimeMillis() - startTime);
   }
 
-  private List<Object[]> buildJoinedDataBlockSemi(TransferableBlock leftBlock) {
-    List<Object[]> container = leftBlock.getContainer();
+  private List<Object[]> buildJoinedRows(List<Object[]> leftRows) {
+    switch (_joinType) {
+      case SEMI:
+        return buildJoinedDataBlockSemi(leftRows);
+      case ANTI:
+        return buildJoinedDataBlockAnti(leftRows);
+      default: // INNER, LEFT, RIGHT, FULL
+        return buildJoinedDataBlockDefault(leftRows);
+    }
+  }
+
+  private List<Object[]> buildNonMatchRightRows() {
+    List<Object[]> returnRows = new ArrayList<>();
+    for (Map.Entry<Object, ArrayList<Object[]>> entry : _broadcastRightTable.entrySet()) {
+      List<Object[]> rightRows = entry.getValue();
+      BitSet matchedIndices = _matchedRightRows.get(entry.getKey());
+      if (matchedIndices == null) {
+        for (Object[] rightRow : rightRows) {
+          returnRows.add(joinRow(null, rightRow));
+        }
+      } else {
+        int numRightRows = rightRows.size();
+        int unmatchedIndex = 0;
+        while ((unmatchedIndex = matchedIndices.nextClearBit(unmatchedIndex)) < numRightRows) {
+          returnRows.add(joinRow(null, rightRows.get(unmatchedIndex++)));
+        }
+      }
+    }
+    return returnRows;
+  }
+
+  private List<Object[]> buildJoinedDataBlockSemi(List<Object[]> container) {
     List<Object[]> rows = new ArrayList<>(container.size());
 
     for (Object[] leftRow : container) {
@@ -349,8 +571,7 @@ public class HashJoinOperator extends MultiStageOperator {
     return rows;
   }
 
-  private List<Object[]> buildJoinedDataBlockDefault(TransferableBlock leftBlock) {
-    List<Object[]> container = leftBlock.getContainer();
+  private List<Object[]> buildJoinedDataBlockDefault(List<Object[]> container) {
     ArrayList<Object[]> rows = new ArrayList<>(container.size());
 
     for (Object[] leftRow : container) {
@@ -387,8 +608,7 @@ public class HashJoinOperator extends MultiStageOperator {
     return rows;
   }
 
-  private List<Object[]> buildJoinedDataBlockAnti(TransferableBlock leftBlock) {
-    List<Object[]> container = leftBlock.getContainer();
+  private List<Object[]> buildJoinedDataBlockAnti(List<Object[]> container) {
     List<Object[]> rows = new ArrayList<>(container.size());
 
     for (Object[] leftRow : container) {
@@ -419,6 +639,39 @@ public class HashJoinOperator extends MultiStageOperator {
     return resultRow;
   }
 
+  @Override
+  public void close() {
+    try {
+      closeSpillFiles();
+    } finally {
+      super.close();
+    }
+  }
+
+  @Override
+  public void cancel(Throwable e) {
+    try {
+      closeSpillFiles();
+    } finally {
+      super.cancel(e);
+    }
+  }
+
+  private void closeSpillFiles() {
+    if (!isSpilling()) {
+      return;
+    }
+    for (int i = 1; i < _numSpillPartitions; i++) {
+      for (SpillFile spillFile : new SpillFile[]{_leftSpillFiles[i], _rightSpillFiles[i]}) {
+        try {
+          spillFile.close();
+        } catch (Exception e) {
+          LOGGER.warn("Failed to close spill file: {}", spillFile.getFile(), e);
+        }
+      }
+    }
+  }
+
   private boolean needUnmatchedRightRows() {
     return _joinType == JoinRelType.RIGHT || _joinType == JoinRelType.FULL;
   }
@@ -445,7 +698,11 @@ public class HashJoinOperator extends MultiStageOperator {
     /**
      * How long (CPU time) has been spent on building the hash table.
      */
-    TIME_BUILDING_HASH_TABLE_MS(StatMap.Type.LONG);
+    TIME_BUILDING_HASH_TABLE_MS(StatMap.Type.LONG),
+    /**
+     * How many rows of both tables have been spilled to disk when the join overflows in SPILL mode.
+     */
+    SPILLED_ROWS(StatMap.Type.LONG);
     //@formatter:on
 
     private final StatMap.Type _type;
@@ -54,6 +54,7 @@ import org.apache.pinot.core.query.request.ServerQueryRequest;
 import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.executor.OpChainYieldException;
 import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
 import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
@@ -94,6 +95,7 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
   private Future<Void> _executionFuture;
   private volatile Map<Integer, String> _exceptions;
   private final StatMap<StatKey> _statMap = new StatMap<>(StatKey.class);
+  private final DataBlock.Type _blockType;
 
   public LeafStageTransferableBlockOperator(OpChainExecutionContext context, List<ServerQueryRequest> requests,
       DataSchema dataSchema, QueryExecutor queryExecutor, ExecutorService executorService) {
@@ -107,6 +109,8 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
     Integer maxStreamingPendingBlocks = QueryOptionsUtils.getMaxStreamingPendingBlocks(context.getOpChainMetadata());
     _blockingQueue = new ArrayBlockingQueue<>(maxStreamingPendingBlocks != null ? maxStreamingPendingBlocks
         : QueryOptionValue.DEFAULT_MAX_STREAMING_PENDING_BLOCKS);
+    _blockType = QueryOptionsUtils.isUseColumnarDataBlock(context.getOpChainMetadata()) ? DataBlock.Type.COLUMNAR
+        : DataBlock.Type.ROW;
     String tableName = context.getLeafStageContext().getStagePlan().getStageMetadata().getTableName();
     _statMap.merge(StatKey.TABLE, tableName);
   }
@@ -143,8 +147,17 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
     if (_executionFuture == null) {
       _executionFuture = startExecution();
     }
-    BaseResultsBlock resultsBlock =
-        _blockingQueue.poll(_context.getDeadlineMs() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    BaseResultsBlock resultsBlock;
+    if (_context.getOnDataAvailable() == null) {
+      resultsBlock =
+          _blockingQueue.poll(_context.getDeadlineMs() - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    } else {
+      // Cooperatively scheduled, yield when the results block is not ready yet
+      resultsBlock = _blockingQueue.poll();
+      if (resultsBlock == null && System.currentTimeMillis() <= _context.getDeadlineMs()) {
+        throw OpChainYieldException.INSTANCE;
+      }
+    }
     if (resultsBlock == null) {
       throw new TimeoutException("Timed out waiting for results block");
     }
@@ -157,7 +170,7 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
       return constructMetadataBlock();
     } else {
       // Regular data block
-      return composeTransferableBlock(resultsBlock, _dataSchema);
+      return composeTransferableBlock(resultsBlock, _dataSchema, _blockType);
     }
   }
 
@@ -368,6 +381,10 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
         TimeUnit.MILLISECONDS)) {
       throw new TimeoutException("Timed out waiting to add results block");
     }
+    Runnable onDataAvailable = _context.getOnDataAvailable();
+    if (onDataAvailable != null) {
+      onDataAvailable.run();
+    }
   }
 
   // TODO: Revisit the stats aggregation logic
@@ -395,9 +412,13 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
   /**
    * Composes the {@link TransferableBlock} from the {@link BaseResultsBlock} returned from single-stage engine. It
    * converts the data types of the results to conform with the desired data schema asked by the multi-stage engine.
+   * The block type (ROW or COLUMNAR) decides whether the block is composed from rows or column vectors.
    */
   private static TransferableBlock composeTransferableBlock(BaseResultsBlock resultsBlock,
-      DataSchema desiredDataSchema) {
+      DataSchema desiredDataSchema, DataBlock.Type blockType) {
+    if (blockType == DataBlock.Type.COLUMNAR) {
+      return composeColumnarTransferableBlock(resultsBlock, desiredDataSchema);
+    }
     if (resultsBlock instanceof SelectionResultsBlock) {
       return composeSelectTransferableBlock((SelectionResultsBlock) resultsBlock, desiredDataSchema);
     } else {
@@ -405,6 +426,48 @@ public class LeafStageTransferableBlockOperator extends MultiStageOperator {
     }
   }
 
+  /**
+   * Composes a COLUMNAR {@link TransferableBlock} by gathering the column vectors from the result rows in a single
+   * pass, where the columns are re-arranged (for selection) and converted along the way. No intermediate rows are
+   * created, and the column vectors are directly used when the block is partitioned or serialized.
+   */
+  private static TransferableBlock composeColumnarTransferableBlock(BaseResultsBlock block,
+      DataSchema outputDataSchema) {
+    List<Object[]> resultRows = block.getRows();
+    DataSchema inputDataSchema = block.getDataSchema();
+    assert resultRows != null && inputDataSchema != null;
+    ColumnDataType[] inputStoredTypes = inputDataSchema.getStoredColumnDataTypes();
+    ColumnDataType[] outputStoredTypes = outputDataSchema.getStoredColumnDataTypes();
+    int numColumns = outputStoredTypes.length;
+    int[] columnIndices;
+    if (block instanceof SelectionResultsBlock) {
+      columnIndices = getColumnIndices((SelectionResultsBlock) block);
+    } else {
+      columnIndices = new int[numColumns];
+      for (int colId = 0; colId < numColumns; colId++) {
+        columnIndices[colId] = colId;
+      }
+    }
+    boolean[] needConvert = new boolean[numColumns];
+    for (int colId = 0; colId < numColumns; colId++) {
+      needConvert[colId] = inputStoredTypes[columnIndices[colId]] != outputStoredTypes[colId];
+    }
+    int numRows = resultRows.size();
+    Object[][] columns = new Object[numColumns][numRows];
+    int rowId = 0;
+    for (Object[] row : resultRows) {
+      for (int colId = 0; colId < numColumns; colId++) {
+        Object value = row[columnIndices[colId]];
+        if (value != null && needConvert[colId]) {
+          value = TypeUtils.convert(value, outputStoredTypes[colId]);
+        }
+        columns[colId][rowId] = value;
+      }
+      rowId++;
+    }
+    return new TransferableBlock(Arrays.asList(columns), numRows, outputDataSchema);
+  }
+
   /**
    * For selection, we need to check if the columns are in order. If not, we need to re-arrange the columns.
    */
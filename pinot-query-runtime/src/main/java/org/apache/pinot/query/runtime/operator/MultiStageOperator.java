@@ -31,6 +31,7 @@ import org.apache.pinot.common.response.broker.BrokerResponseNativeV2;
 import org.apache.pinot.core.common.Operator;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.executor.OpChainYieldException;
 import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.query.runtime.plan.pipeline.PipelineBreakerOperator;
@@ -79,6 +80,10 @@ public abstract class MultiStageOperator
       Stopwatch executeStopwatch = Stopwatch.createStarted();
       try {
         nextBlock = getNextBlock();
+      } catch (OpChainYieldException e) {
+        // No input available for the cooperatively scheduled OpChain, the scheduler will call this operator again
+        registerExecution(executeStopwatch.elapsed(TimeUnit.MILLISECONDS), 0);
+        throw e;
       } catch (Exception e) {
         nextBlock = TransferableBlockUtils.getErrorTransferableBlock(e);
       }
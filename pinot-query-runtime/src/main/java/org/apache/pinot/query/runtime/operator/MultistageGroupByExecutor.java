@@ -18,6 +18,9 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import com.google.common.base.Preconditions;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -41,16 +44,28 @@ import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.operator.groupby.GroupIdGenerator;
 import org.apache.pinot.query.runtime.operator.groupby.GroupIdGeneratorFactory;
+import org.apache.pinot.query.runtime.operator.utils.SpillFile;
 import org.apache.pinot.query.runtime.operator.utils.TypeUtils;
 import org.roaringbitmap.PeekableIntIterator;
 import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 /**
  * Class that executes the group by aggregations for the multistage AggregateOperator.
+ *
+ * <p>When spilling is enabled, instead of dropping the new groups once the num groups limit is reached, the partial
+ * aggregation states of the groups in memory are written to local disk by hash partition of the group key, and the
+ * in-memory groups are reset. When fetching the result, the spilled partial states are merged partition by partition
+ * together with the partial states of the groups still in memory (which are not spilled), so only the groups of one
+ * partition are merged at a time.
  */
 @SuppressWarnings({"rawtypes", "unchecked"})
 public class MultistageGroupByExecutor {
+  private static final Logger LOGGER = LoggerFactory.getLogger(MultistageGroupByExecutor.class);
+  private static final int DEFAULT_NUM_SPILL_PARTITIONS = 16;
+
   private final int[] _groupKeyIds;
   private final AggregationFunction[] _aggFunctions;
   private final int[] _filterArgIds;
@@ -58,14 +73,25 @@ public class MultistageGroupByExecutor {
   private final AggType _aggType;
   private final DataSchema _resultSchema;
   private final int _numGroupsLimit;
+  private final int _maxInitialResultHolderCapacity;
+  private final Map<String, String> _opChainMetadata;
+  private final boolean _spillEnabled;
+  private final int _numSpillPartitions;
 
   // Group By Result holders for each mode
-  private final GroupByResultHolder[] _aggregateResultHolders;
-  private final List<Object[]> _mergeResultHolder;
+  private GroupByResultHolder[] _aggregateResultHolders;
+  private List<Object[]> _mergeResultHolder;
 
   // Mapping from the row-key to a zero based integer index. This is used when we invoke the v1 aggregation functions
   // because they use the zero based integer indexes to store results.
-  private final GroupIdGenerator _groupIdGenerator;
+  private GroupIdGenerator _groupIdGenerator;
+
+  // Partial aggregation states spilled to disk, one file per hash partition of the group key
+  private SpillFile[] _spillFiles;
+  // Partial aggregation states of the groups in memory when fetching the result, one list per hash partition
+  private List<Object[]>[] _inMemoryPartitions;
+  private long _numSpilledGroups;
+  private int _nextSpillPartition;
 
   public MultistageGroupByExecutor(int[] groupKeyIds, AggregationFunction[] aggFunctions, int[] filterArgIds,
       int maxFilterArgId, AggType aggType, DataSchema resultSchema, Map<String, String> opChainMetadata,
@@ -76,25 +102,65 @@ public class MultistageGroupByExecutor {
     _maxFilterArgId = maxFilterArgId;
     _aggType = aggType;
     _resultSchema = resultSchema;
-    int maxInitialResultHolderCapacity = getMaxInitialResultHolderCapacity(opChainMetadata, nodeHint);
+    _maxInitialResultHolderCapacity = getMaxInitialResultHolderCapacity(opChainMetadata, nodeHint);
     _numGroupsLimit = getNumGroupsLimit(opChainMetadata, nodeHint);
+    _opChainMetadata = opChainMetadata;
+    _spillEnabled = isSpillEnabled(opChainMetadata, nodeHint);
+    _numSpillPartitions = getNumSpillPartitions(nodeHint);
+    resetGroups();
+  }
 
-    int numFunctions = aggFunctions.length;
-    if (!aggType.isInputIntermediateFormat()) {
+  /**
+   * Creates empty group id generator and result holders.
+   */
+  private void resetGroups() {
+    // When spilling is enabled, the groups are spilled before reaching the limit, so the number of groups in memory
+    // (limit + rows of one block) is not capped
+    int maxNumGroups = _spillEnabled ? Integer.MAX_VALUE : _numGroupsLimit;
+    int numFunctions = _aggFunctions.length;
+    if (!_aggType.isInputIntermediateFormat()) {
       _aggregateResultHolders = new GroupByResultHolder[numFunctions];
       for (int i = 0; i < numFunctions; i++) {
         _aggregateResultHolders[i] =
-            _aggFunctions[i].createGroupByResultHolder(maxInitialResultHolderCapacity, _numGroupsLimit);
+            _aggFunctions[i].createGroupByResultHolder(_maxInitialResultHolderCapacity, maxNumGroups);
       }
       _mergeResultHolder = null;
     } else {
-      _mergeResultHolder = new ArrayList<>(maxInitialResultHolderCapacity);
+      _mergeResultHolder = new ArrayList<>(_maxInitialResultHolderCapacity);
       _aggregateResultHolders = null;
     }
-
     _groupIdGenerator =
-        GroupIdGeneratorFactory.getGroupIdGenerator(_resultSchema.getStoredColumnDataTypes(), groupKeyIds.length,
-            _numGroupsLimit);
+        GroupIdGeneratorFactory.getGroupIdGenerator(_resultSchema.getStoredColumnDataTypes(), _groupKeyIds.length,
+            maxNumGroups);
+  }
+
+  private static boolean isSpillEnabled(Map<String, String> opChainMetadata, @Nullable PlanNode.NodeHint nodeHint) {
+    if (nodeHint != null) {
+      Map<String, String> aggregateOptions = nodeHint.getHintOptions().get(PinotHintOptions.AGGREGATE_HINT_OPTIONS);
+      if (aggregateOptions != null) {
+        String enableGroupBySpillStr = aggregateOptions.get(PinotHintOptions.AggregateOptions.ENABLE_GROUP_BY_SPILL);
+        if (enableGroupBySpillStr != null) {
+          return Boolean.parseBoolean(enableGroupBySpillStr);
+        }
+      }
+    }
+    return QueryOptionsUtils.isEnableGroupBySpill(opChainMetadata);
+  }
+
+  private static int getNumSpillPartitions(@Nullable PlanNode.NodeHint nodeHint) {
+    if (nodeHint != null) {
+      Map<String, String> aggregateOptions = nodeHint.getHintOptions().get(PinotHintOptions.AGGREGATE_HINT_OPTIONS);
+      if (aggregateOptions != null) {
+        String numSpillPartitionsStr = aggregateOptions.get(PinotHintOptions.AggregateOptions.NUM_SPILL_PARTITIONS);
+        if (numSpillPartitionsStr != null) {
+          int numSpillPartitions = Integer.parseInt(numSpillPartitionsStr);
+          Preconditions.checkState(numSpillPartitions > 0, "Number of spill partitions must be positive, got: %s",
+              numSpillPartitions);
+          return numSpillPartitions;
+        }
+      }
+    }
+    return DEFAULT_NUM_SPILL_PARTITIONS;
   }
 
   private int getNumGroupsLimit(Map<String, String> opChainMetadata, @Nullable PlanNode.NodeHint nodeHint) {
@@ -136,6 +202,12 @@ public class MultistageGroupByExecutor {
    * Performs group-by aggregation for the data in the block.
    */
   public void processBlock(TransferableBlock block) {
+    if (_spillEnabled) {
+      int numGroups = _groupIdGenerator.getNumGroups();
+      if (numGroups > 0 && numGroups + block.getNumRows() > _numGroupsLimit) {
+        spillGroups();
+      }
+    }
     if (!_aggType.isInputIntermediateFormat()) {
       processAggregate(block);
     } else {
@@ -145,8 +217,13 @@ public class MultistageGroupByExecutor {
 
   /**
    * Fetches the result.
+   * <p>When groups are spilled, each call returns the result of the next spill partition (which can be empty) until
+   * {@link #hasMoreResults()} returns {@code false}.
    */
   public List<Object[]> getResult() {
+    if (_spillFiles != null) {
+      return getSpilledPartitionResult();
+    }
     int numGroups = _groupIdGenerator.getNumGroups();
     if (numGroups == 0) {
       return Collections.emptyList();
@@ -190,7 +267,238 @@ public class MultistageGroupByExecutor {
   }
 
   public boolean isNumGroupsLimitReached() {
-    return _groupIdGenerator.getNumGroups() == _numGroupsLimit;
+    return !_spillEnabled && _groupIdGenerator.getNumGroups() == _numGroupsLimit;
+  }
+
+  /**
+   * Returns whether there are more results to fetch, i.e. some spill partitions are not merged yet.
+   */
+  public boolean hasMoreResults() {
+    return _spillFiles != null && _nextSpillPartition < _numSpillPartitions;
+  }
+
+  public long getNumSpilledGroups() {
+    return _numSpilledGroups;
+  }
+
+  /**
+   * Writes the partial aggregation states of the groups in memory to the spill files, then resets the groups.
+   */
+  private void spillGroups() {
+    File spillDir = SpillFile.getSpillDir(_opChainMetadata);
+    int numKeys = _groupKeyIds.length;
+    try {
+      if (_spillFiles == null) {
+        DataSchema spillSchema = getSpillSchema();
+        _spillFiles = new SpillFile[_numSpillPartitions];
+        for (int i = 0; i < _numSpillPartitions; i++) {
+          _spillFiles[i] = new SpillFile(spillDir, "groupby_", spillSchema);
+        }
+      }
+      Iterator<Object[]> iterator = getIntermediateRowIterator();
+      while (iterator.hasNext()) {
+        Object[] row = iterator.next();
+        _spillFiles[getSpillPartition(row, numKeys)].add(row);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while spilling groups to: " + spillDir, e);
+    }
+    _numSpilledGroups += _groupIdGenerator.getNumGroups();
+    resetGroups();
+  }
+
+  /**
+   * Returns an iterator over the groups in memory, where each row contains the group keys followed by the intermediate
+   * results of the functions.
+   */
+  private Iterator<Object[]> getIntermediateRowIterator() {
+    int numKeys = _groupKeyIds.length;
+    int numFunctions = _aggFunctions.length;
+    Iterator<GroupIdGenerator.GroupKey> groupKeyIterator =
+        _groupIdGenerator.getGroupKeyIterator(numKeys + numFunctions);
+    return new Iterator<Object[]>() {
+      @Override
+      public boolean hasNext() {
+        return groupKeyIterator.hasNext();
+      }
+
+      @Override
+      public Object[] next() {
+        GroupIdGenerator.GroupKey groupKey = groupKeyIterator.next();
+        Object[] row = groupKey._row;
+        for (int i = 0; i < numFunctions; i++) {
+          row[numKeys + i] = getIntermediateResult(i, groupKey._groupId);
+        }
+        return row;
+      }
+    };
+  }
+
+  /**
+   * Returns the schema of the spilled rows: group keys followed by the intermediate results of the functions.
+   */
+  private DataSchema getSpillSchema() {
+    int numKeys = _groupKeyIds.length;
+    int numFunctions = _aggFunctions.length;
+    String[] columnNames = new String[numKeys + numFunctions];
+    ColumnDataType[] columnDataTypes = new ColumnDataType[numKeys + numFunctions];
+    for (int i = 0; i < numKeys; i++) {
+      columnNames[i] = _resultSchema.getColumnName(i);
+      columnDataTypes[i] = _resultSchema.getColumnDataType(i);
+    }
+    for (int i = 0; i < numFunctions; i++) {
+      columnNames[numKeys + i] = _resultSchema.getColumnName(numKeys + i);
+      columnDataTypes[numKeys + i] = _aggFunctions[i].getIntermediateResultColumnType();
+    }
+    return new DataSchema(columnNames, columnDataTypes);
+  }
+
+  private int getSpillPartition(Object[] row, int numKeys) {
+    int hashCode = 0;
+    for (int i = 0; i < numKeys; i++) {
+      Object key = row[i];
+      hashCode = 31 * hashCode + (key != null ? key.hashCode() : 0);
+    }
+    return (hashCode & Integer.MAX_VALUE) % _numSpillPartitions;
+  }
+
+  private Object getIntermediateResult(int functionId, int groupId) {
+    if (!_aggType.isInputIntermediateFormat()) {
+      return _aggFunctions[functionId].extractGroupByResult(_aggregateResultHolders[functionId], groupId);
+    } else {
+      return _mergeResultHolder.get(groupId)[functionId];
+    }
+  }
+
+  /**
+   * Merges the partial aggregation states of the next spill partition, and returns the result rows for it.
+   */
+  private List<Object[]> getSpilledPartitionResult() {
+    if (_nextSpillPartition == 0) {
+      // Partition the remaining groups in memory instead of spilling them, and merge them with the spilled groups of
+      // the same partition
+      int numKeys = _groupKeyIds.length;
+      _inMemoryPartitions = new List[_numSpillPartitions];
+      for (int i = 0; i < _numSpillPartitions; i++) {
+        _inMemoryPartitions[i] = new ArrayList<>();
+      }
+      Iterator<Object[]> iterator = getIntermediateRowIterator();
+      while (iterator.hasNext()) {
+        Object[] row = iterator.next();
+        _inMemoryPartitions[getSpillPartition(row, numKeys)].add(row);
+      }
+      resetGroups();
+      try {
+        for (SpillFile spillFile : _spillFiles) {
+          spillFile.finishWrite();
+        }
+      } catch (IOException e) {
+        throw new RuntimeException("Caught exception while finishing spill files", e);
+      }
+    }
+    if (_nextSpillPartition >= _numSpillPartitions) {
+      return Collections.emptyList();
+    }
+    int partitionId = _nextSpillPartition++;
+    SpillFile spillFile = _spillFiles[partitionId];
+    int numKeys = _groupKeyIds.length;
+    int numFunctions = _aggFunctions.length;
+    GroupIdGenerator groupIdGenerator =
+        GroupIdGeneratorFactory.getGroupIdGenerator(_resultSchema.getStoredColumnDataTypes(), numKeys,
+            Integer.MAX_VALUE);
+    List<Object[]> mergedResultHolder = new ArrayList<>();
+    try {
+      SpillFile.Reader reader = spillFile.read();
+      List<Object[]> spilledRows;
+      while ((spilledRows = reader.nextBlock()) != null) {
+        mergeIntermediateRows(spilledRows, groupIdGenerator, mergedResultHolder);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while reading spill file: " + spillFile.getFile(), e);
+    } finally {
+      closeSpillFile(spillFile);
+      _spillFiles[partitionId] = null;
+    }
+    mergeIntermediateRows(_inMemoryPartitions[partitionId], groupIdGenerator, mergedResultHolder);
+    _inMemoryPartitions[partitionId] = null;
+
+    int numGroups = groupIdGenerator.getNumGroups();
+    if (numGroups == 0) {
+      return Collections.emptyList();
+    }
+    List<Object[]> rows = new ArrayList<>(numGroups);
+    ColumnDataType[] resultStoredTypes = _resultSchema.getStoredColumnDataTypes();
+    boolean extractFinalResult = !_aggType.isOutputIntermediateFormat();
+    Iterator<GroupIdGenerator.GroupKey> groupKeyIterator = groupIdGenerator.getGroupKeyIterator(numKeys + numFunctions);
+    while (groupKeyIterator.hasNext()) {
+      GroupIdGenerator.GroupKey groupKey = groupKeyIterator.next();
+      Object[] row = groupKey._row;
+      Object[] mergedResults = mergedResultHolder.get(groupKey._groupId);
+      for (int i = 0; i < numFunctions; i++) {
+        row[numKeys + i] = extractFinalResult ? _aggFunctions[i].extractFinalResult(mergedResults[i])
+            : mergedResults[i];
+      }
+      TypeUtils.convertRow(row, resultStoredTypes);
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  /**
+   * Merges the rows of group keys followed by the intermediate results into the merged result holder.
+   */
+  private void mergeIntermediateRows(List<Object[]> rows, GroupIdGenerator groupIdGenerator,
+      List<Object[]> mergedResultHolder) {
+    int numKeys = _groupKeyIds.length;
+    int numFunctions = _aggFunctions.length;
+    Object[] key = numKeys > 1 ? new Object[numKeys] : null;
+    for (Object[] row : rows) {
+      int groupId;
+      if (numKeys == 1) {
+        groupId = groupIdGenerator.getGroupId(row[0]);
+      } else {
+        System.arraycopy(row, 0, key, 0, numKeys);
+        groupId = groupIdGenerator.getGroupId(key);
+      }
+      if (mergedResultHolder.size() == groupId) {
+        mergedResultHolder.add(new Object[numFunctions]);
+      }
+      Object[] mergedResults = mergedResultHolder.get(groupId);
+      for (int i = 0; i < numFunctions; i++) {
+        Object intermediateResult = row[numKeys + i];
+        if (intermediateResult == null) {
+          continue;
+        }
+        if (mergedResults[i] == null) {
+          mergedResults[i] = intermediateResult;
+        } else {
+          mergedResults[i] = _aggFunctions[i].merge(mergedResults[i], intermediateResult);
+        }
+      }
+    }
+  }
+
+  /**
+   * Deletes the spill files that are not merged yet.
+   */
+  public void close() {
+    if (_spillFiles == null) {
+      return;
+    }
+    for (int i = 0; i < _spillFiles.length; i++) {
+      if (_spillFiles[i] != null) {
+        closeSpillFile(_spillFiles[i]);
+        _spillFiles[i] = null;
+      }
+    }
+  }
+
+  private static void closeSpillFile(SpillFile spillFile) {
+    try {
+      spillFile.close();
+    } catch (Exception e) {
+      LOGGER.warn("Failed to close spill file: {}", spillFile.getFile(), e);
+    }
   }
 
   private void processAggregate(TransferableBlock block) {
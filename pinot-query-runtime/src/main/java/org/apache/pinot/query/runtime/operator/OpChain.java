@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
 public class OpChain implements AutoCloseable {
   private static final Logger LOGGER = LoggerFactory.getLogger(OpChain.class);
 
+  private final OpChainExecutionContext _context;
   private final OpChainId _id;
   private final MultiStageOperator _root;
   private final Consumer<OpChainId> _finishCallback;
@@ -43,6 +44,7 @@ public class OpChain implements AutoCloseable {
   }
 
   public OpChain(OpChainExecutionContext context, MultiStageOperator root, Consumer<OpChainId> finishCallback) {
+    _context = context;
     _id = context.getId();
     _root = root;
     _finishCallback = finishCallback;
@@ -52,6 +54,10 @@ public class OpChain implements AutoCloseable {
     return _id;
   }
 
+  public OpChainExecutionContext getContext() {
+    return _context;
+  }
+
   public Operator<TransferableBlock> getRoot() {
     return _root;
   }
@@ -20,24 +20,39 @@ package org.apache.pinot.query.runtime.operator;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.PriorityQueue;
+import javax.annotation.Nullable;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.common.utils.config.QueryOptionsUtils;
 import org.apache.pinot.core.query.selection.SelectionOperatorUtils;
 import org.apache.pinot.query.planner.plannode.SortNode;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.operator.utils.SortUtils;
+import org.apache.pinot.query.runtime.operator.utils.SpillFile;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.apache.pinot.spi.utils.CommonConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
+/**
+ * Operator for ORDER BY and LIMIT. Rows are sorted with a heap bounded by the number of rows to keep.
+ *
+ * <p>When the number of rows to keep is larger than the configured maximum number of rows in sort (query option
+ * {@code maxRowsInSort}), the operator performs an external merge sort: each time the heap reaches the maximum
+ * number of rows, its rows are written as a sorted run to a {@link SpillFile}, and the runs are k-way merged once the
+ * input is exhausted.
+ */
 public class SortOperator extends MultiStageOperator {
   private static final String EXPLAIN_NAME = "SORT";
   private static final Logger LOGGER = LoggerFactory.getLogger(SortOperator.class);
@@ -46,13 +61,20 @@ public class SortOperator extends MultiStageOperator {
   private final DataSchema _dataSchema;
   private final int _offset;
   private final int _numRowsToKeep;
+  private final List<RelFieldCollation> _collations;
   private final PriorityQueue<Object[]> _priorityQueue;
   private final ArrayList<Object[]> _rows;
+  private final int _maxRowsInMemory;
   private final StatMap<StatKey> _statMap = new StatMap<>(StatKey.class);
 
   private boolean _hasConstructedSortedBlock;
   private TransferableBlock _eosBlock;
 
+  // Sorted runs spilled to disk, only set when the number of rows to sort exceeds the maximum number of rows in memory
+  private List<SpillFile> _sortedRuns;
+  private SortedRunsMerger _sortedRunsMerger;
+  private TransferableBlock _upstreamEosBlock;
+
   public SortOperator(OpChainExecutionContext context, MultiStageOperator input, SortNode node) {
     this(context, input, node, SelectionOperatorUtils.MAX_ROW_HOLDER_INITIAL_CAPACITY,
         CommonConstants.Broker.DEFAULT_BROKER_QUERY_RESPONSE_LIMIT);
@@ -73,6 +95,7 @@ public class SortOperator extends MultiStageOperator {
     // - There is no collation
     // - Input is already sorted
     List<RelFieldCollation> collations = node.getCollations();
+    _collations = collations;
     if (collations.isEmpty() || input instanceof SortedMailboxReceiveOperator) {
       _priorityQueue = null;
       _rows = new ArrayList<>(Math.min(defaultHolderCapacity, _numRowsToKeep));
@@ -83,6 +106,8 @@ public class SortOperator extends MultiStageOperator {
           new SortUtils.SortComparator(_dataSchema, collations, true));
       _rows = null;
     }
+    Integer maxRowsInSort = QueryOptionsUtils.getMaxRowsInSort(context.getOpChainMetadata());
+    _maxRowsInMemory = maxRowsInSort != null ? maxRowsInSort : Integer.MAX_VALUE;
   }
 
   @Override
@@ -106,8 +131,18 @@ public class SortOperator extends MultiStageOperator {
     return List.of(_input);
   }
 
+  @Override
+  public void close() {
+    try {
+      closeSortedRuns();
+    } finally {
+      super.close();
+    }
+  }
+
   @Override
   public void cancel(Throwable e) {
+    closeSortedRuns();
   }
 
   @Override
@@ -117,6 +152,9 @@ public class SortOperator extends MultiStageOperator {
 
   @Override
   protected TransferableBlock getNextBlock() {
+    if (_sortedRunsMerger != null) {
+      return produceMergedBlock();
+    }
     if (_hasConstructedSortedBlock) {
       assert _eosBlock != null;
       return _eosBlock;
@@ -127,6 +165,11 @@ public class SortOperator extends MultiStageOperator {
       return finalBlock;
     }
     _statMap.merge(StatKey.REQUIRE_SORT, _priorityQueue != null);
+    if (_sortedRuns != null) {
+      _upstreamEosBlock = finalBlock;
+      startMergingSortedRuns();
+      return produceMergedBlock();
+    }
     _eosBlock = updateEosBlock(finalBlock, _statMap);
     return produceSortedBlock();
   }
@@ -154,6 +197,85 @@ public class SortOperator extends MultiStageOperator {
     }
   }
 
+  /**
+   * Drains the priority queue into a sorted list. The priority queue uses the reversed order, so the rows are polled
+   * from the last to the first.
+   */
+  private List<Object[]> drainPriorityQueue() {
+    Object[][] rowsArr = new Object[_priorityQueue.size()][];
+    for (int i = rowsArr.length - 1; i >= 0; i--) {
+      rowsArr[i] = _priorityQueue.poll();
+    }
+    return Arrays.asList(rowsArr);
+  }
+
+  /**
+   * Writes the rows in the priority queue as a sorted run to the disk.
+   */
+  private void spillSortedRun() {
+    if (_sortedRuns == null) {
+      _sortedRuns = new ArrayList<>();
+    }
+    File spillDir = SpillFile.getSpillDir(_context.getOpChainMetadata());
+    int numRows = _priorityQueue.size();
+    try {
+      SpillFile sortedRun = new SpillFile(spillDir, "sort_" + _context.getId() + "_", _dataSchema);
+      _sortedRuns.add(sortedRun);
+      sortedRun.addAll(drainPriorityQueue());
+      sortedRun.finishWrite();
+    } catch (IOException e) {
+      throw new RuntimeException("Caught exception while spilling sorted run to: " + spillDir, e);
+    }
+    _statMap.merge(StatKey.SPILLED_ROWS, numRows);
+  }
+
+  private void startMergingSortedRuns() {
+    List<Iterator<Object[]>> runIterators = new ArrayList<>(_sortedRuns.size() + 1);
+    for (SpillFile sortedRun : _sortedRuns) {
+      runIterators.add(new SpillFileIterator(sortedRun.read()));
+    }
+    // Remaining rows in the priority queue form the last run, which is kept in memory
+    runIterators.add(drainPriorityQueue().iterator());
+    _sortedRunsMerger =
+        new SortedRunsMerger(runIterators, new SortUtils.SortComparator(_dataSchema, _collations, false));
+    // Skip the rows before the offset
+    for (int i = 0; i < _offset && _sortedRunsMerger.hasNext(); i++) {
+      _sortedRunsMerger.next();
+    }
+    _hasConstructedSortedBlock = true;
+  }
+
+  private TransferableBlock produceMergedBlock() {
+    // NOTE: Number of merged rows includes the rows skipped for the offset
+    int numRowsToEmit =
+        Math.min(_numRowsToKeep - _sortedRunsMerger.getNumRowsMerged(), SpillFile.DEFAULT_NUM_ROWS_PER_BLOCK);
+    List<Object[]> rows = new ArrayList<>(Math.max(numRowsToEmit, 0));
+    while (rows.size() < numRowsToEmit && _sortedRunsMerger.hasNext()) {
+      rows.add(_sortedRunsMerger.next());
+    }
+    if (rows.isEmpty()) {
+      _sortedRunsMerger = null;
+      closeSortedRuns();
+      _eosBlock = updateEosBlock(_upstreamEosBlock, _statMap);
+      return _eosBlock;
+    }
+    return new TransferableBlock(rows, _dataSchema, DataBlock.Type.ROW);
+  }
+
+  private void closeSortedRuns() {
+    if (_sortedRuns == null) {
+      return;
+    }
+    for (SpillFile sortedRun : _sortedRuns) {
+      try {
+        sortedRun.close();
+      } catch (Exception e) {
+        LOGGER.warn("Failed to close spill file: {}", sortedRun.getFile(), e);
+      }
+    }
+    _sortedRuns = null;
+  }
+
   private TransferableBlock consumeInputBlocks() {
     TransferableBlock block = _input.nextBlock();
     while (block.isDataBlock()) {
@@ -180,6 +302,9 @@ public class SortOperator extends MultiStageOperator {
       } else {
         for (Object[] row : container) {
           SelectionOperatorUtils.addToPriorityQueue(row, _priorityQueue, _numRowsToKeep);
+          if (_priorityQueue.size() >= _maxRowsInMemory && _numRowsToKeep > _maxRowsInMemory) {
+            spillSortedRun();
+          }
         }
       }
       block = _input.nextBlock();
@@ -200,7 +325,11 @@ public class SortOperator extends MultiStageOperator {
       public boolean includeDefaultInJson() {
         return true;
       }
-    };
+    },
+    /**
+     * How many rows have been spilled to disk as sorted runs when the rows to sort exceed the maximum rows in memory.
+     */
+    SPILLED_ROWS(StatMap.Type.LONG);
     //@formatter:on
 
     private final StatMap.Type _type;
@@ -214,4 +343,87 @@ public class SortOperator extends MultiStageOperator {
       return _type;
     }
   }
+
+  /**
+   * Iterates over the rows of a sorted run spilled to disk, reading one block at a time.
+   */
+  private static class SpillFileIterator implements Iterator<Object[]> {
+    private final SpillFile.Reader _reader;
+    private Iterator<Object[]> _blockIterator;
+
+    SpillFileIterator(SpillFile.Reader reader) {
+      _reader = reader;
+      _blockIterator = nextBlockIterator();
+    }
+
+    @Nullable
+    private Iterator<Object[]> nextBlockIterator() {
+      try {
+        List<Object[]> rows = _reader.nextBlock();
+        return rows != null ? rows.iterator() : null;
+      } catch (IOException e) {
+        throw new RuntimeException("Caught exception while reading sorted run", e);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (_blockIterator != null && !_blockIterator.hasNext()) {
+        _blockIterator = nextBlockIterator();
+      }
+      return _blockIterator != null;
+    }
+
+    @Override
+    public Object[] next() {
+      return _blockIterator.next();
+    }
+  }
+
+  /**
+   * K-way merges the sorted runs with a heap holding the head row of each run.
+   */
+  private static class SortedRunsMerger {
+    private final PriorityQueue<RunHead> _heads;
+    private int _numRowsMerged;
+
+    SortedRunsMerger(List<Iterator<Object[]>> runIterators, Comparator<Object[]> comparator) {
+      _heads = new PriorityQueue<>(Math.max(runIterators.size(), 1), (h1, h2) -> comparator.compare(h1._row, h2._row));
+      for (Iterator<Object[]> runIterator : runIterators) {
+        if (runIterator.hasNext()) {
+          _heads.add(new RunHead(runIterator));
+        }
+      }
+    }
+
+    boolean hasNext() {
+      return !_heads.isEmpty();
+    }
+
+    Object[] next() {
+      RunHead head = _heads.poll();
+      assert head != null;
+      Object[] row = head._row;
+      if (head._iterator.hasNext()) {
+        head._row = head._iterator.next();
+        _heads.add(head);
+      }
+      _numRowsMerged++;
+      return row;
+    }
+
+    int getNumRowsMerged() {
+      return _numRowsMerged;
+    }
+  }
+
+  private static class RunHead {
+    final Iterator<Object[]> _iterator;
+    Object[] _row;
+
+    RunHead(Iterator<Object[]> iterator) {
+      _iterator = iterator;
+      _row = iterator.next();
+    }
+  }
 }
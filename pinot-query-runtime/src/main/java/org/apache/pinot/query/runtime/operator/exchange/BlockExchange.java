@@ -22,6 +22,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ThreadLocalRandom;
 import org.apache.calcite.rel.RelDistribution;
+import org.apache.pinot.calcite.rel.logical.PinotRelSkewHandlingType;
 import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.partitioning.KeySelectorFactory;
@@ -60,6 +61,16 @@ public abstract class BlockExchange {
     }
   }
 
+  public static BlockExchange getExchange(List<SendingMailbox> sendingMailboxes, RelDistribution.Type distributionType,
+      List<Integer> keys, PinotRelSkewHandlingType skewHandlingType, int skewSpreadFactor, BlockSplitter splitter) {
+    if (distributionType == RelDistribution.Type.HASH_DISTRIBUTED && skewHandlingType != PinotRelSkewHandlingType.NONE
+        && skewSpreadFactor > 1) {
+      return new SkewAwareHashExchange(sendingMailboxes, KeySelectorFactory.getKeySelector(keys), skewHandlingType,
+          skewSpreadFactor, splitter);
+    }
+    return getExchange(sendingMailboxes, distributionType, keys, splitter);
+  }
+
   protected BlockExchange(List<SendingMailbox> sendingMailboxes, BlockSplitter splitter) {
     _sendingMailboxes = sendingMailboxes;
     _splitter = splitter;
@@ -19,7 +19,9 @@
 package org.apache.pinot.query.runtime.operator.exchange;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.query.mailbox.SendingMailbox;
 import org.apache.pinot.query.planner.partitioning.EmptyKeySelector;
 import org.apache.pinot.query.planner.partitioning.KeySelector;
@@ -30,7 +32,8 @@ import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 /**
  * Distributes blocks based on the hash of a key, selected by the specified
  * {@code keySelector}. This will redistribute rows from input blocks (breaking
- * them up if necessary).
+ * them up if necessary). COLUMNAR blocks are partitioned on the column vectors
+ * without constructing the rows.
  */
 class HashExchange extends BlockExchange {
   private final KeySelector<?> _keySelector;
@@ -48,6 +51,10 @@ class HashExchange extends BlockExchange {
       sendBlock(destinations.get(0), block);
       return;
     }
+    if (block.getType() == DataBlock.Type.COLUMNAR) {
+      routeColumnar(destinations, block);
+      return;
+    }
 
     //noinspection unchecked
     List<Object[]>[] mailboxIdToRowsMap = new List[numMailboxes];
@@ -66,4 +73,51 @@ class HashExchange extends BlockExchange {
       }
     }
   }
+
+  private void routeColumnar(List<SendingMailbox> destinations, TransferableBlock block)
+      throws Exception {
+    int numMailboxes = destinations.size();
+    int numRows = block.getNumRows();
+    if (numRows == 0) {
+      return;
+    }
+    List<Object[]> columns = block.getColumns();
+    int[] mailboxIds = new int[numRows];
+    _keySelector.computeHashes(columns, numRows, mailboxIds);
+    int[] numRowsPerMailbox = new int[numMailboxes];
+    for (int rowId = 0; rowId < numRows; rowId++) {
+      int mailboxId = mailboxIds[rowId] % numMailboxes;
+      mailboxIds[rowId] = mailboxId;
+      numRowsPerMailbox[mailboxId]++;
+    }
+    for (int i = 0; i < numMailboxes; i++) {
+      if (numRowsPerMailbox[i] == numRows) {
+        // All the rows go to the same mailbox, send the block as is
+        sendBlock(destinations.get(i), block);
+        return;
+      }
+    }
+
+    int numColumns = columns.size();
+    Object[][][] mailboxIdToColumnsMap = new Object[numMailboxes][][];
+    for (int i = 0; i < numMailboxes; i++) {
+      mailboxIdToColumnsMap[i] = new Object[numColumns][numRowsPerMailbox[i]];
+    }
+    int[] offsets = new int[numMailboxes];
+    for (int colId = 0; colId < numColumns; colId++) {
+      Object[] values = columns.get(colId);
+      Arrays.fill(offsets, 0);
+      for (int rowId = 0; rowId < numRows; rowId++) {
+        int mailboxId = mailboxIds[rowId];
+        mailboxIdToColumnsMap[mailboxId][colId][offsets[mailboxId]++] = values[rowId];
+      }
+    }
+    for (int i = 0; i < numMailboxes; i++) {
+      if (numRowsPerMailbox[i] > 0) {
+        sendBlock(destinations.get(i),
+            new TransferableBlock(Arrays.asList(mailboxIdToColumnsMap[i]), numRowsPerMailbox[i],
+                block.getDataSchema()));
+      }
+    }
+  }
 }
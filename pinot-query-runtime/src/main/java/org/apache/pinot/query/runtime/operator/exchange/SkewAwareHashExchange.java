@@ -0,0 +1,140 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.exchange;
+
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pinot.calcite.rel.logical.PinotRelSkewHandlingType;
+import org.apache.pinot.query.mailbox.SendingMailbox;
+import org.apache.pinot.query.planner.partitioning.EmptyKeySelector;
+import org.apache.pinot.query.planner.partitioning.KeySelector;
+import org.apache.pinot.query.runtime.blocks.BlockSplitter;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+
+
+/**
+ * Distributes blocks based on the hash of a key similar to {@link HashExchange}, but allows each key to be processed
+ * by the {@code S} (skew spread factor) consecutive workers starting from the one picked by the hash of the key:
+ * <ul>
+ *   <li>
+ *     {@link PinotRelSkewHandlingType#SPREAD_HEAVY_KEYS}: The hash frequencies of the first rows are sampled, and the
+ *     keys taking more than the fair share of a worker in the sampled rows are considered heavy hitters. The rows of
+ *     the heavy-hitter keys are spread across the {@code S} workers in a round-robin fashion, and the other rows are
+ *     sent to the worker picked by the hash.
+ *   </li>
+ *   <li>
+ *     {@link PinotRelSkewHandlingType#REPLICATE}: Each row is sent to all the {@code S} workers of its key, so that the
+ *     spread rows from the other side can always find their matching rows.
+ *   </li>
+ * </ul>
+ * Because the senders cannot coordinate on the heavy-hitter keys, the replicating side does not know which keys are
+ * heavy, and replicates all the rows.
+ */
+class SkewAwareHashExchange extends BlockExchange {
+  static final int NUM_SAMPLE_ROWS = 10_000;
+
+  private final KeySelector<?> _keySelector;
+  private final PinotRelSkewHandlingType _skewHandlingType;
+  private final int _skewSpreadFactor;
+
+  // Hash counts of the sampled rows, which is released after the heavy hitters are identified
+  private Int2IntOpenHashMap _sampledHashCounts = new Int2IntOpenHashMap();
+  private int _numSampledRows;
+  private IntOpenHashSet _heavyHitterHashes;
+  private int _nextSalt;
+
+  SkewAwareHashExchange(List<SendingMailbox> sendingMailboxes, KeySelector<?> keySelector,
+      PinotRelSkewHandlingType skewHandlingType, int skewSpreadFactor, BlockSplitter splitter) {
+    super(sendingMailboxes, splitter);
+    _keySelector = keySelector;
+    _skewHandlingType = skewHandlingType;
+    _skewSpreadFactor = skewSpreadFactor;
+  }
+
+  @Override
+  protected void route(List<SendingMailbox> destinations, TransferableBlock block)
+      throws Exception {
+    int numMailboxes = destinations.size();
+    if (numMailboxes == 1 || _keySelector == EmptyKeySelector.INSTANCE) {
+      sendBlock(destinations.get(0), block);
+      return;
+    }
+
+    int spreadFactor = Math.min(_skewSpreadFactor, numMailboxes);
+    //noinspection unchecked
+    List<Object[]>[] mailboxIdToRowsMap = new List[numMailboxes];
+    for (int i = 0; i < numMailboxes; i++) {
+      mailboxIdToRowsMap[i] = new ArrayList<>();
+    }
+    List<Object[]> rows = block.getContainer();
+    if (_skewHandlingType == PinotRelSkewHandlingType.REPLICATE) {
+      for (Object[] row : rows) {
+        int mailboxId = _keySelector.computeHash(row) % numMailboxes;
+        for (int i = 0; i < spreadFactor; i++) {
+          mailboxIdToRowsMap[(mailboxId + i) % numMailboxes].add(row);
+        }
+      }
+    } else {
+      for (Object[] row : rows) {
+        int hash = _keySelector.computeHash(row);
+        int mailboxId = (hash % numMailboxes + getSalt(hash, numMailboxes, spreadFactor)) % numMailboxes;
+        mailboxIdToRowsMap[mailboxId].add(row);
+      }
+    }
+    for (int i = 0; i < numMailboxes; i++) {
+      if (!mailboxIdToRowsMap[i].isEmpty()) {
+        sendBlock(destinations.get(i),
+            new TransferableBlock(mailboxIdToRowsMap[i], block.getDataSchema(), block.getType()));
+      }
+    }
+  }
+
+  /**
+   * Returns the offset from the worker picked by the hash. Rows are not spread while sampling, which is always valid
+   * because the replicating side sends the rows to all the workers of the key.
+   */
+  private int getSalt(int hash, int numMailboxes, int spreadFactor) {
+    if (_heavyHitterHashes == null) {
+      _sampledHashCounts.addTo(hash, 1);
+      if (++_numSampledRows == NUM_SAMPLE_ROWS) {
+        identifyHeavyHitters(numMailboxes);
+      }
+      return 0;
+    }
+    if (!_heavyHitterHashes.contains(hash)) {
+      return 0;
+    }
+    int salt = _nextSalt;
+    _nextSalt = salt + 1 < spreadFactor ? salt + 1 : 0;
+    return salt;
+  }
+
+  private void identifyHeavyHitters(int numMailboxes) {
+    _heavyHitterHashes = new IntOpenHashSet();
+    for (Int2IntMap.Entry entry : _sampledHashCounts.int2IntEntrySet()) {
+      if ((long) entry.getIntValue() * numMailboxes > _numSampledRows) {
+        _heavyHitterHashes.add(entry.getIntKey());
+      }
+    }
+    _sampledHashCounts = null;
+  }
+}
@@ -25,6 +25,7 @@ import javax.annotation.Nullable;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.query.runtime.executor.OpChainYieldException;
 import org.apache.pinot.query.runtime.plan.MultiStageQueryStats;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.slf4j.Logger;
@@ -70,6 +71,15 @@ public abstract class BlockingMultiStreamConsumer<E> implements AutoCloseable {
 
   protected abstract E onEos();
 
+  /**
+   * Returns the callback to invoke when new data arrives if the consumer should yield instead of blocking when no
+   * mailbox is ready, or {@code null} to block.
+   */
+  @Nullable
+  protected Runnable getOnDataAvailable() {
+    return null;
+  }
+
   @Override
   public void close() {
     cancelRemainingMailboxes();
@@ -99,6 +109,10 @@ public abstract class BlockingMultiStreamConsumer<E> implements AutoCloseable {
     } else if (LOGGER.isTraceEnabled()) {
       LOGGER.trace("New data notification ignored on " + _id + ". " + System.identityHashCode(_newDataReady));
     }
+    Runnable onDataAvailable = getOnDataAvailable();
+    if (onDataAvailable != null) {
+      onDataAvailable.run();
+    }
   }
 
   /**
@@ -109,7 +123,8 @@ public abstract class BlockingMultiStreamConsumer<E> implements AutoCloseable {
    *   <li>EOS is only returned when all mailboxes already emitted EOS or there are no mailboxes</li>
    *   <li>If an error is read from a mailbox, the error is returned</li>
    *   <li>If data is read from a mailbox, that data block is returned</li>
-   *   <li>If no mailbox is ready, the calling thread is blocked</li>
+   *   <li>If no mailbox is ready, the calling thread is blocked, or {@link OpChainYieldException} is thrown when
+   *   {@link #getOnDataAvailable()} is set</li>
    * </ol>
    *
    * Right now the implementation tries to be fair. If one call returned the block from mailbox {@code i}, then next
@@ -126,6 +141,12 @@ public abstract class BlockingMultiStreamConsumer<E> implements AutoCloseable {
     if (block != null) {
       return block;
     }
+    if (getOnDataAvailable() != null) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("==[RECEIVE]== Yielded on : " + _id);
+      }
+      throw OpChainYieldException.INSTANCE;
+    }
     try {
       boolean timeout;
       while (true) { // we didn't find a mailbox ready to read, so we need to be pessimistic
@@ -235,11 +256,13 @@ public abstract class BlockingMultiStreamConsumer<E> implements AutoCloseable {
 
   public static class OfTransferableBlock extends BlockingMultiStreamConsumer<TransferableBlock> {
 
+    private final OpChainExecutionContext _context;
     private final MultiStageQueryStats _stats;
 
     public OfTransferableBlock(OpChainExecutionContext context,
         List<? extends AsyncStream<TransferableBlock>> asyncProducers) {
       super(context.getId(), context.getDeadlineMs(), asyncProducers);
+      _context = context;
       _stats = MultiStageQueryStats.emptyStats(context.getStageId());
     }
 
@@ -276,5 +299,11 @@ public abstract class BlockingMultiStreamConsumer<E> implements AutoCloseable {
     protected TransferableBlock onEos() {
       return TransferableBlockUtils.getEndOfStreamTransferableBlock(_stats);
     }
+
+    @Nullable
+    @Override
+    protected Runnable getOnDataAvailable() {
+      return _context.getOnDataAvailable();
+    }
   }
 }
@@ -0,0 +1,210 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.utils;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datablock.DataBlockUtils;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.core.common.datablock.DataBlockBuilder;
+import org.apache.pinot.core.util.DataBlockExtractUtils;
+import org.apache.pinot.spi.utils.CommonConstants;
+
+
+/**
+ * The {@code SpillFile} is an append-only local file that holds rows of a fixed {@link DataSchema}. It is used by the
+ * multi-stage operators to move intermediate rows out of the heap once their in-memory limit is reached.
+ *
+ * <p>Rows are buffered and written as serialized row {@link DataBlock}s, each prefixed by its size in bytes. Once
+ * {@link #finishWrite()} is called, the blocks can be read back (any number of times) through {@link #read()}, which
+ * memory-maps one block at a time instead of loading the whole file into the heap.
+ *
+ * <p>This class is not thread-safe.
+ */
+public class SpillFile implements Closeable {
+  public static final int DEFAULT_NUM_ROWS_PER_BLOCK = 10_000;
+
+  private final File _file;
+  private final DataSchema _dataSchema;
+  private final int _numRowsPerBlock;
+  private final FileChannel _fileChannel;
+
+  private List<Object[]> _buffer;
+  private long _numRows;
+  private boolean _writeFinished;
+
+  public SpillFile(File spillDir, String prefix, DataSchema dataSchema)
+      throws IOException {
+    this(spillDir, prefix, dataSchema, DEFAULT_NUM_ROWS_PER_BLOCK);
+  }
+
+  public SpillFile(File spillDir, String prefix, DataSchema dataSchema, int numRowsPerBlock)
+      throws IOException {
+    FileUtils.forceMkdir(spillDir);
+    _file = File.createTempFile(prefix, ".spill", spillDir);
+    _dataSchema = dataSchema;
+    _numRowsPerBlock = numRowsPerBlock;
+    _fileChannel = FileChannel.open(_file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+    _buffer = new ArrayList<>();
+  }
+
+  /**
+   * Returns the spill directory configured for the server, or the default one under the JVM temp directory.
+   */
+  public static File getSpillDir(Map<String, String> opChainMetadata) {
+    String spillDir = opChainMetadata.get(CommonConstants.MultiStageQueryRunner.KEY_OF_SPILL_DIR);
+    return spillDir != null ? new File(spillDir)
+        : new File(FileUtils.getTempDirectory(), CommonConstants.MultiStageQueryRunner.DEFAULT_SPILL_DIR_NAME);
+  }
+
+  public File getFile() {
+    return _file;
+  }
+
+  public DataSchema getDataSchema() {
+    return _dataSchema;
+  }
+
+  /**
+   * Returns the number of rows added to the file, including the ones still buffered in memory.
+   */
+  public long getNumRows() {
+    return _numRows;
+  }
+
+  public void add(Object[] row)
+      throws IOException {
+    Preconditions.checkState(!_writeFinished, "Cannot add rows to spill file: %s after finishing write", _file);
+    _buffer.add(row);
+    _numRows++;
+    if (_buffer.size() >= _numRowsPerBlock) {
+      flush();
+    }
+  }
+
+  public void addAll(List<Object[]> rows)
+      throws IOException {
+    for (Object[] row : rows) {
+      add(row);
+    }
+  }
+
+  /**
+   * Writes the buffered rows to the file. Can be called multiple times until {@link #finishWrite()} is called.
+   */
+  public void flush()
+      throws IOException {
+    if (_buffer.isEmpty()) {
+      return;
+    }
+    byte[] bytes = DataBlockBuilder.buildFromRows(_buffer, _dataSchema).toBytes();
+    ByteBuffer sizeBuffer = ByteBuffer.allocate(Integer.BYTES);
+    sizeBuffer.putInt(bytes.length).flip();
+    writeFully(sizeBuffer);
+    writeFully(ByteBuffer.wrap(bytes));
+    _buffer = new ArrayList<>();
+  }
+
+  /**
+   * Flushes the remaining buffered rows and seals the file for reading.
+   */
+  public void finishWrite()
+      throws IOException {
+    if (!_writeFinished) {
+      flush();
+      _writeFinished = true;
+    }
+  }
+
+  public Reader read() {
+    Preconditions.checkState(_writeFinished, "Cannot read spill file: %s before finishing write", _file);
+    return new Reader();
+  }
+
+  private void writeFully(ByteBuffer byteBuffer)
+      throws IOException {
+    while (byteBuffer.hasRemaining()) {
+      _fileChannel.write(byteBuffer);
+    }
+  }
+
+  /**
+   * Closes the file and deletes it from the disk.
+   */
+  @Override
+  public void close()
+      throws IOException {
+    _buffer = null;
+    try {
+      _fileChannel.close();
+    } finally {
+      FileUtils.deleteQuietly(_file);
+    }
+  }
+
+  /**
+   * Reads the blocks in the same order as they are written.
+   */
+  public class Reader {
+    private final long _fileSize;
+    private long _position;
+
+    private Reader() {
+      try {
+        _fileSize = _fileChannel.size();
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to get the size of spill file: " + _file, e);
+      }
+    }
+
+    /**
+     * Returns the rows of the next block, or {@code null} if all the blocks are read.
+     */
+    @Nullable
+    public List<Object[]> nextBlock()
+        throws IOException {
+      if (_position >= _fileSize) {
+        return null;
+      }
+      ByteBuffer sizeBuffer = ByteBuffer.allocate(Integer.BYTES);
+      while (sizeBuffer.hasRemaining()) {
+        if (_fileChannel.read(sizeBuffer, _position + sizeBuffer.position()) < 0) {
+          throw new EOFException("Unexpected end of spill file: " + _file);
+        }
+      }
+      int size = sizeBuffer.getInt(0);
+      _position += Integer.BYTES;
+      ByteBuffer dataBlockBuffer = _fileChannel.map(FileChannel.MapMode.READ_ONLY, _position, size);
+      _position += size;
+      return DataBlockExtractUtils.extractRows(DataBlockUtils.getDataBlock(dataBlockBuffer));
+    }
+  }
+}
@@ -50,6 +50,8 @@ public class OpChainExecutionContext {
   private final boolean _traceEnabled;
 
   private ServerPlanRequestContext _leafStageContext;
+  @Nullable
+  private volatile Runnable _onDataAvailable;
 
   public OpChainExecutionContext(MailboxService mailboxService, long requestId, long deadlineMs,
       Map<String, String> opChainMetadata, StageMetadata stageMetadata, WorkerMetadata workerMetadata,
@@ -123,4 +125,21 @@ public class OpChainExecutionContext {
   public void setLeafStageContext(ServerPlanRequestContext leafStageContext) {
     _leafStageContext = leafStageContext;
   }
+
+  /**
+   * Returns the callback to invoke when new input data arrives if the OpChain is run cooperatively, or {@code null}
+   * otherwise. When set, the operators reading the input throw
+   * {@link org.apache.pinot.query.runtime.executor.OpChainYieldException} instead of blocking when there is no data.
+   */
+  @Nullable
+  public Runnable getOnDataAvailable() {
+    return _onDataAvailable;
+  }
+
+  /**
+   * Set by the scheduler before the OpChain starts running to run it cooperatively.
+   */
+  public void setOnDataAvailable(Runnable onDataAvailable) {
+    _onDataAvailable = onDataAvailable;
+  }
 }
@@ -21,7 +21,6 @@ package org.apache.pinot.query.runtime.plan.pipeline;
 import com.google.common.base.Preconditions;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,7 +43,8 @@ public class PipelineBreakerOperator extends MultiStageOperator {
 
   private final Map<Integer, Operator<TransferableBlock>> _workerMap;
 
-  private Map<Integer, List<TransferableBlock>> _resultMap;
+  private final Map<Integer, List<TransferableBlock>> _resultMap;
+  private Queue<Map.Entry<Integer, Operator<TransferableBlock>>> _pendingWorkers;
   private TransferableBlock _errorBlock;
   @Nullable
   private MultiStageQueryStats _queryStats = null;
@@ -105,11 +105,12 @@ public class PipelineBreakerOperator extends MultiStageOperator {
     if (_errorBlock != null) {
       return _errorBlock;
     }
-    // NOTE: Put an empty list for each worker in case there is no data block returned from that worker
+    // NOTE: The result map is initialized with an empty list for each worker in case there is no data block returned
+    //       from that worker. The collected blocks and the pending workers are kept in fields so that the operator can
+    //       be resumed when the OpChain yields because of no data available.
     if (_workerMap.size() == 1) {
       Map.Entry<Integer, Operator<TransferableBlock>> entry = _workerMap.entrySet().iterator().next();
-      List<TransferableBlock> dataBlocks = new ArrayList<>();
-      _resultMap = Collections.singletonMap(entry.getKey(), dataBlocks);
+      List<TransferableBlock> dataBlocks = _resultMap.get(entry.getKey());
       Operator<TransferableBlock> operator = entry.getValue();
       TransferableBlock block = operator.nextBlock();
       while (!block.isSuccessfulEndOfStreamBlock()) {
@@ -122,22 +123,21 @@ public class PipelineBreakerOperator extends MultiStageOperator {
       }
       _queryStats = block.getQueryStats();
     } else {
-      _resultMap = new HashMap<>();
-      for (int workerKey : _workerMap.keySet()) {
-        _resultMap.put(workerKey, new ArrayList<>());
-      }
       // Keep polling from every operator in round-robin fashion
-      Queue<Map.Entry<Integer, Operator<TransferableBlock>>> entries = new ArrayDeque<>(_workerMap.entrySet());
-      while (!entries.isEmpty()) {
-        Map.Entry<Integer, Operator<TransferableBlock>> entry = entries.poll();
+      if (_pendingWorkers == null) {
+        _pendingWorkers = new ArrayDeque<>(_workerMap.entrySet());
+      }
+      while (!_pendingWorkers.isEmpty()) {
+        Map.Entry<Integer, Operator<TransferableBlock>> entry = _pendingWorkers.peek();
         TransferableBlock block = entry.getValue().nextBlock();
+        _pendingWorkers.poll();
         if (block.isErrorBlock()) {
           _errorBlock = block;
           return block;
         }
         if (block.isDataBlock()) {
           _resultMap.get(entry.getKey()).add(block);
-          entries.offer(entry);
+          _pendingWorkers.offer(entry);
         } else if (block.isSuccessfulEndOfStreamBlock()) {
           MultiStageQueryStats queryStats = block.getQueryStats();
           assert queryStats != null;
@@ -21,7 +21,6 @@ package org.apache.pinot.query.runtime.plan.server;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.request.DataSource;
 import org.apache.pinot.common.request.Expression;
 import org.apache.pinot.common.request.PinotQuery;
@@ -139,7 +138,7 @@ public class ServerPlanRequestVisitor implements PlanNodeVisitor<Void, ServerPla
       List<Object[]> resultDataContainer = new ArrayList<>();
       DataSchema dataSchema = dynamicSide.getDataSchema();
       for (TransferableBlock block : transferableBlocks) {
-        if (block.getType() == DataBlock.Type.ROW) {
+        if (block.isDataBlock()) {
           resultDataContainer.addAll(block.getContainer());
         }
       }
@@ -19,6 +19,7 @@
 package org.apache.pinot.query.runtime.blocks;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -78,6 +79,45 @@ public class TransferableBlockUtilsTest {
         DataBlock.Type.ROW, estRowSizeInBytes * splitRowCount + 1), rows, dataSchema);
   }
 
+  @Test(dataProvider = "splitRowCountProvider")
+  public void testSplitColumnarBlockUtils(int splitRowCount)
+      throws Exception {
+    DataSchema dataSchema = getDataSchema();
+    int estRowSizeInBytes = dataSchema.size() * TEST_EST_BYTES_PER_COLUMN;
+    List<Object[]> rows = DataBlockTestUtils.getRandomRows(dataSchema, TOTAL_ROW_COUNT, 1);
+    List<Object[]> columns = DataBlockTestUtils.convertColumnar(dataSchema, rows);
+    // compare serialized split
+    ColumnarDataBlock columnarBlock = DataBlockBuilder.buildFromColumns(columns, dataSchema);
+    validateBlocks(TransferableBlockUtils.splitBlock(new TransferableBlock(columnarBlock), DataBlock.Type.COLUMNAR,
+        estRowSizeInBytes * splitRowCount + 1), rows, dataSchema);
+    // compare non-serialized split from columns
+    validateBlocks(
+        TransferableBlockUtils.splitBlock(new TransferableBlock(columns, TOTAL_ROW_COUNT, dataSchema),
+            DataBlock.Type.COLUMNAR, estRowSizeInBytes * splitRowCount + 1), rows, dataSchema);
+    // compare non-serialized split from rows
+    validateBlocks(TransferableBlockUtils.splitBlock(new TransferableBlock(rows, dataSchema, DataBlock.Type.COLUMNAR),
+        DataBlock.Type.COLUMNAR, estRowSizeInBytes * splitRowCount + 1), rows, dataSchema);
+  }
+
+  @Test
+  public void testColumnarBlockRoundTrip()
+      throws Exception {
+    DataSchema dataSchema = getDataSchema();
+    List<Object[]> rows = DataBlockTestUtils.getRandomRows(dataSchema, TOTAL_ROW_COUNT, 1);
+    List<Object[]> columns = DataBlockTestUtils.convertColumnar(dataSchema, rows);
+    DataBlock dataBlock = new TransferableBlock(columns, TOTAL_ROW_COUNT, dataSchema).getDataBlock();
+    Assert.assertTrue(dataBlock instanceof ColumnarDataBlock);
+    TransferableBlock block = TransferableBlockUtils.wrap(dataBlock);
+    Assert.assertEquals(block.getType(), DataBlock.Type.COLUMNAR);
+    Assert.assertEquals(block.getNumRows(), TOTAL_ROW_COUNT);
+    validateBlocks(Iterators.singletonIterator(block), rows, dataSchema);
+    List<Object[]> extractedColumns = TransferableBlockUtils.wrap(dataBlock).getColumns();
+    Assert.assertEquals(extractedColumns.size(), columns.size());
+    for (int colId = 0; colId < columns.size(); colId++) {
+      Assert.assertEquals(extractedColumns.get(colId).length, TOTAL_ROW_COUNT);
+    }
+  }
+
   @Test
   public void testNonSplittableBlock()
       throws Exception {
@@ -24,6 +24,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.apache.pinot.common.utils.NamedThreadFactory;
 import org.apache.pinot.query.mailbox.MailboxService;
 import org.apache.pinot.query.routing.StageMetadata;
@@ -32,6 +33,7 @@ import org.apache.pinot.query.runtime.blocks.TransferableBlockTestUtils;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
 import org.apache.pinot.query.runtime.operator.MultiStageOperator;
 import org.apache.pinot.query.runtime.operator.OpChain;
+import org.apache.pinot.query.runtime.operator.OperatorTestUtil;
 import org.apache.pinot.query.runtime.plan.OpChainExecutionContext;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -73,13 +75,17 @@ public class OpChainSchedulerServiceTest {
   }
 
   private OpChain getChain(MultiStageOperator operator) {
+    return getChain(operator, 0, Long.MAX_VALUE);
+  }
+
+  private OpChain getChain(MultiStageOperator operator, int stageId, long deadlineMs) {
     MailboxService mailboxService = mock(MailboxService.class);
     when(mailboxService.getHostname()).thenReturn("localhost");
     when(mailboxService.getPort()).thenReturn(1234);
     WorkerMetadata workerMetadata = new WorkerMetadata(0, ImmutableMap.of(), ImmutableMap.of());
     OpChainExecutionContext context =
-        new OpChainExecutionContext(mailboxService, 123L, Long.MAX_VALUE, ImmutableMap.of(),
-            new StageMetadata(0, ImmutableList.of(workerMetadata), ImmutableMap.of()), workerMetadata, null);
+        new OpChainExecutionContext(mailboxService, 123L, deadlineMs, ImmutableMap.of(),
+            new StageMetadata(stageId, ImmutableList.of(workerMetadata), ImmutableMap.of()), workerMetadata, null);
     return new OpChain(context, operator);
   }
 
@@ -203,4 +209,139 @@ public class OpChainSchedulerServiceTest {
     Assert.assertTrue(cancelLatch.await(10, TimeUnit.SECONDS), "expected OpChain to be cancelled");
     Mockito.verify(_operatorA, Mockito.times(1)).cancel(Mockito.any());
   }
+
+  @Test
+  public void shouldResumeYieldedOpChainOnDataAvailable()
+      throws InterruptedException {
+    ExecutorService executor = ExecutorServiceUtils.createCooperative("cooperative_worker", 1);
+    try {
+      OpChain opChain = getChain(_operatorA);
+      OpChainSchedulerService schedulerService = new OpChainSchedulerService(executor, true);
+
+      CountDownLatch yieldLatch = new CountDownLatch(1);
+      Mockito.when(_operatorA.nextBlock()).thenAnswer(inv -> {
+        yieldLatch.countDown();
+        throw OpChainYieldException.INSTANCE;
+      }).thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+      CountDownLatch closeLatch = new CountDownLatch(1);
+      Mockito.doAnswer(inv -> {
+        closeLatch.countDown();
+        return null;
+      }).when(_operatorA).close();
+
+      schedulerService.register(opChain);
+
+      Assert.assertTrue(yieldLatch.await(10, TimeUnit.SECONDS), "expected OpChain to yield");
+      Assert.assertFalse(closeLatch.await(100, TimeUnit.MILLISECONDS), "expected OpChain to be parked");
+      opChain.getContext().getOnDataAvailable().run();
+      Assert.assertTrue(closeLatch.await(10, TimeUnit.SECONDS), "expected OpChain to be resumed and closed");
+      Mockito.verify(_operatorA, Mockito.times(2)).nextBlock();
+      schedulerService.shutDown();
+    } finally {
+      ExecutorServiceUtils.close(executor);
+    }
+  }
+
+  @Test
+  public void shouldRunManyYieldedOpChainsOnSingleThread()
+      throws InterruptedException {
+    ExecutorService executor = ExecutorServiceUtils.createCooperative("cooperative_worker", 1);
+    try {
+      OpChainSchedulerService schedulerService = new OpChainSchedulerService(executor, true);
+      int numOpChains = 1000;
+      OpChain[] opChains = new OpChain[numOpChains];
+      CountDownLatch yieldLatch = new CountDownLatch(numOpChains);
+      CountDownLatch closeLatch = new CountDownLatch(numOpChains);
+      for (int i = 0; i < numOpChains; i++) {
+        // Each OpChain yields until data is available, then emits 2 data blocks before EOS
+        MultiStageOperator operator = Mockito.mock(MultiStageOperator.class);
+        Mockito.when(operator.nextBlock()).thenAnswer(inv -> {
+          yieldLatch.countDown();
+          throw OpChainYieldException.INSTANCE;
+        }).thenReturn(OperatorTestUtil.block(OperatorTestUtil.SIMPLE_KV_DATA_SCHEMA, new Object[]{1, "foo"}),
+            OperatorTestUtil.block(OperatorTestUtil.SIMPLE_KV_DATA_SCHEMA, new Object[]{2, "bar"}),
+            TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+        Mockito.doAnswer(inv -> {
+          closeLatch.countDown();
+          return null;
+        }).when(operator).close();
+        opChains[i] = getChain(operator, i, Long.MAX_VALUE);
+        schedulerService.register(opChains[i]);
+      }
+
+      // All the OpChains should be able to start and yield with a single thread
+      Assert.assertTrue(yieldLatch.await(10, TimeUnit.SECONDS), "expected all OpChains to yield");
+      for (OpChain opChain : opChains) {
+        opChain.getContext().getOnDataAvailable().run();
+      }
+      Assert.assertTrue(closeLatch.await(10, TimeUnit.SECONDS), "expected all OpChains to be resumed and closed");
+      schedulerService.shutDown();
+    } finally {
+      ExecutorServiceUtils.close(executor);
+    }
+  }
+
+  @Test
+  public void shouldCallCancelOnParkedOpChainsWhenItIsCancelledByDispatch()
+      throws InterruptedException {
+    ExecutorService executor = ExecutorServiceUtils.createCooperative("cooperative_worker", 1);
+    try {
+      OpChain opChain = getChain(_operatorA);
+      OpChainSchedulerService schedulerService = new OpChainSchedulerService(executor, true);
+
+      CountDownLatch yieldLatch = new CountDownLatch(1);
+      Mockito.when(_operatorA.nextBlock()).thenAnswer(inv -> {
+        yieldLatch.countDown();
+        throw OpChainYieldException.INSTANCE;
+      });
+      CountDownLatch cancelLatch = new CountDownLatch(1);
+      Mockito.doAnswer(inv -> {
+        cancelLatch.countDown();
+        return null;
+      }).when(_operatorA).cancel(Mockito.any());
+
+      schedulerService.register(opChain);
+
+      Assert.assertTrue(yieldLatch.await(10, TimeUnit.SECONDS), "expected OpChain to yield");
+      schedulerService.cancel(123);
+      Assert.assertTrue(cancelLatch.await(10, TimeUnit.SECONDS), "expected OpChain to be cancelled");
+      Mockito.verify(_operatorA, Mockito.times(1)).nextBlock();
+      Mockito.verify(_operatorA, Mockito.times(1)).cancel(Mockito.any());
+      schedulerService.shutDown();
+    } finally {
+      ExecutorServiceUtils.close(executor);
+    }
+  }
+
+  @Test
+  public void shouldResumeParkedOpChainsOnDeadline()
+      throws InterruptedException {
+    ExecutorService executor = ExecutorServiceUtils.createCooperative("cooperative_worker", 1);
+    try {
+      long deadlineMs = System.currentTimeMillis() + 200;
+      OpChain opChain = getChain(_operatorA, 0, deadlineMs);
+      OpChainSchedulerService schedulerService = new OpChainSchedulerService(executor, true);
+
+      // Mimic the mailbox receive operator which returns timeout error block after the deadline
+      Mockito.when(_operatorA.nextBlock()).thenAnswer(inv -> {
+        if (System.currentTimeMillis() <= deadlineMs) {
+          throw OpChainYieldException.INSTANCE;
+        }
+        return TransferableBlockUtils.getErrorTransferableBlock(new TimeoutException("timeout"));
+      });
+      CountDownLatch cancelLatch = new CountDownLatch(1);
+      Mockito.doAnswer(inv -> {
+        cancelLatch.countDown();
+        return null;
+      }).when(_operatorA).cancel(Mockito.any());
+
+      schedulerService.register(opChain);
+
+      Assert.assertTrue(cancelLatch.await(10, TimeUnit.SECONDS), "expected OpChain to be cancelled on deadline");
+      Assert.assertTrue(System.currentTimeMillis() > deadlineMs);
+      schedulerService.shutDown();
+    } finally {
+      ExecutorServiceUtils.close(executor);
+    }
+  }
 }
@@ -18,6 +18,8 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import org.apache.calcite.sql.SqlKind;
@@ -265,6 +267,56 @@ public class AggregateOperatorTest {
         "num groups limit should be reached");
   }
 
+  @Test
+  public void shouldSpillGroupsWhenGroupLimitExceedWithSpillEnabled() {
+    // Given:
+    List<RexExpression.FunctionCall> aggCalls = List.of(getSum(new RexExpression.InputRef(1)),
+        new RexExpression.FunctionCall(ColumnDataType.DOUBLE, SqlKind.AVG.name(),
+            List.of(new RexExpression.InputRef(1))));
+    List<Integer> filterArgs = List.of(-1, -1);
+    List<Integer> groupKeys = List.of(0);
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.AGGREGATE_HINT_OPTIONS,
+        Map.of(PinotHintOptions.AggregateOptions.NUM_GROUPS_LIMIT, "2",
+            PinotHintOptions.AggregateOptions.ENABLE_GROUP_BY_SPILL, "true",
+            PinotHintOptions.AggregateOptions.NUM_SPILL_PARTITIONS, "3")));
+    DataSchema inSchema = new DataSchema(new String[]{"group", "arg"}, new ColumnDataType[]{INT, DOUBLE});
+    // 10 groups, each group has value (group) and (group + 10) spread across different blocks
+    when(_input.nextBlock()).thenReturn(
+            OperatorTestUtil.block(inSchema, new Object[]{0, 0.0}, new Object[]{1, 1.0}, new Object[]{2, 2.0}),
+            OperatorTestUtil.block(inSchema, new Object[]{3, 3.0}, new Object[]{4, 4.0}, new Object[]{5, 5.0}),
+            OperatorTestUtil.block(inSchema, new Object[]{6, 6.0}, new Object[]{7, 7.0}, new Object[]{8, 8.0}),
+            OperatorTestUtil.block(inSchema, new Object[]{9, 9.0}, new Object[]{0, 10.0}, new Object[]{1, 11.0}),
+            OperatorTestUtil.block(inSchema, new Object[]{2, 12.0}, new Object[]{3, 13.0}, new Object[]{4, 14.0}),
+            OperatorTestUtil.block(inSchema, new Object[]{5, 15.0}, new Object[]{6, 16.0}, new Object[]{7, 17.0}),
+            OperatorTestUtil.block(inSchema, new Object[]{8, 18.0}, new Object[]{9, 19.0}),
+            TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"group", "sum", "avg"}, new ColumnDataType[]{INT, DOUBLE, DOUBLE});
+    AggregateOperator operator = getOperator(resultSchema, aggCalls, filterArgs, groupKeys, nodeHint);
+
+    // When:
+    List<Object[]> resultRows = new ArrayList<>();
+    TransferableBlock block = operator.nextBlock();
+    while (!block.isEndOfStreamBlock()) {
+      resultRows.addAll(block.getContainer());
+      block = operator.nextBlock();
+    }
+    operator.close();
+
+    // Then:
+    assertTrue(block.isSuccessfulEndOfStreamBlock(), "expected successful EOS block but got: " + block.getExceptions());
+    resultRows.sort(Comparator.comparingInt(row -> (int) row[0]));
+    assertEquals(resultRows.size(), 10, "all the groups should be returned");
+    for (int i = 0; i < 10; i++) {
+      assertEquals(resultRows.get(i), new Object[]{i, 2.0 * i + 10, i + 5.0});
+    }
+    StatMap<AggregateOperator.StatKey> statMap = OperatorTestUtil.getStatMap(AggregateOperator.StatKey.class, block);
+    // Groups are spilled before each of the last 6 blocks (3 groups each), the last 2 groups are merged from memory
+    assertEquals(statMap.getLong(AggregateOperator.StatKey.SPILLED_GROUPS), 18L);
+    assertTrue(!statMap.getBoolean(AggregateOperator.StatKey.NUM_GROUPS_LIMIT_REACHED),
+        "num groups limit should not be reached");
+  }
+
   private static RexExpression.FunctionCall getSum(RexExpression arg) {
     return new RexExpression.FunctionCall(ColumnDataType.INT, SqlKind.SUM.name(), List.of(arg));
   }
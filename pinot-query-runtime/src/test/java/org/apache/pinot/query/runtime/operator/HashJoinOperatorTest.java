@@ -18,6 +18,9 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.calcite.rel.core.JoinRelType;
@@ -530,6 +533,138 @@ public class HashJoinOperatorTest {
         "Max rows in join should be reached");
   }
 
+  @Test
+  public void shouldHandleInnerJoinWithSpillWhenHitDataRowsLimit() {
+    List<Object[]> resultRows = runSpillJoin(JoinRelType.INNER);
+    // Left keys 0-99, right keys 50-149 with 2 rows per key
+    assertEquals(resultRows.size(), 100);
+    Map<Integer, Integer> numRowsPerKey = new HashMap<>();
+    for (Object[] row : resultRows) {
+      assertEquals(row[0], row[2]);
+      assertEquals(row[1], "l" + row[0]);
+      numRowsPerKey.merge((Integer) row[0], 1, Integer::sum);
+    }
+    assertEquals(numRowsPerKey.size(), 50);
+    for (Map.Entry<Integer, Integer> entry : numRowsPerKey.entrySet()) {
+      assertTrue(entry.getKey() >= 50 && entry.getKey() < 100);
+      assertEquals((int) entry.getValue(), 2);
+    }
+  }
+
+  @Test
+  public void shouldHandleFullJoinWithSpillWhenHitDataRowsLimit() {
+    List<Object[]> resultRows = runSpillJoin(JoinRelType.FULL);
+    // 100 matched rows, 50 non-matched left rows and 100 non-matched right rows
+    assertEquals(resultRows.size(), 250);
+    int numNonMatchedLeftRows = 0;
+    int numNonMatchedRightRows = 0;
+    for (Object[] row : resultRows) {
+      if (row[2] == null) {
+        assertTrue((Integer) row[0] < 50);
+        numNonMatchedLeftRows++;
+      } else if (row[0] == null) {
+        assertTrue((Integer) row[2] >= 100);
+        numNonMatchedRightRows++;
+      } else {
+        assertEquals(row[0], row[2]);
+      }
+    }
+    assertEquals(numNonMatchedLeftRows, 50);
+    assertEquals(numNonMatchedRightRows, 100);
+  }
+
+  @Test
+  public void shouldHandleAntiJoinWithSpillWhenHitDataRowsLimit() {
+    List<Object[]> resultRows = runSpillJoin(JoinRelType.ANTI);
+    assertEquals(resultRows.size(), 50);
+    for (Object[] row : resultRows) {
+      assertTrue((Integer) row[0] < 50);
+    }
+  }
+
+  @Test
+  public void shouldPropagateJoinLimitErrorWhenSpillPartitionHitDataRowsLimit() {
+    DataSchema leftSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    DataSchema rightSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    when(_leftInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(leftSchema, new Object[]{1, "Aa"}, new Object[]{2, "BB"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    // All the right rows share the same key, thus the same partition
+    when(_rightInput.nextBlock()).thenReturn(
+            OperatorTestUtil.block(rightSchema, new Object[]{2, "Aa"}, new Object[]{2, "BB"}, new Object[]{2, "CC"}))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    DataSchema resultSchema =
+        new DataSchema(new String[]{"int_col1", "string_col1", "int_co2", "string_col2"}, new ColumnDataType[]{
+            ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING
+        });
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.JOIN_HINT_OPTIONS,
+        Map.of(PinotHintOptions.JoinHintOptions.JOIN_OVERFLOW_MODE, "SPILL",
+            PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN, "2")));
+    HashJoinOperator operator =
+        getOperator(leftSchema, resultSchema, JoinRelType.INNER, List.of(0), List.of(0), List.of(), nodeHint);
+    TransferableBlock block = operator.nextBlock();
+    while (!block.isEndOfStreamBlock()) {
+      block = operator.nextBlock();
+    }
+    operator.close();
+    assertTrue(block.isErrorBlock());
+    assertTrue(block.getExceptions().get(QueryException.SERVER_RESOURCE_LIMIT_EXCEEDED_ERROR_CODE)
+        .contains("spill partition"));
+  }
+
+  /**
+   * Joins left keys 0-99 with right keys 50-149 (2 rows per key) with a row limit that only fits a spill partition.
+   */
+  private List<Object[]> runSpillJoin(JoinRelType joinType) {
+    DataSchema leftSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    DataSchema rightSchema = new DataSchema(new String[]{"int_col", "string_col"}, new ColumnDataType[]{
+        ColumnDataType.INT, ColumnDataType.STRING
+    });
+    Object[][] leftRows = new Object[100][];
+    for (int i = 0; i < 100; i++) {
+      leftRows[i] = new Object[]{i, "l" + i};
+    }
+    Object[][] rightRows1 = new Object[100][];
+    Object[][] rightRows2 = new Object[100][];
+    for (int i = 0; i < 100; i++) {
+      rightRows1[i] = new Object[]{i + 50, "r" + i};
+      rightRows2[i] = new Object[]{i + 50, "r" + (i + 100)};
+    }
+    when(_leftInput.nextBlock()).thenReturn(OperatorTestUtil.block(leftSchema, Arrays.copyOfRange(leftRows, 0, 50)))
+        .thenReturn(OperatorTestUtil.block(leftSchema, Arrays.copyOfRange(leftRows, 50, 100)))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    when(_rightInput.nextBlock()).thenReturn(OperatorTestUtil.block(rightSchema, rightRows1))
+        .thenReturn(OperatorTestUtil.block(rightSchema, rightRows2))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    DataSchema resultSchema = joinType == JoinRelType.ANTI ? leftSchema
+        : new DataSchema(new String[]{"int_col1", "string_col1", "int_col2", "string_col2"}, new ColumnDataType[]{
+            ColumnDataType.INT, ColumnDataType.STRING, ColumnDataType.INT, ColumnDataType.STRING
+        });
+    PlanNode.NodeHint nodeHint = new PlanNode.NodeHint(Map.of(PinotHintOptions.JOIN_HINT_OPTIONS,
+        Map.of(PinotHintOptions.JoinHintOptions.JOIN_OVERFLOW_MODE, "SPILL",
+            PinotHintOptions.JoinHintOptions.MAX_ROWS_IN_JOIN, "150",
+            PinotHintOptions.JoinHintOptions.NUM_SPILL_PARTITIONS, "4")));
+    HashJoinOperator operator =
+        getOperator(leftSchema, resultSchema, joinType, List.of(0), List.of(0), List.of(), nodeHint);
+    List<Object[]> resultRows = new ArrayList<>();
+    TransferableBlock block = operator.nextBlock();
+    while (!block.isEndOfStreamBlock()) {
+      resultRows.addAll(block.getContainer());
+      block = operator.nextBlock();
+    }
+    operator.close();
+    assertTrue(block.isSuccessfulEndOfStreamBlock());
+    StatMap<HashJoinOperator.StatKey> statMap = OperatorTestUtil.getStatMap(HashJoinOperator.StatKey.class, block);
+    assertTrue(statMap.getLong(HashJoinOperator.StatKey.SPILLED_ROWS) > 0, "Rows should be spilled");
+    return resultRows;
+  }
+
   private HashJoinOperator getOperator(DataSchema leftSchema, DataSchema resultSchema, JoinRelType joinType,
       List<Integer> leftKeys, List<Integer> rightKeys, List<RexExpression> nonEquiConditions,
       PlanNode.NodeHint nodeHint) {
@@ -22,9 +22,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicReference;
+import org.apache.pinot.common.datablock.DataBlock;
 import org.apache.pinot.common.exception.QueryException;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.core.operator.blocks.InstanceResponseBlock;
@@ -37,6 +39,7 @@ import org.apache.pinot.core.query.request.context.QueryContext;
 import org.apache.pinot.core.query.request.context.utils.QueryContextConverterUtils;
 import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -155,6 +158,43 @@ public class LeafStageTransferableBlockOperatorTest {
     operator.close();
   }
 
+  @Test
+  public void shouldComposeColumnarDataBlockWithReorderAndConversion() {
+    // Given:
+    QueryContext queryContext = QueryContextConverterUtils.getQueryContext("SELECT intCol, boolCol, strCol FROM tbl");
+    DataSchema resultSchema = new DataSchema(new String[]{"strCol", "boolCol", "intCol"},
+        new DataSchema.ColumnDataType[]{
+            DataSchema.ColumnDataType.STRING, DataSchema.ColumnDataType.BOOLEAN, DataSchema.ColumnDataType.INT
+        });
+    DataSchema desiredSchema = new DataSchema(new String[]{"intCol", "boolCol", "strCol"},
+        new DataSchema.ColumnDataType[]{
+            DataSchema.ColumnDataType.LONG, DataSchema.ColumnDataType.BOOLEAN, DataSchema.ColumnDataType.STRING
+        });
+    List<BaseResultsBlock> dataBlocks = Collections.singletonList(new SelectionResultsBlock(resultSchema,
+        Arrays.asList(new Object[]{"foo", 1, 1}, new Object[]{"bar", 0, null}), queryContext));
+    InstanceResponseBlock metadataBlock = new InstanceResponseBlock(new MetadataResultsBlock());
+    QueryExecutor queryExecutor = mockQueryExecutor(dataBlocks, metadataBlock);
+    LeafStageTransferableBlockOperator operator = new LeafStageTransferableBlockOperator(
+        OperatorTestUtil.getTracingContext(Map.of(QueryOptionKey.USE_COLUMNAR_DATA_BLOCK, "true")),
+        mockQueryRequests(1), desiredSchema, queryExecutor, _executorService);
+    _operatorRef.set(operator);
+
+    // When:
+    TransferableBlock resultBlock = operator.nextBlock();
+
+    // Then:
+    Assert.assertEquals(resultBlock.getType(), DataBlock.Type.COLUMNAR);
+    Assert.assertEquals(resultBlock.getNumRows(), 2);
+    Assert.assertEquals(resultBlock.getColumns().get(0), new Object[]{1L, null});
+    Assert.assertEquals(resultBlock.getColumns().get(1), new Object[]{1, 0});
+    Assert.assertEquals(resultBlock.getColumns().get(2), new Object[]{"foo", "bar"});
+    Assert.assertEquals(resultBlock.getContainer().get(0), new Object[]{1L, 1, "foo"});
+    Assert.assertEquals(resultBlock.getContainer().get(1), new Object[]{null, 0, "bar"});
+    Assert.assertTrue(operator.nextBlock().isEndOfStreamBlock(), "Expected EOS after reading 2 blocks");
+
+    operator.close();
+  }
+
   @Test
   public void shouldReturnMultipleDataBlockThenMetadataBlock() {
     // Given:
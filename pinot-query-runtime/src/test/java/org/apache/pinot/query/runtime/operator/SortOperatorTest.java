@@ -18,11 +18,15 @@
  */
 package org.apache.pinot.query.runtime.operator;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 import org.apache.calcite.rel.RelFieldCollation.NullDirection;
 import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.datatable.StatMap;
 import org.apache.pinot.common.utils.DataSchema;
 import org.apache.pinot.query.planner.plannode.PlanNode;
 import org.apache.pinot.query.planner.plannode.SortNode;
@@ -30,6 +34,8 @@ import org.apache.pinot.query.routing.VirtualServerAddress;
 import org.apache.pinot.query.runtime.blocks.TransferableBlock;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockTestUtils;
 import org.apache.pinot.query.runtime.blocks.TransferableBlockUtils;
+import org.apache.pinot.spi.utils.CommonConstants;
+import org.apache.pinot.spi.utils.CommonConstants.Broker.Request.QueryOptionKey;
 import org.mockito.Mock;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -472,6 +478,42 @@ public class SortOperatorTest {
     assertTrue(operator.nextBlock().isSuccessfulEndOfStreamBlock(), "expected EOS block to propagate");
   }
 
+  @Test
+  public void shouldSpillAndMergeSortedRunsWhenExceedingMaxRowsInSort() {
+    // Given:
+    DataSchema schema = new DataSchema(new String[]{"sort", "value"}, new DataSchema.ColumnDataType[]{INT, STRING});
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      rows.add(new Object[]{i, i % 10 == 0 ? null : "value" + i});
+    }
+    Collections.shuffle(rows);
+    when(_input.nextBlock()).thenReturn(block(schema, rows.subList(0, 30).toArray(new Object[0][])))
+        .thenReturn(block(schema, rows.subList(30, 100).toArray(new Object[0][])))
+        .thenReturn(TransferableBlockTestUtils.getEndOfStreamTransferableBlock(0));
+    List<RelFieldCollation> collations = List.of(new RelFieldCollation(0, Direction.ASCENDING, NullDirection.LAST));
+    SortOperator operator = new SortOperator(OperatorTestUtil.getTracingContext(
+        Map.of(CommonConstants.Broker.Request.TRACE, "true", QueryOptionKey.MAX_ROWS_IN_SORT, "15")), _input,
+        new SortNode(-1, schema, PlanNode.NodeHint.EMPTY, List.of(), collations, 80, 5));
+
+    // When:
+    List<Object[]> resultRows = new ArrayList<>();
+    TransferableBlock block = operator.nextBlock();
+    while (!block.isEndOfStreamBlock()) {
+      resultRows.addAll(block.getContainer());
+      block = operator.nextBlock();
+    }
+    operator.close();
+
+    // Then:
+    assertEquals(resultRows.size(), 80);
+    for (int i = 0; i < 80; i++) {
+      int expected = i + 5;
+      assertEquals(resultRows.get(i), new Object[]{expected, expected % 10 == 0 ? null : "value" + expected});
+    }
+    StatMap<SortOperator.StatKey> statMap = OperatorTestUtil.getStatMap(SortOperator.StatKey.class, block);
+    assertTrue(statMap.getLong(SortOperator.StatKey.SPILLED_ROWS) > 0, "Rows should be spilled");
+  }
+
   private SortOperator getOperator(DataSchema schema, List<RelFieldCollation> collations, int fetch, int offset) {
     return new SortOperator(OperatorTestUtil.getTracingContext(), _input,
         new SortNode(-1, schema, PlanNode.NodeHint.EMPTY, List.of(), collations, fetch, offset));
@@ -83,6 +83,33 @@ public class HashExchangeTest {
     Assert.assertEquals(captor.getValue().getContainer().get(0), new Object[]{2});
   }
 
+  @Test
+  public void shouldSplitAndRouteColumnarBlocksBasedOnPartitionKey()
+      throws Exception {
+    // Given:
+    TestSelector selector = new TestSelector(Iterators.forArray(2, 0, 1));
+    DataSchema dataSchema = new DataSchema(new String[]{"col1", "col2"},
+        new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT, DataSchema.ColumnDataType.STRING});
+    TransferableBlock block =
+        new TransferableBlock(ImmutableList.of(new Object[]{0, 1, 2}, new Object[]{"a", "b", "c"}), 3, dataSchema);
+    ImmutableList<SendingMailbox> destinations = ImmutableList.of(_mailbox1, _mailbox2);
+
+    // When:
+    new HashExchange(destinations, selector, TransferableBlockUtils::splitBlock).route(destinations, block);
+
+    // Then:
+    ArgumentCaptor<TransferableBlock> captor = ArgumentCaptor.forClass(TransferableBlock.class);
+
+    Mockito.verify(_mailbox1, Mockito.times(1)).send(captor.capture());
+    Assert.assertEquals(captor.getValue().getType(), DataBlock.Type.COLUMNAR);
+    Assert.assertEquals(captor.getValue().getNumRows(), 2);
+    Assert.assertEquals(captor.getValue().getColumns().get(0), new Object[]{0, 1});
+    Assert.assertEquals(captor.getValue().getColumns().get(1), new Object[]{"a", "b"});
+
+    Mockito.verify(_mailbox2, Mockito.times(1)).send(captor.capture());
+    Assert.assertEquals(captor.getValue().getContainer().get(0), new Object[]{2, "c"});
+  }
+
   private static class TestSelector implements KeySelector<Object> {
     private final Iterator<Integer> _hashes;
 
@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.query.runtime.operator.exchange;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.pinot.calcite.rel.logical.PinotRelSkewHandlingType;
+import org.apache.pinot.common.datablock.DataBlock;
+import org.apache.pinot.common.utils.DataSchema;
+import org.apache.pinot.query.mailbox.SendingMailbox;
+import org.apache.pinot.query.planner.partitioning.KeySelector;
+import org.apache.pinot.query.runtime.blocks.BlockSplitter;
+import org.apache.pinot.query.runtime.blocks.TransferableBlock;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+
+public class SkewAwareHashExchangeTest {
+  private static final DataSchema DATA_SCHEMA =
+      new DataSchema(new String[]{"col1"}, new DataSchema.ColumnDataType[]{DataSchema.ColumnDataType.INT});
+  private static final BlockSplitter NO_OP_SPLITTER = (block, type, maxBlockSize) -> Iterators.singletonIterator(block);
+
+  private AutoCloseable _mocks;
+
+  @Mock
+  private SendingMailbox _mailbox0;
+  @Mock
+  private SendingMailbox _mailbox1;
+  @Mock
+  private SendingMailbox _mailbox2;
+  @Mock
+  private SendingMailbox _mailbox3;
+
+  private List<SendingMailbox> _destinations;
+
+  @BeforeMethod
+  public void setUp() {
+    _mocks = MockitoAnnotations.openMocks(this);
+    _destinations = ImmutableList.of(_mailbox0, _mailbox1, _mailbox2, _mailbox3);
+  }
+
+  @AfterMethod
+  public void tearDown()
+      throws Exception {
+    _mocks.close();
+  }
+
+  @Test
+  public void shouldSpreadHeavyHitterKeysAfterSampling()
+      throws Exception {
+    SkewAwareHashExchange exchange =
+        new SkewAwareHashExchange(_destinations, new IdentitySelector(), PinotRelSkewHandlingType.SPREAD_HEAVY_KEYS,
+            2, NO_OP_SPLITTER);
+
+    // Half of the sampled rows have key 0, and the other rows have unique keys
+    List<Object[]> sampledRows = new ArrayList<>(SkewAwareHashExchange.NUM_SAMPLE_ROWS);
+    for (int i = 0; i < SkewAwareHashExchange.NUM_SAMPLE_ROWS; i++) {
+      sampledRows.add(new Object[]{i % 2 == 0 ? 0 : i});
+    }
+    exchange.route(_destinations, new TransferableBlock(sampledRows, DATA_SCHEMA, DataBlock.Type.ROW));
+    // Rows are not spread while sampling
+    Assert.assertEquals(countRows(_mailbox0), SkewAwareHashExchange.NUM_SAMPLE_ROWS / 2);
+    Assert.assertEquals(countRows(_mailbox1), SkewAwareHashExchange.NUM_SAMPLE_ROWS / 4);
+    Assert.assertEquals(countRows(_mailbox3), SkewAwareHashExchange.NUM_SAMPLE_ROWS / 4);
+    Mockito.clearInvocations(_mailbox0, _mailbox1, _mailbox2, _mailbox3);
+
+    // Heavy-hitter key 0 is spread across mailbox 0 and 1, and key 2 is not spread
+    List<Object[]> rows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      rows.add(new Object[]{0});
+      rows.add(new Object[]{2});
+    }
+    exchange.route(_destinations, new TransferableBlock(rows, DATA_SCHEMA, DataBlock.Type.ROW));
+    Assert.assertEquals(countRows(_mailbox0), 50);
+    Assert.assertEquals(countRows(_mailbox1), 50);
+    Assert.assertEquals(countRows(_mailbox2), 100);
+    Assert.assertEquals(countRows(_mailbox3), 0);
+  }
+
+  @Test
+  public void shouldReplicateRowsToAllWorkersOfTheKey()
+      throws Exception {
+    SkewAwareHashExchange exchange =
+        new SkewAwareHashExchange(_destinations, new IdentitySelector(), PinotRelSkewHandlingType.REPLICATE, 2,
+            NO_OP_SPLITTER);
+
+    List<Object[]> rows = ImmutableList.of(new Object[]{1}, new Object[]{3});
+    exchange.route(_destinations, new TransferableBlock(rows, DATA_SCHEMA, DataBlock.Type.ROW));
+
+    // Key 1 is sent to mailbox 1 and 2, and key 3 is sent to mailbox 3 and 0
+    Assert.assertEquals(countRows(_mailbox0), 1);
+    Assert.assertEquals(countRows(_mailbox1), 1);
+    Assert.assertEquals(countRows(_mailbox2), 1);
+    Assert.assertEquals(countRows(_mailbox3), 1);
+  }
+
+  @Test
+  public void shouldCapSpreadFactorByNumberOfWorkers()
+      throws Exception {
+    List<SendingMailbox> destinations = ImmutableList.of(_mailbox0, _mailbox1);
+    SkewAwareHashExchange exchange =
+        new SkewAwareHashExchange(destinations, new IdentitySelector(), PinotRelSkewHandlingType.REPLICATE, 4,
+            NO_OP_SPLITTER);
+
+    exchange.route(destinations,
+        new TransferableBlock(ImmutableList.of(new Object[]{0}), DATA_SCHEMA, DataBlock.Type.ROW));
+
+    Assert.assertEquals(countRows(_mailbox0), 1);
+    Assert.assertEquals(countRows(_mailbox1), 1);
+  }
+
+  private static int countRows(SendingMailbox mailbox)
+      throws Exception {
+    ArgumentCaptor<TransferableBlock> captor = ArgumentCaptor.forClass(TransferableBlock.class);
+    Mockito.verify(mailbox, Mockito.atLeast(0)).send(captor.capture());
+    int numRows = 0;
+    for (TransferableBlock block : captor.getAllValues()) {
+      numRows += block.getNumRows();
+    }
+    return numRows;
+  }
+
+  private static class IdentitySelector implements KeySelector<Integer> {
+    @Override
+    public Integer getKey(Object[] row) {
+      return (Integer) row[0];
+    }
+
+    @Override
+    public int computeHash(Object[] input) {
+      return (Integer) input[0];
+    }
+  }
+}
@@ -19,6 +19,7 @@
 package org.apache.pinot.segment.local.dedup;
 
 import com.google.common.base.Preconditions;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -28,6 +29,7 @@ import org.apache.pinot.segment.local.data.manager.TableDataManager;
 import org.apache.pinot.spi.config.table.DedupConfig;
 import org.apache.pinot.spi.config.table.HashFunction;
 import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.data.FieldSpec;
 import org.apache.pinot.spi.data.Schema;
 
 
@@ -37,6 +39,8 @@ abstract class BaseTableDedupMetadataManager implements TableDedupMetadataManage
   protected List<String> _primaryKeyColumns;
   protected ServerMetrics _serverMetrics;
   protected HashFunction _hashFunction;
+  protected double _metadataTTL;
+  protected String _dedupTimeColumn;
 
   @Override
   public void init(TableConfig tableConfig, Schema schema, TableDataManager tableDataManager,
@@ -52,6 +56,22 @@ abstract class BaseTableDedupMetadataManager implements TableDedupMetadataManage
     DedupConfig dedupConfig = tableConfig.getDedupConfig();
     Preconditions.checkArgument(dedupConfig != null, "Dedup must be enabled for table: %s", _tableNameWithType);
     _hashFunction = dedupConfig.getHashFunction();
+    _metadataTTL = dedupConfig.getMetadataTTL();
+    if (_metadataTTL > 0) {
+      _dedupTimeColumn = dedupConfig.getDedupTimeColumn();
+      if (_dedupTimeColumn == null) {
+        _dedupTimeColumn = tableConfig.getValidationConfig().getTimeColumnName();
+      }
+      Preconditions.checkArgument(_dedupTimeColumn != null,
+          "Dedup time column must be configured when metadata TTL is enabled for table: %s", _tableNameWithType);
+      FieldSpec dedupTimeFieldSpec = schema.getFieldSpecFor(_dedupTimeColumn);
+      Preconditions.checkArgument(dedupTimeFieldSpec != null, "Failed to find dedup time column: %s for table: %s",
+          _dedupTimeColumn, _tableNameWithType);
+      Preconditions.checkArgument(
+          dedupTimeFieldSpec.isSingleValueField() && dedupTimeFieldSpec.getDataType().getStoredType().isNumeric(),
+          "Dedup time column: %s must be a single-value numeric column for table: %s, got: %s", _dedupTimeColumn,
+          _tableNameWithType, dedupTimeFieldSpec.getDataType());
+    }
   }
 
   public PartitionDedupMetadataManager getOrCreatePartitionManager(int partitionId) {
@@ -62,4 +82,12 @@ abstract class BaseTableDedupMetadataManager implements TableDedupMetadataManage
    * Create PartitionDedupMetadataManager for given partition id.
    */
   abstract protected PartitionDedupMetadataManager createPartitionDedupMetadataManager(Integer partitionId);
+
+  @Override
+  public void close()
+      throws IOException {
+    for (PartitionDedupMetadataManager metadataManager : _partitionMetadataManagerMap.values()) {
+      metadataManager.close();
+    }
+  }
 }
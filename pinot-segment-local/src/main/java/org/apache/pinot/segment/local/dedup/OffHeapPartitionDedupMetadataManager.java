@@ -0,0 +1,233 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.dedup;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.AtomicDouble;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentColumnReader;
+import org.apache.pinot.segment.local.upsert.UpsertUtils;
+import org.apache.pinot.segment.local.utils.HashUtils;
+import org.apache.pinot.segment.local.utils.OffHeapPrimaryKeyMap;
+import org.apache.pinot.segment.local.utils.OffHeapPrimaryKeyMap.Location;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.spi.config.table.HashFunction;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Implementation of {@link PartitionDedupMetadataManager} that keeps the primary keys in an
+ * {@link OffHeapPrimaryKeyMap} instead of the heap.
+ *
+ * <p>Each primary key is stored as a 128-bit hash together with the id of the segment holding it and the dedup time.
+ * When metadata TTL is enabled, primary keys with dedup time older than (largest seen dedup time - TTL) are removed
+ * by {@link #removeExpiredPrimaryKeys()}, which is invoked before a new consuming segment starts consuming. Records
+ * that are already out of the TTL are not tracked.
+ */
+class OffHeapPartitionDedupMetadataManager implements PartitionDedupMetadataManager {
+  private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapPartitionDedupMetadataManager.class);
+
+  private final String _tableNameWithType;
+  private final List<String> _primaryKeyColumns;
+  private final int _partitionId;
+  private final ServerMetrics _serverMetrics;
+  private final HashFunction _hashFunction;
+  private final double _metadataTTL;
+  private final String _dedupTimeColumn;
+
+  @VisibleForTesting
+  final OffHeapPrimaryKeyMap _primaryKeyToSegmentMap;
+  private final AtomicDouble _largestSeenTime = new AtomicDouble(Double.NEGATIVE_INFINITY);
+
+  private final AtomicInteger _nextSegmentId = new AtomicInteger();
+  private final Map<IndexSegment, Integer> _segmentToIdMap = new ConcurrentHashMap<>();
+  private final Map<Integer, IndexSegment> _idToSegmentMap = new ConcurrentHashMap<>();
+
+  public OffHeapPartitionDedupMetadataManager(String tableNameWithType, List<String> primaryKeyColumns,
+      int partitionId, ServerMetrics serverMetrics, HashFunction hashFunction, double metadataTTL,
+      @Nullable String dedupTimeColumn, int initialCapacity) {
+    _tableNameWithType = tableNameWithType;
+    _primaryKeyColumns = primaryKeyColumns;
+    _partitionId = partitionId;
+    _serverMetrics = serverMetrics;
+    _hashFunction = hashFunction;
+    _metadataTTL = metadataTTL;
+    _dedupTimeColumn = metadataTTL > 0 ? dedupTimeColumn : null;
+    _primaryKeyToSegmentMap = new OffHeapPrimaryKeyMap(initialCapacity,
+        "OffHeapPartitionDedupMetadataManager: " + tableNameWithType + "-" + partitionId);
+  }
+
+  @Override
+  public void addSegment(IndexSegment segment) {
+    int segmentId = getOrAssignSegmentId(segment);
+    int numTotalDocs = segment.getSegmentMetadata().getTotalDocs();
+    PrimaryKey primaryKey = new PrimaryKey(new Object[_primaryKeyColumns.size()]);
+    try (UpsertUtils.PrimaryKeyReader primaryKeyReader = new UpsertUtils.PrimaryKeyReader(segment,
+        _primaryKeyColumns);
+        PinotSegmentColumnReader dedupTimeReader = _dedupTimeColumn != null ? new PinotSegmentColumnReader(segment,
+            _dedupTimeColumn) : null) {
+      for (int docId = 0; docId < numTotalDocs; docId++) {
+        double dedupTime = 0;
+        if (dedupTimeReader != null) {
+          dedupTime = ((Number) dedupTimeReader.getValue(docId)).doubleValue();
+          updateLargestSeenTime(dedupTime);
+          if (isOutOfMetadataTTL(dedupTime)) {
+            continue;
+          }
+        }
+        primaryKeyReader.getPrimaryKey(docId, primaryKey);
+        _primaryKeyToSegmentMap.put(getKey(primaryKey),
+            new Location(segmentId, docId, Double.doubleToLongBits(dedupTime)));
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(
+          String.format("Caught exception while adding segment: %s, table: %s", segment.getSegmentName(),
+              _tableNameWithType), e);
+    }
+    updatePrimaryKeyGauge();
+  }
+
+  @Override
+  public void removeSegment(IndexSegment segment) {
+    Integer segmentId = _segmentToIdMap.get(segment);
+    if (segmentId == null) {
+      return;
+    }
+    int numTotalDocs = segment.getSegmentMetadata().getTotalDocs();
+    PrimaryKey primaryKey = new PrimaryKey(new Object[_primaryKeyColumns.size()]);
+    try (UpsertUtils.PrimaryKeyReader primaryKeyReader = new UpsertUtils.PrimaryKeyReader(segment,
+        _primaryKeyColumns)) {
+      for (int docId = 0; docId < numTotalDocs; docId++) {
+        primaryKeyReader.getPrimaryKey(docId, primaryKey);
+        _primaryKeyToSegmentMap.compute(getKey(primaryKey), location -> {
+          if (location != null && location.getSegmentId() == segmentId) {
+            return null;
+          }
+          return location;
+        });
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(
+          String.format("Caught exception while removing segment: %s, table: %s", segment.getSegmentName(),
+              _tableNameWithType), e);
+    }
+    _segmentToIdMap.remove(segment);
+    _idToSegmentMap.remove(segmentId);
+    updatePrimaryKeyGauge();
+  }
+
+  @Nullable
+  @Override
+  public String getDedupTimeColumn() {
+    return _dedupTimeColumn;
+  }
+
+  @Override
+  public boolean checkRecordPresentOrUpdate(PrimaryKey pk, IndexSegment indexSegment) {
+    return checkRecordPresentOrUpdate(pk, 0, indexSegment);
+  }
+
+  @Override
+  public boolean checkRecordPresentOrUpdate(PrimaryKey pk, double dedupTime, IndexSegment indexSegment) {
+    if (_metadataTTL > 0) {
+      updateLargestSeenTime(dedupTime);
+      if (isOutOfMetadataTTL(dedupTime)) {
+        // The primary key might already be removed from the metadata, so we cannot tell whether it is a duplicate
+        return false;
+      }
+    }
+    int segmentId = getOrAssignSegmentId(indexSegment);
+    Location newLocation = new Location(segmentId, 0, Double.doubleToLongBits(dedupTime));
+    boolean[] present = new boolean[1];
+    _primaryKeyToSegmentMap.compute(getKey(pk), location -> {
+      // Location pointing to a removed segment is treated as absent
+      if (location != null && _idToSegmentMap.containsKey(location.getSegmentId())) {
+        present[0] = true;
+        return location;
+      }
+      return newLocation;
+    });
+    if (!present[0]) {
+      updatePrimaryKeyGauge();
+    }
+    return present[0];
+  }
+
+  @Override
+  public void removeExpiredPrimaryKeys() {
+    if (_metadataTTL <= 0) {
+      return;
+    }
+    long startTimeMs = System.currentTimeMillis();
+    double threshold = _largestSeenTime.get() - _metadataTTL;
+    int numKeysRemoved = _primaryKeyToSegmentMap.removeIf(
+        location -> !_idToSegmentMap.containsKey(location.getSegmentId())
+            || Double.longBitsToDouble(location.getValue()) < threshold);
+    updatePrimaryKeyGauge();
+    LOGGER.info("Removed {} expired primary keys for table: {}, partition: {} in {}ms", numKeysRemoved,
+        _tableNameWithType, _partitionId, System.currentTimeMillis() - startTimeMs);
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _primaryKeyToSegmentMap.close();
+    _segmentToIdMap.clear();
+    _idToSegmentMap.clear();
+  }
+
+  @VisibleForTesting
+  int getNumPrimaryKeys() {
+    return _primaryKeyToSegmentMap.size();
+  }
+
+  private byte[] getKey(PrimaryKey primaryKey) {
+    return OffHeapPrimaryKeyMap.getKey(HashUtils.hashPrimaryKey(primaryKey, _hashFunction));
+  }
+
+  private int getOrAssignSegmentId(IndexSegment segment) {
+    return _segmentToIdMap.computeIfAbsent(segment, k -> {
+      int segmentId = _nextSegmentId.incrementAndGet();
+      _idToSegmentMap.put(segmentId, k);
+      return segmentId;
+    });
+  }
+
+  private void updateLargestSeenTime(double dedupTime) {
+    _largestSeenTime.getAndUpdate(v -> Math.max(v, dedupTime));
+  }
+
+  private boolean isOutOfMetadataTTL(double dedupTime) {
+    return _metadataTTL > 0 && dedupTime < _largestSeenTime.get() - _metadataTTL;
+  }
+
+  private void updatePrimaryKeyGauge() {
+    _serverMetrics.setValueOfPartitionGauge(_tableNameWithType, _partitionId, ServerGauge.DEDUP_PRIMARY_KEYS_COUNT,
+        _primaryKeyToSegmentMap.size());
+  }
+}
@@ -18,11 +18,14 @@
  */
 package org.apache.pinot.segment.local.dedup;
 
+import java.io.Closeable;
+import java.io.IOException;
+import javax.annotation.Nullable;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.spi.data.readers.PrimaryKey;
 
 
-public interface PartitionDedupMetadataManager {
+public interface PartitionDedupMetadataManager extends Closeable {
   /**
    * Initializes the dedup metadata for the given immutable segment.
    */
@@ -38,4 +41,37 @@ public interface PartitionDedupMetadataManager {
    * Returns true if the key was already present.
    */
   boolean checkRecordPresentOrUpdate(PrimaryKey pk, IndexSegment indexSegment);
+
+  /**
+   * Same as {@link #checkRecordPresentOrUpdate(PrimaryKey, IndexSegment)}, but also provides the dedup time of the
+   * record, which is used to expire the primary keys when metadata TTL is enabled.
+   */
+  default boolean checkRecordPresentOrUpdate(PrimaryKey pk, double dedupTime, IndexSegment indexSegment) {
+    return checkRecordPresentOrUpdate(pk, indexSegment);
+  }
+
+  /**
+   * Returns the column to read the dedup time of the ingested records from, or {@code null} if the dedup time is not
+   * needed, i.e. metadata TTL is not enabled or not supported. The column is validated to be a single-value numeric
+   * column when the table dedup metadata manager is initialized.
+   */
+  @Nullable
+  default String getDedupTimeColumn() {
+    return null;
+  }
+
+  /**
+   * Removes the primary keys that are out of the metadata TTL, i.e. with dedup time smaller than (largest seen dedup
+   * time - TTL). No-op if metadata TTL is not supported or not enabled.
+   */
+  default void removeExpiredPrimaryKeys() {
+  }
+
+  /**
+   * Releases the resources held by the dedup metadata.
+   */
+  @Override
+  default void close()
+      throws IOException {
+  }
 }
@@ -18,13 +18,15 @@
  */
 package org.apache.pinot.segment.local.dedup;
 
+import java.io.Closeable;
+import java.io.IOException;
 import org.apache.pinot.common.metrics.ServerMetrics;
 import org.apache.pinot.segment.local.data.manager.TableDataManager;
 import org.apache.pinot.spi.config.table.TableConfig;
 import org.apache.pinot.spi.data.Schema;
 
 
-public interface TableDedupMetadataManager {
+public interface TableDedupMetadataManager extends Closeable {
   /**
    * Initialize TableDedupMetadataManager.
    */
@@ -34,4 +36,12 @@ public interface TableDedupMetadataManager {
    * Create a new PartitionDedupMetadataManager if not present already, otherwise return existing one.
    */
   PartitionDedupMetadataManager getOrCreatePartitionManager(int partitionId);
+
+  /**
+   * Releases the resources held by the dedup metadata of all the partitions.
+   */
+  @Override
+  default void close()
+      throws IOException {
+  }
 }
@@ -0,0 +1,144 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.indexsegment.mutable;
+
+import com.google.common.base.Preconditions;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * A batch of rows stored as one value vector per column, which can be indexed into the {@link MutableSegmentImpl} in
+ * bulk (see {@link MutableSegmentImpl#index(ColumnarRowBatch, org.apache.pinot.spi.stream.RowMetadata)}).
+ *
+ * <p>The values should already be transformed (same as the rows passed to {@link MutableSegmentImpl#index}), and the
+ * vector type should match the stored type of the column:
+ * <ul>
+ *   <li>INT/LONG/FLOAT/DOUBLE single-value column: int[]/long[]/float[]/double[]</li>
+ *   <li>BIG_DECIMAL/STRING/BYTES single-value column: BigDecimal[]/String[]/byte[][]</li>
+ *   <li>Multi-value column: Object[][] where each entry contains the values of a row</li>
+ * </ul>
+ * The vectors can be longer than the number of rows so that they can be reused across batches. Rows with null value
+ * should have the default null value in the vector, and be marked in the null rows of the column.
+ */
+public class ColumnarRowBatch {
+  private final int _numRows;
+  private final Map<String, Object> _valuesMap = new HashMap<>();
+  private final Map<String, RoaringBitmap> _nullRowsMap = new HashMap<>();
+
+  public ColumnarRowBatch(int numRows) {
+    _numRows = numRows;
+  }
+
+  public int getNumRows() {
+    return _numRows;
+  }
+
+  public ColumnarRowBatch putInts(String column, int[] values) {
+    Preconditions.checkArgument(values.length >= _numRows, "Not enough values for column: %s", column);
+    _valuesMap.put(column, values);
+    return this;
+  }
+
+  public ColumnarRowBatch putLongs(String column, long[] values) {
+    Preconditions.checkArgument(values.length >= _numRows, "Not enough values for column: %s", column);
+    _valuesMap.put(column, values);
+    return this;
+  }
+
+  public ColumnarRowBatch putFloats(String column, float[] values) {
+    Preconditions.checkArgument(values.length >= _numRows, "Not enough values for column: %s", column);
+    _valuesMap.put(column, values);
+    return this;
+  }
+
+  public ColumnarRowBatch putDoubles(String column, double[] values) {
+    Preconditions.checkArgument(values.length >= _numRows, "Not enough values for column: %s", column);
+    _valuesMap.put(column, values);
+    return this;
+  }
+
+  /**
+   * Puts the values for a BIG_DECIMAL/STRING/BYTES single-value column, or a multi-value column.
+   */
+  public ColumnarRowBatch putValues(String column, Object[] values) {
+    Preconditions.checkArgument(values.length >= _numRows, "Not enough values for column: %s", column);
+    _valuesMap.put(column, values);
+    return this;
+  }
+
+  /**
+   * Marks the rows (0-based within the batch) with null value for the given column.
+   */
+  public ColumnarRowBatch putNullRows(String column, RoaringBitmap nullRows) {
+    _nullRowsMap.put(column, nullRows);
+    return this;
+  }
+
+  /**
+   * Returns the value vector of the given column, or {@code null} if the column does not exist in the batch.
+   */
+  @Nullable
+  public Object getValues(String column) {
+    return _valuesMap.get(column);
+  }
+
+  @Nullable
+  public RoaringBitmap getNullRows(String column) {
+    return _nullRowsMap.get(column);
+  }
+
+  /**
+   * Returns the (boxed) value at the given row from the given value vector.
+   */
+  public static Object getValue(Object values, int rowId) {
+    if (values instanceof int[]) {
+      return ((int[]) values)[rowId];
+    }
+    if (values instanceof long[]) {
+      return ((long[]) values)[rowId];
+    }
+    if (values instanceof float[]) {
+      return ((float[]) values)[rowId];
+    }
+    if (values instanceof double[]) {
+      return ((double[]) values)[rowId];
+    }
+    return ((Object[]) values)[rowId];
+  }
+
+  /**
+   * Returns the given row as a {@link GenericRow}.
+   */
+  public GenericRow getRow(int rowId) {
+    GenericRow row = new GenericRow();
+    for (Map.Entry<String, Object> entry : _valuesMap.entrySet()) {
+      row.putValue(entry.getKey(), getValue(entry.getValue(), rowId));
+    }
+    for (Map.Entry<String, RoaringBitmap> entry : _nullRowsMap.entrySet()) {
+      if (entry.getValue().contains(rowId)) {
+        row.addNullValueField(entry.getKey());
+      }
+    }
+    return row;
+  }
+}
@@ -53,6 +53,7 @@ import org.apache.pinot.segment.local.realtime.impl.RealtimeSegmentStatsHistory;
 import org.apache.pinot.segment.local.realtime.impl.dictionary.BaseOffHeapMutableDictionary;
 import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshState;
 import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeLuceneTextIndex;
+import org.apache.pinot.segment.local.realtime.impl.json.OffHeapMutableJsonIndex;
 import org.apache.pinot.segment.local.realtime.impl.nullvalue.MutableNullValueVector;
 import org.apache.pinot.segment.local.segment.index.datasource.ImmutableDataSource;
 import org.apache.pinot.segment.local.segment.index.datasource.MutableDataSource;
@@ -106,6 +107,8 @@ import org.apache.pinot.spi.utils.ByteArray;
 import org.apache.pinot.spi.utils.FixedIntArray;
 import org.apache.pinot.spi.utils.builder.TableNameBuilder;
 import org.roaringbitmap.BatchIterator;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -162,6 +165,7 @@ public class MutableSegmentImpl implements MutableSegment {
   private RealtimeLuceneIndexRefreshState.RealtimeLuceneReaders _realtimeLuceneReaders;
 
   private final PartitionDedupMetadataManager _partitionDedupMetadataManager;
+  private final String _dedupTimeColumn;
 
   private final PartitionUpsertMetadataManager _partitionUpsertMetadataManager;
   private final List<String> _upsertComparisonColumns;
@@ -279,12 +283,22 @@ public class MutableSegmentImpl implements MutableSegment {
       FieldIndexConfigs indexConfigs =
           Optional.ofNullable(config.getIndexConfigByCol().get(column)).orElse(FieldIndexConfigs.EMPTY);
       boolean isDictionary = !isNoDictionaryColumn(indexConfigs, fieldSpec, column);
+      // Json index is sized with its own key-value stats instead of the column stats
+      int estimatedJsonIndexCardinality = 0;
+      int estimatedJsonIndexAvgKeyValueSize = 0;
+      if (indexConfigs.getConfig(StandardIndexes.json()).isEnabled()) {
+        String jsonIndexStatsKey = RealtimeSegmentStatsHistory.getJsonIndexStatsKey(column);
+        estimatedJsonIndexCardinality = _statsHistory.getEstimatedCardinality(jsonIndexStatsKey);
+        estimatedJsonIndexAvgKeyValueSize = _statsHistory.getEstimatedAvgColSize(jsonIndexStatsKey);
+      }
       MutableIndexContext context =
           MutableIndexContext.builder().withFieldSpec(fieldSpec).withMemoryManager(_memoryManager)
               .withDictionary(isDictionary).withCapacity(_capacity).offHeap(_offHeap).withSegmentName(_segmentName)
               .withEstimatedCardinality(_statsHistory.getEstimatedCardinality(column))
               .withEstimatedColSize(_statsHistory.getEstimatedAvgColSize(column))
               .withAvgNumMultiValues(_statsHistory.getEstimatedAvgColSize(column))
+              .withEstimatedJsonIndexCardinality(estimatedJsonIndexCardinality)
+              .withEstimatedJsonIndexAvgKeyValueSize(estimatedJsonIndexAvgKeyValueSize)
               .withConsumerDir(_consumerDir)
               .withFixedLengthBytes(fixedByteSize).build();
 
@@ -376,6 +390,7 @@ public class MutableSegmentImpl implements MutableSegment {
     }
 
     _partitionDedupMetadataManager = config.getPartitionDedupMetadataManager();
+    _dedupTimeColumn = config.getDedupTimeColumn();
 
     _partitionUpsertMetadataManager = config.getPartitionUpsertMetadataManager();
     if (_partitionUpsertMetadataManager != null) {
@@ -492,7 +507,14 @@ public class MutableSegmentImpl implements MutableSegment {
 
     if (isDedupEnabled()) {
       PrimaryKey primaryKey = row.getPrimaryKey(_schema.getPrimaryKeyColumns());
-      if (_partitionDedupMetadataManager.checkRecordPresentOrUpdate(primaryKey, this)) {
+      boolean present;
+      if (_dedupTimeColumn != null) {
+        double dedupTime = ((Number) row.getValue(_dedupTimeColumn)).doubleValue();
+        present = _partitionDedupMetadataManager.checkRecordPresentOrUpdate(primaryKey, dedupTime, this);
+      } else {
+        present = _partitionDedupMetadataManager.checkRecordPresentOrUpdate(primaryKey, this);
+      }
+      if (present) {
         if (_serverMetrics != null) {
           _serverMetrics.addMeteredTableValue(_realtimeTableName, ServerMeter.REALTIME_DEDUP_DROPPED, 1);
         }
@@ -550,6 +572,199 @@ public class MutableSegmentImpl implements MutableSegment {
     return canTakeMore;
   }
 
+  /**
+   * Indexes a batch of rows stored as column vectors. Compared to indexing the rows one by one, the dictionaries and
+   * the fixed-width forward indexes are updated in bulk for each column, and the number of indexed documents is
+   * published once after all the rows are indexed. When dedup, upsert or metrics aggregation is enabled, the rows are
+   * indexed one by one because they require per-row handling.
+   *
+   * <p>The batch must fit into the remaining capacity of the segment, otherwise {@link IllegalArgumentException} is
+   * thrown without indexing any row.
+   *
+   * @return Whether the segment can take more rows
+   */
+  public boolean index(ColumnarRowBatch batch, @Nullable RowMetadata rowMetadata)
+      throws IOException {
+    int numRows = batch.getNumRows();
+    Preconditions.checkArgument(numRows <= _capacity - _numDocsIndexed,
+        "Cannot index batch of %s rows into segment: %s with %s docs indexed and capacity: %s", numRows,
+        _segmentName, _numDocsIndexed, _capacity);
+    if (isDedupEnabled() || isUpsertEnabled() || isAggregateMetricsEnabled()) {
+      boolean canTakeMore = _numDocsIndexed < _capacity;
+      for (int i = 0; i < numRows; i++) {
+        canTakeMore = index(batch.getRow(i), rowMetadata);
+      }
+      return canTakeMore;
+    }
+    if (numRows == 0) {
+      return _numDocsIndexed < _capacity;
+    }
+
+    int startDocId = _numDocsIndexed;
+    int[] dictIds = new int[numRows];
+    for (Map.Entry<String, IndexContainer> entry : _indexContainerMap.entrySet()) {
+      String column = entry.getKey();
+      IndexContainer indexContainer = entry.getValue();
+      Object values = batch.getValues(column);
+      if (values == null) {
+        // Same as indexing a row without the column value
+        if (indexContainer._dictionary != null) {
+          recordIndexingError("DICTIONARY");
+        }
+        continue;
+      }
+
+      // Update the null value vector
+      RoaringBitmap nullRows = batch.getNullRows(column);
+      if (indexContainer._nullValueVector != null && nullRows != null) {
+        PeekableIntIterator iterator = nullRows.getIntIterator();
+        while (iterator.hasNext()) {
+          indexContainer._nullValueVector.setNull(startDocId + iterator.next());
+        }
+      }
+
+      if (indexContainer._fieldSpec.isSingleValueField()) {
+        addSVColumnValues(column, indexContainer, values, numRows, startDocId, dictIds);
+      } else {
+        addMVColumnValues(indexContainer, (Object[]) values, numRows, startDocId);
+      }
+    }
+    // Update number of documents indexed at last to make all the rows in the batch queryable at once
+    _numDocsIndexed = startDocId + numRows;
+
+    // Update last indexed time and latest ingestion time
+    _lastIndexedTimeMs = System.currentTimeMillis();
+    if (rowMetadata != null) {
+      _latestIngestionTimeMs = Math.max(_latestIngestionTimeMs, rowMetadata.getRecordIngestionTimeMs());
+    }
+
+    return _numDocsIndexed < _capacity;
+  }
+
+  private void addSVColumnValues(String column, IndexContainer indexContainer, Object values, int numRows,
+      int startDocId, int[] dictIds) {
+    DataType dataType = indexContainer._fieldSpec.getDataType();
+    DataType storedType = dataType.getStoredType();
+
+    // Update dictionary in bulk
+    MutableDictionary dictionary = indexContainer._dictionary;
+    if (dictionary != null) {
+      switch (storedType) {
+        case INT:
+          dictionary.index((int[]) values, numRows, dictIds);
+          break;
+        case LONG:
+          dictionary.index((long[]) values, numRows, dictIds);
+          break;
+        case FLOAT:
+          dictionary.index((float[]) values, numRows, dictIds);
+          break;
+        case DOUBLE:
+          dictionary.index((double[]) values, numRows, dictIds);
+          break;
+        default:
+          dictionary.index((Object[]) values, numRows, dictIds);
+          break;
+      }
+      indexContainer._minValue = dictionary.getMinVal();
+      indexContainer._maxValue = dictionary.getMaxVal();
+    }
+
+    // Check partitions
+    if (column.equals(_partitionColumn)) {
+      for (int i = 0; i < numRows; i++) {
+        checkPartition(column, indexContainer, dataType, ColumnarRowBatch.getValue(values, i));
+      }
+    }
+
+    // Update numValues info
+    indexContainer._valuesInfo.updateSVNumValues(numRows);
+
+    // Update indexes, where the forward index is updated in bulk when possible
+    for (Map.Entry<IndexType, MutableIndex> indexEntry : indexContainer._mutableIndexes.entrySet()) {
+      MutableIndex mutableIndex = indexEntry.getValue();
+      if (mutableIndex instanceof MutableForwardIndex) {
+        try {
+          if (setForwardIndexValues((MutableForwardIndex) mutableIndex, dictionary != null, storedType, values,
+              numRows, startDocId, dictIds)) {
+            continue;
+          }
+        } catch (Exception e) {
+          recordIndexingError(indexEntry.getKey(), e);
+          continue;
+        }
+      }
+      for (int i = 0; i < numRows; i++) {
+        try {
+          mutableIndex.add(ColumnarRowBatch.getValue(values, i), dictionary != null ? dictIds[i] : -1,
+              startDocId + i);
+        } catch (Exception e) {
+          recordIndexingError(indexEntry.getKey(), e);
+        }
+      }
+    }
+
+    if (dictionary == null) {
+      // Update min/max value from raw value
+      for (int i = 0; i < numRows; i++) {
+        updateRawMinMaxValue(indexContainer, dataType, ColumnarRowBatch.getValue(values, i));
+      }
+    }
+  }
+
+  /**
+   * Writes the values into the forward index in bulk, and returns {@code false} if the values cannot be written in
+   * bulk (e.g. variable-length values).
+   */
+  private static boolean setForwardIndexValues(MutableForwardIndex forwardIndex, boolean dictionaryEncoded,
+      DataType storedType, Object values, int numRows, int startDocId, int[] dictIds) {
+    if (dictionaryEncoded) {
+      forwardIndex.setDictIds(startDocId, dictIds, numRows);
+      return true;
+    }
+    switch (storedType) {
+      case INT:
+        forwardIndex.setInts(startDocId, (int[]) values, numRows);
+        return true;
+      case LONG:
+        forwardIndex.setLongs(startDocId, (long[]) values, numRows);
+        return true;
+      case FLOAT:
+        forwardIndex.setFloats(startDocId, (float[]) values, numRows);
+        return true;
+      case DOUBLE:
+        forwardIndex.setDoubles(startDocId, (double[]) values, numRows);
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private void addMVColumnValues(IndexContainer indexContainer, Object[] values, int numRows, int startDocId) {
+    DataType storedType = indexContainer._fieldSpec.getDataType().getStoredType();
+    MutableDictionary dictionary = indexContainer._dictionary;
+    for (int i = 0; i < numRows; i++) {
+      Object[] mvValues = (Object[]) values[i];
+      int[] dictIds = null;
+      if (dictionary != null) {
+        dictIds = dictionary.index(mvValues);
+      }
+      indexContainer._valuesInfo.updateVarByteMVMaxRowLengthInBytes(mvValues, storedType);
+      for (Map.Entry<IndexType, MutableIndex> indexEntry : indexContainer._mutableIndexes.entrySet()) {
+        try {
+          indexEntry.getValue().add(mvValues, dictIds, startDocId + i);
+        } catch (Exception e) {
+          recordIndexingError(indexEntry.getKey(), e);
+        }
+      }
+      indexContainer._valuesInfo.updateMVNumValues(mvValues.length);
+    }
+    if (dictionary != null) {
+      indexContainer._minValue = dictionary.getMinVal();
+      indexContainer._maxValue = dictionary.getMaxVal();
+    }
+  }
+
   private boolean isUpsertEnabled() {
     return _partitionUpsertMetadataManager != null;
   }
@@ -682,19 +897,7 @@ public class MutableSegmentImpl implements MutableSegment {
       if (fieldSpec.isSingleValueField()) {
         // Check partitions
         if (column.equals(_partitionColumn)) {
-          String stringValue = dataType.toString(value);
-          int partition = _partitionFunction.getPartition(stringValue);
-          if (partition != _mainPartitionId) {
-            if (indexContainer._partitions.add(partition)) {
-              // for every partition other than mainPartitionId, log a warning once
-              _logger.warn("Found new partition: {} from partition column: {}, value: {}", partition, column,
-                  stringValue);
-            }
-            // always emit a metric when a partition other than mainPartitionId is detected
-            if (_serverMetrics != null) {
-              _serverMetrics.addMeteredTableValue(_realtimeTableName, ServerMeter.REALTIME_PARTITION_MISMATCH, 1);
-            }
-          }
+          checkPartition(column, indexContainer, dataType, value);
         }
 
         // Update numValues info
@@ -714,23 +917,7 @@ public class MutableSegmentImpl implements MutableSegment {
           // Update min/max value from raw value
           // NOTE: Skip updating min/max value for aggregated metrics because the value will change over time.
           if (!isAggregateMetricsEnabled() || fieldSpec.getFieldType() != FieldSpec.FieldType.METRIC) {
-            Comparable comparable;
-            if (dataType == BYTES) {
-              comparable = new ByteArray((byte[]) value);
-            } else {
-              comparable = (Comparable) value;
-            }
-            if (indexContainer._minValue == null) {
-              indexContainer._minValue = comparable;
-              indexContainer._maxValue = comparable;
-            } else {
-              if (comparable.compareTo(indexContainer._minValue) < 0) {
-                indexContainer._minValue = comparable;
-              }
-              if (comparable.compareTo(indexContainer._maxValue) > 0) {
-                indexContainer._maxValue = comparable;
-              }
-            }
+            updateRawMinMaxValue(indexContainer, dataType, value);
           }
         }
       } else {
@@ -751,6 +938,41 @@ public class MutableSegmentImpl implements MutableSegment {
     }
   }
 
+  private void checkPartition(String column, IndexContainer indexContainer, DataType dataType, Object value) {
+    String stringValue = dataType.toString(value);
+    int partition = _partitionFunction.getPartition(stringValue);
+    if (partition != _mainPartitionId) {
+      if (indexContainer._partitions.add(partition)) {
+        // for every partition other than mainPartitionId, log a warning once
+        _logger.warn("Found new partition: {} from partition column: {}, value: {}", partition, column, stringValue);
+      }
+      // always emit a metric when a partition other than mainPartitionId is detected
+      if (_serverMetrics != null) {
+        _serverMetrics.addMeteredTableValue(_realtimeTableName, ServerMeter.REALTIME_PARTITION_MISMATCH, 1);
+      }
+    }
+  }
+
+  private static void updateRawMinMaxValue(IndexContainer indexContainer, DataType dataType, Object value) {
+    Comparable comparable;
+    if (dataType == BYTES) {
+      comparable = new ByteArray((byte[]) value);
+    } else {
+      comparable = (Comparable) value;
+    }
+    if (indexContainer._minValue == null) {
+      indexContainer._minValue = comparable;
+      indexContainer._maxValue = comparable;
+    } else {
+      if (comparable.compareTo(indexContainer._minValue) < 0) {
+        indexContainer._minValue = comparable;
+      }
+      if (comparable.compareTo(indexContainer._maxValue) > 0) {
+        indexContainer._maxValue = comparable;
+      }
+    }
+  }
+
   private void recordIndexingError(IndexType<?, ?, ?> indexType, Exception exception) {
     _logger.error("failed to index value with {}", indexType, exception);
     if (_serverMetrics != null) {
@@ -984,6 +1206,16 @@ public class MutableSegmentImpl implements MutableSegment {
             columnStats.setAvgColumnSize(dictionary.getAvgValueSize());
             segmentStats.setColumnStats(column, columnStats);
           }
+          // Record the json index key-value stats under a separate key, which are used to size the json index of the
+          // next consuming segment
+          MutableIndex jsonIndex = entry.getValue()._mutableIndexes.get(StandardIndexes.json());
+          if (jsonIndex instanceof OffHeapMutableJsonIndex) {
+            OffHeapMutableJsonIndex offHeapJsonIndex = (OffHeapMutableJsonIndex) jsonIndex;
+            RealtimeSegmentStatsHistory.ColumnStats jsonIndexStats = new RealtimeSegmentStatsHistory.ColumnStats();
+            jsonIndexStats.setCardinality(offHeapJsonIndex.getNumKeyValues());
+            jsonIndexStats.setAvgColumnSize(offHeapJsonIndex.getAvgKeyValueSize());
+            segmentStats.setColumnStats(RealtimeSegmentStatsHistory.getJsonIndexStatsKey(column), jsonIndexStats);
+          }
         }
         segmentStats.setNumRowsConsumed(_numDocsIndexed);
         segmentStats.setNumRowsIndexed(_numDocsIndexed);
@@ -1199,6 +1431,10 @@ public class MutableSegmentImpl implements MutableSegment {
       _numValues++;
     }
 
+    void updateSVNumValues(int numValues) {
+      _numValues += numValues;
+    }
+
     void updateMVNumValues(int numValuesInMVEntry) {
       _numValues += numValuesInMVEntry;
       _maxNumValuesPerMVEntry = Math.max(_maxNumValuesPerMVEntry, numValuesInMVEntry);
@@ -66,6 +66,7 @@ public class RealtimeSegmentConfig {
   private final boolean _upsertDropOutOfOrderRecord;
   private final PartitionUpsertMetadataManager _partitionUpsertMetadataManager;
   private final PartitionDedupMetadataManager _partitionDedupMetadataManager;
+  private final String _dedupTimeColumn;
   private final String _consumerDir;
   private final List<FieldConfig> _fieldConfigList;
   private final List<AggregationConfig> _ingestionAggregationConfigs;
@@ -79,8 +80,8 @@ public class RealtimeSegmentConfig {
       String consumerDir, UpsertConfig.Mode upsertMode, List<String> upsertComparisonColumns,
       String upsertDeleteRecordColumn, String upsertOutOfOrderRecordColumn, boolean upsertDropOutOfOrderRecord,
       PartitionUpsertMetadataManager partitionUpsertMetadataManager,
-      PartitionDedupMetadataManager partitionDedupMetadataManager, List<FieldConfig> fieldConfigList,
-      List<AggregationConfig> ingestionAggregationConfigs) {
+      PartitionDedupMetadataManager partitionDedupMetadataManager, String dedupTimeColumn,
+      List<FieldConfig> fieldConfigList, List<AggregationConfig> ingestionAggregationConfigs) {
     _tableNameWithType = tableNameWithType;
     _segmentName = segmentName;
     _streamName = streamName;
@@ -106,6 +107,7 @@ public class RealtimeSegmentConfig {
     _upsertDropOutOfOrderRecord = upsertDropOutOfOrderRecord;
     _partitionUpsertMetadataManager = partitionUpsertMetadataManager;
     _partitionDedupMetadataManager = partitionDedupMetadataManager;
+    _dedupTimeColumn = dedupTimeColumn;
     _fieldConfigList = fieldConfigList;
     _ingestionAggregationConfigs = ingestionAggregationConfigs;
   }
@@ -214,6 +216,10 @@ public class RealtimeSegmentConfig {
     return _partitionDedupMetadataManager;
   }
 
+  public String getDedupTimeColumn() {
+    return _dedupTimeColumn;
+  }
+
   public List<FieldConfig> getFieldConfigList() {
     return _fieldConfigList;
   }
@@ -248,6 +254,7 @@ public class RealtimeSegmentConfig {
     private boolean _upsertDropOutOfOrderRecord;
     private PartitionUpsertMetadataManager _partitionUpsertMetadataManager;
     private PartitionDedupMetadataManager _partitionDedupMetadataManager;
+    private String _dedupTimeColumn;
     private List<FieldConfig> _fieldConfigList;
     private List<AggregationConfig> _ingestionAggregationConfigs;
 
@@ -406,6 +413,11 @@ public class RealtimeSegmentConfig {
       return this;
     }
 
+    public Builder setDedupTimeColumn(String dedupTimeColumn) {
+      _dedupTimeColumn = dedupTimeColumn;
+      return this;
+    }
+
     public Builder setFieldConfigList(List<FieldConfig> fieldConfigList) {
       _fieldConfigList = fieldConfigList;
       return this;
@@ -427,7 +439,7 @@ public class RealtimeSegmentConfig {
           _memoryManager, _statsHistory, _partitionColumn, _partitionFunction, _partitionId, _aggregateMetrics,
           _nullHandlingEnabled, _consumerDir, _upsertMode, _upsertComparisonColumns, _upsertDeleteRecordColumn,
           _upsertOutOfOrderRecordColumn, _upsertDropOutOfOrderRecord,
-          _partitionUpsertMetadataManager, _partitionDedupMetadataManager, _fieldConfigList,
+          _partitionUpsertMetadataManager, _partitionDedupMetadataManager, _dedupTimeColumn, _fieldConfigList,
           _ingestionAggregationConfigs);
     }
   }
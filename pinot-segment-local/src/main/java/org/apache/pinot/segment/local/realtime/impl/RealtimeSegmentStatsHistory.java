@@ -54,6 +54,7 @@ public class RealtimeSegmentStatsHistory implements Serializable {
   private static final int DEFAULT_ROWS_TO_INDEX = 100000;
 
   private static final String OLD_PACKAGE_FOR_CLASS = "org.apache.pinot.core.realtime.impl";
+  private static final String JSON_INDEX_STATS_KEY_SUFFIX = "$jsonIndex";
 
   // XXX MAX_NUM_ENTRIES should be a final variable, but we need to modify it for testing.
   private static int _maxNumEntries = 16;  // Max number of past segments for which stats are kept
@@ -94,6 +95,15 @@ public class RealtimeSegmentStatsHistory implements Serializable {
     RealtimeSegmentStatsHistory._maxNumEntries = maxNumEntries;
   }
 
+  /**
+   * Returns the key under which the json index stats (number of distinct key-value pairs as the cardinality, and
+   * average key-value length as the column size) of the given column are recorded. The json index stats are kept
+   * separately from the column stats because they have no relation with the cardinality and size of the json documents.
+   */
+  public static String getJsonIndexStatsKey(String columnName) {
+    return columnName + JSON_INDEX_STATS_KEY_SUFFIX;
+  }
+
   public static class SegmentStats implements Serializable {
     private static final long serialVersionUID = 1L;
     private int _numRowsConsumed;   // Number of rows consumed
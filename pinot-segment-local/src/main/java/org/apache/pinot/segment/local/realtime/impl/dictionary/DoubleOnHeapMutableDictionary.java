@@ -51,6 +51,25 @@ public class DoubleOnHeapMutableDictionary extends BaseOnHeapMutableDictionary {
     return dictIds;
   }
 
+  @Override
+  public void index(double[] values, int length, int[] dictIds) {
+    // Update min/max value once for the whole batch
+    double min = _min;
+    double max = _max;
+    for (int i = 0; i < length; i++) {
+      double value = values[i];
+      if (value < min) {
+        min = value;
+      }
+      if (value > max) {
+        max = value;
+      }
+      dictIds[i] = indexValue(value);
+    }
+    _min = min;
+    _max = max;
+  }
+
   @Override
   public int compare(int dictId1, int dictId2) {
     return Double.compare(getDoubleValue(dictId1), getDoubleValue(dictId2));
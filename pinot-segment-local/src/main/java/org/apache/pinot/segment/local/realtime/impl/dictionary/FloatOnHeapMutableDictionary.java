@@ -51,6 +51,25 @@ public class FloatOnHeapMutableDictionary extends BaseOnHeapMutableDictionary {
     return dictIds;
   }
 
+  @Override
+  public void index(float[] values, int length, int[] dictIds) {
+    // Update min/max value once for the whole batch
+    float min = _min;
+    float max = _max;
+    for (int i = 0; i < length; i++) {
+      float value = values[i];
+      if (value < min) {
+        min = value;
+      }
+      if (value > max) {
+        max = value;
+      }
+      dictIds[i] = indexValue(value);
+    }
+    _min = min;
+    _max = max;
+  }
+
   @Override
   public int compare(int dictId1, int dictId2) {
     return Float.compare(getFloatValue(dictId1), getFloatValue(dictId2));
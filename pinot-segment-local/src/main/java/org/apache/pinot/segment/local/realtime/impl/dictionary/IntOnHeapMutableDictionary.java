@@ -51,6 +51,25 @@ public class IntOnHeapMutableDictionary extends BaseOnHeapMutableDictionary {
     return dictIds;
   }
 
+  @Override
+  public void index(int[] values, int length, int[] dictIds) {
+    // Update min/max value once for the whole batch
+    int min = _min;
+    int max = _max;
+    for (int i = 0; i < length; i++) {
+      int value = values[i];
+      if (value < min) {
+        min = value;
+      }
+      if (value > max) {
+        max = value;
+      }
+      dictIds[i] = indexValue(value);
+    }
+    _min = min;
+    _max = max;
+  }
+
   @Override
   public int compare(int dictId1, int dictId2) {
     return Integer.compare(getIntValue(dictId1), getIntValue(dictId2));
@@ -64,6 +64,25 @@ public class LongOffHeapMutableDictionary extends BaseOffHeapMutableDictionary {
     return dictIds;
   }
 
+  @Override
+  public void index(long[] values, int length, int[] dictIds) {
+    // Update min/max value once for the whole batch
+    long min = _min;
+    long max = _max;
+    for (int i = 0; i < length; i++) {
+      long value = values[i];
+      if (value < min) {
+        min = value;
+      }
+      if (value > max) {
+        max = value;
+      }
+      dictIds[i] = indexValue(value, null);
+    }
+    _min = min;
+    _max = max;
+  }
+
   @Override
   public int compare(int dictId1, int dictId2) {
     return Long.compare(getLongValue(dictId1), getLongValue(dictId2));
@@ -208,6 +208,86 @@ public class FixedByteSVMutableForwardIndex implements MutableForwardIndex {
     getWriterForRow(docId).setDouble(docId, value);
   }
 
+  @Override
+  public void setDictIds(int startDocId, int[] dictIds, int length) {
+    setInts(startDocId, dictIds, length);
+  }
+
+  @Override
+  public void setInts(int startDocId, int[] values, int length) {
+    if (length == 0) {
+      return;
+    }
+    addBufferIfNeeded(startDocId + length - 1);
+    int index = 0;
+    while (index < length) {
+      int docId = startDocId + index;
+      WriterWithOffset writer = getWriterForRow(docId);
+      int endIndex = index + getNumRowsLeftInChunk(docId, length - index);
+      for (; index < endIndex; index++) {
+        writer.setInt(startDocId + index, values[index]);
+      }
+    }
+  }
+
+  @Override
+  public void setLongs(int startDocId, long[] values, int length) {
+    if (length == 0) {
+      return;
+    }
+    addBufferIfNeeded(startDocId + length - 1);
+    int index = 0;
+    while (index < length) {
+      int docId = startDocId + index;
+      WriterWithOffset writer = getWriterForRow(docId);
+      int endIndex = index + getNumRowsLeftInChunk(docId, length - index);
+      for (; index < endIndex; index++) {
+        writer.setLong(startDocId + index, values[index]);
+      }
+    }
+  }
+
+  @Override
+  public void setFloats(int startDocId, float[] values, int length) {
+    if (length == 0) {
+      return;
+    }
+    addBufferIfNeeded(startDocId + length - 1);
+    int index = 0;
+    while (index < length) {
+      int docId = startDocId + index;
+      WriterWithOffset writer = getWriterForRow(docId);
+      int endIndex = index + getNumRowsLeftInChunk(docId, length - index);
+      for (; index < endIndex; index++) {
+        writer.setFloat(startDocId + index, values[index]);
+      }
+    }
+  }
+
+  @Override
+  public void setDoubles(int startDocId, double[] values, int length) {
+    if (length == 0) {
+      return;
+    }
+    addBufferIfNeeded(startDocId + length - 1);
+    int index = 0;
+    while (index < length) {
+      int docId = startDocId + index;
+      WriterWithOffset writer = getWriterForRow(docId);
+      int endIndex = index + getNumRowsLeftInChunk(docId, length - index);
+      for (; index < endIndex; index++) {
+        writer.setDouble(startDocId + index, values[index]);
+      }
+    }
+  }
+
+  /**
+   * Returns the number of rows that can be written into the chunk of the given row, capped by the given max rows.
+   */
+  private int getNumRowsLeftInChunk(int row, int maxRows) {
+    return Math.min(_numRowsPerChunk - row % _numRowsPerChunk, maxRows);
+  }
+
   @Override
   public byte[] getBytes(int docId) {
     int bufferId = getBufferId(docId);
@@ -18,69 +18,134 @@
  */
 package org.apache.pinot.segment.local.realtime.impl.invertedindex;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Arrays;
 import org.apache.pinot.segment.spi.index.mutable.MutableInvertedIndex;
-import org.apache.pinot.segment.spi.index.mutable.ThreadSafeMutableRoaringBitmap;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 
 
 /**
  * Real-time bitmap based inverted index reader which allows adding values on the fly.
- * <p>This class is thread-safe for single writer multiple readers.
+ * <p>This class is thread-safe for single writer multiple readers, and does not require any lock:
+ * <ul>
+ *   <li>
+ *     The writer appends the document ids into an append-only posting list for each dictionary id, and publishes the
+ *     new size (high-water mark) of the posting list after the document id is written.
+ *   </li>
+ *   <li>
+ *     The readers materialize the posting list into a bitmap up to the published size. The materialized bitmap is
+ *     cached in the posting list and extended incrementally with the document ids added afterwards.
+ *   </li>
+ * </ul>
  */
 public class RealtimeInvertedIndex implements MutableInvertedIndex {
-  private final List<ThreadSafeMutableRoaringBitmap> _bitmaps = new ArrayList<>();
-  private final ReentrantReadWriteLock.ReadLock _readLock;
-  private final ReentrantReadWriteLock.WriteLock _writeLock;
+  private static final int INITIAL_NUM_POSTING_LISTS = 16;
+  private static final int INITIAL_POSTING_LIST_CAPACITY = 4;
 
-  public RealtimeInvertedIndex() {
-    ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-    _readLock = readWriteLock.readLock();
-    _writeLock = readWriteLock.writeLock();
-  }
+  // NOTE: The array is replaced when expanding. Readers should read the number of posting lists before the array so
+  //       that all the posting lists before the published number are visible.
+  private volatile PostingList[] _postingLists = new PostingList[INITIAL_NUM_POSTING_LISTS];
+  private volatile int _numPostingLists;
 
   /**
    * Adds the document id to the bitmap of the given dictionary id.
    */
   @Override
   public void add(int dictId, int docId) {
-    if (_bitmaps.size() == dictId) {
-      // Bitmap for the dictionary id does not exist, add a new bitmap into the list
-      ThreadSafeMutableRoaringBitmap bitmap = new ThreadSafeMutableRoaringBitmap(docId);
-      try {
-        _writeLock.lock();
-        _bitmaps.add(bitmap);
-      } finally {
-        _writeLock.unlock();
+    int numPostingLists = _numPostingLists;
+    if (numPostingLists == dictId) {
+      // Posting list for the dictionary id does not exist, add a new posting list
+      PostingList[] postingLists = _postingLists;
+      if (numPostingLists == postingLists.length) {
+        postingLists = Arrays.copyOf(postingLists, numPostingLists * 2);
+        postingLists[numPostingLists] = new PostingList(docId);
+        _postingLists = postingLists;
+      } else {
+        postingLists[numPostingLists] = new PostingList(docId);
       }
+      _numPostingLists = numPostingLists + 1;
     } else {
-      // Bitmap for the dictionary id already exists, check and add document id into the bitmap
-      _bitmaps.get(dictId).add(docId);
+      // Posting list for the dictionary id already exists, add document id into the posting list
+      _postingLists[dictId].add(docId);
     }
   }
 
   @Override
   public MutableRoaringBitmap getDocIds(int dictId) {
-    ThreadSafeMutableRoaringBitmap bitmap;
-    try {
-      _readLock.lock();
-      // NOTE: the given dictionary id might not be added to the inverted index yet. We first add the value to the
-      // dictionary. Before the value is added to the inverted index, the query might have predicates that match the
-      // newly added value. In that case, the given dictionary id does not exist in the inverted index, and we return an
-      // empty bitmap. For multi-valued column, the dictionary id might be larger than the bitmap size (not equal).
-      if (_bitmaps.size() <= dictId) {
-        return new MutableRoaringBitmap();
-      }
-      bitmap = _bitmaps.get(dictId);
-    } finally {
-      _readLock.unlock();
+    // NOTE: the given dictionary id might not be added to the inverted index yet. We first add the value to the
+    // dictionary. Before the value is added to the inverted index, the query might have predicates that match the
+    // newly added value. In that case, the given dictionary id does not exist in the inverted index, and we return an
+    // empty bitmap. For multi-valued column, the dictionary id might be larger than the number of posting lists (not
+    // equal).
+    if (_numPostingLists <= dictId) {
+      return new MutableRoaringBitmap();
     }
-    return bitmap.getMutableRoaringBitmap();
+    return _postingLists[dictId].getDocIds();
   }
 
   @Override
   public void close() {
   }
+
+  /**
+   * Append-only document ids for a dictionary id, written by a single writer and read by multiple readers.
+   */
+  private static class PostingList {
+    private static final Snapshot EMPTY_SNAPSHOT = new Snapshot(new MutableRoaringBitmap(), 0);
+
+    // NOTE: The array is replaced when expanding, and all the document ids before the published size are copied into
+    //       the new array. Readers should read the size before the array.
+    private volatile int[] _docIds;
+    private volatile int _size;
+    // Bitmap materialized by the readers, which is never modified after being published
+    private volatile Snapshot _snapshot = EMPTY_SNAPSHOT;
+
+    PostingList(int firstDocId) {
+      int[] docIds = new int[INITIAL_POSTING_LIST_CAPACITY];
+      docIds[0] = firstDocId;
+      _docIds = docIds;
+      _size = 1;
+    }
+
+    void add(int docId) {
+      int size = _size;
+      int[] docIds = _docIds;
+      if (size == docIds.length) {
+        docIds = Arrays.copyOf(docIds, size * 2);
+        docIds[size] = docId;
+        _docIds = docIds;
+      } else {
+        docIds[size] = docId;
+      }
+      _size = size + 1;
+    }
+
+    /**
+     * Returns a copy of the bitmap containing all the published document ids, which can be modified by the caller.
+     */
+    MutableRoaringBitmap getDocIds() {
+      int size = _size;
+      Snapshot snapshot = _snapshot;
+      if (snapshot._size < size) {
+        // Extend the cached bitmap with the document ids added after it is materialized
+        // NOTE: Concurrent readers might publish the snapshots in any order, which is fine because all the snapshots
+        //       are valid, and a stale snapshot will be extended by the following reads.
+        int[] docIds = _docIds;
+        MutableRoaringBitmap bitmap = snapshot._bitmap.clone();
+        bitmap.addN(docIds, snapshot._size, size - snapshot._size);
+        snapshot = new Snapshot(bitmap, size);
+        _snapshot = snapshot;
+      }
+      return snapshot._bitmap.clone();
+    }
+  }
+
+  private static class Snapshot {
+    final MutableRoaringBitmap _bitmap;
+    final int _size;
+
+    Snapshot(MutableRoaringBitmap bitmap, int size) {
+      _bitmap = bitmap;
+      _size = size;
+    }
+  }
 }
@@ -0,0 +1,200 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.realtime.impl.json;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.apache.pinot.segment.local.realtime.impl.dictionary.StringOffHeapMutableDictionary;
+import org.apache.pinot.segment.local.realtime.impl.forward.FixedByteSVMutableForwardIndex;
+import org.apache.pinot.segment.spi.index.creator.JsonIndexCreator;
+import org.apache.pinot.segment.spi.memory.PinotDataBufferMemoryManager;
+import org.apache.pinot.spi.config.table.JsonIndexConfig;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.utils.JsonUtils;
+import org.roaringbitmap.IntConsumer;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * Off-heap json index for mutable segment.
+ * <p>The class is thread-safe for single writer and multiple readers, and the readers do not need to acquire any lock:
+ * <ul>
+ *   <li>Keys and key-value pairs are interned into off-heap dictionaries, where the dict ids are used as the posting
+ *   list ids.</li>
+ *   <li>Posting lists are append-only off-heap int lists (see {@link OffHeapMutablePostingLists}). Readers take a
+ *   snapshot of the posting list by reading its published size.</li>
+ *   <li>The number of flattened docs is published after all the flattened records of a doc are added, so that readers
+ *   can get a consistent view of the index by only reading the flattened docs within the published count.</li>
+ * </ul>
+ * <p>All the memory is allocated through the {@link PinotDataBufferMemoryManager}, so that it is tracked as part of the
+ * consuming segment memory usage.
+ */
+public class OffHeapMutableJsonIndex extends BaseMutableJsonIndex {
+  // Keys are the flattened json paths, which usually have low cardinality
+  private static final int ESTIMATED_KEY_CARDINALITY = 1000;
+  private static final int ESTIMATED_AVG_KEY_LENGTH = 32;
+  private static final int DOC_ID_MAPPING_NUM_ROWS_PER_CHUNK = 100_000;
+
+  private final StringOffHeapMutableDictionary _keyDictionary;
+  private final StringOffHeapMutableDictionary _keyValueDictionary;
+  // Key dict id -> flattened doc ids
+  private final OffHeapMutablePostingLists _keyPostingLists;
+  // Key-value dict id -> flattened doc ids
+  private final OffHeapMutablePostingLists _keyValuePostingLists;
+  // Key dict id -> key-value dict ids, used to look up all the values for a key
+  private final OffHeapMutablePostingLists _keyValueIds;
+  // Flattened doc id -> doc id
+  private final FixedByteSVMutableForwardIndex _docIdMapping;
+
+  private volatile int _nextDocId;
+  private volatile int _nextFlattenedDocId;
+
+  /**
+   * @param jsonIndexConfig Json index config
+   * @param memoryManager Memory manager to be used for allocating memory
+   * @param allocationContext Allocation context
+   * @param estimatedKeyValueCardinality Estimated number of distinct key-value pairs
+   * @param estimatedAvgKeyValueLength Estimated average length of the key-value pairs
+   */
+  public OffHeapMutableJsonIndex(JsonIndexConfig jsonIndexConfig, PinotDataBufferMemoryManager memoryManager,
+      String allocationContext, int estimatedKeyValueCardinality, int estimatedAvgKeyValueLength) {
+    super(jsonIndexConfig);
+    _keyDictionary = new StringOffHeapMutableDictionary(ESTIMATED_KEY_CARDINALITY, ESTIMATED_KEY_CARDINALITY / 10,
+        memoryManager, allocationContext + ".keys", ESTIMATED_AVG_KEY_LENGTH);
+    _keyValueDictionary =
+        new StringOffHeapMutableDictionary(estimatedKeyValueCardinality, estimatedKeyValueCardinality / 10,
+            memoryManager, allocationContext + ".keyValues", estimatedAvgKeyValueLength);
+    _keyPostingLists = new OffHeapMutablePostingLists(memoryManager, allocationContext + ".keyPostingLists");
+    _keyValuePostingLists = new OffHeapMutablePostingLists(memoryManager, allocationContext + ".keyValuePostingLists");
+    _keyValueIds = new OffHeapMutablePostingLists(memoryManager, allocationContext + ".keyValueIds");
+    _docIdMapping = new FixedByteSVMutableForwardIndex(true, DataType.INT, DOC_ID_MAPPING_NUM_ROWS_PER_CHUNK,
+        memoryManager, allocationContext + ".docIdMapping");
+  }
+
+  /**
+   * Adds the next json value.
+   */
+  @Override
+  public void add(String jsonString)
+      throws IOException {
+    int docId = _nextDocId;
+    try {
+      addFlattenedRecords(JsonUtils.flatten(jsonString, _jsonIndexConfig), docId);
+    } finally {
+      _nextDocId = docId + 1;
+    }
+  }
+
+  /**
+   * Adds the flattened records for the next document, and publishes the flattened docs after all of them are added.
+   */
+  private void addFlattenedRecords(List<Map<String, String>> records, int docId) {
+    int flattenedDocId = _nextFlattenedDocId;
+    Preconditions.checkState(flattenedDocId + records.size() >= 0, "Got more than %s flattened records",
+        Integer.MAX_VALUE);
+    for (Map<String, String> record : records) {
+      _docIdMapping.setDictId(flattenedDocId, docId);
+      for (Map.Entry<String, String> entry : record.entrySet()) {
+        // Put both key and key-value into the posting list. Key is useful for checking if a key exists in the json.
+        String key = entry.getKey();
+        int keyId = _keyDictionary.index(key);
+        _keyPostingLists.add(keyId, flattenedDocId);
+        int keyValueId = _keyValueDictionary.index(key + JsonIndexCreator.KEY_VALUE_SEPARATOR + entry.getValue());
+        if (keyValueId == _keyValuePostingLists.getNumLists()) {
+          // New key-value pair, link it to the key
+          _keyValueIds.add(keyId, keyValueId);
+        }
+        _keyValuePostingLists.add(keyValueId, flattenedDocId);
+      }
+      flattenedDocId++;
+    }
+    _nextFlattenedDocId = flattenedDocId;
+  }
+
+  @Override
+  protected int getNumDocs() {
+    return _nextDocId;
+  }
+
+  @Override
+  protected int getNumFlattenedDocs() {
+    return _nextFlattenedDocId;
+  }
+
+  @Override
+  protected int getDocId(int flattenedDocId) {
+    return _docIdMapping.getDictId(flattenedDocId);
+  }
+
+  @Nullable
+  @Override
+  protected RoaringBitmap getKeyPostingList(String key) {
+    int keyId = _keyDictionary.indexOf(key);
+    return keyId >= 0 ? _keyPostingLists.getBitmap(keyId) : null;
+  }
+
+  @Nullable
+  @Override
+  protected RoaringBitmap getPostingList(String keyValue) {
+    int keyValueId = _keyValueDictionary.indexOf(keyValue);
+    return keyValueId >= 0 ? _keyValuePostingLists.getBitmap(keyValueId) : null;
+  }
+
+  @Override
+  protected Iterable<String> getKeyValues(String key) {
+    int keyId = _keyDictionary.indexOf(key);
+    if (keyId < 0) {
+      return Collections.emptyList();
+    }
+    RoaringBitmap keyValueIds = _keyValueIds.getBitmap(keyId);
+    List<String> keyValues = new ArrayList<>(keyValueIds.getCardinality());
+    keyValueIds.forEach((IntConsumer) keyValueId -> keyValues.add(_keyValueDictionary.getStringValue(keyValueId)));
+    return keyValues;
+  }
+
+  /**
+   * Returns the number of distinct key-value pairs, which can be used to estimate the cardinality for the next segment.
+   */
+  public int getNumKeyValues() {
+    return _keyValueDictionary.length();
+  }
+
+  /**
+   * Returns the average length of the key-value pairs, which can be used to estimate the size for the next segment.
+   */
+  public int getAvgKeyValueSize() {
+    return _keyValueDictionary.getAvgValueSize();
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    _keyDictionary.close();
+    _keyValueDictionary.close();
+    _keyPostingLists.close();
+    _keyValuePostingLists.close();
+    _keyValueIds.close();
+    _docIdMapping.close();
+  }
+}
@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.realtime.impl.json;
+
+import com.google.common.base.Preconditions;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.segment.spi.memory.PinotDataBufferMemoryManager;
+import org.roaringbitmap.RoaringBitmap;
+
+
+/**
+ * Off-heap append-only int lists, used as the posting lists of the {@link OffHeapMutableJsonIndex}.
+ * <p>The class is thread-safe for single writer and multiple readers.
+ * <p>Values of each list are stored in a chain of blocks within the off-heap buffers. The block capacity doubles from
+ * INITIAL_BLOCK_CAPACITY (4) up to MAX_BLOCK_CAPACITY (1024) values, and the int after the values of a block stores the
+ * address (global int index across all the buffers) of the next block. Each block is stored in one buffer (no
+ * cross-buffer block allowed). New buffer is allocated when the previous buffer cannot hold the new block.
+ * <p>The size of each list is published with release semantics after the value is written, so that the readers can
+ * read a consistent prefix of the list without locking. The list metadata (size and head block address) is kept in
+ * on-heap arrays which are copied on expansion, and the list count is published after the arrays are expanded.
+ * <p>The maximum capacity is 2^29 ~= 536M ints (2GB), including the next block addresses.
+ */
+@ThreadSafe
+class OffHeapMutablePostingLists implements Closeable {
+  private static final VarHandle INT_ARRAY_HANDLE = MethodHandles.arrayElementVarHandle(int[].class);
+
+  // Each buffer holds 262_144 ints
+  // BUFFER_SIZE = 1_048_576
+  private static final int BUFFER_SHIFT_OFFSET = 18;
+  private static final int BUFFER_NUM_INTS = 1 << BUFFER_SHIFT_OFFSET;
+  private static final int BUFFER_SIZE = BUFFER_NUM_INTS << 2;
+  private static final int BUFFER_MASK = BUFFER_NUM_INTS - 1;
+
+  // With at most 2_048 buffers, we can store about 536M ints
+  // MAX_NUM_BUFFERS = 2_048
+  private static final int MAX_NUM_BUFFERS = 1 << 11;
+
+  private static final int INITIAL_BLOCK_CAPACITY = 4;
+  private static final int MAX_BLOCK_CAPACITY = 1024;
+  private static final int INITIAL_NUM_LISTS = 1024;
+
+  private final AtomicReferenceArray<PinotDataBuffer> _buffers = new AtomicReferenceArray<>(MAX_NUM_BUFFERS);
+  private final PinotDataBufferMemoryManager _memoryManager;
+  private final String _allocationContext;
+
+  // Accessed by both writer and readers. Readers should read the list count before reading the arrays.
+  private volatile int _numLists;
+  private volatile int[] _sizes = new int[INITIAL_NUM_LISTS];
+  private volatile int[] _headAddresses = new int[INITIAL_NUM_LISTS];
+
+  // Only accessed by the writer
+  private int[] _tailAddresses = new int[INITIAL_NUM_LISTS];
+  private int[] _tailEndAddresses = new int[INITIAL_NUM_LISTS];
+  private int _numBuffers;
+  private int _nextBlockAddress;
+  private long _totalBufferSize;
+
+  OffHeapMutablePostingLists(PinotDataBufferMemoryManager memoryManager, String allocationContext) {
+    _memoryManager = memoryManager;
+    _allocationContext = allocationContext;
+  }
+
+  /**
+   * Appends a value to the given list. The list id should be smaller or equal to the number of lists, where a new list
+   * is created when it equals the number of lists.
+   */
+  public void add(int listId, int value) {
+    int numLists = _numLists;
+    Preconditions.checkArgument(listId <= numLists, "List id: %s is larger than the number of lists: %s", listId,
+        numLists);
+    int[] sizes = _sizes;
+    if (listId == numLists) {
+      if (numLists == sizes.length) {
+        int newCapacity = numLists << 1;
+        _tailAddresses = Arrays.copyOf(_tailAddresses, newCapacity);
+        _tailEndAddresses = Arrays.copyOf(_tailEndAddresses, newCapacity);
+        _headAddresses = Arrays.copyOf(_headAddresses, newCapacity);
+        sizes = Arrays.copyOf(sizes, newCapacity);
+        _sizes = sizes;
+      }
+      int blockAddress = allocateBlock(INITIAL_BLOCK_CAPACITY);
+      putInt(blockAddress, value);
+      _tailAddresses[listId] = blockAddress + 1;
+      _tailEndAddresses[listId] = blockAddress + INITIAL_BLOCK_CAPACITY;
+      _headAddresses[listId] = blockAddress;
+      INT_ARRAY_HANDLE.setRelease(sizes, listId, 1);
+      _numLists = numLists + 1;
+    } else {
+      int size = sizes[listId];
+      int tailAddress = _tailAddresses[listId];
+      int tailEndAddress = _tailEndAddresses[listId];
+      if (tailAddress == tailEndAddress) {
+        // Tail block is full, allocate a new block and link it after the tail block
+        int blockCapacity = getBlockCapacity(size);
+        int blockAddress = allocateBlock(blockCapacity);
+        putInt(tailEndAddress, blockAddress);
+        tailAddress = blockAddress;
+        _tailEndAddresses[listId] = blockAddress + blockCapacity;
+      }
+      putInt(tailAddress, value);
+      _tailAddresses[listId] = tailAddress + 1;
+      INT_ARRAY_HANDLE.setRelease(sizes, listId, size + 1);
+    }
+  }
+
+  /**
+   * Returns the number of lists.
+   */
+  public int getNumLists() {
+    return _numLists;
+  }
+
+  /**
+   * Returns the values in the given list as a bitmap, or an empty bitmap if the list does not exist.
+   */
+  public RoaringBitmap getBitmap(int listId) {
+    RoaringBitmap bitmap = new RoaringBitmap();
+    if (listId >= _numLists) {
+      return bitmap;
+    }
+    // Read the size before reading the head address and the values
+    int size = (int) INT_ARRAY_HANDLE.getAcquire(_sizes, listId);
+    int address = _headAddresses[listId];
+    int[] buffer = new int[Math.min(size, MAX_BLOCK_CAPACITY)];
+    int position = 0;
+    while (true) {
+      int blockEndPosition = Math.min(position + getBlockCapacity(position), size);
+      int numValues = blockEndPosition - position;
+      PinotDataBuffer dataBuffer = _buffers.get(address >>> BUFFER_SHIFT_OFFSET);
+      int offset = (address & BUFFER_MASK) << 2;
+      for (int i = 0; i < numValues; i++) {
+        buffer[i] = dataBuffer.getInt(offset);
+        offset += Integer.BYTES;
+      }
+      bitmap.addN(buffer, 0, numValues);
+      position = blockEndPosition;
+      if (position == size) {
+        return bitmap;
+      }
+      // The next block address is stored right after the values of the current block
+      address = dataBuffer.getInt(offset);
+    }
+  }
+
+  /**
+   * Returns the total size of the off-heap buffers.
+   */
+  public long getTotalBufferSize() {
+    return _totalBufferSize;
+  }
+
+  /**
+   * Returns the capacity of the block starting at the given position of the list, where the capacity doubles for each
+   * new block so that the position of the block start is always {@code INITIAL_BLOCK_CAPACITY * (2^n - 1)} before
+   * reaching the max capacity.
+   */
+  private static int getBlockCapacity(int position) {
+    return Math.min(position + INITIAL_BLOCK_CAPACITY, MAX_BLOCK_CAPACITY);
+  }
+
+  /**
+   * Allocates a block with the given capacity and an extra int for the next block address, and returns the address of
+   * the block.
+   */
+  private int allocateBlock(int capacity) {
+    int blockSize = capacity + 1;
+    int blockAddress = _nextBlockAddress;
+    // If the current buffer does not have enough space, allocate a new buffer to store the block
+    if (blockAddress + blockSize > _numBuffers << BUFFER_SHIFT_OFFSET) {
+      Preconditions.checkState(_numBuffers < MAX_NUM_BUFFERS, "Got more than %s ints in the posting lists",
+          MAX_NUM_BUFFERS << BUFFER_SHIFT_OFFSET);
+      _buffers.set(_numBuffers, _memoryManager.allocate(BUFFER_SIZE, _allocationContext));
+      _totalBufferSize += BUFFER_SIZE;
+      blockAddress = _numBuffers << BUFFER_SHIFT_OFFSET;
+      _numBuffers++;
+    }
+    _nextBlockAddress = blockAddress + blockSize;
+    return blockAddress;
+  }
+
+  private void putInt(int address, int value) {
+    _buffers.get(address >>> BUFFER_SHIFT_OFFSET).putInt((address & BUFFER_MASK) << 2, value);
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    for (int i = 0; i < _numBuffers; i++) {
+      _buffers.get(i).close();
+    }
+  }
+}
@@ -18,8 +18,11 @@
  */
 package org.apache.pinot.segment.local.segment.creator;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.pinot.common.Utils;
 import org.apache.pinot.segment.local.segment.creator.impl.stats.SegmentPreIndexStatsCollectorImpl;
+import org.apache.pinot.segment.local.utils.ColumnTaskExecutor;
 import org.apache.pinot.segment.spi.creator.SegmentCreationDataSource;
 import org.apache.pinot.segment.spi.creator.SegmentPreIndexStatsCollector;
 import org.apache.pinot.segment.spi.creator.StatsCollectorConfig;
@@ -66,18 +69,37 @@ public class RecordReaderSegmentCreationDataSource implements SegmentCreationDat
       collector.init();
 
       // Gather the stats
+      // In parallel mode, collect the stats in batches of rows so that different columns can be processed in parallel
+      List<GenericRow> rowBatch =
+          statsCollectorConfig.getNumThreads() > 1 ? new ArrayList<>(ColumnTaskExecutor.ROW_BATCH_SIZE) : null;
       GenericRow reuse = new GenericRow();
       TransformPipeline.Result reusedResult = new TransformPipeline.Result();
       while (_recordReader.hasNext()) {
-        reuse.clear();
+        if (rowBatch != null) {
+          // Rows are held by the batch, so they cannot be reused
+          reuse = new GenericRow();
+        } else {
+          reuse.clear();
+        }
 
         reuse = _recordReader.next(reuse);
         recordEnricherPipeline.run(reuse);
         transformPipeline.processRow(reuse, reusedResult);
-        for (GenericRow row : reusedResult.getTransformedRows()) {
-          collector.collectRow(row);
+        if (rowBatch != null) {
+          rowBatch.addAll(reusedResult.getTransformedRows());
+          if (rowBatch.size() >= ColumnTaskExecutor.ROW_BATCH_SIZE) {
+            collector.collectRows(rowBatch);
+            rowBatch.clear();
+          }
+        } else {
+          for (GenericRow row : reusedResult.getTransformedRows()) {
+            collector.collectRow(row);
+          }
         }
       }
+      if (rowBatch != null && !rowBatch.isEmpty()) {
+        collector.collectRows(rowBatch);
+      }
 
       collector.build();
       return collector;
@@ -24,10 +24,14 @@ import com.google.common.collect.Maps;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
@@ -40,6 +44,7 @@ import org.apache.pinot.segment.local.segment.index.dictionary.DictionaryIndexPl
 import org.apache.pinot.segment.local.segment.index.dictionary.DictionaryIndexType;
 import org.apache.pinot.segment.local.segment.index.forward.ForwardIndexType;
 import org.apache.pinot.segment.local.segment.readers.PinotSegmentColumnReader;
+import org.apache.pinot.segment.local.utils.ColumnTaskExecutor;
 import org.apache.pinot.segment.spi.IndexSegment;
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.compression.ChunkCompressionType;
@@ -90,14 +95,17 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   static final int METADATA_PROPERTY_LENGTH_LIMIT = 512;
   private SegmentGeneratorConfig _config;
   private TreeMap<String, ColumnIndexCreationInfo> _indexCreationInfoMap;
-  private final Map<String, SegmentDictionaryCreator> _dictionaryCreatorMap = new HashMap<>();
+  // Concurrent maps are used because the creators of different columns might be initialized in parallel
+  private final Map<String, SegmentDictionaryCreator> _dictionaryCreatorMap = new ConcurrentHashMap<>();
   /**
    * Contains, indexed by column name, the creator associated with each index type.
    *
    * Indexes whose build lifecycle is not DURING_SEGMENT_CREATION are not included here.
    */
-  private Map<String, Map<IndexType<?, ?, ?>, IndexCreator>> _creatorsByColAndIndex = new HashMap<>();
+  private Map<String, Map<IndexType<?, ?, ?>, IndexCreator>> _creatorsByColAndIndex = new ConcurrentHashMap<>();
   private final Map<String, NullValueVectorCreator> _nullValueVectorCreatorMap = new HashMap<>();
+  // Builds the indexes of different columns in parallel when multiple index creation threads are configured
+  private ColumnTaskExecutor _columnTaskExecutor;
   private String _segmentName;
   private Schema _schema;
   private File _indexDir;
@@ -112,6 +120,10 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     _docIdCounter = 0;
     _config = segmentCreationSpec;
     _indexCreationInfoMap = indexCreationInfoMap;
+    long memoryBudgetBytes = segmentCreationSpec.getIndexCreationMemoryBudgetBytes() > 0
+        ? segmentCreationSpec.getIndexCreationMemoryBudgetBytes() : Runtime.getRuntime().maxMemory() / 4;
+    _columnTaskExecutor =
+        new ColumnTaskExecutor("index-creator", segmentCreationSpec.getNumIndexCreationThreads(), memoryBudgetBytes);
 
     // Check that the output directory does not exist
     Preconditions.checkState(!outDir.exists(), "Segment output directory: %s already exists", outDir);
@@ -127,7 +139,7 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
 
     Map<String, FieldIndexConfigs> indexConfigs = segmentCreationSpec.getIndexConfigsByColName();
 
-    _creatorsByColAndIndex = Maps.newHashMapWithExpectedSize(indexConfigs.keySet().size());
+    _creatorsByColAndIndex = new ConcurrentHashMap<>();
 
     for (String columnName : indexConfigs.keySet()) {
       FieldSpec fieldSpec = schema.getFieldSpecFor(columnName);
@@ -136,85 +148,13 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         LOGGER.warn("Ignoring index creation for virtual column {}", columnName);
         continue;
       }
-
-      FieldIndexConfigs originalConfig = indexConfigs.get(columnName);
       ColumnIndexCreationInfo columnIndexCreationInfo = indexCreationInfoMap.get(columnName);
       Preconditions.checkNotNull(columnIndexCreationInfo, "Missing index creation info for column: %s", columnName);
-      boolean dictEnabledColumn = createDictionaryForColumn(columnIndexCreationInfo, segmentCreationSpec, fieldSpec);
-      if (originalConfig.getConfig(StandardIndexes.inverted()).isEnabled()) {
-        Preconditions.checkState(dictEnabledColumn,
-            "Cannot create inverted index for raw index column: %s", columnName);
-      }
-
-      IndexType<ForwardIndexConfig, ?, ForwardIndexCreator> forwardIdx = StandardIndexes.forward();
-      boolean forwardIndexDisabled = !originalConfig.getConfig(forwardIdx).isEnabled();
-
-      //@formatter:off
-      IndexCreationContext.Common context = IndexCreationContext.builder()
-          .withIndexDir(_indexDir)
-          .withDictionary(dictEnabledColumn)
-          .withFieldSpec(fieldSpec)
-          .withTotalDocs(segmentIndexCreationInfo.getTotalDocs())
-          .withColumnIndexCreationInfo(columnIndexCreationInfo)
-          .withOptimizedDictionary(_config.isOptimizeDictionary()
-              || _config.isOptimizeDictionaryForMetrics() && fieldSpec.getFieldType() == FieldSpec.FieldType.METRIC)
-          .onHeap(segmentCreationSpec.isOnHeap())
-          .withForwardIndexDisabled(forwardIndexDisabled)
-          .withTextCommitOnClose(true)
-          .withImmutableToMutableIdMap(immutableToMutableIdMap)
-          .withRealtimeConversion(segmentCreationSpec.isRealtimeConversion())
-          .withConsumerDir(segmentCreationSpec.getConsumerDir())
-          .build();
-      //@formatter:on
-
-      FieldIndexConfigs config = adaptConfig(columnName, originalConfig, columnIndexCreationInfo, segmentCreationSpec);
-
-      if (dictEnabledColumn) {
-        // Create dictionary-encoded index
-        // Initialize dictionary creator
-        // TODO: Dictionary creator holds all unique values on heap. Consider keeping dictionary instead of creator
-        //       which uses off-heap memory.
-
-        DictionaryIndexConfig dictConfig = config.getConfig(StandardIndexes.dictionary());
-        if (!dictConfig.isEnabled()) {
-          LOGGER.info("Creating dictionary index in column {}.{} even when it is disabled in config",
-              segmentCreationSpec.getTableName(), columnName);
-        }
-        SegmentDictionaryCreator creator =
-            new DictionaryIndexPlugin().getIndexType().createIndexCreator(context, dictConfig);
-
-        try {
-          creator.build(context.getSortedUniqueElementsArray());
-        } catch (Exception e) {
-          LOGGER.error("Error building dictionary for field: {}, cardinality: {}, number of bytes per entry: {}",
-              context.getFieldSpec().getName(), context.getCardinality(), creator.getNumBytesPerEntry());
-          throw e;
-        }
-
-        _dictionaryCreatorMap.put(columnName, creator);
-      }
-
-      Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex =
-          Maps.newHashMapWithExpectedSize(IndexService.getInstance().getAllIndexes().size());
-      for (IndexType<?, ?, ?> index : IndexService.getInstance().getAllIndexes()) {
-        if (index.getIndexBuildLifecycle() != IndexType.BuildLifecycle.DURING_SEGMENT_CREATION) {
-          continue;
-        }
-        tryCreateIndexCreator(creatorsByIndex, index, context, config);
-      }
-      // TODO: Remove this when values stored as ForwardIndex stop depending on TextIndex config
-      IndexCreator oldFwdCreator = creatorsByIndex.get(forwardIdx);
-      if (oldFwdCreator != null) {
-        Object fakeForwardValue = calculateRawValueForTextIndex(dictEnabledColumn, config, fieldSpec);
-        if (fakeForwardValue != null) {
-          ForwardIndexCreator castedOldFwdCreator = (ForwardIndexCreator) oldFwdCreator;
-          SameValueForwardIndexCreator fakeValueFwdCreator =
-              new SameValueForwardIndexCreator(fakeForwardValue, castedOldFwdCreator);
-          creatorsByIndex.put(forwardIdx, fakeValueFwdCreator);
-        }
-      }
-      _creatorsByColAndIndex.put(columnName, creatorsByIndex);
+      _columnTaskExecutor.submit(columnName, estimateMemoryBytes(columnName),
+          () -> initColumn(columnName, fieldSpec, indexConfigs.get(columnName), columnIndexCreationInfo,
+              segmentCreationSpec, segmentIndexCreationInfo, immutableToMutableIdMap));
     }
+    _columnTaskExecutor.awaitCompletion();
 
     // Although NullValueVector is implemented as an index, it needs to be treated in a different way than other indexes
     for (FieldSpec fieldSpec : schema.getAllFieldSpecs()) {
@@ -226,6 +166,110 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     }
   }
 
+  private void initColumn(String columnName, FieldSpec fieldSpec, FieldIndexConfigs originalConfig,
+      ColumnIndexCreationInfo columnIndexCreationInfo, SegmentGeneratorConfig segmentCreationSpec,
+      SegmentIndexCreationInfo segmentIndexCreationInfo, @Nullable int[] immutableToMutableIdMap)
+      throws Exception {
+    boolean dictEnabledColumn = createDictionaryForColumn(columnIndexCreationInfo, segmentCreationSpec, fieldSpec);
+    if (originalConfig.getConfig(StandardIndexes.inverted()).isEnabled()) {
+      Preconditions.checkState(dictEnabledColumn,
+          "Cannot create inverted index for raw index column: %s", columnName);
+    }
+
+    IndexType<ForwardIndexConfig, ?, ForwardIndexCreator> forwardIdx = StandardIndexes.forward();
+    boolean forwardIndexDisabled = !originalConfig.getConfig(forwardIdx).isEnabled();
+
+    //@formatter:off
+    IndexCreationContext.Common context = IndexCreationContext.builder()
+        .withIndexDir(_indexDir)
+        .withDictionary(dictEnabledColumn)
+        .withFieldSpec(fieldSpec)
+        .withTotalDocs(segmentIndexCreationInfo.getTotalDocs())
+        .withColumnIndexCreationInfo(columnIndexCreationInfo)
+        .withOptimizedDictionary(_config.isOptimizeDictionary()
+            || _config.isOptimizeDictionaryForMetrics() && fieldSpec.getFieldType() == FieldSpec.FieldType.METRIC)
+        .onHeap(segmentCreationSpec.isOnHeap())
+        .withForwardIndexDisabled(forwardIndexDisabled)
+        .withTextCommitOnClose(true)
+        .withImmutableToMutableIdMap(immutableToMutableIdMap)
+        .withRealtimeConversion(segmentCreationSpec.isRealtimeConversion())
+        .withConsumerDir(segmentCreationSpec.getConsumerDir())
+        .build();
+    //@formatter:on
+
+    FieldIndexConfigs config = adaptConfig(columnName, originalConfig, columnIndexCreationInfo, segmentCreationSpec);
+
+    if (dictEnabledColumn) {
+      // Create dictionary-encoded index
+      // Initialize dictionary creator
+      // TODO: Dictionary creator holds all unique values on heap. Consider keeping dictionary instead of creator
+      //       which uses off-heap memory.
+
+      DictionaryIndexConfig dictConfig = config.getConfig(StandardIndexes.dictionary());
+      if (!dictConfig.isEnabled()) {
+        LOGGER.info("Creating dictionary index in column {}.{} even when it is disabled in config",
+            segmentCreationSpec.getTableName(), columnName);
+      }
+      SegmentDictionaryCreator creator =
+          new DictionaryIndexPlugin().getIndexType().createIndexCreator(context, dictConfig);
+
+      try {
+        creator.build(context.getSortedUniqueElementsArray());
+      } catch (Exception e) {
+        LOGGER.error("Error building dictionary for field: {}, cardinality: {}, number of bytes per entry: {}",
+            context.getFieldSpec().getName(), context.getCardinality(), creator.getNumBytesPerEntry());
+        throw e;
+      }
+
+      _dictionaryCreatorMap.put(columnName, creator);
+    }
+
+    Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex =
+        Maps.newHashMapWithExpectedSize(IndexService.getInstance().getAllIndexes().size());
+    for (IndexType<?, ?, ?> index : IndexService.getInstance().getAllIndexes()) {
+      if (index.getIndexBuildLifecycle() != IndexType.BuildLifecycle.DURING_SEGMENT_CREATION) {
+        continue;
+      }
+      tryCreateIndexCreator(creatorsByIndex, index, context, config);
+    }
+    // TODO: Remove this when values stored as ForwardIndex stop depending on TextIndex config
+    IndexCreator oldFwdCreator = creatorsByIndex.get(forwardIdx);
+    if (oldFwdCreator != null) {
+      Object fakeForwardValue = calculateRawValueForTextIndex(dictEnabledColumn, config, fieldSpec);
+      if (fakeForwardValue != null) {
+        ForwardIndexCreator castedOldFwdCreator = (ForwardIndexCreator) oldFwdCreator;
+        SameValueForwardIndexCreator fakeValueFwdCreator =
+            new SameValueForwardIndexCreator(fakeForwardValue, castedOldFwdCreator);
+        creatorsByIndex.put(forwardIdx, fakeValueFwdCreator);
+      }
+    }
+    _creatorsByColAndIndex.put(columnName, creatorsByIndex);
+  }
+
+  /**
+   * Estimates the memory needed to build the indexes of a column, which is used to limit the columns built in parallel.
+   */
+  private long estimateMemoryBytes(String columnName) {
+    ColumnIndexCreationInfo columnIndexCreationInfo = _indexCreationInfoMap.get(columnName);
+    if (columnIndexCreationInfo == null) {
+      return 0;
+    }
+    return (long) columnIndexCreationInfo.getDistinctValueCount() * Math.max(
+        columnIndexCreationInfo.getLengthOfLongestEntry(), Long.BYTES)
+        + (long) columnIndexCreationInfo.getTotalNumberOfEntries() * Integer.BYTES;
+  }
+
+  private void submitColumnTask(String columnName, long estimatedMemoryBytes, ColumnTaskExecutor.ColumnTask task)
+      throws IOException {
+    try {
+      _columnTaskExecutor.submit(columnName, estimatedMemoryBytes, task);
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+  }
+
   private boolean isNullable(FieldSpec fieldSpec) {
     return _schema.isEnableColumnBasedNullHandling() ? fieldSpec.isNullable() : _config.isNullHandlingEnabled();
   }
@@ -309,35 +353,80 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
       throws IOException {
     for (Map.Entry<String, Map<IndexType<?, ?, ?>, IndexCreator>> byColEntry : _creatorsByColAndIndex.entrySet()) {
       String columnName = byColEntry.getKey();
+      indexRowValue(row, columnName, _schema.getFieldSpecFor(columnName), _dictionaryCreatorMap.get(columnName),
+          byColEntry.getValue());
+    }
 
-      Object columnValueToIndex = row.getValue(columnName);
-      if (columnValueToIndex == null) {
-        throw new RuntimeException("Null value for column:" + columnName);
+    for (Map.Entry<String, NullValueVectorCreator> entry : _nullValueVectorCreatorMap.entrySet()) {
+      // If row has null value for given column name, add to null value vector
+      if (row.isNullValue(entry.getKey())) {
+        entry.getValue().setNull(_docIdCounter);
       }
+    }
 
-      Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex = byColEntry.getValue();
+    _docIdCounter++;
+  }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When multiple index creation threads are configured, each column of the rows is indexed by a separate task.
+   */
+  @Override
+  public void indexRows(List<GenericRow> rows)
+      throws IOException {
+    if (!_columnTaskExecutor.isParallel()) {
+      for (GenericRow row : rows) {
+        indexRow(row);
+      }
+      return;
+    }
+
+    for (Map.Entry<String, Map<IndexType<?, ?, ?>, IndexCreator>> byColEntry : _creatorsByColAndIndex.entrySet()) {
+      String columnName = byColEntry.getKey();
+      Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex = byColEntry.getValue();
       FieldSpec fieldSpec = _schema.getFieldSpecFor(columnName);
       SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
-      try {
-        if (fieldSpec.isSingleValueField()) {
-          indexSingleValueRow(dictionaryCreator, columnValueToIndex, creatorsByIndex);
-        } else {
-          indexMultiValueRow(dictionaryCreator, (Object[]) columnValueToIndex, creatorsByIndex);
+      submitColumnTask(columnName, 0, () -> {
+        for (GenericRow row : rows) {
+          indexRowValue(row, columnName, fieldSpec, dictionaryCreator, creatorsByIndex);
         }
-      } catch (JsonParseException jpe) {
-        throw new ColumnJsonParserException(columnName, jpe);
-      }
+      });
     }
+    _columnTaskExecutor.awaitCompletionWithIOException();
 
     for (Map.Entry<String, NullValueVectorCreator> entry : _nullValueVectorCreatorMap.entrySet()) {
-      // If row has null value for given column name, add to null value vector
-      if (row.isNullValue(entry.getKey())) {
-        entry.getValue().setNull(_docIdCounter);
+      String columnName = entry.getKey();
+      NullValueVectorCreator nullValueVectorCreator = entry.getValue();
+      int numRows = rows.size();
+      for (int i = 0; i < numRows; i++) {
+        // If row has null value for given column name, add to null value vector
+        if (rows.get(i).isNullValue(columnName)) {
+          nullValueVectorCreator.setNull(_docIdCounter + i);
+        }
       }
     }
 
-    _docIdCounter++;
+    _docIdCounter += rows.size();
+  }
+
+  private void indexRowValue(GenericRow row, String columnName, FieldSpec fieldSpec,
+      @Nullable SegmentDictionaryCreator dictionaryCreator, Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex)
+      throws IOException {
+    Object columnValueToIndex = row.getValue(columnName);
+    if (columnValueToIndex == null) {
+      throw new RuntimeException("Null value for column:" + columnName);
+    }
+
+    try {
+      if (fieldSpec.isSingleValueField()) {
+        indexSingleValueRow(dictionaryCreator, columnValueToIndex, creatorsByIndex);
+      } else {
+        indexMultiValueRow(dictionaryCreator, (Object[]) columnValueToIndex, creatorsByIndex);
+      }
+    } catch (JsonParseException jpe) {
+      throw new ColumnJsonParserException(columnName, jpe);
+    }
   }
 
   @Override
@@ -369,6 +458,22 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>When multiple index creation threads are configured, each column is indexed by a separate task, and the number
+   * of columns indexed at the same time is limited by the memory budget.
+   */
+  @Override
+  public void indexColumns(Collection<String> columnNames, @Nullable int[] sortedDocIds, IndexSegment segment)
+      throws IOException {
+    for (String columnName : columnNames) {
+      submitColumnTask(columnName, estimateMemoryBytes(columnName),
+          () -> indexColumn(columnName, sortedDocIds, segment));
+    }
+    _columnTaskExecutor.awaitCompletionWithIOException();
+  }
+
   private void indexColumnValue(PinotSegmentColumnReader colReader,
       Map<IndexType<?, ?, ?>, IndexCreator> creatorsByIndex, String columnName, FieldSpec fieldSpec,
       SegmentDictionaryCreator dictionaryCreator, int sourceDocId, int onDiskDocPos,
@@ -449,18 +554,33 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
   @Override
   public void seal()
       throws ConfigurationException, IOException {
-    for (SegmentDictionaryCreator creator : _dictionaryCreatorMap.values()) {
-      creator.seal();
+    // Seal the creators column by column so that different columns can be sealed in parallel
+    Set<String> columnNames = new TreeSet<>(_dictionaryCreatorMap.keySet());
+    columnNames.addAll(_nullValueVectorCreatorMap.keySet());
+    columnNames.addAll(_creatorsByColAndIndex.keySet());
+    for (String columnName : columnNames) {
+      submitColumnTask(columnName, estimateMemoryBytes(columnName), () -> sealColumn(columnName));
+    }
+    _columnTaskExecutor.awaitCompletionWithIOException();
+    writeMetadata();
+  }
+
+  private void sealColumn(String columnName)
+      throws IOException {
+    SegmentDictionaryCreator dictionaryCreator = _dictionaryCreatorMap.get(columnName);
+    if (dictionaryCreator != null) {
+      dictionaryCreator.seal();
     }
-    for (NullValueVectorCreator creator : _nullValueVectorCreatorMap.values()) {
-      creator.seal();
+    NullValueVectorCreator nullValueVectorCreator = _nullValueVectorCreatorMap.get(columnName);
+    if (nullValueVectorCreator != null) {
+      nullValueVectorCreator.seal();
     }
-    for (Map<IndexType<?, ?, ?>, IndexCreator> creatorsByType : _creatorsByColAndIndex.values()) {
+    Map<IndexType<?, ?, ?>, IndexCreator> creatorsByType = _creatorsByColAndIndex.get(columnName);
+    if (creatorsByType != null) {
       for (IndexCreator creator : creatorsByType.values()) {
         creator.seal();
       }
     }
-    writeMetadata();
   }
 
   private void writeMetadata()
@@ -673,6 +793,9 @@ public class SegmentColumnarIndexCreator implements SegmentCreator {
         _creatorsByColAndIndex.values().stream().flatMap(map -> map.values().stream()).collect(Collectors.toList());
     creators.addAll(_nullValueVectorCreatorMap.values());
     creators.addAll(_dictionaryCreatorMap.values());
+    if (_columnTaskExecutor != null) {
+      _columnTaskExecutor.close();
+    }
     FileUtils.close(creators);
   }
 }
@@ -23,6 +23,7 @@ import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -46,6 +47,7 @@ import org.apache.pinot.segment.local.segment.index.dictionary.DictionaryIndexTy
 import org.apache.pinot.segment.local.segment.index.loader.IndexLoadingConfig;
 import org.apache.pinot.segment.local.segment.readers.PinotSegmentRecordReader;
 import org.apache.pinot.segment.local.startree.v2.builder.MultipleTreesBuilder;
+import org.apache.pinot.segment.local.utils.ColumnTaskExecutor;
 import org.apache.pinot.segment.local.utils.CrcUtils;
 import org.apache.pinot.segment.local.utils.IngestionUtils;
 import org.apache.pinot.segment.spi.IndexSegment;
@@ -199,8 +201,10 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
     }
 
     // Initialize stats collection
-    _segmentStats = dataSource.gatherStats(
-        new StatsCollectorConfig(config.getTableConfig(), _dataSchema, config.getSegmentPartitionConfig()));
+    StatsCollectorConfig statsCollectorConfig =
+        new StatsCollectorConfig(config.getTableConfig(), _dataSchema, config.getSegmentPartitionConfig());
+    statsCollectorConfig.setNumThreads(config.getNumIndexCreationThreads());
+    _segmentStats = dataSource.gatherStats(statsCollectorConfig);
     _totalDocs = _segmentStats.getTotalDocCount();
 
     // Initialize index creation
@@ -270,12 +274,20 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
       // Build the index
       _recordReader.rewind();
       LOGGER.info("Start building IndexCreator!");
+      // In parallel mode, index the rows in batches so that different columns can be indexed in parallel
+      List<GenericRow> rowBatch =
+          _config.getNumIndexCreationThreads() > 1 ? new ArrayList<>(ColumnTaskExecutor.ROW_BATCH_SIZE) : null;
       GenericRow reuse = new GenericRow();
       TransformPipeline.Result reusedResult = new TransformPipeline.Result();
       while (_recordReader.hasNext()) {
         long recordReadStopTime = System.nanoTime();
         long indexStopTime;
-        reuse.clear();
+        if (rowBatch != null) {
+          // Rows are held by the batch, so they cannot be reused
+          reuse = new GenericRow();
+        } else {
+          reuse.clear();
+        }
 
         try {
           long recordReadStartTime = System.nanoTime();
@@ -299,13 +311,24 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
           }
         }
 
-        for (GenericRow row : reusedResult.getTransformedRows()) {
-          _indexCreator.indexRow(row);
+        if (rowBatch != null) {
+          rowBatch.addAll(reusedResult.getTransformedRows());
+          if (rowBatch.size() >= ColumnTaskExecutor.ROW_BATCH_SIZE) {
+            _indexCreator.indexRows(rowBatch);
+            rowBatch.clear();
+          }
+        } else {
+          for (GenericRow row : reusedResult.getTransformedRows()) {
+            _indexCreator.indexRow(row);
+          }
         }
         indexStopTime = System.currentTimeMillis();
         _totalIndexTime += (indexStopTime - recordReadStopTime);
         incompleteRowsFound += reusedResult.getIncompleteRowCount();
       }
+      if (rowBatch != null && !rowBatch.isEmpty()) {
+        _indexCreator.indexRows(rowBatch);
+      }
     } catch (Exception e) {
       _indexCreator.close();
       throw e;
@@ -347,10 +370,7 @@ public class SegmentIndexCreationDriverImpl implements SegmentIndexCreationDrive
       LOGGER.info("Start building Index by column");
 
       TreeSet<String> columns = _dataSchema.getPhysicalColumnNames();
-
-      for (String col : columns) {
-        _indexCreator.indexColumn(col, sortedDocIds, indexSegment);
-      }
+      _indexCreator.indexColumns(columns, sortedDocIds, indexSegment);
     } catch (Exception e) {
       _indexCreator.close();
       throw e;
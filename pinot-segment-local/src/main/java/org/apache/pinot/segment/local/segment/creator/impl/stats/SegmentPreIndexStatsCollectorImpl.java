@@ -19,7 +19,9 @@
 package org.apache.pinot.segment.local.segment.creator.impl.stats;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import org.apache.pinot.segment.local.utils.ColumnTaskExecutor;
 import org.apache.pinot.segment.spi.creator.ColumnStatistics;
 import org.apache.pinot.segment.spi.creator.SegmentPreIndexStatsCollector;
 import org.apache.pinot.segment.spi.creator.StatsCollectorConfig;
@@ -35,6 +37,7 @@ public class SegmentPreIndexStatsCollectorImpl implements SegmentPreIndexStatsCo
 
   private final StatsCollectorConfig _statsCollectorConfig;
   private Map<String, AbstractColumnStatisticsCollector> _columnStatsCollectorMap;
+  private ColumnTaskExecutor _columnTaskExecutor;
   private int _totalDocCount;
 
   public SegmentPreIndexStatsCollectorImpl(StatsCollectorConfig statsCollectorConfig) {
@@ -75,12 +78,22 @@ public class SegmentPreIndexStatsCollectorImpl implements SegmentPreIndexStatsCo
           throw new IllegalStateException("Unsupported data type: " + fieldSpec.getDataType());
       }
     }
+
+    // Stats of different columns are collected and sealed in parallel when multiple threads are configured
+    _columnTaskExecutor = new ColumnTaskExecutor("stats-collector", _statsCollectorConfig.getNumThreads(), 0);
   }
 
   @Override
-  public void build() {
-    for (AbstractColumnStatisticsCollector columnStatsCollector : _columnStatsCollectorMap.values()) {
-      columnStatsCollector.seal();
+  public void build()
+      throws Exception {
+    try {
+      for (Map.Entry<String, AbstractColumnStatisticsCollector> entry : _columnStatsCollectorMap.entrySet()) {
+        AbstractColumnStatisticsCollector columnStatsCollector = entry.getValue();
+        _columnTaskExecutor.submit(entry.getKey(), 0, columnStatsCollector::seal);
+      }
+      _columnTaskExecutor.awaitCompletion();
+    } finally {
+      _columnTaskExecutor.close();
     }
   }
 
@@ -108,6 +121,36 @@ public class SegmentPreIndexStatsCollectorImpl implements SegmentPreIndexStatsCo
     _totalDocCount++;
   }
 
+  @Override
+  public void collectRows(List<GenericRow> rows)
+      throws Exception {
+    if (!_columnTaskExecutor.isParallel()) {
+      for (GenericRow row : rows) {
+        collectRow(row);
+      }
+      return;
+    }
+    for (Map.Entry<String, AbstractColumnStatisticsCollector> entry : _columnStatsCollectorMap.entrySet()) {
+      String columnName = entry.getKey();
+      AbstractColumnStatisticsCollector columnStatsCollector = entry.getValue();
+      _columnTaskExecutor.submit(columnName, 0, () -> {
+        for (GenericRow row : rows) {
+          Map<String, Object> fieldToValueMap = row.getFieldToValueMap();
+          if (fieldToValueMap.containsKey(columnName)) {
+            try {
+              columnStatsCollector.collect(fieldToValueMap.get(columnName));
+            } catch (Exception e) {
+              LOGGER.error("Exception while collecting stats for column:{} in row:{}", columnName, row);
+              throw e;
+            }
+          }
+        }
+      });
+    }
+    _columnTaskExecutor.awaitCompletion();
+    _totalDocCount += rows.size();
+  }
+
   @Override
   public int getTotalDocCount() {
     return _totalDocCount;
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
 import org.apache.pinot.segment.local.realtime.impl.json.MutableJsonIndexImpl;
+import org.apache.pinot.segment.local.realtime.impl.json.OffHeapMutableJsonIndex;
 import org.apache.pinot.segment.local.segment.creator.impl.inv.json.OffHeapJsonIndexCreator;
 import org.apache.pinot.segment.local.segment.creator.impl.inv.json.OnHeapJsonIndexCreator;
 import org.apache.pinot.segment.local.segment.index.loader.ConfigurableFromIndexLoadingConfig;
@@ -43,6 +44,7 @@ import org.apache.pinot.segment.spi.index.IndexHandler;
 import org.apache.pinot.segment.spi.index.IndexReaderConstraintException;
 import org.apache.pinot.segment.spi.index.IndexReaderFactory;
 import org.apache.pinot.segment.spi.index.IndexType;
+import org.apache.pinot.segment.spi.index.IndexUtil;
 import org.apache.pinot.segment.spi.index.StandardIndexes;
 import org.apache.pinot.segment.spi.index.creator.JsonIndexCreator;
 import org.apache.pinot.segment.spi.index.mutable.MutableIndex;
@@ -181,6 +183,12 @@ public class JsonIndexType extends AbstractIndexType<JsonIndexConfig, JsonIndexR
     if (!context.getFieldSpec().isSingleValueField()) {
       return null;
     }
+    if (context.isOffHeap()) {
+      String allocationContext = IndexUtil.buildAllocationContext(context.getSegmentName(),
+          context.getFieldSpec().getName(), V1Constants.Indexes.JSON_INDEX_FILE_EXTENSION);
+      return new OffHeapMutableJsonIndex(config, context.getMemoryManager(), allocationContext,
+          context.getEstimatedJsonIndexCardinality(), context.getEstimatedJsonIndexAvgKeyValueSize());
+    }
     return new MutableJsonIndexImpl(config);
   }
 }
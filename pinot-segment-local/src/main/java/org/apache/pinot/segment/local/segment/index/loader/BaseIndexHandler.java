@@ -22,9 +22,14 @@ import com.google.common.base.Preconditions;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.segment.local.utils.ColumnTaskExecutor;
+import org.apache.pinot.segment.local.utils.ColumnTaskExecutor.ColumnTask;
 import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.index.FieldIndexConfigs;
 import org.apache.pinot.segment.spi.index.ForwardIndexConfig;
@@ -51,6 +56,9 @@ public abstract class BaseIndexHandler implements IndexHandler {
   protected final Map<String, FieldIndexConfigs> _fieldIndexConfigs;
   @Nullable
   protected final TableConfig _tableConfig;
+  // Executor to create the indexes of different columns, the columns are processed sequentially when it is not set
+  @Nullable
+  protected ColumnTaskExecutor _columnTaskExecutor;
 
   public BaseIndexHandler(SegmentDirectory segmentDirectory, IndexLoadingConfig indexLoadingConfig) {
     this(segmentDirectory, indexLoadingConfig.getFieldIndexConfigByColName(), indexLoadingConfig.getTableConfig());
@@ -74,6 +82,58 @@ public abstract class BaseIndexHandler implements IndexHandler {
     _tmpForwardIndexColumns = new HashSet<>();
   }
 
+  public void setColumnTaskExecutor(@Nullable ColumnTaskExecutor columnTaskExecutor) {
+    _columnTaskExecutor = columnTaskExecutor;
+  }
+
+  /**
+   * Runs the tasks to create the indexes for the columns, in parallel if the column task executor is parallel.
+   * Columns without forward index are processed first on the calling thread because rebuilding the temporary forward
+   * index modifies the segment metadata shared by all the columns. The other columns only add their own indexes to the
+   * segment writer, and are processed in parallel under the memory budget of the executor.
+   */
+  protected void runColumnTasks(SegmentDirectory.Writer segmentWriter, LinkedHashMap<String, ColumnTask> columnTasks)
+      throws Exception {
+    if (columnTasks.isEmpty()) {
+      return;
+    }
+    if (_columnTaskExecutor == null || !_columnTaskExecutor.isParallel() || columnTasks.size() == 1) {
+      for (ColumnTask columnTask : columnTasks.values()) {
+        columnTask.run();
+      }
+    } else {
+      Map<String, ColumnTask> parallelColumnTasks = new LinkedHashMap<>();
+      for (Map.Entry<String, ColumnTask> entry : columnTasks.entrySet()) {
+        if (segmentWriter.hasIndexFor(entry.getKey(), StandardIndexes.forward())) {
+          parallelColumnTasks.put(entry.getKey(), entry.getValue());
+        } else {
+          entry.getValue().run();
+        }
+      }
+      SegmentMetadataImpl segmentMetadata = _segmentDirectory.getSegmentMetadata();
+      for (Map.Entry<String, ColumnTask> entry : parallelColumnTasks.entrySet()) {
+        String column = entry.getKey();
+        _columnTaskExecutor.submit(column, estimateMemoryBytes(segmentMetadata.getColumnMetadataFor(column)),
+            entry.getValue());
+      }
+      _columnTaskExecutor.awaitCompletion();
+    }
+    ServerMetrics.get().addMeteredGlobalValue(ServerMeter.SEGMENT_PREPROCESS_COLUMNS_PROCESSED, columnTasks.size());
+  }
+
+  /**
+   * Estimates the memory required to create an index for the column, which is dominated by buffering the values (or
+   * dictionary ids) of all the documents and the distinct values of the column.
+   */
+  private static long estimateMemoryBytes(@Nullable ColumnMetadata columnMetadata) {
+    if (columnMetadata == null) {
+      return 0;
+    }
+    long cardinality = Math.max(columnMetadata.getCardinality(), 0);
+    return cardinality * Math.max(columnMetadata.getColumnMaxLength(), Long.BYTES)
+        + (long) columnMetadata.getTotalNumberOfEntries() * Integer.BYTES;
+  }
+
   @Override
   public void postUpdateIndicesCleanup(SegmentDirectory.Writer segmentWriter)
       throws Exception {
@@ -22,8 +22,12 @@ import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.metrics.ServerTimer;
 import org.apache.pinot.segment.local.segment.index.loader.columnminmaxvalue.ColumnMinMaxValueGenerator;
 import org.apache.pinot.segment.local.segment.index.loader.columnminmaxvalue.ColumnMinMaxValueGeneratorMode;
 import org.apache.pinot.segment.local.segment.index.loader.defaultcolumn.DefaultColumnHandler;
@@ -32,6 +36,7 @@ import org.apache.pinot.segment.local.segment.index.loader.invertedindex.Inverte
 import org.apache.pinot.segment.local.startree.StarTreeBuilderUtils;
 import org.apache.pinot.segment.local.startree.v2.builder.MultipleTreesBuilder;
 import org.apache.pinot.segment.local.startree.v2.builder.StarTreeV2BuilderConfig;
+import org.apache.pinot.segment.local.utils.ColumnTaskExecutor;
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.index.IndexHandler;
 import org.apache.pinot.segment.spi.index.IndexService;
@@ -53,6 +58,8 @@ import org.slf4j.LoggerFactory;
  *   <li>Use {@link DefaultColumnHandler} to update auto-generated default columns</li>
  *   <li>Use {@link ColumnMinMaxValueGenerator} to add min/max value to column metadata</li>
  * </ul>
+ * <p>When {@link SegmentPreProcessorThreadPool} is initialized, the index handlers create the indexes of different
+ * columns in parallel on the shared thread pool.
  */
 public class SegmentPreProcessor implements AutoCloseable {
   private static final Logger LOGGER = LoggerFactory.getLogger(SegmentPreProcessor.class);
@@ -91,6 +98,29 @@ public class SegmentPreProcessor implements AutoCloseable {
     // This fixes the issue of temporary files not getting deleted after creating new inverted indexes.
     removeInvertedIndexTempFiles(indexDir);
 
+    SegmentPreProcessorThreadPool threadPool = SegmentPreProcessorThreadPool.getInstance();
+    ServerMetrics serverMetrics = ServerMetrics.get();
+    long startTimeMs = System.currentTimeMillis();
+    if (threadPool != null) {
+      threadPool.onSegmentProcessingStarted();
+    }
+    try (ColumnTaskExecutor columnTaskExecutor = threadPool != null ? threadPool.newColumnTaskExecutor() : null) {
+      process(indexDir, columnTaskExecutor);
+      serverMetrics.addMeteredGlobalValue(ServerMeter.SEGMENTS_PREPROCESSED, 1);
+    } catch (Exception e) {
+      serverMetrics.addMeteredGlobalValue(ServerMeter.SEGMENT_PREPROCESS_FAILURES, 1);
+      throw e;
+    } finally {
+      if (threadPool != null) {
+        threadPool.onSegmentProcessingFinished();
+      }
+      serverMetrics.addTimedValue(ServerTimer.SEGMENT_PREPROCESS_TIME_MS, System.currentTimeMillis() - startTimeMs,
+          TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void process(File indexDir, @Nullable ColumnTaskExecutor columnTaskExecutor)
+      throws Exception {
     try (SegmentDirectory.Writer segmentWriter = _segmentDirectory.createWriter()) {
       // Update default columns according to the schema.
       if (_schema != null) {
@@ -121,6 +151,9 @@ public class SegmentPreProcessor implements AutoCloseable {
       for (IndexType<?, ?, ?> type : IndexService.getInstance().getAllIndexes()) {
         if (type != StandardIndexes.forward()) {
           IndexHandler handler = createHandler(type);
+          if (handler instanceof BaseIndexHandler) {
+            ((BaseIndexHandler) handler).setColumnTaskExecutor(columnTaskExecutor);
+          }
           indexHandlers.add(handler);
           handler.updateIndices(segmentWriter);
           // Other IndexHandler classes may modify the segment metadata while creating a temporary forward
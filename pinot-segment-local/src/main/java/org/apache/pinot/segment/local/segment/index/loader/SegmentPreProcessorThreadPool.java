@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.loader;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metrics.ServerGauge;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.segment.local.utils.ColumnTaskExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This class manages the server-wide thread pool and memory budget used by {@link SegmentPreProcessor} to process the
+ * columns of the segments in parallel (e.g. creating the newly added indexes on reload or server startup). Because the
+ * pool and the budget are shared by all the segments being preprocessed, the total parallelism and memory usage are
+ * bounded regardless of how many segments are loaded at the same time. init() is called in BaseServerStarter; when it
+ * is not called (e.g. on controller or minion), the columns are processed sequentially.
+ */
+public class SegmentPreProcessorThreadPool {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SegmentPreProcessorThreadPool.class);
+
+  private static volatile SegmentPreProcessorThreadPool _singletonInstance;
+
+  private final ColumnTaskExecutor _columnTaskExecutor;
+  private final AtomicInteger _numSegmentsInProgress = new AtomicInteger();
+
+  private SegmentPreProcessorThreadPool(int numThreads, long memoryBudgetBytes) {
+    _columnTaskExecutor = new ColumnTaskExecutor("segment-preprocessor", numThreads, memoryBudgetBytes);
+  }
+
+  /**
+   * Initializes the thread pool with the given number of threads and memory budget. The columns are processed
+   * sequentially when the number of threads is less than 2. The memory budget defaults to 25% of the max heap size when
+   * it is not positive.
+   */
+  public static synchronized SegmentPreProcessorThreadPool init(int numThreads, long memoryBudgetBytes) {
+    if (memoryBudgetBytes <= 0) {
+      memoryBudgetBytes = Runtime.getRuntime().maxMemory() / 4;
+    }
+    LOGGER.info("Initializing segment preprocessor thread pool with {} threads and memory budget: {} bytes",
+        numThreads, memoryBudgetBytes);
+    if (_singletonInstance != null) {
+      _singletonInstance._columnTaskExecutor.close();
+    }
+    SegmentPreProcessorThreadPool instance = new SegmentPreProcessorThreadPool(numThreads, memoryBudgetBytes);
+    ServerMetrics.get()
+        .setOrUpdateGlobalGauge(ServerGauge.SEGMENTS_IN_PREPROCESSING, instance._numSegmentsInProgress::get);
+    _singletonInstance = instance;
+    return instance;
+  }
+
+  /**
+   * Returns the thread pool, or {@code null} if it is not initialized.
+   */
+  @Nullable
+  public static SegmentPreProcessorThreadPool getInstance() {
+    return _singletonInstance;
+  }
+
+  public static synchronized void shutDown() {
+    if (_singletonInstance != null) {
+      _singletonInstance._columnTaskExecutor.close();
+      _singletonInstance = null;
+    }
+  }
+
+  /**
+   * Returns a new executor to process the columns of a segment. The returned executor should be used by a single thread
+   * and closed after the segment is processed.
+   */
+  public ColumnTaskExecutor newColumnTaskExecutor() {
+    return _columnTaskExecutor.newSharedExecutor();
+  }
+
+  void onSegmentProcessingStarted() {
+    _numSegmentsInProgress.incrementAndGet();
+  }
+
+  void onSegmentProcessingFinished() {
+    _numSegmentsInProgress.decrementAndGet();
+  }
+}
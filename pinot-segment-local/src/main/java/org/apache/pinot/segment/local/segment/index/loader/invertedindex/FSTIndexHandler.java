@@ -21,6 +21,7 @@ package org.apache.pinot.segment.local.segment.index.loader.invertedindex;
 
 import java.io.File;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
@@ -29,6 +30,7 @@ import org.apache.pinot.segment.local.segment.index.dictionary.DictionaryIndexTy
 import org.apache.pinot.segment.local.segment.index.loader.BaseIndexHandler;
 import org.apache.pinot.segment.local.segment.index.loader.LoaderUtils;
 import org.apache.pinot.segment.local.segment.index.loader.SegmentPreProcessor;
+import org.apache.pinot.segment.local.utils.ColumnTaskExecutor.ColumnTask;
 import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.creator.IndexCreationContext;
 import org.apache.pinot.segment.spi.creator.SegmentVersion;
@@ -113,12 +115,14 @@ public class FSTIndexHandler extends BaseIndexHandler {
         LOGGER.info("Removed existing FST index from segment: {}, column: {}", segmentName, column);
       }
     }
+    LinkedHashMap<String, ColumnTask> columnTasks = new LinkedHashMap<>();
     for (String column : columnsToAddIdx) {
       ColumnMetadata columnMetadata = _segmentDirectory.getSegmentMetadata().getColumnMetadataFor(column);
       if (shouldCreateFSTIndex(columnMetadata)) {
-        createFSTIndexForColumn(segmentWriter, columnMetadata);
+        columnTasks.put(column, () -> createFSTIndexForColumn(segmentWriter, columnMetadata));
       }
     }
+    runColumnTasks(segmentWriter, columnTasks);
   }
 
   @Override
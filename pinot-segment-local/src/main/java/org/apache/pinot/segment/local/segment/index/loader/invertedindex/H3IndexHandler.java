@@ -21,6 +21,7 @@ package org.apache.pinot.segment.local.segment.index.loader.invertedindex;
 import com.google.common.base.Preconditions;
 import java.io.File;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
@@ -28,6 +29,7 @@ import org.apache.commons.io.FileUtils;
 import org.apache.pinot.segment.local.segment.index.forward.ForwardIndexType;
 import org.apache.pinot.segment.local.segment.index.loader.BaseIndexHandler;
 import org.apache.pinot.segment.local.segment.index.loader.LoaderUtils;
+import org.apache.pinot.segment.local.utils.ColumnTaskExecutor.ColumnTask;
 import org.apache.pinot.segment.local.utils.GeometrySerializer;
 import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.V1Constants;
@@ -97,12 +99,14 @@ public class H3IndexHandler extends BaseIndexHandler {
         LOGGER.info("Removed existing H3 index from segment: {}, column: {}", segmentName, column);
       }
     }
+    LinkedHashMap<String, ColumnTask> columnTasks = new LinkedHashMap<>();
     for (String column : columnsToAddIdx) {
       ColumnMetadata columnMetadata = _segmentDirectory.getSegmentMetadata().getColumnMetadataFor(column);
       if (shouldCreateH3Index(columnMetadata)) {
-        createH3IndexForColumn(segmentWriter, columnMetadata);
+        columnTasks.put(column, () -> createH3IndexForColumn(segmentWriter, columnMetadata));
       }
     }
+    runColumnTasks(segmentWriter, columnTasks);
   }
 
   private boolean shouldCreateH3Index(ColumnMetadata columnMetadata) {
@@ -20,6 +20,7 @@ package org.apache.pinot.segment.local.segment.index.loader.invertedindex;
 
 import java.io.File;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
@@ -27,6 +28,7 @@ import org.apache.commons.io.FileUtils;
 import org.apache.pinot.segment.local.segment.index.forward.ForwardIndexType;
 import org.apache.pinot.segment.local.segment.index.loader.BaseIndexHandler;
 import org.apache.pinot.segment.local.segment.index.loader.LoaderUtils;
+import org.apache.pinot.segment.local.utils.ColumnTaskExecutor.ColumnTask;
 import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.creator.IndexCreationContext;
@@ -95,12 +97,14 @@ public class InvertedIndexHandler extends BaseIndexHandler {
         LOGGER.info("Removed existing inverted index from segment: {}, column: {}", segmentName, column);
       }
     }
+    LinkedHashMap<String, ColumnTask> columnTasks = new LinkedHashMap<>();
     for (String column : columnsToAddIdx) {
       ColumnMetadata columnMetadata = _segmentDirectory.getSegmentMetadata().getColumnMetadataFor(column);
       if (shouldCreateInvertedIndex(columnMetadata)) {
-        createInvertedIndexForColumn(segmentWriter, columnMetadata);
+        columnTasks.put(column, () -> createInvertedIndexForColumn(segmentWriter, columnMetadata));
       }
     }
+    runColumnTasks(segmentWriter, columnTasks);
   }
 
   @Override
@@ -21,6 +21,7 @@ package org.apache.pinot.segment.local.segment.index.loader.invertedindex;
 import com.google.common.base.Preconditions;
 import java.io.File;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
@@ -29,6 +30,7 @@ import org.apache.pinot.segment.local.segment.index.dictionary.DictionaryIndexTy
 import org.apache.pinot.segment.local.segment.index.forward.ForwardIndexType;
 import org.apache.pinot.segment.local.segment.index.loader.BaseIndexHandler;
 import org.apache.pinot.segment.local.segment.index.loader.LoaderUtils;
+import org.apache.pinot.segment.local.utils.ColumnTaskExecutor.ColumnTask;
 import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.creator.IndexCreationContext;
@@ -97,12 +99,14 @@ public class JsonIndexHandler extends BaseIndexHandler {
         LOGGER.info("Removed existing json index from segment: {}, column: {}", segmentName, column);
       }
     }
+    LinkedHashMap<String, ColumnTask> columnTasks = new LinkedHashMap<>();
     for (String column : columnsToAddIdx) {
       ColumnMetadata columnMetadata = _segmentDirectory.getSegmentMetadata().getColumnMetadataFor(column);
       if (shouldCreateJsonIndex(columnMetadata)) {
-        createJsonIndexForColumn(segmentWriter, columnMetadata);
+        columnTasks.put(column, () -> createJsonIndexForColumn(segmentWriter, columnMetadata));
       }
     }
+    runColumnTasks(segmentWriter, columnTasks);
   }
 
   private boolean shouldCreateJsonIndex(ColumnMetadata columnMetadata) {
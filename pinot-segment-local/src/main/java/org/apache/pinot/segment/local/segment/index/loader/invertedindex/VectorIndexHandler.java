@@ -21,12 +21,14 @@ package org.apache.pinot.segment.local.segment.index.loader.invertedindex;
 import com.google.common.base.Preconditions;
 import java.io.File;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nullable;
 import org.apache.commons.io.FileUtils;
 import org.apache.pinot.segment.local.segment.index.forward.ForwardIndexType;
 import org.apache.pinot.segment.local.segment.index.loader.BaseIndexHandler;
+import org.apache.pinot.segment.local.utils.ColumnTaskExecutor.ColumnTask;
 import org.apache.pinot.segment.spi.ColumnMetadata;
 import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.creator.IndexCreationContext;
@@ -94,12 +96,14 @@ public class VectorIndexHandler extends BaseIndexHandler {
         LOGGER.info("Removed existing Vector index from segment: {}, column: {}", segmentName, column);
       }
     }
+    LinkedHashMap<String, ColumnTask> columnTasks = new LinkedHashMap<>();
     for (String column : columnsToAddIdx) {
       ColumnMetadata columnMetadata = _segmentDirectory.getSegmentMetadata().getColumnMetadataFor(column);
       if (shouldCreateVectorIndex(columnMetadata)) {
-        createVectorIndexForColumn(segmentWriter, columnMetadata);
+        columnTasks.put(column, () -> createVectorIndexForColumn(segmentWriter, columnMetadata));
       }
     }
+    runColumnTasks(segmentWriter, columnTasks);
   }
 
   private boolean shouldCreateVectorIndex(ColumnMetadata columnMetadata) {
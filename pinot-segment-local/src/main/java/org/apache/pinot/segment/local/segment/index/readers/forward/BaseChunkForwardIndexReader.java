@@ -311,6 +311,9 @@ public abstract class BaseChunkForwardIndexReader implements ForwardIndexReader<
         default:
           throw new IllegalArgumentException();
       }
+    } else if (_storedType == DataType.INT && isCompressedContiguousRange(docIds, length)) {
+      readCompressedContiguousRange(docIds[0], length, Integer.BYTES, context,
+          (chunkBuffer, offset, numValues) -> chunkBuffer.asIntBuffer().get(values, offset, numValues));
     } else {
       ForwardIndexReader.super.readValuesSV(docIds, length, values, context);
     }
@@ -353,6 +356,9 @@ public abstract class BaseChunkForwardIndexReader implements ForwardIndexReader<
         default:
           throw new IllegalArgumentException();
       }
+    } else if (_storedType == DataType.LONG && isCompressedContiguousRange(docIds, length)) {
+      readCompressedContiguousRange(docIds[0], length, Long.BYTES, context,
+          (chunkBuffer, offset, numValues) -> chunkBuffer.asLongBuffer().get(values, offset, numValues));
     } else {
       ForwardIndexReader.super.readValuesSV(docIds, length, values, context);
     }
@@ -395,6 +401,9 @@ public abstract class BaseChunkForwardIndexReader implements ForwardIndexReader<
         default:
           throw new IllegalArgumentException();
       }
+    } else if (_storedType == DataType.FLOAT && isCompressedContiguousRange(docIds, length)) {
+      readCompressedContiguousRange(docIds[0], length, Float.BYTES, context,
+          (chunkBuffer, offset, numValues) -> chunkBuffer.asFloatBuffer().get(values, offset, numValues));
     } else {
       ForwardIndexReader.super.readValuesSV(docIds, length, values, context);
     }
@@ -438,6 +447,9 @@ public abstract class BaseChunkForwardIndexReader implements ForwardIndexReader<
         default:
           throw new IllegalArgumentException();
       }
+    } else if (_storedType == DataType.DOUBLE && isCompressedContiguousRange(docIds, length)) {
+      readCompressedContiguousRange(docIds[0], length, Double.BYTES, context,
+          (chunkBuffer, offset, numValues) -> chunkBuffer.asDoubleBuffer().get(values, offset, numValues));
     } else {
       ForwardIndexReader.super.readValuesSV(docIds, length, values, context);
     }
@@ -454,4 +466,35 @@ public abstract class BaseChunkForwardIndexReader implements ForwardIndexReader<
   private boolean isContiguousRange(int[] docIds, int length) {
     return docIds[length - 1] - docIds[0] == length - 1;
   }
+
+  private boolean isCompressedContiguousRange(int[] docIds, int length) {
+    return _isCompressed && _isSingleValue && isContiguousRange(docIds, length);
+  }
+
+  /**
+   * Reads the fixed width values for a contiguous range of document ids from the compressed chunks. Each chunk is
+   * decompressed at most once, and the values within the chunk are bulk copied instead of being read one by one.
+   */
+  private void readCompressedContiguousRange(int startDocId, int length, int valueSize, ChunkReaderContext context,
+      ChunkValuesCopier copier) {
+    int docId = startDocId;
+    int offset = 0;
+    while (offset < length) {
+      int chunkId = getChunkId(docId);
+      int chunkRowId = docId - chunkId * _numDocsPerChunk;
+      int numValues = Math.min(length - offset, _numDocsPerChunk - chunkRowId);
+      ByteBuffer chunkBuffer = getChunkBuffer(docId, context);
+      // NOTE: Duplicate the buffer to not modify the position of the cached chunk buffer, and keep the byte order
+      //       because it is not preserved by duplicate()
+      ByteBuffer valuesBuffer = chunkBuffer.duplicate().order(chunkBuffer.order());
+      valuesBuffer.position(chunkRowId * valueSize);
+      copier.copy(valuesBuffer, offset, numValues);
+      docId += numValues;
+      offset += numValues;
+    }
+  }
+
+  private interface ChunkValuesCopier {
+    void copy(ByteBuffer chunkBuffer, int offset, int numValues);
+  }
 }
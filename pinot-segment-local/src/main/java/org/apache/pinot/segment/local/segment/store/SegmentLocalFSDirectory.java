@@ -402,22 +402,21 @@ public class SegmentLocalFSDirectory extends SegmentDirectory {
   }
 
   /***************************  SegmentDirectory Writer *********************/
-  // TODO: thread-safety. Single writer may be shared
-  // by multiple threads. This is not our typical use-case
-  // but it's nice to have interface guarantee that.
+  // The index access methods are synchronized so that a single writer can be shared by the threads creating the indexes
+  // of different columns in parallel (see BaseIndexHandler).
   public class Writer extends SegmentDirectory.Writer {
 
     public Writer() {
     }
 
     @Override
-    public PinotDataBuffer newIndexFor(String columnName, IndexType<?, ?, ?> indexType, long sizeBytes)
+    public synchronized PinotDataBuffer newIndexFor(String columnName, IndexType<?, ?, ?> indexType, long sizeBytes)
         throws IOException {
       return getNewIndexBuffer(new IndexKey(columnName, indexType), sizeBytes);
     }
 
     @Override
-    public void removeIndex(String columnName, IndexType<?, ?, ?> indexType) {
+    public synchronized void removeIndex(String columnName, IndexType<?, ?, ?> indexType) {
       _columnIndexDirectory.removeIndex(columnName, indexType);
     }
 
@@ -450,13 +449,13 @@ public class SegmentLocalFSDirectory extends SegmentDirectory {
     }
 
     @Override
-    public PinotDataBuffer getIndexFor(String column, IndexType<?, ?, ?> type)
+    public synchronized PinotDataBuffer getIndexFor(String column, IndexType<?, ?, ?> type)
         throws IOException {
       return getIndexForColumn(column, type);
     }
 
     @Override
-    public boolean hasIndexFor(String column, IndexType<?, ?, ?> type) {
+    public synchronized boolean hasIndexFor(String column, IndexType<?, ?, ?> type) {
       return _columnIndexDirectory.hasIndexFor(column, type);
     }
   }
@@ -0,0 +1,442 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.upsert;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.common.metrics.ServerMeter;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentImpl;
+import org.apache.pinot.segment.local.segment.readers.LazyRow;
+import org.apache.pinot.segment.local.utils.HashUtils;
+import org.apache.pinot.segment.local.utils.OffHeapPrimaryKeyMap;
+import org.apache.pinot.segment.local.utils.OffHeapPrimaryKeyMap.Location;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.MutableSegment;
+import org.apache.pinot.segment.spi.index.mutable.ThreadSafeMutableRoaringBitmap;
+import org.apache.pinot.spi.data.FieldSpec;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+
+/**
+ * Implementation of {@link PartitionUpsertMetadataManager} that is backed by an {@link OffHeapPrimaryKeyMap}, which
+ * keeps the primary key to record location map out of the heap.
+ *
+ * <p>Primary keys are stored as 128-bit hashes, and record locations are packed as (segment id, doc id, comparison
+ * value). Each tracked segment gets a positive segment id, and the id is released once the segment is removed or
+ * replaced. Entries pointing to a released segment id are treated as non-existing.
+ *
+ * <p>Only a single numeric comparison column is supported, because the comparison value is packed as a 64-bit value.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+@ThreadSafe
+public class OffHeapPartitionUpsertMetadataManager extends BasePartitionUpsertMetadataManager {
+
+  // Used to initialize a reference to previous row for merging in partial upsert
+  private final LazyRow _reusePreviousRow = new LazyRow();
+  private final Map<String, Object> _reuseMergeResultHolder = new HashMap<>();
+
+  @VisibleForTesting
+  final OffHeapPrimaryKeyMap _primaryKeyToRecordLocationMap;
+  private final boolean _floatingPointComparison;
+
+  private final AtomicInteger _nextSegmentId = new AtomicInteger();
+  private final Map<IndexSegment, Integer> _segmentToIdMap = new ConcurrentHashMap<>();
+  private final Map<Integer, IndexSegment> _idToSegmentMap = new ConcurrentHashMap<>();
+
+  public OffHeapPartitionUpsertMetadataManager(String tableNameWithType, int partitionId, UpsertContext context,
+      int initialCapacity) {
+    super(tableNameWithType, partitionId, context);
+    Preconditions.checkArgument(_comparisonColumns.size() == 1,
+        "Off-heap upsert metadata manager only supports single comparison column, got: %s for table: %s",
+        _comparisonColumns, tableNameWithType);
+    FieldSpec fieldSpec = context.getSchema().getFieldSpecFor(_comparisonColumns.get(0));
+    Preconditions.checkArgument(fieldSpec != null && fieldSpec.isSingleValueField() && fieldSpec.getDataType()
+            .getStoredType().isNumeric() && fieldSpec.getDataType().getStoredType() != FieldSpec.DataType.BIG_DECIMAL,
+        "Off-heap upsert metadata manager only supports INT/LONG/FLOAT/DOUBLE comparison column, got: %s for table: %s",
+        _comparisonColumns.get(0), tableNameWithType);
+    FieldSpec.DataType storedType = fieldSpec.getDataType().getStoredType();
+    _floatingPointComparison = storedType == FieldSpec.DataType.FLOAT || storedType == FieldSpec.DataType.DOUBLE;
+    _primaryKeyToRecordLocationMap = new OffHeapPrimaryKeyMap(initialCapacity,
+        "OffHeapPartitionUpsertMetadataManager: " + tableNameWithType + "-" + partitionId);
+  }
+
+  @Override
+  protected long getNumPrimaryKeys() {
+    return _primaryKeyToRecordLocationMap.size();
+  }
+
+  @Override
+  protected void addOrReplaceSegment(ImmutableSegmentImpl segment, ThreadSafeMutableRoaringBitmap validDocIds,
+      @Nullable ThreadSafeMutableRoaringBitmap queryableDocIds, Iterator<RecordInfo> recordInfoIterator,
+      @Nullable IndexSegment oldSegment, @Nullable MutableRoaringBitmap validDocIdsForOldSegment) {
+    String segmentName = segment.getSegmentName();
+    segment.enableUpsert(this, validDocIds, queryableDocIds);
+    int segmentId = getOrAssignSegmentId(segment);
+
+    if (_partialUpsertHandler != null) {
+      recordInfoIterator = resolveComparisonTies(recordInfoIterator, _hashFunction);
+    }
+    int[] numKeysInWrongSegment = new int[1];
+    while (recordInfoIterator.hasNext()) {
+      RecordInfo recordInfo = recordInfoIterator.next();
+      int newDocId = recordInfo.getDocId();
+      Comparable newComparisonValue = recordInfo.getComparisonValue();
+      Location newRecordLocation = new Location(segmentId, newDocId, toLong(newComparisonValue));
+      _primaryKeyToRecordLocationMap.compute(getKey(recordInfo.getPrimaryKey()), currentRecordLocation -> {
+        IndexSegment currentSegment = getSegment(currentRecordLocation);
+        if (currentSegment != null) {
+          // Existing primary key
+          int currentDocId = currentRecordLocation.getDocId();
+          int comparisonResult = compare(newComparisonValue, currentRecordLocation.getValue());
+
+          // The current record is in the same segment
+          // Update the record location when there is a tie to keep the newer record. Note that the record info
+          // iterator will return records with incremental doc ids.
+          if (currentSegment == segment) {
+            if (comparisonResult >= 0) {
+              replaceDocId(segment, validDocIds, queryableDocIds, currentDocId, newDocId, recordInfo);
+              return newRecordLocation;
+            } else {
+              return currentRecordLocation;
+            }
+          }
+
+          // The current record is in an old segment being replaced
+          // This could happen when committing a consuming segment, or reloading a completed segment. In this case, we
+          // want to update the record location when there is a tie because the record locations should point to the
+          // new added segment instead of the old segment being replaced. Also, do not update the valid doc ids for the
+          // old segment because it has not been replaced yet. We pass in an optional valid doc ids snapshot for the old
+          // segment, which can be updated and used to track the docs not replaced yet.
+          if (currentSegment == oldSegment) {
+            if (comparisonResult >= 0) {
+              addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+              if (validDocIdsForOldSegment != null) {
+                validDocIdsForOldSegment.remove(currentDocId);
+              }
+              return newRecordLocation;
+            } else {
+              return currentRecordLocation;
+            }
+          }
+
+          // This should not happen because the previously replaced segment should have all keys removed. We still
+          // handle it here, and also track the number of keys not properly replaced previously.
+          String currentSegmentName = currentSegment.getSegmentName();
+          if (currentSegmentName.equals(segmentName)) {
+            numKeysInWrongSegment[0]++;
+            if (comparisonResult >= 0) {
+              addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+              return newRecordLocation;
+            } else {
+              return currentRecordLocation;
+            }
+          }
+
+          // The current record is in a different segment
+          // Update the record location when getting a newer comparison value, or the value is the same as the
+          // current value, but the segment has a larger sequence number (the segment is newer than the current
+          // segment).
+          if (comparisonResult > 0 || (comparisonResult == 0 && shouldReplaceOnComparisonTie(segmentName,
+              currentSegmentName, segment.getSegmentMetadata().getIndexCreationTime(),
+              currentSegment.getSegmentMetadata().getIndexCreationTime()))) {
+            replaceDocId(segment, validDocIds, queryableDocIds, currentSegment, currentDocId, newDocId, recordInfo);
+            return newRecordLocation;
+          } else {
+            return currentRecordLocation;
+          }
+        } else {
+          // New primary key
+          addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+          return newRecordLocation;
+        }
+      });
+    }
+    int numKeys = numKeysInWrongSegment[0];
+    if (numKeys > 0) {
+      _logger.warn("Found {} primary keys in the wrong segment when adding segment: {}", numKeys, segmentName);
+      _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.UPSERT_KEYS_IN_WRONG_SEGMENT, numKeys);
+    }
+  }
+
+  @Override
+  protected void addSegmentWithoutUpsert(ImmutableSegmentImpl segment, ThreadSafeMutableRoaringBitmap validDocIds,
+      @Nullable ThreadSafeMutableRoaringBitmap queryableDocIds, Iterator<RecordInfo> recordInfoIterator) {
+    segment.enableUpsert(this, validDocIds, queryableDocIds);
+    int segmentId = getOrAssignSegmentId(segment);
+    while (recordInfoIterator.hasNext()) {
+      RecordInfo recordInfo = recordInfoIterator.next();
+      int newDocId = recordInfo.getDocId();
+      Comparable newComparisonValue = recordInfo.getComparisonValue();
+      addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+      _primaryKeyToRecordLocationMap.put(getKey(recordInfo.getPrimaryKey()),
+          new Location(segmentId, newDocId, toLong(newComparisonValue)));
+    }
+  }
+
+  @Override
+  protected void removeSegment(IndexSegment segment, MutableRoaringBitmap validDocIds) {
+    assert !validDocIds.isEmpty();
+
+    Integer segmentId = _segmentToIdMap.get(segment);
+    if (segmentId == null) {
+      return;
+    }
+    PrimaryKey primaryKey = new PrimaryKey(new Object[_primaryKeyColumns.size()]);
+    PeekableIntIterator iterator = validDocIds.getIntIterator();
+    try (
+        UpsertUtils.PrimaryKeyReader primaryKeyReader = new UpsertUtils.PrimaryKeyReader(segment, _primaryKeyColumns)) {
+      while (iterator.hasNext()) {
+        primaryKeyReader.getPrimaryKey(iterator.next(), primaryKey);
+        _primaryKeyToRecordLocationMap.compute(getKey(primaryKey), recordLocation -> {
+          if (recordLocation != null && recordLocation.getSegmentId() == segmentId) {
+            return null;
+          }
+          return recordLocation;
+        });
+      }
+    } catch (Exception e) {
+      throw new RuntimeException(
+          String.format("Caught exception while removing segment: %s, table: %s", segment.getSegmentName(),
+              _tableNameWithType), e);
+    }
+  }
+
+  @Override
+  public void replaceSegment(ImmutableSegment segment, IndexSegment oldSegment) {
+    super.replaceSegment(segment, oldSegment);
+    if (!_trackedSegments.contains(oldSegment)) {
+      releaseSegmentId(oldSegment);
+    }
+  }
+
+  @Override
+  public void removeSegment(IndexSegment segment) {
+    super.removeSegment(segment);
+    if (!_trackedSegments.contains(segment)) {
+      releaseSegmentId(segment);
+    }
+  }
+
+  @Override
+  public void doRemoveExpiredPrimaryKeys() {
+    int[] numMetadataTTLKeysRemoved = new int[1];
+    int[] numDeletedTTLKeysRemoved = new int[1];
+    double largestSeenComparisonValue = _largestSeenComparisonValue.get();
+    double metadataTTLKeysThreshold;
+    if (_metadataTTL > 0) {
+      metadataTTLKeysThreshold = largestSeenComparisonValue - _metadataTTL;
+    } else {
+      metadataTTLKeysThreshold = Double.MIN_VALUE;
+    }
+    double deletedKeysThreshold;
+    if (_deletedKeysTTL > 0) {
+      deletedKeysThreshold = largestSeenComparisonValue - _deletedKeysTTL;
+    } else {
+      deletedKeysThreshold = Double.MIN_VALUE;
+    }
+
+    _primaryKeyToRecordLocationMap.removeIf(recordLocation -> {
+      IndexSegment segment = getSegment(recordLocation);
+      if (segment == null) {
+        // Clean up the entries pointing to the removed segments
+        return true;
+      }
+      double comparisonValue = toDouble(recordLocation.getValue());
+      if (_metadataTTL > 0 && comparisonValue < metadataTTLKeysThreshold) {
+        numMetadataTTLKeysRemoved[0]++;
+        return true;
+      } else if (_deletedKeysTTL > 0 && comparisonValue < deletedKeysThreshold) {
+        ThreadSafeMutableRoaringBitmap currentQueryableDocIds = segment.getQueryableDocIds();
+        // if key not part of queryable doc id, it means it is deleted
+        if (currentQueryableDocIds != null && !currentQueryableDocIds.contains(recordLocation.getDocId())) {
+          removeDocId(segment, recordLocation.getDocId());
+          numDeletedTTLKeysRemoved[0]++;
+          return true;
+        }
+      }
+      return false;
+    });
+    if (_metadataTTL > 0) {
+      persistWatermark(largestSeenComparisonValue);
+    }
+
+    // Update metrics
+    updatePrimaryKeyGauge();
+    int numMetadataTTLKeys = numMetadataTTLKeysRemoved[0];
+    if (numMetadataTTLKeys > 0) {
+      _logger.info("Deleted {} primary keys based on metadataTTL", numMetadataTTLKeys);
+      _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.METADATA_TTL_PRIMARY_KEYS_REMOVED,
+          numMetadataTTLKeys);
+    }
+    int numDeletedTTLKeys = numDeletedTTLKeysRemoved[0];
+    if (numDeletedTTLKeys > 0) {
+      _logger.info("Deleted {} primary keys based on deletedKeysTTL", numDeletedTTLKeys);
+      _serverMetrics.addMeteredTableValue(_tableNameWithType, ServerMeter.DELETED_KEYS_TTL_PRIMARY_KEYS_REMOVED,
+          numDeletedTTLKeys);
+    }
+  }
+
+  @Override
+  protected boolean doAddRecord(MutableSegment segment, RecordInfo recordInfo) {
+    boolean[] isOutOfOrderRecord = new boolean[1];
+    ThreadSafeMutableRoaringBitmap validDocIds = Objects.requireNonNull(segment.getValidDocIds());
+    ThreadSafeMutableRoaringBitmap queryableDocIds = segment.getQueryableDocIds();
+    int segmentId = getOrAssignSegmentId(segment);
+    int newDocId = recordInfo.getDocId();
+    Comparable newComparisonValue = recordInfo.getComparisonValue();
+
+    // When TTL is enabled, update largestSeenComparisonValue when adding new record
+    if (_metadataTTL > 0 || _deletedKeysTTL > 0) {
+      double comparisonValue = ((Number) newComparisonValue).doubleValue();
+      _largestSeenComparisonValue.getAndUpdate(v -> Math.max(v, comparisonValue));
+    }
+
+    Location newRecordLocation = new Location(segmentId, newDocId, toLong(newComparisonValue));
+    _primaryKeyToRecordLocationMap.compute(getKey(recordInfo.getPrimaryKey()), currentRecordLocation -> {
+      IndexSegment currentSegment = getSegment(currentRecordLocation);
+      if (currentSegment != null) {
+        // Existing primary key
+
+        // Update the record location when the new comparison value is greater than or equal to the current value.
+        // Update the record location when there is a tie to keep the newer record.
+        if (compare(newComparisonValue, currentRecordLocation.getValue()) >= 0) {
+          int currentDocId = currentRecordLocation.getDocId();
+          if (segment == currentSegment) {
+            replaceDocId(segment, validDocIds, queryableDocIds, currentDocId, newDocId, recordInfo);
+          } else {
+            replaceDocId(segment, validDocIds, queryableDocIds, currentSegment, currentDocId, newDocId, recordInfo);
+          }
+          return newRecordLocation;
+        } else {
+          // Out-of-order record
+          handleOutOfOrderEvent(toComparable(currentRecordLocation.getValue()), recordInfo.getComparisonValue());
+          isOutOfOrderRecord[0] = true;
+          return currentRecordLocation;
+        }
+      } else {
+        // New primary key
+        addDocId(segment, validDocIds, queryableDocIds, newDocId, recordInfo);
+        return newRecordLocation;
+      }
+    });
+
+    updatePrimaryKeyGauge();
+    return !isOutOfOrderRecord[0];
+  }
+
+  @Override
+  protected GenericRow doUpdateRecord(GenericRow record, RecordInfo recordInfo) {
+    assert _partialUpsertHandler != null;
+    _primaryKeyToRecordLocationMap.compute(getKey(recordInfo.getPrimaryKey()), recordLocation -> {
+      IndexSegment currentSegment = getSegment(recordLocation);
+      // Read the previous record if the following conditions are met:
+      // - New record is not a DELETE record
+      // - New record is not out-of-order
+      // - Previous record is not deleted
+      if (currentSegment != null && !recordInfo.isDeleteRecord()
+          && compare(recordInfo.getComparisonValue(), recordLocation.getValue()) >= 0) {
+        ThreadSafeMutableRoaringBitmap currentQueryableDocIds = currentSegment.getQueryableDocIds();
+        int currentDocId = recordLocation.getDocId();
+        if (currentQueryableDocIds == null || currentQueryableDocIds.contains(currentDocId)) {
+          _reusePreviousRow.init(currentSegment, currentDocId);
+          _partialUpsertHandler.merge(_reusePreviousRow, record, _reuseMergeResultHolder);
+          _reuseMergeResultHolder.clear();
+        }
+      }
+      return recordLocation;
+    });
+    return record;
+  }
+
+  @Override
+  protected void doClose()
+      throws IOException {
+    _primaryKeyToRecordLocationMap.close();
+    _segmentToIdMap.clear();
+    _idToSegmentMap.clear();
+  }
+
+  private byte[] getKey(PrimaryKey primaryKey) {
+    return OffHeapPrimaryKeyMap.getKey(HashUtils.hashPrimaryKey(primaryKey, _hashFunction));
+  }
+
+  private int getOrAssignSegmentId(IndexSegment segment) {
+    return _segmentToIdMap.computeIfAbsent(segment, k -> {
+      int segmentId = _nextSegmentId.incrementAndGet();
+      Preconditions.checkState(segmentId > 0, "Ran out of segment ids for table: %s, partition: %s",
+          _tableNameWithType, _partitionId);
+      _idToSegmentMap.put(segmentId, k);
+      return segmentId;
+    });
+  }
+
+  private void releaseSegmentId(IndexSegment segment) {
+    Integer segmentId = _segmentToIdMap.remove(segment);
+    if (segmentId != null) {
+      _idToSegmentMap.remove(segmentId);
+    }
+  }
+
+  /**
+   * Returns the segment of the given record location, or {@code null} if the key does not exist or the segment is
+   * already released.
+   */
+  @Nullable
+  @VisibleForTesting
+  IndexSegment getSegment(@Nullable Location recordLocation) {
+    return recordLocation != null ? _idToSegmentMap.get(recordLocation.getSegmentId()) : null;
+  }
+
+  private long toLong(Comparable comparisonValue) {
+    Number number = (Number) comparisonValue;
+    return _floatingPointComparison ? Double.doubleToLongBits(number.doubleValue()) : number.longValue();
+  }
+
+  @VisibleForTesting
+  Comparable toComparable(long value) {
+    if (_floatingPointComparison) {
+      return Double.longBitsToDouble(value);
+    } else {
+      return value;
+    }
+  }
+
+  private double toDouble(long value) {
+    return _floatingPointComparison ? Double.longBitsToDouble(value) : value;
+  }
+
+  private int compare(Comparable comparisonValue, long value) {
+    Number number = (Number) comparisonValue;
+    return _floatingPointComparison ? Double.compare(number.doubleValue(), Double.longBitsToDouble(value))
+        : Long.compare(number.longValue(), value);
+  }
+}
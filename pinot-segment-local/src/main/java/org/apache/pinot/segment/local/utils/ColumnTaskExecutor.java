@@ -0,0 +1,227 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.utils;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Runs per-column tasks (e.g. building the indexes of a column) on a bounded thread pool.
+ *
+ * <p>Admission is memory-aware: each task comes with an estimate of the memory it needs, and the submitting thread
+ * waits until the estimates of the running tasks fit into the memory budget before submitting the next one. A task
+ * estimated above the whole budget is admitted alone. With a single thread, the tasks are run inline on the submitting
+ * thread, which is the same as running them sequentially.
+ *
+ * <p>Once a task fails, the remaining tasks are skipped, and the first failure is thrown from
+ * {@link #awaitCompletion()}. This class is not thread-safe, and tasks should be submitted from a single thread. To
+ * submit tasks from multiple threads, each thread should use its own executor from {@link #newSharedExecutor()}, which
+ * shares the thread pool and the memory budget with this executor.
+ */
+public class ColumnTaskExecutor implements AutoCloseable {
+  // Number of rows to buffer before processing the columns of the rows in parallel
+  public static final int ROW_BATCH_SIZE = 1000;
+
+  // Track the memory in KB so that the budget fits into the int permits of the semaphore
+  private static final long MEMORY_UNIT_BYTES = 1024;
+  // Let the idle threads exit so that the threads do not leak when the executor is not closed on failure
+  private static final long KEEP_ALIVE_TIME_SECONDS = 60;
+
+  private final ExecutorService _executorService;
+  private final Semaphore _memoryPermits;
+  private final int _maxMemoryPermits;
+  private final boolean _ownsExecutorService;
+  private final List<Future<?>> _futures = new ArrayList<>();
+  private final AtomicReference<Exception> _failure = new AtomicReference<>();
+
+  /**
+   * @param name Name of the executor, used as the prefix of the thread names
+   * @param numThreads Number of threads to run the tasks, tasks are run inline when it is less than 2
+   * @param memoryBudgetBytes Memory budget shared by the running tasks, no limit when it is not positive
+   */
+  public ColumnTaskExecutor(String name, int numThreads, long memoryBudgetBytes) {
+    if (numThreads > 1) {
+      ThreadPoolExecutor threadPoolExecutor =
+          new ThreadPoolExecutor(numThreads, numThreads, KEEP_ALIVE_TIME_SECONDS, TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              new ThreadFactoryBuilder().setDaemon(true).setNameFormat(name + "-%d").build());
+      threadPoolExecutor.allowCoreThreadTimeOut(true);
+      _executorService = threadPoolExecutor;
+    } else {
+      _executorService = null;
+    }
+    if (_executorService != null && memoryBudgetBytes > 0) {
+      _maxMemoryPermits = (int) Math.min(Integer.MAX_VALUE, Math.max(1, memoryBudgetBytes / MEMORY_UNIT_BYTES));
+      _memoryPermits = new Semaphore(_maxMemoryPermits);
+    } else {
+      _maxMemoryPermits = 0;
+      _memoryPermits = null;
+    }
+    _ownsExecutorService = true;
+  }
+
+  private ColumnTaskExecutor(ExecutorService executorService, Semaphore memoryPermits, int maxMemoryPermits) {
+    _executorService = executorService;
+    _memoryPermits = memoryPermits;
+    _maxMemoryPermits = maxMemoryPermits;
+    _ownsExecutorService = false;
+  }
+
+  /**
+   * Returns a new executor that runs the tasks on the same thread pool and under the same memory budget as this
+   * executor, but tracks its own tasks and failures. Closing the returned executor does not shut down the thread pool.
+   */
+  public ColumnTaskExecutor newSharedExecutor() {
+    return new ColumnTaskExecutor(_executorService, _memoryPermits, _maxMemoryPermits);
+  }
+
+  /**
+   * Returns {@code true} if the tasks are run on the thread pool, {@code false} if they are run inline.
+   */
+  public boolean isParallel() {
+    return _executorService != null;
+  }
+
+  /**
+   * Submits a task for the given column. Blocks until the memory estimated for the task is available. When the tasks
+   * are run inline, the exception thrown from the task is thrown directly.
+   */
+  public void submit(String column, long estimatedMemoryBytes, ColumnTask task)
+      throws Exception {
+    if (_executorService == null) {
+      task.run();
+      return;
+    }
+    if (_failure.get() != null) {
+      return;
+    }
+    int permits = getMemoryPermits(estimatedMemoryBytes);
+    if (permits > 0) {
+      _memoryPermits.acquire(permits);
+    }
+    try {
+      _futures.add(_executorService.submit(() -> {
+        try {
+          if (_failure.get() == null) {
+            task.run();
+          }
+        } catch (Exception e) {
+          if (!_failure.compareAndSet(null, e)) {
+            _failure.get().addSuppressed(e);
+          }
+        } finally {
+          if (permits > 0) {
+            _memoryPermits.release(permits);
+          }
+        }
+        return null;
+      }));
+    } catch (RuntimeException e) {
+      if (permits > 0) {
+        _memoryPermits.release(permits);
+      }
+      throw new IllegalStateException("Failed to submit task for column: " + column, e);
+    }
+  }
+
+  /**
+   * Waits for all the submitted tasks to finish, and throws the first failure of the tasks if any. The executor can be
+   * reused for the next round of tasks after this method returns.
+   */
+  public void awaitCompletion()
+      throws Exception {
+    if (_executorService == null) {
+      return;
+    }
+    Throwable error = null;
+    for (Future<?> future : _futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        // Exceptions are caught within the task, so this can only be an error
+        if (error == null) {
+          error = e.getCause();
+        }
+      }
+    }
+    _futures.clear();
+    Exception failure = _failure.getAndSet(null);
+    if (error != null) {
+      if (failure != null) {
+        error.addSuppressed(failure);
+      }
+      if (error instanceof Error) {
+        throw (Error) error;
+      }
+      throw new IllegalStateException(error);
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Same as {@link #awaitCompletion()}, but throws checked exceptions as {@link IOException} so that it can be used
+   * from the IO code paths.
+   */
+  public void awaitCompletionWithIOException()
+      throws IOException {
+    try {
+      awaitCompletion();
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+  }
+
+  private int getMemoryPermits(long estimatedMemoryBytes) {
+    if (_memoryPermits == null || estimatedMemoryBytes <= 0) {
+      return 0;
+    }
+    return (int) Math.min(_maxMemoryPermits, (estimatedMemoryBytes + MEMORY_UNIT_BYTES - 1) / MEMORY_UNIT_BYTES);
+  }
+
+  @Override
+  public void close() {
+    if (_executorService != null && _ownsExecutorService) {
+      _executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Task to run for a column.
+   */
+  @FunctionalInterface
+  public interface ColumnTask {
+    void run()
+        throws Exception;
+  }
+}
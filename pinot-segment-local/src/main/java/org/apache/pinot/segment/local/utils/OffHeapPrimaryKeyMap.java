@@ -0,0 +1,443 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.utils;
+
+import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.ByteArray;
+
+
+/**
+ * Off-heap open-addressing (linear probing) hash map from the hashed primary key to the location of the record, used
+ * to keep the upsert and dedup metadata out of the heap.
+ *
+ * <p>Keys are fixed-width 128-bit hashes of the primary keys (see {@link #getKey(Object)}). Each slot packs the key
+ * together with the location of the record, i.e. (segment id, doc id, value), where the value is a 64-bit payload
+ * interpreted by the caller (e.g. comparison value or time value):
+ * <pre>
+ *   | key (16 bytes) | segment id (4 bytes) | doc id (4 bytes) | value (8 bytes) |
+ * </pre>
+ * Segment ids must be positive because slot with segment id 0 is treated as empty. Removal is done with backward shift
+ * deletion, so there is no tombstone in the table.
+ *
+ * <p>The map is split into stripes by the key, where each stripe is an independent hash table with its own buffer and
+ * lock. Operations on different stripes do not block each other, so that loading segments in parallel and ingesting
+ * from the consuming segment do not contend on a single lock. The functions passed to the map are invoked while holding
+ * the lock of the stripe, which is similar to the per-key atomicity provided by
+ * {@link java.util.concurrent.ConcurrentHashMap#compute}. Each stripe is doubled when it is half full, and only blocks
+ * the operations on that stripe while resizing.
+ */
+@ThreadSafe
+public class OffHeapPrimaryKeyMap implements Closeable {
+  public static final int KEY_SIZE_IN_BYTES = 16;
+  public static final int DEFAULT_INITIAL_CAPACITY = 1 << 16;
+  public static final int DEFAULT_NUM_STRIPES = 64;
+
+  private static final int SLOT_SIZE_IN_BYTES = 32;
+  private static final int KEY_HIGH_OFFSET = 0;
+  private static final int KEY_LOW_OFFSET = 8;
+  private static final int SEGMENT_ID_OFFSET = 16;
+  private static final int DOC_ID_OFFSET = 20;
+  private static final int VALUE_OFFSET = 24;
+  private static final int MIN_STRIPE_CAPACITY = 16;
+  private static final int MAX_STRIPE_CAPACITY = 1 << 30;
+  // Use the bits not used by the slot index (which is computed from the mixed key) to pick the stripe
+  private static final int STRIPE_SHIFT = 40;
+
+  private final Stripe[] _stripes;
+  private final int _stripeMask;
+
+  public OffHeapPrimaryKeyMap(int initialCapacity, String description) {
+    this(initialCapacity, DEFAULT_NUM_STRIPES, description);
+  }
+
+  public OffHeapPrimaryKeyMap(int initialCapacity, int numStripes, String description) {
+    Preconditions.checkArgument(initialCapacity > 0, "Invalid initial capacity: %s", initialCapacity);
+    Preconditions.checkArgument(numStripes > 0 && Integer.bitCount(numStripes) == 1,
+        "Number of stripes must be a positive power of 2, got: %s", numStripes);
+    int stripeCapacity = Math.min(HashCommon.nextPowerOfTwo(Math.max(initialCapacity / numStripes,
+        MIN_STRIPE_CAPACITY)), MAX_STRIPE_CAPACITY);
+    _stripes = new Stripe[numStripes];
+    for (int i = 0; i < numStripes; i++) {
+      _stripes[i] = new Stripe(stripeCapacity, description + "_" + i);
+    }
+    _stripeMask = numStripes - 1;
+  }
+
+  /**
+   * Returns the fixed-width key for the given primary key, which can be either the {@link PrimaryKey} or the hashed
+   * {@link ByteArray} returned from {@link HashUtils#hashPrimaryKey}. Hashes that are not 128-bit are re-hashed with
+   * murmur3.
+   */
+  public static byte[] getKey(Object primaryKey) {
+    byte[] bytes = primaryKey instanceof ByteArray ? ((ByteArray) primaryKey).getBytes()
+        : ((PrimaryKey) primaryKey).asBytes();
+    if (primaryKey instanceof ByteArray && bytes.length == KEY_SIZE_IN_BYTES) {
+      return bytes;
+    }
+    return HashUtils.hashMurmur3(bytes);
+  }
+
+  /**
+   * Returns the number of keys in the map. The stripes are counted one by one, so the result is not an atomic snapshot
+   * when the map is concurrently modified.
+   */
+  public int size() {
+    int size = 0;
+    for (Stripe stripe : _stripes) {
+      size += stripe.size();
+    }
+    return size;
+  }
+
+  /**
+   * Returns the location for the given key, or {@code null} if the key does not exist.
+   */
+  @Nullable
+  public Location get(byte[] key) {
+    long keyHigh = getKeyHigh(key);
+    return getStripe(keyHigh).get(keyHigh, getKeyLow(key));
+  }
+
+  /**
+   * Puts the location for the given key, and returns the previous location or {@code null} if the key does not exist.
+   */
+  @Nullable
+  public Location put(byte[] key, Location location) {
+    long keyHigh = getKeyHigh(key);
+    return getStripe(keyHigh).put(keyHigh, getKeyLow(key), location);
+  }
+
+  /**
+   * Computes the new location for the given key with the current location ({@code null} if the key does not exist).
+   * The key is removed if the new location is {@code null}. Returns the new location.
+   */
+  @Nullable
+  public Location compute(byte[] key, RemappingFunction remappingFunction) {
+    long keyHigh = getKeyHigh(key);
+    return getStripe(keyHigh).compute(keyHigh, getKeyLow(key), remappingFunction);
+  }
+
+  /**
+   * Removes all the keys with location matching the given predicate, and returns the number of keys removed. The
+   * stripes are scanned one by one, so only one stripe is locked at a time.
+   */
+  public int removeIf(Predicate<Location> predicate) {
+    int numKeysRemoved = 0;
+    for (Stripe stripe : _stripes) {
+      numKeysRemoved += stripe.removeIf(predicate);
+    }
+    return numKeysRemoved;
+  }
+
+  @Override
+  public void close()
+      throws IOException {
+    for (Stripe stripe : _stripes) {
+      stripe.close();
+    }
+  }
+
+  private Stripe getStripe(long keyHigh) {
+    return _stripes[(int) (keyHigh >>> STRIPE_SHIFT) & _stripeMask];
+  }
+
+  private static long getKeyHigh(byte[] key) {
+    return getLong(key, 0);
+  }
+
+  private static long getKeyLow(byte[] key) {
+    return getLong(key, Long.BYTES);
+  }
+
+  private static long getLong(byte[] bytes, int offset) {
+    long value = 0;
+    for (int i = 0; i < Long.BYTES; i++) {
+      value = (value << 8) | (bytes[offset + i] & 0xFF);
+    }
+    return value;
+  }
+
+  /**
+   * Open-addressing hash table for a stripe of the keys. All the operations are synchronized on the stripe.
+   */
+  @ThreadSafe
+  private static final class Stripe implements Closeable {
+    private final String _description;
+
+    private PinotDataBuffer _buffer;
+    private int _capacity;
+    private int _mask;
+    private int _size;
+
+    Stripe(int capacity, String description) {
+      _description = description;
+      _capacity = capacity;
+      _mask = _capacity - 1;
+      _buffer = allocate(_capacity);
+    }
+
+    synchronized int size() {
+      return _size;
+    }
+
+    @Nullable
+    synchronized Location get(long keyHigh, long keyLow) {
+      long slot = findSlot(keyHigh, keyLow);
+      return isEmpty(slot) ? null : readLocation(slot);
+    }
+
+    @Nullable
+    synchronized Location put(long keyHigh, long keyLow, Location location) {
+      long slot = findSlot(keyHigh, keyLow);
+      if (isEmpty(slot)) {
+        insert(slot, keyHigh, keyLow, location);
+        return null;
+      }
+      Location previousLocation = readLocation(slot);
+      writeLocation(slot, location);
+      return previousLocation;
+    }
+
+    @Nullable
+    synchronized Location compute(long keyHigh, long keyLow, RemappingFunction remappingFunction) {
+      long slot = findSlot(keyHigh, keyLow);
+      boolean exists = !isEmpty(slot);
+      Location currentLocation = exists ? readLocation(slot) : null;
+      Location newLocation = remappingFunction.apply(currentLocation);
+      if (newLocation == null) {
+        if (exists) {
+          delete(slot);
+        }
+      } else if (exists) {
+        if (!newLocation.equals(currentLocation)) {
+          writeLocation(slot, newLocation);
+        }
+      } else {
+        insert(slot, keyHigh, keyLow, newLocation);
+      }
+      return newLocation;
+    }
+
+    synchronized int removeIf(Predicate<Location> predicate) {
+      // Collect the keys first because backward shift deletion can move the entries being iterated
+      LongArrayList keysToRemove = new LongArrayList();
+      for (int i = 0; i < _capacity; i++) {
+        long slot = (long) i * SLOT_SIZE_IN_BYTES;
+        if (!isEmpty(slot) && predicate.test(readLocation(slot))) {
+          keysToRemove.add(_buffer.getLong(slot + KEY_HIGH_OFFSET));
+          keysToRemove.add(_buffer.getLong(slot + KEY_LOW_OFFSET));
+        }
+      }
+      int numKeysToRemove = keysToRemove.size() / 2;
+      for (int i = 0; i < numKeysToRemove; i++) {
+        long slot = findSlot(keysToRemove.getLong(2 * i), keysToRemove.getLong(2 * i + 1));
+        if (!isEmpty(slot)) {
+          delete(slot);
+        }
+      }
+      return numKeysToRemove;
+    }
+
+    @Override
+    public synchronized void close()
+        throws IOException {
+      if (_buffer != null) {
+        _buffer.close();
+        _buffer = null;
+      }
+    }
+
+    private PinotDataBuffer allocate(int capacity) {
+      PinotDataBuffer buffer =
+          PinotDataBuffer.allocateDirect((long) capacity * SLOT_SIZE_IN_BYTES, ByteOrder.nativeOrder(), _description);
+      // Zero out the buffer to mark all the slots as empty
+      for (long offset = 0; offset < buffer.size(); offset += Long.BYTES) {
+        buffer.putLong(offset, 0L);
+      }
+      return buffer;
+    }
+
+    private int getIndex(long keyHigh, long keyLow) {
+      return (int) HashCommon.mix(keyHigh ^ keyLow) & _mask;
+    }
+
+    /**
+     * Returns the slot holding the given key, or the empty slot where the key should be inserted.
+     */
+    private long findSlot(long keyHigh, long keyLow) {
+      int index = getIndex(keyHigh, keyLow);
+      while (true) {
+        long slot = (long) index * SLOT_SIZE_IN_BYTES;
+        if (isEmpty(slot) || (_buffer.getLong(slot + KEY_HIGH_OFFSET) == keyHigh
+            && _buffer.getLong(slot + KEY_LOW_OFFSET) == keyLow)) {
+          return slot;
+        }
+        index = (index + 1) & _mask;
+      }
+    }
+
+    private boolean isEmpty(long slot) {
+      return _buffer.getInt(slot + SEGMENT_ID_OFFSET) == 0;
+    }
+
+    private Location readLocation(long slot) {
+      return new Location(_buffer.getInt(slot + SEGMENT_ID_OFFSET), _buffer.getInt(slot + DOC_ID_OFFSET),
+          _buffer.getLong(slot + VALUE_OFFSET));
+    }
+
+    private void writeLocation(long slot, Location location) {
+      Preconditions.checkArgument(location._segmentId > 0, "Segment id must be positive, got: %s",
+          location._segmentId);
+      _buffer.putInt(slot + SEGMENT_ID_OFFSET, location._segmentId);
+      _buffer.putInt(slot + DOC_ID_OFFSET, location._docId);
+      _buffer.putLong(slot + VALUE_OFFSET, location._value);
+    }
+
+    private void insert(long slot, long keyHigh, long keyLow, Location location) {
+      _buffer.putLong(slot + KEY_HIGH_OFFSET, keyHigh);
+      _buffer.putLong(slot + KEY_LOW_OFFSET, keyLow);
+      writeLocation(slot, location);
+      _size++;
+      if (_size > _capacity / 2) {
+        resize();
+      }
+    }
+
+    /**
+     * Removes the entry in the given slot, and shifts the following entries in the same probe sequence backward to
+     * fill the gap.
+     */
+    private void delete(long slot) {
+      int emptyIndex = (int) (slot / SLOT_SIZE_IN_BYTES);
+      int index = emptyIndex;
+      while (true) {
+        index = (index + 1) & _mask;
+        long currentSlot = (long) index * SLOT_SIZE_IN_BYTES;
+        if (isEmpty(currentSlot)) {
+          break;
+        }
+        int idealIndex =
+            getIndex(_buffer.getLong(currentSlot + KEY_HIGH_OFFSET), _buffer.getLong(currentSlot + KEY_LOW_OFFSET));
+        // Move the entry if its ideal index is not cyclically within (emptyIndex, index]
+        boolean shouldMove = emptyIndex <= index ? (idealIndex <= emptyIndex || idealIndex > index)
+            : (idealIndex <= emptyIndex && idealIndex > index);
+        if (shouldMove) {
+          long emptySlot = (long) emptyIndex * SLOT_SIZE_IN_BYTES;
+          for (int offset = 0; offset < SLOT_SIZE_IN_BYTES; offset += Long.BYTES) {
+            _buffer.putLong(emptySlot + offset, _buffer.getLong(currentSlot + offset));
+          }
+          emptyIndex = index;
+        }
+      }
+      _buffer.putInt((long) emptyIndex * SLOT_SIZE_IN_BYTES + SEGMENT_ID_OFFSET, 0);
+      _size--;
+    }
+
+    private void resize() {
+      Preconditions.checkState(_capacity < MAX_STRIPE_CAPACITY,
+          "Cannot resize the primary key map stripe beyond %s slots", MAX_STRIPE_CAPACITY);
+      PinotDataBuffer oldBuffer = _buffer;
+      int oldCapacity = _capacity;
+      _capacity = oldCapacity << 1;
+      _mask = _capacity - 1;
+      _buffer = allocate(_capacity);
+      for (int i = 0; i < oldCapacity; i++) {
+        long oldSlot = (long) i * SLOT_SIZE_IN_BYTES;
+        if (oldBuffer.getInt(oldSlot + SEGMENT_ID_OFFSET) != 0) {
+          long keyHigh = oldBuffer.getLong(oldSlot + KEY_HIGH_OFFSET);
+          long keyLow = oldBuffer.getLong(oldSlot + KEY_LOW_OFFSET);
+          long newSlot = findSlot(keyHigh, keyLow);
+          for (int offset = 0; offset < SLOT_SIZE_IN_BYTES; offset += Long.BYTES) {
+            _buffer.putLong(newSlot + offset, oldBuffer.getLong(oldSlot + offset));
+          }
+        }
+      }
+      try {
+        oldBuffer.close();
+      } catch (IOException e) {
+        throw new RuntimeException("Caught exception while closing buffer for: " + _description, e);
+      }
+    }
+  }
+
+  @FunctionalInterface
+  public interface RemappingFunction {
+
+    /**
+     * Returns the new location based on the current location ({@code null} if the key does not exist), or
+     * {@code null} to remove the key.
+     */
+    @Nullable
+    Location apply(@Nullable Location currentLocation);
+  }
+
+  /**
+   * Location of the record, i.e. (segment id, doc id, value).
+   */
+  public static final class Location {
+    private final int _segmentId;
+    private final int _docId;
+    private final long _value;
+
+    public Location(int segmentId, int docId, long value) {
+      _segmentId = segmentId;
+      _docId = docId;
+      _value = value;
+    }
+
+    public int getSegmentId() {
+      return _segmentId;
+    }
+
+    public int getDocId() {
+      return _docId;
+    }
+
+    public long getValue() {
+      return _value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Location)) {
+        return false;
+      }
+      Location location = (Location) o;
+      return _segmentId == location._segmentId && _docId == location._docId && _value == location._value;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * _segmentId + _docId) + Long.hashCode(_value);
+    }
+  }
+}
@@ -0,0 +1,193 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.dedup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.apache.pinot.common.metrics.ServerMetrics;
+import org.apache.pinot.common.utils.LLCSegmentName;
+import org.apache.pinot.segment.local.data.manager.TableDataManager;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentImpl;
+import org.apache.pinot.segment.spi.IndexSegment;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.spi.config.table.DedupConfig;
+import org.apache.pinot.spi.config.table.HashFunction;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.apache.pinot.spi.utils.builder.TableNameBuilder;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+
+public class OffHeapPartitionDedupMetadataManagerTest {
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String REALTIME_TABLE_NAME = TableNameBuilder.REALTIME.tableNameWithType(RAW_TABLE_NAME);
+  private static final List<String> PRIMARY_KEY_COLUMNS = Collections.singletonList("pk");
+  private static final String TIME_COLUMN = "ts";
+
+  @Test
+  public void testAddRemoveSegment()
+      throws IOException {
+    for (HashFunction hashFunction : HashFunction.values()) {
+      OffHeapPartitionDedupMetadataManager metadataManager = createMetadataManager(hashFunction, 0);
+
+      // Add the first segment with duplicate keys
+      ImmutableSegmentImpl segment1 = mockSegment(1, new int[]{0, 1, 2, 0, 1}, new long[]{1, 2, 3, 4, 5});
+      metadataManager.addSegment(segment1);
+      assertEquals(metadataManager.getNumPrimaryKeys(), 3);
+
+      // Records from the consuming segment
+      IndexSegment segment2 = mockSegment(2, new int[0], new long[0]);
+      assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(0), segment2));
+      assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(3), segment2));
+      assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(3), segment2));
+      assertEquals(metadataManager.getNumPrimaryKeys(), 4);
+
+      // Remove the first segment, and the keys from it can be added again
+      metadataManager.removeSegment(segment1);
+      assertEquals(metadataManager.getNumPrimaryKeys(), 1);
+      assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(0), segment2));
+      assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(3), segment2));
+      assertEquals(metadataManager.getNumPrimaryKeys(), 2);
+
+      metadataManager.close();
+    }
+  }
+
+  @Test
+  public void testMetadataTTL()
+      throws IOException {
+    OffHeapPartitionDedupMetadataManager metadataManager = createMetadataManager(HashFunction.NONE, 10);
+
+    // Keys with time out of TTL (less than largest seen time - 10) are not tracked when adding the segment
+    ImmutableSegmentImpl segment1 = mockSegment(1, new int[]{0, 1, 2, 3}, new long[]{90, 98, 105, 80});
+    metadataManager.addSegment(segment1);
+    assertEquals(metadataManager.getNumPrimaryKeys(), 3);
+
+    IndexSegment segment2 = mockSegment(2, new int[0], new long[0]);
+    assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(1), 110, segment2));
+    assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(4), 110, segment2));
+    // Out of TTL record should not be tracked
+    assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(5), 99, segment2));
+    assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(5), 99, segment2));
+    assertEquals(metadataManager.getNumPrimaryKeys(), 4);
+
+    // Key 0 (time 90) and key 1 (time 98) should be removed with largest seen time 110
+    metadataManager.removeExpiredPrimaryKeys();
+    assertEquals(metadataManager.getNumPrimaryKeys(), 2);
+    assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(2), 110, segment2));
+    assertTrue(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(4), 110, segment2));
+    assertFalse(metadataManager.checkRecordPresentOrUpdate(getPrimaryKey(1), 110, segment2));
+
+    metadataManager.close();
+  }
+
+  @Test
+  public void testDedupTimeColumnValidation()
+      throws IOException {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME)
+        .addSingleValueDimension(PRIMARY_KEY_COLUMNS.get(0), DataType.INT)
+        .addSingleValueDimension("stringTime", DataType.STRING)
+        .addDateTime(TIME_COLUMN, DataType.LONG, "1:MILLISECONDS:EPOCH", "1:MILLISECONDS")
+        .setPrimaryKeyColumns(PRIMARY_KEY_COLUMNS).build();
+
+    // Numeric dedup time column, defaults to the time column
+    OffHeapTableDedupMetadataManager tableMetadataManager = new OffHeapTableDedupMetadataManager();
+    tableMetadataManager.init(getTableConfig(100, null), schema, mock(TableDataManager.class),
+        mock(ServerMetrics.class));
+    assertEquals(tableMetadataManager.getOrCreatePartitionManager(0).getDedupTimeColumn(), TIME_COLUMN);
+    tableMetadataManager.close();
+
+    // Dedup time is not needed when metadata TTL is not enabled
+    tableMetadataManager = new OffHeapTableDedupMetadataManager();
+    tableMetadataManager.init(getTableConfig(0, "stringTime"), schema, mock(TableDataManager.class),
+        mock(ServerMetrics.class));
+    assertNull(tableMetadataManager.getOrCreatePartitionManager(0).getDedupTimeColumn());
+    tableMetadataManager.close();
+
+    // Non-numeric or missing dedup time column should fail the table setup
+    assertThrows(IllegalArgumentException.class,
+        () -> new OffHeapTableDedupMetadataManager().init(getTableConfig(100, "stringTime"), schema,
+            mock(TableDataManager.class), mock(ServerMetrics.class)));
+    assertThrows(IllegalArgumentException.class,
+        () -> new OffHeapTableDedupMetadataManager().init(getTableConfig(100, "missing"), schema,
+            mock(TableDataManager.class), mock(ServerMetrics.class)));
+  }
+
+  private static TableConfig getTableConfig(double metadataTTL, @Nullable String dedupTimeColumn) {
+    return new TableConfigBuilder(TableType.REALTIME).setTableName(RAW_TABLE_NAME).setTimeColumnName(TIME_COLUMN)
+        .setDedupConfig(new DedupConfig(true, HashFunction.NONE, OffHeapTableDedupMetadataManager.class.getName(),
+            metadataTTL, dedupTimeColumn)).build();
+  }
+
+  private static OffHeapPartitionDedupMetadataManager createMetadataManager(HashFunction hashFunction,
+      double metadataTTL) {
+    return new OffHeapPartitionDedupMetadataManager(REALTIME_TABLE_NAME, PRIMARY_KEY_COLUMNS, 0,
+        mock(ServerMetrics.class), hashFunction, metadataTTL, TIME_COLUMN, 16);
+  }
+
+  private static ImmutableSegmentImpl mockSegment(int sequenceNumber, int[] primaryKeys, long[] timestamps) {
+    ImmutableSegmentImpl segment = mock(ImmutableSegmentImpl.class);
+    when(segment.getSegmentName()).thenReturn(
+        new LLCSegmentName(RAW_TABLE_NAME, 0, sequenceNumber, System.currentTimeMillis()).toString());
+    SegmentMetadataImpl segmentMetadata = mock(SegmentMetadataImpl.class);
+    when(segmentMetadata.getTotalDocs()).thenReturn(primaryKeys.length);
+    when(segment.getSegmentMetadata()).thenReturn(segmentMetadata);
+
+    DataSource primaryKeyDataSource = mock(DataSource.class);
+    ForwardIndexReader primaryKeyForwardIndex = mock(ForwardIndexReader.class);
+    when(primaryKeyForwardIndex.isSingleValue()).thenReturn(true);
+    when(primaryKeyForwardIndex.getStoredType()).thenReturn(DataType.INT);
+    when(primaryKeyForwardIndex.getInt(anyInt(), any())).thenAnswer(
+        invocation -> primaryKeys[(int) invocation.getArgument(0)]);
+    when(primaryKeyDataSource.getForwardIndex()).thenReturn(primaryKeyForwardIndex);
+    when(segment.getDataSource(PRIMARY_KEY_COLUMNS.get(0))).thenReturn(primaryKeyDataSource);
+
+    DataSource timeDataSource = mock(DataSource.class);
+    ForwardIndexReader timeForwardIndex = mock(ForwardIndexReader.class);
+    when(timeForwardIndex.isSingleValue()).thenReturn(true);
+    when(timeForwardIndex.getStoredType()).thenReturn(DataType.LONG);
+    when(timeForwardIndex.getLong(anyInt(), any())).thenAnswer(
+        invocation -> timestamps[(int) invocation.getArgument(0)]);
+    when(timeDataSource.getForwardIndex()).thenReturn(timeForwardIndex);
+    when(segment.getDataSource(TIME_COLUMN)).thenReturn(timeDataSource);
+    return segment;
+  }
+
+  private static PrimaryKey getPrimaryKey(int value) {
+    return new PrimaryKey(new Object[]{value});
+  }
+}
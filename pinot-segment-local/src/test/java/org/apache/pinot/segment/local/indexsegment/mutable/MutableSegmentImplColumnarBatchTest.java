@@ -0,0 +1,247 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.indexsegment.mutable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.datasource.DataSourceMetadata;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.roaringbitmap.RoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that indexing the rows with {@link MutableSegmentImpl#index(ColumnarRowBatch,
+ * org.apache.pinot.spi.stream.RowMetadata)} produces the same segment as indexing the rows one by one.
+ */
+public class MutableSegmentImplColumnarBatchTest {
+  private static final String INT_DICT_COLUMN = "intDict";
+  private static final String LONG_RAW_COLUMN = "longRaw";
+  private static final String FLOAT_DICT_COLUMN = "floatDict";
+  private static final String DOUBLE_RAW_COLUMN = "doubleRaw";
+  private static final String STRING_DICT_COLUMN = "stringDict";
+  private static final String STRING_RAW_COLUMN = "stringRaw";
+  private static final String INT_MV_COLUMN = "intMV";
+  private static final List<String> COLUMNS =
+      Arrays.asList(INT_DICT_COLUMN, LONG_RAW_COLUMN, FLOAT_DICT_COLUMN, DOUBLE_RAW_COLUMN, STRING_DICT_COLUMN,
+          STRING_RAW_COLUMN, INT_MV_COLUMN);
+  private static final int NUM_ROWS = 1000;
+  // Capacity of the segments created by MutableSegmentImplTestUtils
+  private static final int CAPACITY = 100000;
+
+  private final int[] _ints = new int[NUM_ROWS];
+  private final long[] _longs = new long[NUM_ROWS];
+  private final float[] _floats = new float[NUM_ROWS];
+  private final double[] _doubles = new double[NUM_ROWS];
+  private final String[] _stringDictValues = new String[NUM_ROWS];
+  private final String[] _stringRawValues = new String[NUM_ROWS];
+  private final Object[][] _mvValues = new Object[NUM_ROWS][];
+  private final RoaringBitmap _intNullRows = new RoaringBitmap();
+
+  private MutableSegmentImpl _rowSegment;
+  private MutableSegmentImpl _batchSegment;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("testTable")
+        .addSingleValueDimension(INT_DICT_COLUMN, DataType.INT)
+        .addSingleValueDimension(LONG_RAW_COLUMN, DataType.LONG)
+        .addSingleValueDimension(FLOAT_DICT_COLUMN, DataType.FLOAT)
+        .addSingleValueDimension(DOUBLE_RAW_COLUMN, DataType.DOUBLE)
+        .addSingleValueDimension(STRING_DICT_COLUMN, DataType.STRING)
+        .addSingleValueDimension(STRING_RAW_COLUMN, DataType.STRING)
+        .addMultiValueDimension(INT_MV_COLUMN, DataType.INT).build();
+    Set<String> noDictionaryColumns =
+        new HashSet<>(Arrays.asList(LONG_RAW_COLUMN, DOUBLE_RAW_COLUMN, STRING_RAW_COLUMN));
+    Set<String> invertedIndexColumns = new HashSet<>(Arrays.asList(INT_DICT_COLUMN, STRING_DICT_COLUMN));
+    _rowSegment = MutableSegmentImplTestUtils.createMutableSegmentImpl(schema, noDictionaryColumns,
+        new HashSet<>(), invertedIndexColumns, false, true);
+    _batchSegment = MutableSegmentImplTestUtils.createMutableSegmentImpl(schema, noDictionaryColumns,
+        new HashSet<>(), invertedIndexColumns, false, true);
+
+    Random random = new Random();
+    for (int i = 0; i < NUM_ROWS; i++) {
+      if (i % 10 == 0) {
+        _ints[i] = Integer.MIN_VALUE;
+        _intNullRows.add(i);
+      } else {
+        _ints[i] = random.nextInt(100);
+      }
+      _longs[i] = random.nextLong();
+      _floats[i] = random.nextInt(50) / 2.0f;
+      _doubles[i] = random.nextDouble();
+      _stringDictValues[i] = "value" + random.nextInt(20);
+      _stringRawValues[i] = Integer.toString(i);
+      int numValues = random.nextInt(3) + 1;
+      _mvValues[i] = new Object[numValues];
+      for (int j = 0; j < numValues; j++) {
+        _mvValues[i][j] = random.nextInt(10);
+      }
+    }
+
+    // Index the rows one by one
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      row.putValue(INT_DICT_COLUMN, _ints[i]);
+      if (_intNullRows.contains(i)) {
+        row.addNullValueField(INT_DICT_COLUMN);
+      }
+      row.putValue(LONG_RAW_COLUMN, _longs[i]);
+      row.putValue(FLOAT_DICT_COLUMN, _floats[i]);
+      row.putValue(DOUBLE_RAW_COLUMN, _doubles[i]);
+      row.putValue(STRING_DICT_COLUMN, _stringDictValues[i]);
+      row.putValue(STRING_RAW_COLUMN, _stringRawValues[i]);
+      row.putValue(INT_MV_COLUMN, _mvValues[i]);
+      assertTrue(_rowSegment.index(row, null));
+    }
+
+    // Index the rows in batches of different sizes
+    int startRowId = 0;
+    int batchSize = 1;
+    while (startRowId < NUM_ROWS) {
+      int numRows = Math.min(batchSize, NUM_ROWS - startRowId);
+      int endRowId = startRowId + numRows;
+      RoaringBitmap intNullRows = new RoaringBitmap();
+      for (int i = startRowId; i < endRowId; i++) {
+        if (_intNullRows.contains(i)) {
+          intNullRows.add(i - startRowId);
+        }
+      }
+      ColumnarRowBatch batch = new ColumnarRowBatch(numRows)
+          .putInts(INT_DICT_COLUMN, Arrays.copyOfRange(_ints, startRowId, endRowId))
+          .putNullRows(INT_DICT_COLUMN, intNullRows)
+          .putLongs(LONG_RAW_COLUMN, Arrays.copyOfRange(_longs, startRowId, endRowId))
+          .putFloats(FLOAT_DICT_COLUMN, Arrays.copyOfRange(_floats, startRowId, endRowId))
+          .putDoubles(DOUBLE_RAW_COLUMN, Arrays.copyOfRange(_doubles, startRowId, endRowId))
+          .putValues(STRING_DICT_COLUMN, Arrays.copyOfRange(_stringDictValues, startRowId, endRowId))
+          .putValues(STRING_RAW_COLUMN, Arrays.copyOfRange(_stringRawValues, startRowId, endRowId))
+          .putValues(INT_MV_COLUMN, Arrays.copyOfRange(_mvValues, startRowId, endRowId));
+      assertTrue(_batchSegment.index(batch, null));
+      assertEquals(_batchSegment.getNumDocsIndexed(), endRowId);
+      startRowId = endRowId;
+      batchSize = batchSize * 3 % 97 + 1;
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _rowSegment.destroy();
+    _batchSegment.destroy();
+  }
+
+  @Test
+  public void testSameRecords() {
+    assertEquals(_batchSegment.getNumDocsIndexed(), NUM_ROWS);
+    GenericRow expected = new GenericRow();
+    GenericRow actual = new GenericRow();
+    for (int docId = 0; docId < NUM_ROWS; docId++) {
+      expected.clear();
+      actual.clear();
+      _rowSegment.getRecord(docId, expected);
+      _batchSegment.getRecord(docId, actual);
+      for (String column : COLUMNS) {
+        if (column.equals(INT_MV_COLUMN)) {
+          assertEquals((Object[]) actual.getValue(column), (Object[]) expected.getValue(column));
+        } else {
+          assertEquals(actual.getValue(column), expected.getValue(column));
+        }
+        assertEquals(actual.isNullValue(column), expected.isNullValue(column));
+      }
+      assertEquals(actual.isNullValue(INT_DICT_COLUMN), docId % 10 == 0);
+      assertFalse(actual.isNullValue(LONG_RAW_COLUMN));
+    }
+  }
+
+  @Test
+  public void testSameMetadataAndIndexes() {
+    for (String column : COLUMNS) {
+      DataSource expectedDataSource = _rowSegment.getDataSource(column);
+      DataSource actualDataSource = _batchSegment.getDataSource(column);
+      DataSourceMetadata expectedMetadata = expectedDataSource.getDataSourceMetadata();
+      DataSourceMetadata actualMetadata = actualDataSource.getDataSourceMetadata();
+      assertEquals(actualMetadata.getNumDocs(), expectedMetadata.getNumDocs());
+      assertEquals(actualMetadata.getNumValues(), expectedMetadata.getNumValues());
+      assertEquals(actualMetadata.getMaxNumValuesPerMVEntry(), expectedMetadata.getMaxNumValuesPerMVEntry());
+      assertEquals(actualMetadata.getMinValue(), expectedMetadata.getMinValue());
+      assertEquals(actualMetadata.getMaxValue(), expectedMetadata.getMaxValue());
+
+      Dictionary expectedDictionary = expectedDataSource.getDictionary();
+      Dictionary actualDictionary = actualDataSource.getDictionary();
+      if (expectedDictionary != null) {
+        // Values are added to the dictionaries in the same order
+        assertEquals(actualDictionary.length(), expectedDictionary.length());
+        for (int dictId = 0; dictId < expectedDictionary.length(); dictId++) {
+          assertEquals(actualDictionary.get(dictId), expectedDictionary.get(dictId));
+        }
+      }
+
+      InvertedIndexReader<?> expectedInvertedIndex = expectedDataSource.getInvertedIndex();
+      InvertedIndexReader<?> actualInvertedIndex = actualDataSource.getInvertedIndex();
+      if (expectedInvertedIndex != null) {
+        for (int dictId = 0; dictId < expectedDictionary.length(); dictId++) {
+          assertEquals(actualInvertedIndex.getDocIds(dictId), expectedInvertedIndex.getDocIds(dictId));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBatchCrossingCapacity()
+      throws Exception {
+    Schema schema = new Schema.SchemaBuilder().setSchemaName("testTable")
+        .addSingleValueDimension(INT_DICT_COLUMN, DataType.INT).build();
+    MutableSegmentImpl segment = MutableSegmentImplTestUtils.createMutableSegmentImpl(schema, Collections.emptySet(),
+        Collections.emptySet(), Collections.emptySet(), false);
+    try {
+      int numRows = CAPACITY - 10;
+      assertTrue(segment.index(new ColumnarRowBatch(numRows).putInts(INT_DICT_COLUMN, new int[numRows]), null));
+      assertEquals(segment.getNumDocsIndexed(), numRows);
+
+      // Batch crossing the capacity should be rejected without indexing any row
+      assertThrows(IllegalArgumentException.class,
+          () -> segment.index(new ColumnarRowBatch(20).putInts(INT_DICT_COLUMN, new int[20]), null));
+      assertEquals(segment.getNumDocsIndexed(), numRows);
+
+      // Batch filling up the capacity should be accepted
+      assertFalse(segment.index(new ColumnarRowBatch(10).putInts(INT_DICT_COLUMN, new int[10]), null));
+      assertEquals(segment.getNumDocsIndexed(), CAPACITY);
+      assertThrows(IllegalArgumentException.class,
+          () -> segment.index(new ColumnarRowBatch(1).putInts(INT_DICT_COLUMN, new int[1]), null));
+    } finally {
+      segment.destroy();
+    }
+  }
+}
@@ -275,6 +275,45 @@ public class RealtimeSegmentStatsHistoryTest {
     Assert.assertEquals(history.getLatestSegmentMemoryConsumed(), expectedMemUsed);
   }
 
+  @Test
+  public void testJsonIndexStats()
+      throws IOException, ClassNotFoundException {
+    final String tmpDir = System.getProperty("java.io.tmpdir");
+    File serializedFile = new File(tmpDir, STATS_FILE_NAME);
+    serializedFile.deleteOnExit();
+    FileUtils.deleteQuietly(serializedFile);
+    String jsonIndexStatsKey = RealtimeSegmentStatsHistory.getJsonIndexStatsKey(COL1);
+
+    {
+      RealtimeSegmentStatsHistory history = RealtimeSegmentStatsHistory.deserialzeFrom(serializedFile);
+      RealtimeSegmentStatsHistory.SegmentStats segmentStats = new RealtimeSegmentStatsHistory.SegmentStats();
+      RealtimeSegmentStatsHistory.ColumnStats columnStats = new RealtimeSegmentStatsHistory.ColumnStats();
+      columnStats.setCardinality(100);
+      columnStats.setAvgColumnSize(500);
+      segmentStats.setColumnStats(COL1, columnStats);
+      RealtimeSegmentStatsHistory.ColumnStats jsonIndexStats = new RealtimeSegmentStatsHistory.ColumnStats();
+      jsonIndexStats.setCardinality(20000);
+      jsonIndexStats.setAvgColumnSize(20);
+      segmentStats.setColumnStats(jsonIndexStatsKey, jsonIndexStats);
+      history.addSegmentStats(segmentStats);
+    }
+    {
+      // Json index stats should be kept separately from the column stats
+      RealtimeSegmentStatsHistory history = RealtimeSegmentStatsHistory.deserialzeFrom(serializedFile);
+      Assert.assertEquals(history.getEstimatedCardinality(COL1), 100);
+      Assert.assertEquals(history.getEstimatedAvgColSize(COL1), 500);
+      Assert.assertEquals(history.getEstimatedCardinality(jsonIndexStatsKey), 20000);
+      Assert.assertEquals(history.getEstimatedAvgColSize(jsonIndexStatsKey), 20);
+
+      // Defaults should be returned when there is no json index stats for the column
+      String missingJsonIndexStatsKey = RealtimeSegmentStatsHistory.getJsonIndexStatsKey(COL2);
+      Assert.assertEquals(history.getEstimatedCardinality(missingJsonIndexStatsKey),
+          RealtimeSegmentStatsHistory.getDefaultEstCardinality());
+      Assert.assertEquals(history.getEstimatedAvgColSize(missingJsonIndexStatsKey),
+          RealtimeSegmentStatsHistory.getDefaultEstAvgColSize());
+    }
+  }
+
   private static class StatsUpdater implements Runnable {
     private final RealtimeSegmentStatsHistory _statsHistory;
     private final int _numIterations;
@@ -18,11 +18,18 @@
  */
 package org.apache.pinot.segment.local.realtime.impl.invertedindex;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import org.roaringbitmap.buffer.MutableRoaringBitmap;
 import org.testng.annotations.Test;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 
@@ -103,4 +110,54 @@ public class RealtimeInvertedIndexReaderTest {
     assertFalse(docIds.contains(1));
     assertTrue(docIds.contains(2));
   }
+
+  @Test
+  public void testConcurrentReadWrite()
+      throws Exception {
+    RealtimeInvertedIndex realtimeInvertedIndex = new RealtimeInvertedIndex();
+    int numValues = 100;
+    int numDocs = 100_000;
+    AtomicBoolean writerDone = new AtomicBoolean();
+    AtomicReference<Throwable> readerError = new AtomicReference<>();
+    ExecutorService executorService = Executors.newFixedThreadPool(3);
+    try {
+      Future<?>[] readers = new Future[2];
+      for (int i = 0; i < readers.length; i++) {
+        readers[i] = executorService.submit(() -> {
+          try {
+            while (!writerDone.get()) {
+              for (int dictId = 0; dictId < numValues; dictId++) {
+                // Each read should contain a prefix of the document ids added for the dictionary id
+                MutableRoaringBitmap docIds = realtimeInvertedIndex.getDocIds(dictId);
+                int expectedDocId = dictId;
+                for (int docId : docIds.toArray()) {
+                  assertEquals(docId, expectedDocId);
+                  expectedDocId += numValues;
+                }
+                // Modifying the returned bitmap should not affect the index
+                docIds.flip(0L, numDocs);
+              }
+            }
+          } catch (Throwable t) {
+            readerError.set(t);
+          }
+        });
+      }
+      executorService.submit(() -> {
+        for (int docId = 0; docId < numDocs; docId++) {
+          realtimeInvertedIndex.add(docId % numValues, docId);
+        }
+        writerDone.set(true);
+      }).get();
+      for (Future<?> reader : readers) {
+        reader.get();
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+    assertNull(readerError.get());
+    for (int dictId = 0; dictId < numValues; dictId++) {
+      assertEquals(realtimeInvertedIndex.getDocIds(dictId).getCardinality(), numDocs / numValues);
+    }
+  }
 }
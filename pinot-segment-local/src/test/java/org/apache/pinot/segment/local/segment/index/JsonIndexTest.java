@@ -26,9 +26,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.io.writer.impl.DirectMemoryManager;
 import org.apache.pinot.segment.local.realtime.impl.json.MutableJsonIndexImpl;
+import org.apache.pinot.segment.local.realtime.impl.json.OffHeapMutableJsonIndex;
 import org.apache.pinot.segment.local.segment.creator.impl.inv.json.OffHeapJsonIndexCreator;
 import org.apache.pinot.segment.local.segment.creator.impl.inv.json.OnHeapJsonIndexCreator;
 import org.apache.pinot.segment.local.segment.index.json.JsonIndexType;
@@ -37,6 +42,7 @@ import org.apache.pinot.segment.spi.V1Constants;
 import org.apache.pinot.segment.spi.index.creator.JsonIndexCreator;
 import org.apache.pinot.segment.spi.index.reader.JsonIndexReader;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
+import org.apache.pinot.segment.spi.memory.PinotDataBufferMemoryManager;
 import org.apache.pinot.spi.config.table.FieldConfig;
 import org.apache.pinot.spi.config.table.JsonIndexConfig;
 import org.apache.pinot.spi.utils.JsonUtils;
@@ -108,11 +114,17 @@ public class JsonIndexTest {
         PinotDataBuffer offHeapDataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(offHeapIndexFile);
         JsonIndexReader onHeapIndexReader = new ImmutableJsonIndexReader(onHeapDataBuffer, records.length);
         JsonIndexReader offHeapIndexReader = new ImmutableJsonIndexReader(offHeapDataBuffer, records.length);
-        MutableJsonIndexImpl mutableJsonIndex = new MutableJsonIndexImpl(jsonIndexConfig)) {
+        MutableJsonIndexImpl mutableJsonIndex = new MutableJsonIndexImpl(jsonIndexConfig);
+        PinotDataBufferMemoryManager memoryManager = new DirectMemoryManager(JsonIndexTest.class.getName());
+        OffHeapMutableJsonIndex offHeapMutableJsonIndex = new OffHeapMutableJsonIndex(jsonIndexConfig, memoryManager,
+            OFF_HEAP_COLUMN_NAME, 1000, 32)) {
       for (String record : records) {
         mutableJsonIndex.add(record);
+        offHeapMutableJsonIndex.add(record);
       }
-      JsonIndexReader[] indexReaders = new JsonIndexReader[]{onHeapIndexReader, offHeapIndexReader, mutableJsonIndex};
+      JsonIndexReader[] indexReaders = new JsonIndexReader[]{
+          onHeapIndexReader, offHeapIndexReader, mutableJsonIndex, offHeapMutableJsonIndex
+      };
       for (JsonIndexReader indexReader : indexReaders) {
         MutableRoaringBitmap matchingDocIds = getMatchingDocIds(indexReader, "name='bob'");
         Assert.assertEquals(matchingDocIds.toArray(), new int[]{1});
@@ -265,11 +277,17 @@ public class JsonIndexTest {
         PinotDataBuffer offHeapDataBuffer = PinotDataBuffer.mapReadOnlyBigEndianFile(offHeapIndexFile);
         JsonIndexReader onHeapIndexReader = new ImmutableJsonIndexReader(onHeapDataBuffer, records.length);
         JsonIndexReader offHeapIndexReader = new ImmutableJsonIndexReader(offHeapDataBuffer, records.length);
-        MutableJsonIndexImpl mutableJsonIndex = new MutableJsonIndexImpl(jsonIndexConfig)) {
+        MutableJsonIndexImpl mutableJsonIndex = new MutableJsonIndexImpl(jsonIndexConfig);
+        PinotDataBufferMemoryManager memoryManager = new DirectMemoryManager(JsonIndexTest.class.getName());
+        OffHeapMutableJsonIndex offHeapMutableJsonIndex = new OffHeapMutableJsonIndex(jsonIndexConfig, memoryManager,
+            OFF_HEAP_COLUMN_NAME, 1000, 32)) {
       for (String record : records) {
         mutableJsonIndex.add(record);
+        offHeapMutableJsonIndex.add(record);
       }
-      JsonIndexReader[] indexReaders = new JsonIndexReader[]{onHeapIndexReader, offHeapIndexReader, mutableJsonIndex};
+      JsonIndexReader[] indexReaders = new JsonIndexReader[]{
+          onHeapIndexReader, offHeapIndexReader, mutableJsonIndex, offHeapMutableJsonIndex
+      };
       for (JsonIndexReader indexReader : indexReaders) {
         MutableRoaringBitmap matchingDocIds = getMatchingDocIds(indexReader, "name = 'adam-123'");
         Assert.assertEquals(matchingDocIds.toArray(), new int[]{123});
@@ -355,6 +373,48 @@ public class JsonIndexTest {
     }
   }
 
+  @Test
+  public void testOffHeapMutableIndexConcurrentReadWrite()
+      throws Exception {
+    int numRecords = 10_000;
+    ExecutorService executorService = Executors.newSingleThreadExecutor();
+    try (PinotDataBufferMemoryManager memoryManager = new DirectMemoryManager(JsonIndexTest.class.getName());
+        OffHeapMutableJsonIndex jsonIndex = new OffHeapMutableJsonIndex(new JsonIndexConfig(), memoryManager,
+            OFF_HEAP_COLUMN_NAME, 100, 32)) {
+      Future<?> future = executorService.submit(() -> {
+        for (int i = 0; i < numRecords; i++) {
+          jsonIndex.add(String.format(
+              "{\"name\":\"adam-%d\",\"addresses\":[{\"country\":\"us\"},{\"country\":\"ca\"}]}", i % 10));
+        }
+        return null;
+      });
+
+      // Readers should only see the fully added docs without locking
+      while (!future.isDone()) {
+        int[] docIds = getMatchingDocIds(jsonIndex, "name IS NOT NULL").toArray();
+        if (docIds.length > 0) {
+          Assert.assertEquals(docIds[docIds.length - 1], docIds.length - 1);
+        }
+        docIds = getMatchingDocIds(jsonIndex, "\"addresses[1].country\" = 'ca' AND name != 'adam-3'").toArray();
+        for (int docId : docIds) {
+          Assert.assertNotEquals(docId % 10, 3);
+        }
+        docIds = getMatchingDocIds(jsonIndex, "\"addresses[*].country\" = 'us'").toArray();
+        if (docIds.length > 0) {
+          Assert.assertEquals(docIds[docIds.length - 1], docIds.length - 1);
+        }
+      }
+      future.get();
+
+      Assert.assertEquals(getMatchingDocIds(jsonIndex, "name IS NOT NULL").getCardinality(), numRecords);
+      Assert.assertEquals(getMatchingDocIds(jsonIndex, "name = 'adam-3'").getCardinality(), numRecords / 10);
+      Assert.assertEquals(getMatchingDocIds(jsonIndex, "\"addresses[0].country\" = 'ca'").getCardinality(), 0);
+      Assert.assertEquals(getMatchingDocIds(jsonIndex, "name IS NULL").getCardinality(), 0);
+    } finally {
+      executorService.shutdownNow();
+    }
+  }
+
   /**
    * Creates a JSON index with the given config and adds the given records
    * @param createOnHeap Whether to create an on-heap index
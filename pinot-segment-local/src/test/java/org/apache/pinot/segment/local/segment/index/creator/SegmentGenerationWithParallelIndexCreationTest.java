@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.creator;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.local.segment.readers.PinotSegmentRecordReader;
+import org.apache.pinot.segment.spi.ColumnMetadata;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.index.metadata.SegmentMetadataImpl;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that building the indexes of different columns in parallel generates the same segment as building them
+ * sequentially.
+ */
+public class SegmentGenerationWithParallelIndexCreationTest {
+  private static final File TEMP_DIR =
+      new File(FileUtils.getTempDirectory(), "SegmentGenerationWithParallelIndexCreationTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final int NUM_INT_COLUMNS = 20;
+  private static final int NUM_STRING_COLUMNS = 20;
+  private static final String MV_COLUMN = "mvColumn";
+  private static final String RAW_COLUMN = "rawColumn";
+  // More than one batch of rows
+  private static final int NUM_ROWS = 2500;
+
+  private Schema _schema;
+  private TableConfig _tableConfig;
+  private List<GenericRow> _rows;
+
+  @BeforeClass
+  public void setUp() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    Schema.SchemaBuilder schemaBuilder = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME);
+    List<String> invertedIndexColumns = new ArrayList<>();
+    for (int i = 0; i < NUM_INT_COLUMNS; i++) {
+      schemaBuilder.addSingleValueDimension("intColumn" + i, DataType.INT);
+      invertedIndexColumns.add("intColumn" + i);
+    }
+    for (int i = 0; i < NUM_STRING_COLUMNS; i++) {
+      schemaBuilder.addSingleValueDimension("stringColumn" + i, DataType.STRING);
+    }
+    _schema = schemaBuilder.addMultiValueDimension(MV_COLUMN, DataType.LONG)
+        .addSingleValueDimension(RAW_COLUMN, DataType.STRING).build();
+    _tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+        .setInvertedIndexColumns(invertedIndexColumns).setNoDictionaryColumns(List.of(RAW_COLUMN))
+        .setNullHandlingEnabled(true).build();
+
+    Random random = new Random();
+    _rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      for (int j = 0; j < NUM_INT_COLUMNS; j++) {
+        // Leave some values as null to test the null value vector
+        if (random.nextInt(10) != 0) {
+          row.putValue("intColumn" + j, random.nextInt(100 * (j + 1)));
+        }
+      }
+      for (int j = 0; j < NUM_STRING_COLUMNS; j++) {
+        row.putValue("stringColumn" + j, "value_" + random.nextInt(1000));
+      }
+      row.putValue(MV_COLUMN, new Object[]{random.nextLong(), random.nextLong()});
+      row.putValue(RAW_COLUMN, "raw_" + i);
+      _rows.add(row);
+    }
+  }
+
+  @AfterClass
+  public void tearDown() {
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Test
+  public void testParallelIndexCreation()
+      throws Exception {
+    File sequentialSegmentDir = buildSegment("sequential", 1, 0);
+    // Use a small memory budget so that some columns need to wait for the others to finish
+    File parallelSegmentDir = buildSegment("parallel", 4, 64 * 1024);
+
+    SegmentMetadataImpl sequentialMetadata = new SegmentMetadataImpl(sequentialSegmentDir);
+    SegmentMetadataImpl parallelMetadata = new SegmentMetadataImpl(parallelSegmentDir);
+    assertEquals(parallelMetadata.getTotalDocs(), NUM_ROWS);
+    assertEquals(parallelMetadata.getAllColumns(), sequentialMetadata.getAllColumns());
+    for (String column : sequentialMetadata.getAllColumns()) {
+      ColumnMetadata expected = sequentialMetadata.getColumnMetadataFor(column);
+      ColumnMetadata actual = parallelMetadata.getColumnMetadataFor(column);
+      assertEquals(actual.getCardinality(), expected.getCardinality());
+      assertEquals(actual.hasDictionary(), expected.hasDictionary());
+      assertEquals(actual.isSorted(), expected.isSorted());
+      assertEquals(actual.getMinValue(), expected.getMinValue());
+      assertEquals(actual.getMaxValue(), expected.getMaxValue());
+      assertEquals(actual.getTotalNumberOfEntries(), expected.getTotalNumberOfEntries());
+    }
+
+    try (PinotSegmentRecordReader sequentialReader = new PinotSegmentRecordReader(sequentialSegmentDir);
+        PinotSegmentRecordReader parallelReader = new PinotSegmentRecordReader(parallelSegmentDir)) {
+      int numNullValues = 0;
+      for (int i = 0; i < NUM_ROWS; i++) {
+        assertTrue(parallelReader.hasNext());
+        GenericRow expected = sequentialReader.next();
+        GenericRow actual = parallelReader.next();
+        for (String column : _schema.getColumnNames()) {
+          if (column.equals(MV_COLUMN)) {
+            assertTrue(Arrays.equals((Object[]) actual.getValue(column), (Object[]) expected.getValue(column)));
+          } else {
+            assertEquals(actual.getValue(column), expected.getValue(column));
+          }
+          assertEquals(actual.isNullValue(column), expected.isNullValue(column));
+          if (actual.isNullValue(column)) {
+            numNullValues++;
+          }
+        }
+      }
+      assertFalse(parallelReader.hasNext());
+      assertTrue(numNullValues > 0);
+    }
+  }
+
+  private File buildSegment(String segmentName, int numIndexCreationThreads, long memoryBudgetBytes)
+      throws Exception {
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(_tableConfig, _schema);
+    config.setOutDir(TEMP_DIR.getPath());
+    config.setSegmentName(segmentName);
+    config.setNumIndexCreationThreads(numIndexCreationThreads);
+    config.setIndexCreationMemoryBudgetBytes(memoryBudgetBytes);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(_rows));
+    driver.build();
+    return driver.getOutputDirectory();
+  }
+}
@@ -337,6 +337,56 @@ public class FixedByteChunkSVForwardIndexTest {
     FileUtils.deleteQuietly(outFileEightByte);
   }
 
+  @Test(dataProvider = "combinations")
+  public void testReadValuesSV(ChunkCompressionType compressionType, int version)
+      throws Exception {
+    long[] expected = new long[NUM_VALUES];
+    for (int i = 0; i < NUM_VALUES; i++) {
+      expected[i] = RANDOM.nextLong();
+    }
+
+    File outFile = new File(TEST_FILE);
+    FileUtils.deleteQuietly(outFile);
+    try (FixedByteChunkForwardIndexWriter writer = new FixedByteChunkForwardIndexWriter(outFile, compressionType,
+        NUM_VALUES, NUM_DOCS_PER_CHUNK, Long.BYTES, version)) {
+      for (long value : expected) {
+        writer.putLong(value);
+      }
+    }
+
+    int batchSize = 256;
+    int[] docIds = new int[batchSize];
+    long[] values = new long[batchSize];
+    try (ForwardIndexReader<ChunkReaderContext> reader = version >= 4
+        ? new FixedBytePower2ChunkSVForwardIndexReader(PinotDataBuffer.mapReadOnlyBigEndianFile(outFile), DataType.LONG)
+        : new FixedByteChunkSVForwardIndexReader(PinotDataBuffer.mapReadOnlyBigEndianFile(outFile), DataType.LONG);
+        ChunkReaderContext readerContext = reader.createContext()) {
+      // Contiguous ranges, including the ones crossing the chunk boundaries
+      for (int startDocId = 0; startDocId < NUM_VALUES; startDocId += batchSize - 1) {
+        int length = Math.min(batchSize, NUM_VALUES - startDocId);
+        for (int i = 0; i < length; i++) {
+          docIds[i] = startDocId + i;
+        }
+        reader.readValuesSV(docIds, length, values, readerContext);
+        for (int i = 0; i < length; i++) {
+          Assert.assertEquals(values[i], expected[startDocId + i]);
+        }
+      }
+
+      // Non-contiguous doc ids
+      int length = 0;
+      for (int docId = 0; docId < NUM_VALUES && length < batchSize; docId += 1 + RANDOM.nextInt(100)) {
+        docIds[length++] = docId;
+      }
+      reader.readValuesSV(docIds, length, values, readerContext);
+      for (int i = 0; i < length; i++) {
+        Assert.assertEquals(values[i], expected[docIds[i]]);
+      }
+    }
+
+    FileUtils.deleteQuietly(outFile);
+  }
+
   /**
    * This test ensures that the reader can read in an data file from version 1.
    */
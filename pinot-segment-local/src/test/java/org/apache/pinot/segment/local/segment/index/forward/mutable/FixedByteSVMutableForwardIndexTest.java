@@ -301,4 +301,49 @@ public class FixedByteSVMutableForwardIndexTest {
     }
     readerWriter.close();
   }
+
+  @Test
+  public void testBulkSet()
+      throws IOException {
+    Random random = new Random();
+    int numRowsPerChunk = 7;
+    int numRows = 100;
+    int[] ints = new int[numRows];
+    long[] longs = new long[numRows];
+    float[] floats = new float[numRows];
+    double[] doubles = new double[numRows];
+    for (int i = 0; i < numRows; i++) {
+      ints[i] = random.nextInt();
+      longs[i] = random.nextLong();
+      floats[i] = random.nextFloat();
+      doubles[i] = random.nextDouble();
+    }
+    try (FixedByteSVMutableForwardIndex intIndex = new FixedByteSVMutableForwardIndex(false, DataType.INT,
+        numRowsPerChunk, _memoryManager, "IntBulk");
+        FixedByteSVMutableForwardIndex longIndex = new FixedByteSVMutableForwardIndex(false, DataType.LONG,
+            numRowsPerChunk, _memoryManager, "LongBulk");
+        FixedByteSVMutableForwardIndex floatIndex = new FixedByteSVMutableForwardIndex(false, DataType.FLOAT,
+            numRowsPerChunk, _memoryManager, "FloatBulk");
+        FixedByteSVMutableForwardIndex doubleIndex = new FixedByteSVMutableForwardIndex(false, DataType.DOUBLE,
+            numRowsPerChunk, _memoryManager, "DoubleBulk")) {
+      // Write batches of different sizes so that some of them span multiple chunks
+      int startDocId = 0;
+      int batchSize = 1;
+      while (startDocId < numRows) {
+        int length = Math.min(batchSize, numRows - startDocId);
+        intIndex.setInts(startDocId, Arrays.copyOfRange(ints, startDocId, startDocId + length), length);
+        longIndex.setLongs(startDocId, Arrays.copyOfRange(longs, startDocId, startDocId + length), length);
+        floatIndex.setFloats(startDocId, Arrays.copyOfRange(floats, startDocId, startDocId + length), length);
+        doubleIndex.setDoubles(startDocId, Arrays.copyOfRange(doubles, startDocId, startDocId + length), length);
+        startDocId += length;
+        batchSize = batchSize * 2 % 19 + 1;
+      }
+      for (int i = 0; i < numRows; i++) {
+        Assert.assertEquals(intIndex.getInt(i), ints[i]);
+        Assert.assertEquals(longIndex.getLong(i), longs[i]);
+        Assert.assertEquals(floatIndex.getFloat(i), floats[i]);
+        Assert.assertEquals(doubleIndex.getDouble(i), doubles[i]);
+      }
+    }
+  }
 }
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.segment.index.loader;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.commons.io.FileUtils;
+import org.apache.pinot.segment.local.indexsegment.immutable.ImmutableSegmentLoader;
+import org.apache.pinot.segment.local.segment.creator.impl.SegmentIndexCreationDriverImpl;
+import org.apache.pinot.segment.local.segment.readers.GenericRowRecordReader;
+import org.apache.pinot.segment.local.segment.store.SegmentLocalFSDirectory;
+import org.apache.pinot.segment.spi.ImmutableSegment;
+import org.apache.pinot.segment.spi.creator.SegmentGeneratorConfig;
+import org.apache.pinot.segment.spi.datasource.DataSource;
+import org.apache.pinot.segment.spi.index.reader.Dictionary;
+import org.apache.pinot.segment.spi.index.reader.ForwardIndexReader;
+import org.apache.pinot.segment.spi.index.reader.InvertedIndexReader;
+import org.apache.pinot.spi.config.table.TableConfig;
+import org.apache.pinot.spi.config.table.TableType;
+import org.apache.pinot.spi.data.FieldSpec.DataType;
+import org.apache.pinot.spi.data.Schema;
+import org.apache.pinot.spi.data.readers.GenericRow;
+import org.apache.pinot.spi.utils.ReadMode;
+import org.apache.pinot.spi.utils.builder.TableConfigBuilder;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Tests that the {@link SegmentPreProcessor} creates the same indexes when the columns are processed in parallel on the
+ * {@link SegmentPreProcessorThreadPool}.
+ */
+public class SegmentPreProcessorThreadPoolTest {
+  private static final File TEMP_DIR = new File(FileUtils.getTempDirectory(), "SegmentPreProcessorThreadPoolTest");
+  private static final String RAW_TABLE_NAME = "testTable";
+  private static final String SEGMENT_NAME = "testSegment";
+  private static final int NUM_COLUMNS = 20;
+  private static final int NUM_ROWS = 1000;
+
+  private Schema _schema;
+  private List<String> _columns;
+  private File _indexDir;
+
+  @BeforeClass
+  public void setUp()
+      throws Exception {
+    FileUtils.deleteQuietly(TEMP_DIR);
+    Schema.SchemaBuilder schemaBuilder = new Schema.SchemaBuilder().setSchemaName(RAW_TABLE_NAME);
+    _columns = new ArrayList<>(NUM_COLUMNS);
+    for (int i = 0; i < NUM_COLUMNS; i++) {
+      schemaBuilder.addSingleValueDimension("column" + i, DataType.INT);
+      _columns.add("column" + i);
+    }
+    _schema = schemaBuilder.build();
+
+    Random random = new Random();
+    List<GenericRow> rows = new ArrayList<>(NUM_ROWS);
+    for (int i = 0; i < NUM_ROWS; i++) {
+      GenericRow row = new GenericRow();
+      for (int j = 0; j < NUM_COLUMNS; j++) {
+        row.putValue("column" + j, random.nextInt(100 * (j + 1)));
+      }
+      rows.add(row);
+    }
+
+    // Build the segment without any index
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME).build();
+    SegmentGeneratorConfig config = new SegmentGeneratorConfig(tableConfig, _schema);
+    config.setOutDir(TEMP_DIR.getPath());
+    config.setSegmentName(SEGMENT_NAME);
+    SegmentIndexCreationDriverImpl driver = new SegmentIndexCreationDriverImpl();
+    driver.init(config, new GenericRowRecordReader(rows));
+    driver.build();
+    _indexDir = driver.getOutputDirectory();
+  }
+
+  @AfterClass
+  public void tearDown() {
+    SegmentPreProcessorThreadPool.shutDown();
+    FileUtils.deleteQuietly(TEMP_DIR);
+  }
+
+  @Test
+  public void testParallelPreProcess()
+      throws Exception {
+    // Use a small memory budget so that some columns need to wait for the others to finish
+    SegmentPreProcessorThreadPool.init(4, 16 * 1024);
+
+    List<String> rangeIndexColumns = _columns.subList(0, NUM_COLUMNS / 2);
+    List<String> bloomFilterColumns = _columns.subList(NUM_COLUMNS / 2, NUM_COLUMNS);
+    TableConfig tableConfig = new TableConfigBuilder(TableType.OFFLINE).setTableName(RAW_TABLE_NAME)
+        .setInvertedIndexColumns(_columns).setRangeIndexColumns(rangeIndexColumns)
+        .setBloomFilterColumns(bloomFilterColumns).build();
+    IndexLoadingConfig indexLoadingConfig = new IndexLoadingConfig(tableConfig, _schema);
+    try (SegmentLocalFSDirectory segmentDirectory = new SegmentLocalFSDirectory(_indexDir, ReadMode.mmap);
+        SegmentPreProcessor processor = new SegmentPreProcessor(segmentDirectory, indexLoadingConfig, _schema)) {
+      assertTrue(processor.needProcess());
+      processor.process();
+    }
+    try (SegmentLocalFSDirectory segmentDirectory = new SegmentLocalFSDirectory(_indexDir, ReadMode.mmap);
+        SegmentPreProcessor processor = new SegmentPreProcessor(segmentDirectory, indexLoadingConfig, _schema)) {
+      assertFalse(processor.needProcess());
+    }
+
+    ImmutableSegment segment = ImmutableSegmentLoader.load(_indexDir, indexLoadingConfig, _schema, false);
+    try {
+      for (String column : _columns) {
+        DataSource dataSource = segment.getDataSource(column);
+        Dictionary dictionary = dataSource.getDictionary();
+        ForwardIndexReader forwardIndex = dataSource.getForwardIndex();
+        InvertedIndexReader<?> invertedIndex = dataSource.getInvertedIndex();
+        assertNotNull(dictionary);
+        assertNotNull(forwardIndex);
+        assertNotNull(invertedIndex);
+        if (rangeIndexColumns.contains(column)) {
+          assertNotNull(dataSource.getRangeIndex());
+        } else {
+          assertNotNull(dataSource.getBloomFilter());
+        }
+        int numDocs = 0;
+        for (int dictId = 0; dictId < dictionary.length(); dictId++) {
+          ImmutableRoaringBitmap docIds = (ImmutableRoaringBitmap) invertedIndex.getDocIds(dictId);
+          numDocs += docIds.getCardinality();
+          for (int docId : docIds.toArray()) {
+            assertEquals(forwardIndex.getDictId(docId, null), dictId);
+          }
+          if (!rangeIndexColumns.contains(column)) {
+            assertTrue(dataSource.getBloomFilter().mightContain(dictionary.getStringValue(dictId)));
+          }
+        }
+        assertEquals(numDocs, NUM_ROWS);
+      }
+    } finally {
+      segment.destroy();
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.utils;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+
+public class ColumnTaskExecutorTest {
+  private static final int NUM_COLUMNS = 100;
+
+  @Test
+  public void testSequential()
+      throws Exception {
+    try (ColumnTaskExecutor executor = new ColumnTaskExecutor("testSequential", 1, 0)) {
+      assertFalse(executor.isParallel());
+      Thread currentThread = Thread.currentThread();
+      AtomicInteger numTasks = new AtomicInteger();
+      for (int i = 0; i < NUM_COLUMNS; i++) {
+        executor.submit("column" + i, 1024, () -> {
+          assertEquals(Thread.currentThread(), currentThread);
+          numTasks.incrementAndGet();
+        });
+      }
+      executor.awaitCompletion();
+      assertEquals(numTasks.get(), NUM_COLUMNS);
+
+      // Exception is thrown directly from the task
+      expectThrows(IOException.class, () -> executor.submit("column", 0, () -> {
+        throw new IOException();
+      }));
+    }
+  }
+
+  @Test
+  public void testMemoryBudget()
+      throws Exception {
+    // Each task takes half of the budget, so at most 2 tasks can run at the same time
+    try (ColumnTaskExecutor executor = new ColumnTaskExecutor("testMemoryBudget", 4, 2048)) {
+      assertTrue(executor.isParallel());
+      AtomicInteger numRunningTasks = new AtomicInteger();
+      AtomicInteger maxNumRunningTasks = new AtomicInteger();
+      AtomicInteger numTasks = new AtomicInteger();
+      for (int i = 0; i < NUM_COLUMNS; i++) {
+        executor.submit("column" + i, 1024, () -> {
+          maxNumRunningTasks.accumulateAndGet(numRunningTasks.incrementAndGet(), Math::max);
+          Thread.sleep(1);
+          numRunningTasks.decrementAndGet();
+          numTasks.incrementAndGet();
+        });
+      }
+      executor.awaitCompletion();
+      assertEquals(numTasks.get(), NUM_COLUMNS);
+      assertTrue(maxNumRunningTasks.get() <= 2);
+
+      // Task estimated above the budget is admitted alone
+      executor.submit("largeColumn", 1024 * 1024, numTasks::incrementAndGet);
+      executor.awaitCompletion();
+      assertEquals(numTasks.get(), NUM_COLUMNS + 1);
+    }
+  }
+
+  @Test
+  public void testFailure()
+      throws Exception {
+    try (ColumnTaskExecutor executor = new ColumnTaskExecutor("testFailure", 4, 0)) {
+      for (int i = 0; i < NUM_COLUMNS; i++) {
+        int columnId = i;
+        executor.submit("column" + i, 0, () -> {
+          if (columnId == 10) {
+            throw new IOException("Failed to index column: " + columnId);
+          }
+        });
+      }
+      IOException exception = expectThrows(IOException.class, executor::awaitCompletionWithIOException);
+      assertEquals(exception.getMessage(), "Failed to index column: 10");
+
+      // Executor can be reused after the failure is thrown
+      AtomicInteger numTasks = new AtomicInteger();
+      executor.submit("column", 0, numTasks::incrementAndGet);
+      executor.awaitCompletion();
+      assertEquals(numTasks.get(), 1);
+    }
+  }
+
+  @Test
+  public void testSharedExecutor()
+      throws Exception {
+    try (ColumnTaskExecutor executor = new ColumnTaskExecutor("testSharedExecutor", 4, 0)) {
+      AtomicInteger numTasks = new AtomicInteger();
+      try (ColumnTaskExecutor sharedExecutor1 = executor.newSharedExecutor();
+          ColumnTaskExecutor sharedExecutor2 = executor.newSharedExecutor()) {
+        assertTrue(sharedExecutor1.isParallel());
+        sharedExecutor1.submit("column1", 0, () -> {
+          throw new IOException("Failed to index column: column1");
+        });
+        sharedExecutor2.submit("column2", 0, numTasks::incrementAndGet);
+        // Failure of one shared executor does not affect the others
+        expectThrows(IOException.class, sharedExecutor1::awaitCompletionWithIOException);
+        sharedExecutor2.awaitCompletion();
+        assertEquals(numTasks.get(), 1);
+      }
+
+      // Closing the shared executors does not shut down the thread pool
+      try (ColumnTaskExecutor sharedExecutor = executor.newSharedExecutor()) {
+        sharedExecutor.submit("column", 0, numTasks::incrementAndGet);
+        sharedExecutor.awaitCompletion();
+        assertEquals(numTasks.get(), 2);
+      }
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.pinot.segment.local.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.pinot.segment.local.utils.OffHeapPrimaryKeyMap.Location;
+import org.apache.pinot.spi.config.table.HashFunction;
+import org.apache.pinot.spi.data.readers.PrimaryKey;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+
+public class OffHeapPrimaryKeyMapTest {
+  private static final int NUM_KEYS = 10_000;
+
+  @Test
+  public void testGetKey() {
+    PrimaryKey primaryKey = new PrimaryKey(new Object[]{"foo", 123});
+    // MD5 and MURMUR3 hashes are used as is
+    assertEquals(OffHeapPrimaryKeyMap.getKey(HashUtils.hashPrimaryKey(primaryKey, HashFunction.MD5)),
+        HashUtils.hashMD5(primaryKey.asBytes()));
+    assertEquals(OffHeapPrimaryKeyMap.getKey(HashUtils.hashPrimaryKey(primaryKey, HashFunction.MURMUR3)),
+        HashUtils.hashMurmur3(primaryKey.asBytes()));
+    // Non-hashed primary key is hashed with MURMUR3
+    assertEquals(OffHeapPrimaryKeyMap.getKey(HashUtils.hashPrimaryKey(primaryKey, HashFunction.NONE)),
+        HashUtils.hashMurmur3(primaryKey.asBytes()));
+  }
+
+  @Test
+  public void testPutGetRemove()
+      throws IOException {
+    Random random = new Random();
+    Map<Integer, Location> expected = new HashMap<>();
+    // Start with a small capacity to test resizing
+    try (OffHeapPrimaryKeyMap map = new OffHeapPrimaryKeyMap(16, "testPutGetRemove")) {
+      for (int i = 0; i < NUM_KEYS; i++) {
+        Location location = new Location(random.nextInt(100) + 1, i, random.nextLong());
+        assertNull(map.put(getKey(i), location));
+        expected.put(i, location);
+      }
+      assertEquals(map.size(), NUM_KEYS);
+
+      // Override half of the keys, and remove the other half with compute
+      for (int i = 0; i < NUM_KEYS; i++) {
+        if (i % 2 == 0) {
+          Location location = new Location(1, i, i);
+          assertEquals(map.put(getKey(i), location), expected.get(i));
+          expected.put(i, location);
+        } else {
+          assertNull(map.compute(getKey(i), current -> {
+            assertEquals(current, expected.get(current.getDocId()));
+            return null;
+          }));
+          expected.remove(i);
+        }
+      }
+      assertEquals(map.size(), NUM_KEYS / 2);
+      for (int i = 0; i < NUM_KEYS; i++) {
+        assertEquals(map.get(getKey(i)), expected.get(i));
+      }
+
+      // Remove keys with value less than half of the keys
+      assertEquals(map.removeIf(location -> location.getValue() < NUM_KEYS / 2), NUM_KEYS / 4);
+      assertEquals(map.size(), NUM_KEYS / 4);
+      for (int i = 0; i < NUM_KEYS; i++) {
+        assertEquals(map.get(getKey(i)), i < NUM_KEYS / 2 ? null : expected.get(i));
+      }
+
+      // Add the keys back with compute
+      for (int i = 0; i < NUM_KEYS; i++) {
+        int docId = i;
+        map.compute(getKey(i), current -> current != null ? current : new Location(2, docId, 0));
+      }
+      assertEquals(map.size(), NUM_KEYS);
+      for (int i = 0; i < NUM_KEYS; i++) {
+        assertEquals(map.get(getKey(i)).getDocId(), i);
+      }
+    }
+  }
+
+  @Test
+  public void testConcurrentCompute()
+      throws Exception {
+    int numThreads = 4;
+    try (OffHeapPrimaryKeyMap map = new OffHeapPrimaryKeyMap(16, "testConcurrentCompute")) {
+      ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+      try {
+        List<Future<?>> futures = new ArrayList<>(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+          futures.add(executorService.submit(() -> {
+            // Use doc id as the counter of the updates on each key
+            for (int j = 0; j < NUM_KEYS; j++) {
+              map.compute(getKey(j), current -> new Location(1, current != null ? current.getDocId() + 1 : 1, 0));
+            }
+          }));
+        }
+        for (Future<?> future : futures) {
+          future.get();
+        }
+      } finally {
+        executorService.shutdown();
+      }
+      assertEquals(map.size(), NUM_KEYS);
+      for (int i = 0; i < NUM_KEYS; i++) {
+        assertEquals(map.get(getKey(i)).getDocId(), numThreads);
+      }
+    }
+  }
+
+  private static byte[] getKey(int value) {
+    return OffHeapPrimaryKeyMap.getKey(new PrimaryKey(new Object[]{value}));
+  }
+}
@@ -22,6 +22,8 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
 import java.util.TreeMap;
 import javax.annotation.Nullable;
 import org.apache.commons.configuration2.ex.ConfigurationException;
@@ -58,6 +60,20 @@ public interface SegmentCreator extends Closeable, Serializable {
   void indexRow(GenericRow row)
       throws IOException;
 
+  /**
+   * Adds a batch of rows to the index, in the order of the list. All the rows are indexed when this method returns.
+   * Implementations may index different columns of the rows in parallel, so the rows should not be modified
+   * concurrently.
+   *
+   * @param rows The rows to index.
+   */
+  default void indexRows(List<GenericRow> rows)
+      throws IOException {
+    for (GenericRow row : rows) {
+      indexRow(row);
+    }
+  }
+
   /**
    * Adds a column to the index.
    *
@@ -68,6 +84,20 @@ public interface SegmentCreator extends Closeable, Serializable {
   void indexColumn(String columnName, @Nullable int[] sortedDocIds, IndexSegment segment)
       throws IOException;
 
+  /**
+   * Adds the given columns to the index. Implementations may index different columns in parallel.
+   *
+   * @param columnNames - The names of the columns being added to.
+   * @param sortedDocIds - If not null, then this provides the sorted order of documents.
+   * @param segment - Used to get the values of the columns.
+   */
+  default void indexColumns(Collection<String> columnNames, @Nullable int[] sortedDocIds, IndexSegment segment)
+      throws IOException {
+    for (String columnName : columnNames) {
+      indexColumn(columnName, sortedDocIds, segment);
+    }
+  }
+
   /**
    * Sets the name of the segment.
    *
@@ -124,6 +124,10 @@ public class SegmentGeneratorConfig implements Serializable {
   private boolean _optimizeDictionaryForMetrics = false;
   private double _noDictionarySizeRatioThreshold = IndexingConfig.DEFAULT_NO_DICTIONARY_SIZE_RATIO_THRESHOLD;
   private boolean _realtimeConversion = false;
+  // Number of threads to build the indexes of different columns in parallel, sequential when less than 2
+  private int _numIndexCreationThreads = 1;
+  // Memory budget shared by the columns being built in parallel, 0 to use a quarter of the max heap size
+  private long _indexCreationMemoryBudgetBytes = 0;
   // consumerDir contains data from the consuming segment, and is used during _realtimeConversion optimization
   private File _consumerDir;
   private final Map<String, FieldIndexConfigs> _indexConfigsByColName;
@@ -204,6 +208,7 @@ public class SegmentGeneratorConfig implements Serializable {
       _optimizeDictionary = indexingConfig.isOptimizeDictionary();
       _optimizeDictionaryForMetrics = indexingConfig.isOptimizeDictionaryForMetrics();
       _noDictionarySizeRatioThreshold = indexingConfig.getNoDictionarySizeRatioThreshold();
+      _numIndexCreationThreads = Math.max(indexingConfig.getNumIndexCreationThreads(), 1);
     }
 
     IngestionConfig ingestionConfig = tableConfig.getIngestionConfig();
@@ -747,6 +752,22 @@ public class SegmentGeneratorConfig implements Serializable {
     return _noDictionarySizeRatioThreshold;
   }
 
+  public int getNumIndexCreationThreads() {
+    return _numIndexCreationThreads;
+  }
+
+  public void setNumIndexCreationThreads(int numIndexCreationThreads) {
+    _numIndexCreationThreads = Math.max(numIndexCreationThreads, 1);
+  }
+
+  public long getIndexCreationMemoryBudgetBytes() {
+    return _indexCreationMemoryBudgetBytes;
+  }
+
+  public void setIndexCreationMemoryBudgetBytes(long indexCreationMemoryBudgetBytes) {
+    _indexCreationMemoryBudgetBytes = indexCreationMemoryBudgetBytes;
+  }
+
   public boolean isRealtimeConversion() {
     return _realtimeConversion;
   }
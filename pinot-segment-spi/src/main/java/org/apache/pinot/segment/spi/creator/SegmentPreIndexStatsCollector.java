@@ -18,6 +18,7 @@
  */
 package org.apache.pinot.segment.spi.creator;
 
+import java.util.List;
 import org.apache.pinot.spi.data.readers.GenericRow;
 
 
@@ -31,5 +32,16 @@ public interface SegmentPreIndexStatsCollector extends SegmentPreIndexStatsConta
   void collectRow(GenericRow row)
       throws Exception;
 
+  /**
+   * Collects the stats for a batch of rows. Implementations may collect the stats of different columns in parallel, so
+   * the rows should not be modified concurrently.
+   */
+  default void collectRows(List<GenericRow> rows)
+      throws Exception {
+    for (GenericRow row : rows) {
+      collectRow(row);
+    }
+  }
+
   void logStats();
 }
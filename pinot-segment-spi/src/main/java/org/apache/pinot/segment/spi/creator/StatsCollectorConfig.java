@@ -39,6 +39,8 @@ public class StatsCollectorConfig {
   private final Schema _schema;
   private final SegmentPartitionConfig _segmentPartitionConfig;
   private final Map<String, FieldConfig> _columnFieldConfigMap;
+  // Number of threads to collect the stats of different columns in parallel, sequential when less than 2
+  private int _numThreads = 1;
 
   /**
    * Constructor for the class.
@@ -103,4 +105,12 @@ public class StatsCollectorConfig {
   public FieldConfig getFieldConfigForColumn(String column) {
     return _columnFieldConfigMap.get(column);
   }
+
+  public int getNumThreads() {
+    return _numThreads;
+  }
+
+  public void setNumThreads(int numThreads) {
+    _numThreads = numThreads;
+  }
 }
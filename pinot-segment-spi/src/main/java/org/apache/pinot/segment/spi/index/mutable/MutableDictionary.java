@@ -38,6 +38,56 @@ public interface MutableDictionary extends Dictionary {
    */
   int[] index(Object[] values);
 
+  /**
+   * Indexes the first {@code length} INT single-value entries into the dictionary, and writes the dictIds of the values
+   * into the given buffer. This is used to index a batch of values in bulk.
+   */
+  default void index(int[] values, int length, int[] dictIds) {
+    for (int i = 0; i < length; i++) {
+      dictIds[i] = index((Object) values[i]);
+    }
+  }
+
+  /**
+   * Indexes the first {@code length} LONG single-value entries into the dictionary, and writes the dictIds of the
+   * values into the given buffer. This is used to index a batch of values in bulk.
+   */
+  default void index(long[] values, int length, int[] dictIds) {
+    for (int i = 0; i < length; i++) {
+      dictIds[i] = index((Object) values[i]);
+    }
+  }
+
+  /**
+   * Indexes the first {@code length} FLOAT single-value entries into the dictionary, and writes the dictIds of the
+   * values into the given buffer. This is used to index a batch of values in bulk.
+   */
+  default void index(float[] values, int length, int[] dictIds) {
+    for (int i = 0; i < length; i++) {
+      dictIds[i] = index((Object) values[i]);
+    }
+  }
+
+  /**
+   * Indexes the first {@code length} DOUBLE single-value entries into the dictionary, and writes the dictIds of the
+   * values into the given buffer. This is used to index a batch of values in bulk.
+   */
+  default void index(double[] values, int length, int[] dictIds) {
+    for (int i = 0; i < length; i++) {
+      dictIds[i] = index((Object) values[i]);
+    }
+  }
+
+  /**
+   * Indexes the first {@code length} single-value entries (values of the dictionary type) into the dictionary, and
+   * writes the dictIds of the values into the given buffer. This is used to index a batch of values in bulk.
+   */
+  default void index(Object[] values, int length, int[] dictIds) {
+    for (int i = 0; i < length; i++) {
+      dictIds[i] = index(values[i]);
+    }
+  }
+
   @Override
   default boolean isSorted() {
     return false;
@@ -250,6 +250,20 @@ public interface MutableForwardIndex extends ForwardIndexReader<ForwardIndexRead
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Writes the first {@code length} dictionary ids for a single-value column into the consecutive document ids starting
+   * from the given document id.
+   *
+   * @param startDocId First document id to write
+   * @param dictIds Dictionary ids to write
+   * @param length Number of dictionary ids to write
+   */
+  default void setDictIds(int startDocId, int[] dictIds, int length) {
+    for (int i = 0; i < length; i++) {
+      setDictId(startDocId + i, dictIds[i]);
+    }
+  }
+
   /**
    * SINGLE-VALUE COLUMN RAW INDEX APIs
    */
@@ -406,6 +420,62 @@ public interface MutableForwardIndex extends ForwardIndexReader<ForwardIndexRead
     throw new UnsupportedOperationException();
   }
 
+  /**
+   * Writes the first {@code length} INT type single-values into the consecutive document ids starting from the given
+   * document id.
+   *
+   * @param startDocId First document id to write
+   * @param values Values to write
+   * @param length Number of values to write
+   */
+  default void setInts(int startDocId, int[] values, int length) {
+    for (int i = 0; i < length; i++) {
+      setInt(startDocId + i, values[i]);
+    }
+  }
+
+  /**
+   * Writes the first {@code length} LONG type single-values into the consecutive document ids starting from the given
+   * document id.
+   *
+   * @param startDocId First document id to write
+   * @param values Values to write
+   * @param length Number of values to write
+   */
+  default void setLongs(int startDocId, long[] values, int length) {
+    for (int i = 0; i < length; i++) {
+      setLong(startDocId + i, values[i]);
+    }
+  }
+
+  /**
+   * Writes the first {@code length} FLOAT type single-values into the consecutive document ids starting from the given
+   * document id.
+   *
+   * @param startDocId First document id to write
+   * @param values Values to write
+   * @param length Number of values to write
+   */
+  default void setFloats(int startDocId, float[] values, int length) {
+    for (int i = 0; i < length; i++) {
+      setFloat(startDocId + i, values[i]);
+    }
+  }
+
+  /**
+   * Writes the first {@code length} DOUBLE type single-values into the consecutive document ids starting from the given
+   * document id.
+   *
+   * @param startDocId First document id to write
+   * @param values Values to write
+   * @param length Number of values to write
+   */
+  default void setDoubles(int startDocId, double[] values, int length) {
+    for (int i = 0; i < length; i++) {
+      setDouble(startDocId + i, values[i]);
+    }
+  }
+
   /**
    * Writes the BIG_DECIMAL type single-value into the given document id.
    *
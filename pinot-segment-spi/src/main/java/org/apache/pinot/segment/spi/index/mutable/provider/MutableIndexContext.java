@@ -33,13 +33,16 @@ public class MutableIndexContext {
   private final int _estimatedColSize;
   private final int _estimatedCardinality;
   private final int _avgNumMultiValues;
+  private final int _estimatedJsonIndexCardinality;
+  private final int _estimatedJsonIndexAvgKeyValueSize;
   private final String _segmentName;
   private final PinotDataBufferMemoryManager _memoryManager;
   private final File _consumerDir;
 
   public MutableIndexContext(FieldSpec fieldSpec, int fixedLengthBytes, boolean hasDictionary, String segmentName,
       PinotDataBufferMemoryManager memoryManager, int capacity, boolean offHeap, int estimatedColSize,
-      int estimatedCardinality, int avgNumMultiValues, File consumerDir) {
+      int estimatedCardinality, int avgNumMultiValues, int estimatedJsonIndexCardinality,
+      int estimatedJsonIndexAvgKeyValueSize, File consumerDir) {
     _fieldSpec = fieldSpec;
     _fixedLengthBytes = fixedLengthBytes;
     _hasDictionary = hasDictionary;
@@ -50,6 +53,8 @@ public class MutableIndexContext {
     _estimatedColSize = estimatedColSize;
     _estimatedCardinality = estimatedCardinality;
     _avgNumMultiValues = avgNumMultiValues;
+    _estimatedJsonIndexCardinality = estimatedJsonIndexCardinality;
+    _estimatedJsonIndexAvgKeyValueSize = estimatedJsonIndexAvgKeyValueSize;
     _consumerDir = consumerDir;
   }
 
@@ -93,6 +98,21 @@ public class MutableIndexContext {
     return _avgNumMultiValues;
   }
 
+  /**
+   * Returns the estimated number of distinct key-value pairs in the json index, which is tracked separately from the
+   * column cardinality.
+   */
+  public int getEstimatedJsonIndexCardinality() {
+    return _estimatedJsonIndexCardinality;
+  }
+
+  /**
+   * Returns the estimated average length of the key-value pairs in the json index.
+   */
+  public int getEstimatedJsonIndexAvgKeyValueSize() {
+    return _estimatedJsonIndexAvgKeyValueSize;
+  }
+
   public File getConsumerDir() {
     return _consumerDir;
   }
@@ -112,6 +132,8 @@ public class MutableIndexContext {
     private int _estimatedColSize;
     private int _estimatedCardinality;
     private int _avgNumMultiValues;
+    private int _estimatedJsonIndexCardinality;
+    private int _estimatedJsonIndexAvgKeyValueSize;
     private File _consumerDir;
 
     public Builder withMemoryManager(PinotDataBufferMemoryManager memoryManager) {
@@ -159,6 +181,16 @@ public class MutableIndexContext {
       return this;
     }
 
+    public Builder withEstimatedJsonIndexCardinality(int estimatedJsonIndexCardinality) {
+      _estimatedJsonIndexCardinality = estimatedJsonIndexCardinality;
+      return this;
+    }
+
+    public Builder withEstimatedJsonIndexAvgKeyValueSize(int estimatedJsonIndexAvgKeyValueSize) {
+      _estimatedJsonIndexAvgKeyValueSize = estimatedJsonIndexAvgKeyValueSize;
+      return this;
+    }
+
     public Builder withConsumerDir(File consumerDir) {
       _consumerDir = consumerDir;
       return this;
@@ -172,7 +204,8 @@ public class MutableIndexContext {
     public MutableIndexContext build() {
       return new MutableIndexContext(Objects.requireNonNull(_fieldSpec), _fixedLengthBytes, _hasDictionary,
           Objects.requireNonNull(_segmentName), Objects.requireNonNull(_memoryManager), _capacity, _offHeap,
-          _estimatedColSize, _estimatedCardinality, _avgNumMultiValues, _consumerDir);
+          _estimatedColSize, _estimatedCardinality, _avgNumMultiValues, _estimatedJsonIndexCardinality,
+          _estimatedJsonIndexAvgKeyValueSize, _consumerDir);
     }
   }
 }
@@ -372,6 +372,32 @@ public interface ForwardIndexReader<T extends ForwardIndexReaderContext> extends
     }
   }
 
+  /**
+   * Fills the values
+   * @param docIds Array containing the document ids to read
+   * @param length Number of values to read
+   * @param values Values to fill
+   * @param context Reader context
+   */
+  default void readValuesSV(int[] docIds, int length, String[] values, T context) {
+    for (int i = 0; i < length; i++) {
+      values[i] = getString(docIds[i], context);
+    }
+  }
+
+  /**
+   * Fills the values
+   * @param docIds Array containing the document ids to read
+   * @param length Number of values to read
+   * @param values Values to fill
+   * @param context Reader context
+   */
+  default void readValuesSV(int[] docIds, int length, byte[][] values, T context) {
+    for (int i = 0; i < length; i++) {
+      values[i] = getBytes(docIds[i], context);
+    }
+  }
+
   /**
    * Reads the INT value at the given document id.
    *
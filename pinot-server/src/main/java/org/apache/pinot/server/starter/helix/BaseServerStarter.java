@@ -74,6 +74,7 @@ import org.apache.pinot.core.transport.ListenerConfig;
 import org.apache.pinot.core.util.ListenerConfigUtil;
 import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeLuceneIndexRefreshState;
 import org.apache.pinot.segment.local.realtime.impl.invertedindex.RealtimeLuceneTextIndexSearcherPool;
+import org.apache.pinot.segment.local.segment.index.loader.SegmentPreProcessorThreadPool;
 import org.apache.pinot.segment.spi.memory.PinotDataBuffer;
 import org.apache.pinot.server.access.AccessControlFactory;
 import org.apache.pinot.server.api.AdminApiApplication;
@@ -596,6 +597,14 @@ public abstract class BaseServerStarter implements ServiceStartable {
     _serverInstance = new ServerInstance(serverConf, _helixManager, accessControlFactory);
     ServerMetrics serverMetrics = _serverInstance.getServerMetrics();
 
+    // Create the thread pool used to process the columns of the segments in parallel when preprocessing the segments.
+    // It is initialized after the server metrics are registered so that the gauge is reported with the server metrics.
+    SegmentPreProcessorThreadPool.init(
+        _serverConf.getProperty(Server.CONFIG_OF_SEGMENT_PREPROCESS_NUM_THREADS,
+            Server.DEFAULT_SEGMENT_PREPROCESS_NUM_THREADS),
+        _serverConf.getProperty(Server.CONFIG_OF_SEGMENT_PREPROCESS_MEMORY_BUDGET_BYTES,
+            Server.DEFAULT_SEGMENT_PREPROCESS_MEMORY_BUDGET_BYTES));
+
     InstanceDataManager instanceDataManager = _serverInstance.getInstanceDataManager();
     instanceDataManager.setSupplierOfIsServerReadyToServeQueries(() -> _isServerReadyToServeQueries);
     // initialize the thread accountant for query killing
@@ -722,6 +731,7 @@ public abstract class BaseServerStarter implements ServiceStartable {
     if (_realtimeLuceneIndexRefreshState != null) {
       _realtimeLuceneIndexRefreshState.stop();
     }
+    SegmentPreProcessorThreadPool.shutDown();
     try {
       // Close PinotFS after all data managers are shutdown. Otherwise, segments which are being committed will not
       // be uploaded to the deep-store.
@@ -20,6 +20,8 @@ package org.apache.pinot.spi.config.table;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import javax.annotation.Nullable;
 import org.apache.pinot.spi.config.BaseJsonConfig;
 
 public class DedupConfig extends BaseJsonConfig {
@@ -27,18 +29,34 @@ public class DedupConfig extends BaseJsonConfig {
   private final HashFunction _hashFunction;
   private final String _metadataManagerClass;
 
+  @JsonPropertyDescription("When larger than 0, use it for dedup metadata cleanup, it uses the same unit as the dedup "
+      + "time column. The metadata will be removed when the dedup time gets older than the current time minus metadata "
+      + "TTL. Only supported by metadata managers that track the dedup time.")
+  private final double _metadataTTL;
+
+  @JsonPropertyDescription("Column for the dedup time used for metadata TTL, defaults to the time column")
+  private final String _dedupTimeColumn;
+
   public DedupConfig(@JsonProperty(value = "dedupEnabled", required = true) boolean dedupEnabled,
       @JsonProperty(value = "hashFunction") HashFunction hashFunction) {
     this(dedupEnabled, hashFunction, null);
   }
+
+  public DedupConfig(boolean dedupEnabled, HashFunction hashFunction, String metadataManagerClass) {
+    this(dedupEnabled, hashFunction, metadataManagerClass, 0, null);
+  }
+
   @JsonCreator
   public DedupConfig(@JsonProperty(value = "dedupEnabled", required = true) boolean dedupEnabled,
       @JsonProperty(value = "hashFunction") HashFunction hashFunction,
-      @JsonProperty(value = "metadataManagerClass") String metadataManagerClass
-  ) {
+      @JsonProperty(value = "metadataManagerClass") String metadataManagerClass,
+      @JsonProperty(value = "metadataTTL") double metadataTTL,
+      @JsonProperty(value = "dedupTimeColumn") @Nullable String dedupTimeColumn) {
     _dedupEnabled = dedupEnabled;
     _hashFunction = hashFunction == null ? HashFunction.NONE : hashFunction;
     _metadataManagerClass = metadataManagerClass;
+    _metadataTTL = metadataTTL;
+    _dedupTimeColumn = dedupTimeColumn;
   }
 
   public HashFunction getHashFunction() {
@@ -52,4 +70,13 @@ public class DedupConfig extends BaseJsonConfig {
   public String getMetadataManagerClass() {
     return _metadataManagerClass;
   }
+
+  public double getMetadataTTL() {
+    return _metadataTTL;
+  }
+
+  @Nullable
+  public String getDedupTimeColumn() {
+    return _dedupTimeColumn;
+  }
 }
@@ -78,6 +78,12 @@ public class IndexingConfig extends BaseJsonConfig {
 
   private double _noDictionarySizeRatioThreshold = DEFAULT_NO_DICTIONARY_SIZE_RATIO_THRESHOLD;
 
+  /**
+   * Number of threads used to build the indexes of different columns in parallel during segment generation. Values less
+   * than 2 build the columns sequentially.
+   */
+  private int _numIndexCreationThreads;
+
   // TODO: Add a new configuration related to the segment generation
   private boolean _autoGeneratedInvertedIndex;
   private boolean _createInvertedIndexDuringSegmentGeneration;
@@ -377,6 +383,14 @@ public class IndexingConfig extends BaseJsonConfig {
     _noDictionarySizeRatioThreshold = noDictionarySizeRatioThreshold;
   }
 
+  public int getNumIndexCreationThreads() {
+    return _numIndexCreationThreads;
+  }
+
+  public void setNumIndexCreationThreads(int numIndexCreationThreads) {
+    _numIndexCreationThreads = numIndexCreationThreads;
+  }
+
   public String getSegmentNameGeneratorType() {
     return _segmentNameGeneratorType;
   }
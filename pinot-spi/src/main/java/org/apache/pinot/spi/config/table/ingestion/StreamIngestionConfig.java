@@ -40,6 +40,11 @@ public class StreamIngestionConfig extends BaseJsonConfig {
   @JsonPropertyDescription("Whether to track offsets of the filtered stream messages during consumption.")
   private boolean _trackFilteredMessageOffsets = false;
 
+  @JsonPropertyDescription("Number of threads per partition to decode and transform the stream messages ahead of "
+      + "indexing. The rows are still indexed in the message order on the consumer thread. Values less than 2 decode "
+      + "and transform the messages on the consumer thread.")
+  private int _numDecodeThreads = 1;
+
   @JsonCreator
   public StreamIngestionConfig(@JsonProperty("streamConfigMaps") List<Map<String, String>> streamConfigMaps) {
     _streamConfigMaps = streamConfigMaps;
@@ -64,4 +69,12 @@ public class StreamIngestionConfig extends BaseJsonConfig {
   public boolean isTrackFilteredMessageOffsets() {
     return _trackFilteredMessageOffsets;
   }
+
+  public int getNumDecodeThreads() {
+    return _numDecodeThreads;
+  }
+
+  public void setNumDecodeThreads(int numDecodeThreads) {
+    _numDecodeThreads = numDecodeThreads;
+  }
 }
@@ -47,11 +47,19 @@ public class StreamDataDecoderImpl implements StreamDataDecoder {
 
   @Override
   public StreamDataDecoderResult decode(StreamMessage message) {
+    _reuse.clear();
+    return decode(message, _reuse);
+  }
+
+  /**
+   * Decodes a {@link StreamMessage} into the given row. A new row should be passed for each message when the decoded
+   * rows are kept after decoding the next message, e.g. when the messages are decoded ahead of indexing.
+   */
+  public StreamDataDecoderResult decode(StreamMessage message, GenericRow destination) {
     assert message.getValue() != null;
 
     try {
-      _reuse.clear();
-      GenericRow row = _valueDecoder.decode(message.getValue(), 0, message.getLength(), _reuse);
+      GenericRow row = _valueDecoder.decode(message.getValue(), 0, message.getLength(), destination);
       if (row != null) {
         if (message.getKey() != null) {
           row.putValue(KEY, new String(message.getKey(), StandardCharsets.UTF_8));
@@ -240,6 +240,21 @@ public class CommonConstants {
     public static final double DEFAULT_BROKER_QUERY_LOG_MAX_RATE_PER_SECOND = 10_000d;
     public static final String CONFIG_OF_BROKER_TIMEOUT_MS = "pinot.broker.timeoutMs";
     public static final long DEFAULT_BROKER_TIMEOUT_MS = 10_000L;
+
+    // Configs for the query result cache, which is only used for the tables with result cache enabled in the table
+    // config. Results of real-time tables are served from the cache for at most the configured staleness.
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_MAX_SIZE_BYTES =
+        "pinot.broker.result.cache.max.size.bytes";
+    public static final String DEFAULT_BROKER_RESULT_CACHE_MAX_SIZE_BYTES = "64MB";
+    public static final String CONFIG_OF_BROKER_RESULT_CACHE_REALTIME_STALENESS_MS =
+        "pinot.broker.result.cache.realtime.staleness.ms";
+    public static final long DEFAULT_BROKER_RESULT_CACHE_REALTIME_STALENESS_MS = 10_000L;
+
+    // Max number of logical plans of the multi-stage queries cached on the broker, 0 (default) to disable the plan
+    // cache. Cached plans are invalidated on any schema or table config change.
+    public static final String CONFIG_OF_BROKER_MULTI_STAGE_PLAN_CACHE_MAX_SIZE =
+        "pinot.broker.multistage.plan.cache.max.size";
+    public static final long DEFAULT_BROKER_MULTI_STAGE_PLAN_CACHE_MAX_SIZE = 0L;
     public static final String CONFIG_OF_BROKER_ID = "pinot.broker.instance.id";
     public static final String CONFIG_OF_BROKER_INSTANCE_TAGS = "pinot.broker.instance.tags";
     public static final String CONFIG_OF_BROKER_HOSTNAME = "pinot.broker.hostname";
@@ -286,6 +301,9 @@ public class CommonConstants {
     public static final int DEFAULT_BROKER_GROUPBY_TRIM_THRESHOLD = 1_000_000;
     public static final String CONFIG_OF_BROKER_MIN_GROUP_TRIM_SIZE = "pinot.broker.min.group.trim.size";
     public static final int DEFAULT_BROKER_MIN_GROUP_TRIM_SIZE = 5000;
+    // Merge the server responses of GROUP BY queries as they arrive instead of after all the responses are received
+    public static final String CONFIG_OF_BROKER_ENABLE_INCREMENTAL_REDUCE = "pinot.broker.enable.incremental.reduce";
+    public static final boolean DEFAULT_BROKER_ENABLE_INCREMENTAL_REDUCE = false;
 
     // Configure the request handler type used by broker to handler inbound query request.
     // NOTE: the request handler type refers to the communication between Broker and Server.
@@ -359,6 +377,10 @@ public class CommonConstants {
         public static final String ROUTING_OPTIONS = "routingOptions";
         public static final String USE_SCAN_REORDER_OPTIMIZATION = "useScanReorderOpt";
         public static final String MAX_EXECUTION_THREADS = "maxExecutionThreads";
+        // When enabled, servers process the largest segments first, split large immutable segments into docId ranges
+        // processed in parallel, and pick the number of execution threads based on the current load of the query
+        // worker threads
+        public static final String ADAPTIVE_PARALLELISM = "adaptiveParallelism";
         public static final String MIN_SEGMENT_GROUP_TRIM_SIZE = "minSegmentGroupTrimSize";
         public static final String MIN_SERVER_GROUP_TRIM_SIZE = "minServerGroupTrimSize";
         public static final String MIN_BROKER_GROUP_TRIM_SIZE = "minBrokerGroupTrimSize";
@@ -387,7 +409,14 @@ public class CommonConstants {
         public static final String MULTI_STAGE_LEAF_LIMIT = "multiStageLeafLimit";
         public static final String NUM_GROUPS_LIMIT = "numGroupsLimit";
         public static final String MAX_INITIAL_RESULT_HOLDER_CAPACITY = "maxInitialResultHolderCapacity";
+        // When enabled, the multi-stage group-by spills partial aggregation states to local disk once the num groups
+        // limit is reached instead of dropping the new groups
+        public static final String ENABLE_GROUP_BY_SPILL = "enableGroupBySpill";
         public static final String GROUP_TRIM_THRESHOLD = "groupTrimThreshold";
+        // When enabled, the server combines the group-by results in per-thread hash partitions which are merged and
+        // trimmed partition by partition in parallel, instead of upserting all the results into one concurrent table.
+        // Only applies to group-by with order-by, where the trim threshold is split across the per-thread partitions.
+        public static final String PARTITIONED_GROUP_BY_COMBINE = "partitionedGroupByCombine";
         public static final String STAGE_PARALLELISM = "stageParallelism";
 
         public static final String IN_PREDICATE_PRE_SORTED = "inPredicatePreSorted";
@@ -398,6 +427,10 @@ public class CommonConstants {
         // Maximum number of pending results blocks allowed in the streaming operator
         public static final String MAX_STREAMING_PENDING_BLOCKS = "maxStreamingPendingBlocks";
 
+        // Transfer the multi-stage leaf stage results as columnar data blocks, so that the exchanges and the
+        // serialization operate on column vectors instead of rows
+        public static final String USE_COLUMNAR_DATA_BLOCK = "useColumnarDataBlock";
+
         // Handle JOIN Overflow
         public static final String MAX_ROWS_IN_JOIN = "maxRowsInJoin";
         public static final String JOIN_OVERFLOW_MODE = "joinOverflowMode";
@@ -406,6 +439,9 @@ public class CommonConstants {
         public static final String MAX_ROWS_IN_WINDOW = "maxRowsInWindow";
         public static final String WINDOW_OVERFLOW_MODE = "windowOverflowMode";
 
+        // Maximum number of rows the multi-stage sort keeps in memory before spilling sorted runs to local disk
+        public static final String MAX_ROWS_IN_SORT = "maxRowsInSort";
+
         // Indicates the maximum length of the serialized response per server for a query.
         public static final String MAX_SERVER_RESPONSE_SIZE_BYTES = "maxServerResponseSizeBytes";
 
@@ -415,6 +451,12 @@ public class CommonConstants {
 
         // If query submission causes an exception, still continue to submit the query to other servers
         public static final String SKIP_UNAVAILABLE_SERVERS = "skipUnavailableServers";
+
+        // Can be set to false to bypass the broker result cache and the server segment result cache
+        public static final String USE_RESULT_CACHE = "useResultCache";
+
+        // Can be set to false to bypass the broker plan cache for multi-stage queries
+        public static final String USE_PLAN_CACHE = "usePlanCache";
       }
 
       public static class QueryOptionValue {
@@ -603,6 +645,17 @@ public class CommonConstants {
         "pinot.server.query.executor.pruner.columnvaluesegmentpruner.inpredicate.threshold";
     public static final int DEFAULT_VALUE_PRUNER_IN_PREDICATE_THRESHOLD = 10;
 
+    // Configs for the server-wide thread pool used to process the columns of the segments in parallel when
+    // preprocessing the segments (e.g. adding new indexes on reload or server startup). The columns are processed
+    // sequentially when the number of threads is less than 2. The memory budget is shared by all the segments being
+    // preprocessed, and defaults to 25% of the max heap size when not positive.
+    public static final String CONFIG_OF_SEGMENT_PREPROCESS_NUM_THREADS =
+        "pinot.server.instance.segment.preprocess.num.threads";
+    public static final int DEFAULT_SEGMENT_PREPROCESS_NUM_THREADS = 1;
+    public static final String CONFIG_OF_SEGMENT_PREPROCESS_MEMORY_BUDGET_BYTES =
+        "pinot.server.instance.segment.preprocess.memory.budget.bytes";
+    public static final long DEFAULT_SEGMENT_PREPROCESS_MEMORY_BUDGET_BYTES = 0L;
+
     /**
      * Service token for accessing protected controller APIs.
      * E.g. null (auth disabled), "Basic abcdef..." (basic auth), "Bearer 123def..." (oauth2)
@@ -1139,9 +1192,16 @@ public class CommonConstants {
     public static final String KEY_OF_JOIN_OVERFLOW_MODE = "pinot.query.join.overflow.mode";
 
     public enum JoinOverFlowMode {
-      THROW, BREAK
+      THROW, BREAK, SPILL
     }
 
+    /**
+     * Configuration for the local directory where the multi-stage operators spill intermediate data once their
+     * in-memory limit is reached. Defaults to a sub-directory of the JVM temp directory.
+     */
+    public static final String KEY_OF_SPILL_DIR = "pinot.query.runner.spill.dir";
+    public static final String DEFAULT_SPILL_DIR_NAME = "pinot-query-spill";
+
     /**
      * Configuration for window overflow.
      */
@@ -1152,6 +1212,21 @@ public class CommonConstants {
       THROW, BREAK
     }
 
+    /**
+     * Configuration for the maximum number of rows the multi-stage sort keeps in memory. Once reached, the rows are
+     * spilled as sorted runs to the spill directory and merged at the end. Not set by default, i.e. no spilling.
+     */
+    public static final String KEY_OF_MAX_ROWS_IN_SORT = "pinot.query.sort.max.rows";
+
+    /**
+     * Configuration for the cooperative OpChain scheduling. When enabled, the OpChains yield the thread instead of
+     * blocking when no input data is available, and are resumed once new data arrives. They run on a fixed size pool
+     * (one thread per core by default) instead of a cached thread pool with one thread per running OpChain.
+     */
+    public static final String KEY_OF_COOPERATIVE_SCHEDULING = "pinot.query.runner.cooperative.scheduling";
+    public static final boolean DEFAULT_COOPERATIVE_SCHEDULING = false;
+    public static final String KEY_OF_NUM_COOPERATIVE_THREADS = "pinot.query.runner.cooperative.num.threads";
+
     /**
      * Constants related to plan versions.
      */